@@ -0,0 +1,64 @@
+package org.cohere.od;
+
+import java.util.List;
+import lombok.NonNull;
+import org.cohere.od.cache.OdCacheKey;
+import org.cohere.od.cache.OdResultCache;
+import org.cohere.od.models.StateAndCovariance;
+import org.orekit.estimation.measurements.ObservedMeasurement;
+import org.orekit.propagation.SpacecraftState;
+
+/**
+ * An {@link OdProcessor} serving repeated requests from an {@link OdResultCache}.
+ * <p>
+ * Requests are identified by the content of the initial state, the measurements and the
+ * configuration of the delegate processor, so resubmitting an identical request returns the
+ * cached result without running the OD again.
+ */
+public class CachingOdProcessor implements OdProcessor {
+
+  private final OdResultCache cache;
+  private final String configuration;
+  private final OdProcessor delegate;
+
+  /**
+   * Constructor.
+   *
+   * @param delegate      The processor computing the results on a cache miss.
+   * @param configuration A description of the configuration of the delegate. Processors with
+   *                      different configurations must use different descriptions.
+   * @param cache         The result cache.
+   */
+  public CachingOdProcessor(@NonNull OdProcessor delegate, @NonNull String configuration,
+      @NonNull OdResultCache cache) {
+    this.cache = cache;
+    this.configuration = configuration;
+    this.delegate = delegate;
+  }
+
+  /**
+   * Constructor for a {@link RaDecOdProcessor}, using the description of its configuration, see
+   * {@link RaDecOdProcessor#describeConfiguration()}.
+   *
+   * @param delegate The processor computing the results on a cache miss.
+   * @param cache    The result cache.
+   */
+  public CachingOdProcessor(@NonNull RaDecOdProcessor delegate, @NonNull OdResultCache cache) {
+    this(delegate, delegate.describeConfiguration(), cache);
+  }
+
+  /**
+   * Returns the cached result of an identical request, or performs the OD with the delegate.
+   *
+   * @param initialState The initial state of the spacecraft.
+   * @param measurements The set of measurements to use.
+   * @return The estimated state and covariance.
+   */
+  @Override
+  public StateAndCovariance processMeasurements(@NonNull SpacecraftState initialState,
+      @NonNull List<ObservedMeasurement<?>> measurements) {
+    String key = OdCacheKey.compute(initialState, measurements, configuration);
+    return cache.get(key, () -> delegate.processMeasurements(initialState, measurements));
+  }
+
+}
@@ -0,0 +1,202 @@
+package org.cohere.od;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+import lombok.NonNull;
+import lombok.extern.log4j.Log4j2;
+import org.cohere.od.models.MultiStartResult;
+import org.cohere.od.models.MultiStartResult.HypothesisOutcome;
+import org.cohere.od.models.MultiStartResult.Status;
+import org.cohere.od.models.MultiStartSettings;
+import org.cohere.od.models.OdSettings;
+import org.cohere.od.models.OdSolution;
+import org.cohere.od.models.StateAndCovariance;
+import org.cohere.od.observer.CancellationObserver;
+import org.hipparchus.geometry.euclidean.threed.Vector3D;
+import org.hipparchus.random.RandomDataGenerator;
+import org.orekit.estimation.measurements.ObservedMeasurement;
+import org.orekit.orbits.CartesianOrbit;
+import org.orekit.propagation.SpacecraftState;
+import org.orekit.utils.PVCoordinates;
+import org.orekit.utils.TimeStampedPVCoordinates;
+
+/**
+ * An {@link OdProcessor} running a {@link RaDecOdProcessor} concurrently from several initial
+ * hypotheses and keeping the best solution.
+ * <p>
+ * The first hypothesis is the given initial state, the others are Gaussian perturbations of it.
+ * As soon as one hypothesis converges with an acceptable RMS the others are cancelled, so the time
+ * to solution is bounded by the fastest acceptable hypothesis. Cancelled hypotheses stop at their
+ * next estimator evaluation.
+ */
+@Log4j2
+public class MultiStartOdProcessor implements OdProcessor {
+
+  private final ExecutorService executor;
+  private final MultiStartSettings multiStartSettings;
+  private final RaDecOdProcessor processor;
+
+  /**
+   * Constructor.
+   *
+   * @param settings           The OD settings used for each hypothesis.
+   * @param multiStartSettings The multi-start settings.
+   * @param executor           The executor running the hypotheses. It is owned by the caller.
+   */
+  public MultiStartOdProcessor(@NonNull OdSettings settings,
+      @NonNull MultiStartSettings multiStartSettings, @NonNull ExecutorService executor) {
+    this.executor = executor;
+    this.multiStartSettings = multiStartSettings;
+    this.processor = new RaDecOdProcessor(settings);
+  }
+
+  /**
+   * Perform a multi-start OD and return the best state and covariance.
+   *
+   * @param initialState The initial state of the spacecraft.
+   * @param measurements The set of measurements to use.
+   * @return The best estimated state and covariance.
+   */
+  @Override
+  public StateAndCovariance processMeasurements(@NonNull SpacecraftState initialState,
+      @NonNull List<ObservedMeasurement<?>> measurements) {
+    return processMultiStart(initialState, measurements).getSolution().getStateAndCovariance();
+  }
+
+  /**
+   * Perform a multi-start OD from the initial state and its perturbations.
+   *
+   * @param initialState The initial state of the spacecraft.
+   * @param measurements The set of measurements to use.
+   * @return The best solution and the outcome of every hypothesis.
+   */
+  public MultiStartResult processMultiStart(@NonNull SpacecraftState initialState,
+      @NonNull List<ObservedMeasurement<?>> measurements) {
+    return processHypotheses(createHypotheses(initialState), measurements);
+  }
+
+  /**
+   * Perform a multi-start OD from the given initial hypotheses.
+   *
+   * @param hypotheses   The initial states to start from.
+   * @param measurements The set of measurements to use.
+   * @return The best solution and the outcome of every hypothesis.
+   */
+  public MultiStartResult processHypotheses(@NonNull List<SpacecraftState> hypotheses,
+      @NonNull List<ObservedMeasurement<?>> measurements) {
+
+    if (hypotheses.isEmpty()) {
+      throw new IllegalArgumentException("Must provide at least 1 hypothesis.");
+    }
+
+    long start = System.nanoTime();
+    AtomicBoolean isAccepted = new AtomicBoolean(false);
+    CompletionService<OdSolution> completionService = new ExecutorCompletionService<>(executor);
+    Map<Future<OdSolution>, Integer> futures = new HashMap<>();
+    for (int i = 0; i < hypotheses.size(); i++) {
+      SpacecraftState hypothesis = hypotheses.get(i);
+      // Each estimator sorts its measurement list, so give each hypothesis its own copy.
+      List<ObservedMeasurement<?>> hypothesisMeasurements = new ArrayList<>(measurements);
+      futures.put(completionService.submit(() -> processor.estimate(hypothesis,
+          hypothesisMeasurements, null, new CancellationObserver(isAccepted::get))), i);
+    }
+
+    HypothesisOutcome[] outcomes = new HypothesisOutcome[hypotheses.size()];
+    OdSolution best = null;
+    int bestIndex = -1;
+    for (int n = 0; n < hypotheses.size(); n++) {
+
+      Future<OdSolution> future;
+      try {
+        future = completionService.take();
+      } catch (InterruptedException ex) {
+        futures.keySet().forEach(f -> f.cancel(true));
+        Thread.currentThread().interrupt();
+        throw new IllegalStateException("Interrupted while waiting for multi-start OD.");
+      }
+
+      int index = futures.get(future);
+      try {
+        OdSolution solution = future.get();
+        if (!solution.isConverged()) {
+          outcomes[index] = new HypothesisOutcome(index, Status.NOT_CONVERGED, solution.getRms(),
+              solution.getIterations(), String.valueOf(solution.getStatus()));
+          continue;
+        }
+        outcomes[index] = new HypothesisOutcome(index, Status.CONVERGED, solution.getRms(),
+            solution.getIterations(), null);
+        if (best == null || solution.getRms() < best.getRms()) {
+          best = solution;
+          bestIndex = index;
+        }
+        if (solution.getRms() <= multiStartSettings.getAcceptableRms()
+            && !isAccepted.getAndSet(true)) {
+          log.debug("Hypothesis {} accepted with RMS {}, cancelling the others.", index,
+              solution.getRms());
+          futures.keySet().forEach(f -> f.cancel(true));
+        }
+      } catch (CancellationException ex) {
+        outcomes[index] = new HypothesisOutcome(index, Status.CANCELLED, Double.NaN, 0, null);
+      } catch (ExecutionException ex) {
+        Status status = ex.getCause() instanceof CancellationException ? Status.CANCELLED
+            : Status.FAILED;
+        outcomes[index] = new HypothesisOutcome(index, status, Double.NaN, 0,
+            ex.getCause().getMessage());
+      } catch (InterruptedException ex) {
+        // Cannot happen: the future returned by the completion service is already done.
+        Thread.currentThread().interrupt();
+        throw new IllegalStateException("Interrupted while reading multi-start OD result.");
+      }
+    }
+
+    List<HypothesisOutcome> outcomeList = Arrays.asList(outcomes);
+    if (best == null) {
+      throw new IllegalStateException("Failed to execute OD from all " + hypotheses.size()
+          + " hypotheses: " + outcomeList.stream().map(HypothesisOutcome::getMessage)
+          .collect(Collectors.joining("; ")));
+    }
+    return new MultiStartResult(best, bestIndex, outcomeList, System.nanoTime() - start);
+  }
+
+  /**
+   * Creates the initial hypotheses: the initial state followed by Gaussian perturbations of its
+   * position and velocity.
+   *
+   * @param initialState The initial state of the spacecraft.
+   * @return The initial hypotheses.
+   */
+  public List<SpacecraftState> createHypotheses(@NonNull SpacecraftState initialState) {
+
+    RandomDataGenerator random = new RandomDataGenerator(multiStartSettings.getSeed());
+    TimeStampedPVCoordinates pv = initialState.getPVCoordinates();
+
+    List<SpacecraftState> hypotheses = new ArrayList<>();
+    hypotheses.add(initialState);
+    for (int i = 1; i < multiStartSettings.getHypothesisCount(); i++) {
+      Vector3D dp = nextGaussianVector(random, multiStartSettings.getPositionSigma());
+      Vector3D dv = nextGaussianVector(random, multiStartSettings.getVelocitySigma());
+      TimeStampedPVCoordinates perturbed = new TimeStampedPVCoordinates(pv.getDate(),
+          new PVCoordinates(pv.getPosition().add(dp), pv.getVelocity().add(dv)));
+      hypotheses.add(new SpacecraftState(new CartesianOrbit(perturbed, initialState.getFrame(),
+          initialState.getMu()), initialState.getMass()));
+    }
+    return hypotheses;
+  }
+
+  private static Vector3D nextGaussianVector(RandomDataGenerator random, double sigma) {
+    return new Vector3D(random.nextNormal(0.0, sigma), random.nextNormal(0.0, sigma),
+        random.nextNormal(0.0, sigma));
+  }
+
+}
@@ -1,14 +1,31 @@
 package org.cohere.od;
 
+import java.util.Arrays;
 import java.util.List;
 import lombok.NonNull;
 import lombok.extern.log4j.Log4j2;
+import org.cohere.od.cache.GeometryCache;
+import org.cohere.od.cache.SharedDataContext;
+import org.cohere.od.estimation.ProgressiveSubsampler;
+import org.cohere.od.estimation.StreamingBatchLSEstimator;
+import org.cohere.od.jfr.CovarianceEvent;
+import org.cohere.od.jfr.OdJobEvent;
+import org.cohere.od.jfr.PropagatorBuildEvent;
+import org.cohere.od.models.OdSettings;
+import org.cohere.od.models.OdSolution;
+import org.cohere.od.models.OdStatus;
 import org.cohere.od.models.StateAndCovariance;
+import org.cohere.od.models.SubsamplingReport;
+import org.cohere.od.observer.AnytimeObserver;
+import org.cohere.od.observer.EstimationStoppedException;
+import org.cohere.od.utils.CovarianceUtils;
 import org.cohere.od.utils.EstimatorFactory;
+import org.cohere.od.utils.OdEpochStrategy;
 import org.cohere.od.utils.PropagatorFactory;
 import org.hipparchus.linear.RealMatrix;
 import org.orekit.errors.OrekitException;
 import org.orekit.estimation.leastsquares.BatchLSEstimator;
+import org.orekit.estimation.leastsquares.BatchLSObserver;
 import org.orekit.estimation.measurements.ObservedMeasurement;
 import org.orekit.orbits.OrbitType;
 import org.orekit.orbits.PositionAngle;
@@ -16,6 +33,7 @@ import org.orekit.propagation.Propagator;
 import org.orekit.propagation.SpacecraftState;
 import org.orekit.propagation.StateCovariance;
 import org.orekit.propagation.conversion.OrbitDeterminationPropagatorBuilder;
+import org.orekit.time.AbsoluteDate;
 
 /**
  * An {@link OdProcessor} to process right ascension and declination measurements using a batch
@@ -24,52 +42,255 @@ import org.orekit.propagation.conversion.OrbitDeterminationPropagatorBuilder;
 @Log4j2
 public class RaDecOdProcessor implements OdProcessor {
 
+  private final OdSettings settings;
+  private final GeometryCache geometryCache;
+  private final SharedDataContext dataContext;
+
   /**
-   * Default constructor.
+   * Default constructor. The OD is performed at the epoch of the final measurement.
    */
   public RaDecOdProcessor() {
-    // Do nothing.
+    this(OdSettings.DEFAULT);
+  }
+
+  /**
+   * Constructor.
+   *
+   * @param epochStrategy The strategy used to select the epoch at which the OD is performed.
+   */
+  public RaDecOdProcessor(@NonNull OdEpochStrategy epochStrategy) {
+    this(OdSettings.builder().epochStrategy(epochStrategy).build());
+  }
+
+  /**
+   * Constructor.
+   *
+   * @param settings The OD settings.
+   */
+  public RaDecOdProcessor(@NonNull OdSettings settings) {
+    this(settings, (GeometryCache) null);
+  }
+
+  /**
+   * Constructor.
+   *
+   * @param settings      The OD settings.
+   * @param geometryCache The cache of the Sun, Moon and Earth orientation shared with other ODs, or
+   *                      null to compute them directly. It is owned by the caller. Measurements from
+   *                      stations created by the cache also share its Earth orientation.
+   */
+  public RaDecOdProcessor(@NonNull OdSettings settings, GeometryCache geometryCache) {
+    this.settings = settings;
+    this.geometryCache = geometryCache;
+    this.dataContext = null;
+  }
+
+  /**
+   * Constructor.
+   *
+   * @param settings    The OD settings.
+   * @param dataContext The data shared with other ODs: gravity field, Earth orientation and Sun and
+   *                    Moon. It is owned by the caller. Measurements from stations created by the
+   *                    context also share its Earth orientation.
+   */
+  public RaDecOdProcessor(@NonNull OdSettings settings, @NonNull SharedDataContext dataContext) {
+    this.settings = settings;
+    this.geometryCache = dataContext.getGeometryCache();
+    this.dataContext = dataContext;
+  }
+
+  /**
+   * Gets the settings of this processor.
+   *
+   * @return The OD settings.
+   */
+  public OdSettings getSettings() {
+    return settings;
+  }
+
+  /**
+   * Describes the configuration of this processor that affects the estimate: its settings and
+   * whether it reads the data of a shared data context. The executors and caches are left out.
+   *
+   * @return The description, stable across calls and JVMs.
+   */
+  public String describeConfiguration() {
+    return RaDecOdProcessor.class.getSimpleName() + "(" + settings.describeEstimate()
+        + ", dataContext=" + (dataContext == null ? "global" : "shared") + ")";
   }
 
   /**
    * Given the initial state and set of measurements, perform a batch least-squares orbit
-   * determination (OD) to obtain a state and covariance at the epoch of the final measurement.
+   * determination (OD) to obtain a state and covariance at the epoch selected by the
+   * {@link OdEpochStrategy} of the settings of this processor.
    *
    * @param initialState The initial state of the spacecraft.
    * @param measurements The set of measurements to use.
-   * @return The estimate state and covariance of the spacecraft at the epoch of the final
-   * measurement.
+   * @return The estimate state and covariance of the spacecraft at the OD epoch.
    */
   @Override
   public StateAndCovariance processMeasurements(@NonNull SpacecraftState initialState,
       @NonNull List<ObservedMeasurement<?>> measurements) {
+    return processMeasurements(initialState, measurements, null);
+  }
+
+  /**
+   * Given the initial state and set of measurements, perform a batch least-squares orbit
+   * determination (OD) and map the resulting state and covariance to the requested output epoch.
+   *
+   * @param initialState The initial state of the spacecraft.
+   * @param measurements The set of measurements to use.
+   * @param outputEpoch  The epoch of the returned state and covariance, or null to return them at
+   *                     the OD epoch.
+   * @return The estimate state and covariance of the spacecraft at the output epoch.
+   * @throws IllegalStateException if the OD did not converge within the budget of the settings.
+   *                               Use {@link #estimate} to get the best solution found instead.
+   */
+  public StateAndCovariance processMeasurements(@NonNull SpacecraftState initialState,
+      @NonNull List<ObservedMeasurement<?>> measurements, AbsoluteDate outputEpoch) {
+    OdSolution solution = estimate(initialState, measurements, outputEpoch);
+    if (!solution.isConverged()) {
+      throw new IllegalStateException("Failed to execute OD: " + solution.getStatus()
+          + " with RMS " + solution.getRms());
+    }
+    return solution.getStateAndCovariance();
+  }
+
+  /**
+   * Given the initial state and set of measurements, perform a batch least-squares orbit
+   * determination (OD) and return the solution with the estimator diagnostics.
+   * <p>
+   * When the settings set a budget, an OD that exhausts it or diverges returns the best solution
+   * found so far, with its covariance, flagged by its {@link OdSolution#getStatus() status}.
+   *
+   * @param initialState The initial state of the spacecraft.
+   * @param measurements The set of measurements to use.
+   * @param outputEpoch  The epoch of the returned state and covariance, or null to return them at
+   *                     the OD epoch.
+   * @param observers    Additional observers notified after each estimator evaluation.
+   * @return The OD solution at the output epoch.
+   */
+  public OdSolution estimate(@NonNull SpacecraftState initialState,
+      @NonNull List<ObservedMeasurement<?>> measurements, AbsoluteDate outputEpoch,
+      BatchLSObserver... observers) {
 
     if (measurements.isEmpty()) {
       throw new IllegalArgumentException("Must provide at least 1 measurement.");
     }
 
-    // Create the estimator
-    OrbitDeterminationPropagatorBuilder propagatorBuilder =
-        PropagatorFactory.createDefaultPropagatorBuilder(initialState);
-    BatchLSEstimator estimator =
-        EstimatorFactory.createBatchLsEstimator(propagatorBuilder, measurements);
+    OdJobEvent jobEvent = new OdJobEvent();
+    jobEvent.start(measurements.size(), settings.getEpochStrategy());
+    try {
+      OdSolution solution = runEstimation(initialState, measurements, outputEpoch, observers);
+      if (solution.isConverged()) {
+        jobEvent.converged(solution.getIterations(), solution.getEvaluations(),
+            solution.getRms());
+      } else {
+        jobEvent.stopped(solution.getStatus(), solution.getIterations(),
+            solution.getEvaluations(), solution.getRms());
+      }
+      return solution;
+    } finally {
+      jobEvent.commit();
+    }
+  }
+
+  private OdSolution runEstimation(SpacecraftState initialState,
+      List<ObservedMeasurement<?>> measurements, AbsoluteDate outputEpoch,
+      BatchLSObserver[] observers) {
 
-    // Execute the OD.
+    // Start the budget before any propagation.
+    AnytimeObserver anytimeObserver = null;
+    if (settings.isBudgeted()) {
+      anytimeObserver = EstimatorFactory.createAnytimeObserver(settings);
+      observers = Arrays.copyOf(observers, observers.length + 1);
+      observers[observers.length - 1] = anytimeObserver;
+    }
+
+    // Create the propagator builder
+    PropagatorBuildEvent buildEvent = new PropagatorBuildEvent(
+        settings.isRegimeAwareForceModels());
+    buildEvent.begin();
+    OrbitDeterminationPropagatorBuilder propagatorBuilder;
+    if (dataContext != null) {
+      propagatorBuilder = settings.isRegimeAwareForceModels()
+          ? PropagatorFactory.createRegimePropagatorBuilder(initialState, dataContext)
+          : PropagatorFactory.createDefaultPropagatorBuilder(initialState, dataContext);
+    } else {
+      propagatorBuilder = settings.isRegimeAwareForceModels()
+          ? PropagatorFactory.createRegimePropagatorBuilder(initialState, geometryCache)
+          : PropagatorFactory.createDefaultPropagatorBuilder(initialState, geometryCache);
+    }
+    buildEvent.commit();
+
+    // Create the estimator and execute the OD.
     Propagator estimatedPropagator;
+    RealMatrix physicalCovariance;
+    double rms;
+    int iterations;
+    int evaluations;
+    OdStatus status = OdStatus.CONVERGED;
+    SubsamplingReport subsampling = null;
     try {
-      estimatedPropagator = estimator.estimate()[0];
+      if (settings.getSubsamplingSchedule() != null) {
+        subsampling = ProgressiveSubsampler.presolve(propagatorBuilder, measurements, settings);
+      }
+      if (settings.isStreamedNormalEquations()) {
+        StreamingBatchLSEstimator estimator = EstimatorFactory.createStreamingEstimator(
+            propagatorBuilder, measurements, settings, observers);
+        estimatedPropagator = estimator.estimate();
+        physicalCovariance = estimator.getPhysicalCovariances(Double.MIN_VALUE);
+        rms = estimator.getOptimum().getRMS();
+        iterations = estimator.getIterationsCount();
+        evaluations = estimator.getEvaluationsCount();
+      } else {
+        BatchLSEstimator estimator = EstimatorFactory.createBatchLsEstimator(propagatorBuilder,
+            measurements, settings, observers);
+        estimatedPropagator = estimator.estimate()[0];
+        physicalCovariance = estimator.getPhysicalCovariances(Double.MIN_VALUE);
+        rms = estimator.getOptimum().getRMS();
+        iterations = estimator.getIterationsCount();
+        evaluations = estimator.getEvaluationsCount();
+      }
+    } catch (EstimationStoppedException ex) {
+      // Only the anytime observer stops the estimation, so it is set.
+      if (anytimeObserver.getBestPropagationParameters() == null) {
+        throw new IllegalStateException("Failed to execute OD: " + ex.getMessage());
+      }
+      estimatedPropagator = propagatorBuilder.buildPropagator(
+          anytimeObserver.getBestPropagationParameters());
+      physicalCovariance = anytimeObserver.getBestCovariance();
+      rms = anytimeObserver.getBestRms();
+      iterations = anytimeObserver.getIterations();
+      evaluations = anytimeObserver.getEvaluations();
+      status = ex.getStatus();
     } catch (OrekitException ex) {
       throw new IllegalStateException("Failed to execute OD: " + ex.getMessage());
     }
 
+    if (subsampling != null) {
+      subsampling = subsampling.withFinalEvaluations(evaluations);
+      log.info("Subsampling: {} evaluations of {} subsets, then {} full-data evaluations of {} "
+              + "measurements, {} measurement evaluations in total.",
+          subsampling.getStageEvaluations(), subsampling.getStages(),
+          subsampling.getFinalEvaluations(), subsampling.getMeasurementCount(),
+          subsampling.getMeasurementEvaluations());
+    }
+
+    CovarianceEvent covarianceEvent = new CovarianceEvent(outputEpoch != null);
+    covarianceEvent.begin();
     SpacecraftState estimatedState = estimatedPropagator.getInitialState();
-    RealMatrix finalCovarianceMatrix = estimator.getPhysicalCovariances(Double.MIN_VALUE)
-        .getSubMatrix(0, 5, 0, 5);
+    RealMatrix finalCovarianceMatrix = physicalCovariance.getSubMatrix(0, 5, 0, 5);
     StateCovariance estimatedCovariance = new StateCovariance(finalCovarianceMatrix,
         estimatedState.getDate(), estimatedState.getFrame(), OrbitType.CARTESIAN,
         PositionAngle.MEAN);
 
-    return new StateAndCovariance(estimatedCovariance, estimatedState);
+    StateAndCovariance estimated = new StateAndCovariance(estimatedCovariance, estimatedState);
+    if (outputEpoch != null) {
+      estimated = CovarianceUtils.propagate(estimatedPropagator, estimated, outputEpoch);
+    }
+    covarianceEvent.commit();
+    return new OdSolution(estimated, rms, iterations, evaluations, status, subsampling);
   }
 
 }
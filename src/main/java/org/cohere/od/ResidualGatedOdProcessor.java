@@ -0,0 +1,263 @@
+package org.cohere.od;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+import lombok.NonNull;
+import lombok.extern.log4j.Log4j2;
+import org.cohere.od.models.GatedOdResult;
+import org.cohere.od.models.GatedOdResult.Decision;
+import org.cohere.od.models.ResidualGateMetrics;
+import org.cohere.od.models.ResidualGateSettings;
+import org.cohere.od.models.StateAndCovariance;
+import org.cohere.od.utils.PropagatorFactory;
+import org.hipparchus.distribution.continuous.ChiSquaredDistribution;
+import org.hipparchus.linear.Array2DRowRealMatrix;
+import org.hipparchus.linear.ArrayRealVector;
+import org.hipparchus.linear.CholeskyDecomposition;
+import org.hipparchus.linear.EigenDecomposition;
+import org.hipparchus.linear.MatrixUtils;
+import org.hipparchus.linear.RealMatrix;
+import org.hipparchus.linear.RealVector;
+import org.hipparchus.util.FastMath;
+import org.orekit.estimation.measurements.EstimatedMeasurement;
+import org.orekit.estimation.measurements.ObservedMeasurement;
+import org.orekit.orbits.Orbit;
+import org.orekit.orbits.OrbitType;
+import org.orekit.orbits.PositionAngle;
+import org.orekit.propagation.MatricesHarvester;
+import org.orekit.propagation.SpacecraftState;
+import org.orekit.propagation.StateCovariance;
+import org.orekit.propagation.numerical.NumericalPropagator;
+import org.orekit.time.AbsoluteDate;
+import org.orekit.utils.ParameterDriver;
+
+/**
+ * Updates an orbit with new measurements, running the full OD only when they disagree with it.
+ * <p>
+ * The current state and covariance are propagated with their state transition matrix to the new
+ * measurements, and the residuals are tested with the Mahalanobis statistic
+ * {@code r^T (H P H^T + R)^-1 r}, where {@code H} maps the current state to all the new
+ * measurements, {@code P} is the current covariance and {@code R} the measurement noise. The
+ * statistic accounts for the correlation of the residuals through the orbit error, and is
+ * chi-squared distributed with one degree of freedom per measurement component when the new
+ * measurements agree with the orbit.
+ * <p>
+ * When the statistic is within the gate and the predicted position uncertainty within the maximum,
+ * the current orbit is returned and the pass is only counted; otherwise the full OD is run. The
+ * check costs a single propagation, where the OD costs one per iteration.
+ */
+@Log4j2
+public class ResidualGatedOdProcessor {
+
+  private static final String STM_NAME = "stm";
+  private static final int STATE_DIMENSION = 6;
+  private static final double MIN_INTEGRATOR_STEP = 0.001;
+  private static final double MAX_INTEGRATOR_STEP = 300.0;
+
+  private final ResidualGateSettings settings;
+  private final OdProcessor processor;
+  private final LongAdder updates = new LongAdder();
+  private final LongAdder consistent = new LongAdder();
+  private final LongAdder inconsistent = new LongAdder();
+  private final LongAdder covarianceGrown = new LongAdder();
+  private final LongAdder recordedMeasurements = new LongAdder();
+
+  /**
+   * Constructor.
+   *
+   * @param settings  The gate settings.
+   * @param processor The processor running the full OD.
+   */
+  public ResidualGatedOdProcessor(@NonNull ResidualGateSettings settings,
+      @NonNull OdProcessor processor) {
+    this.settings = settings;
+    this.processor = processor;
+  }
+
+  /**
+   * Updates an orbit with new measurements, running the full OD on the new measurements if they
+   * disagree with it.
+   *
+   * @param current         The current state and covariance, such as the last OD result.
+   * @param newMeasurements The new measurements.
+   * @return The update result.
+   */
+  public GatedOdResult update(@NonNull StateAndCovariance current,
+      @NonNull List<ObservedMeasurement<?>> newMeasurements) {
+    return update(current, newMeasurements, newMeasurements);
+  }
+
+  /**
+   * Updates an orbit with new measurements, running the full OD on the given measurements if they
+   * disagree with it.
+   *
+   * @param current         The current state and covariance, such as the last OD result.
+   * @param newMeasurements The new measurements, checked against the current orbit.
+   * @param odMeasurements  The measurements of the full OD, such as the new measurements and the
+   *                        previous ones still in the fit span.
+   * @return The update result.
+   */
+  public GatedOdResult update(@NonNull StateAndCovariance current,
+      @NonNull List<ObservedMeasurement<?>> newMeasurements,
+      @NonNull List<ObservedMeasurement<?>> odMeasurements) {
+
+    if (newMeasurements.isEmpty()) {
+      throw new IllegalArgumentException("Must provide at least 1 measurement.");
+    }
+
+    long start = System.nanoTime();
+    Check check = check(current, newMeasurements);
+    double threshold = new ChiSquaredDistribution(check.degreesOfFreedom)
+        .inverseCumulativeProbability(settings.getGateProbability());
+
+    Decision decision;
+    if (check.positionSigma > settings.getMaxPositionSigma()) {
+      decision = Decision.COVARIANCE_GROWN;
+    } else if (check.statistic > threshold) {
+      decision = Decision.INCONSISTENT;
+    } else {
+      decision = Decision.CONSISTENT;
+    }
+
+    updates.increment();
+    StateAndCovariance solution;
+    switch (decision) {
+      case CONSISTENT:
+        consistent.increment();
+        recordedMeasurements.add(newMeasurements.size());
+        solution = current;
+        break;
+      case INCONSISTENT:
+        inconsistent.increment();
+        solution = processor.processMeasurements(current.getState(), odMeasurements);
+        break;
+      default:
+        covarianceGrown.increment();
+        solution = processor.processMeasurements(current.getState(), odMeasurements);
+        break;
+    }
+    log.debug("Gated update: {} with statistic {} for gate {}, position sigma {} m", decision,
+        check.statistic, threshold, check.positionSigma);
+
+    return new GatedOdResult(solution, decision, check.statistic, check.degreesOfFreedom,
+        threshold, check.positionSigma, System.nanoTime() - start);
+  }
+
+  /**
+   * Gets a snapshot of the update counters.
+   *
+   * @return The gate metrics.
+   */
+  public ResidualGateMetrics getMetrics() {
+    return new ResidualGateMetrics(updates.sum(), consistent.sum(), inconsistent.sum(),
+        covarianceGrown.sum(), recordedMeasurements.sum());
+  }
+
+  private Check check(StateAndCovariance current, List<ObservedMeasurement<?>> measurements) {
+
+    SpacecraftState state = current.getState();
+    Orbit orbit = state.getOrbit();
+    StateCovariance covariance = current.getCovariance();
+    if (!covariance.getDate().isEqualTo(state.getDate())) {
+      throw new IllegalArgumentException("The covariance must be at the date of the state.");
+    }
+    RealMatrix initialCovariance = covariance
+        .changeCovarianceFrame(orbit, state.getFrame())
+        .changeCovarianceType(orbit, OrbitType.CARTESIAN, PositionAngle.MEAN)
+        .getMatrix();
+
+    List<ObservedMeasurement<?>> sorted = new ArrayList<>();
+    int rows = 0;
+    for (ObservedMeasurement<?> measurement : measurements) {
+      if (measurement.isEnabled()) {
+        sorted.add(measurement);
+        rows += measurement.getDimension();
+      }
+    }
+    if (sorted.isEmpty()) {
+      throw new IllegalArgumentException("Must provide at least 1 enabled measurement.");
+    }
+    sorted.sort(Comparator.comparing(ObservedMeasurement::getDate));
+
+    NumericalPropagator propagator = PropagatorFactory.createPropagator(state,
+        PropagatorFactory.createForceModels(settings.getForceModelProfile()),
+        PropagatorFactory.createIntegratorBuilder(MIN_INTEGRATOR_STEP, MAX_INTEGRATOR_STEP,
+            settings.getPositionError()));
+    MatricesHarvester harvester = propagator.setupMatricesComputation(STM_NAME, null, null);
+
+    // Sensitivity of every measurement component to the current state, and the residuals.
+    RealMatrix sensitivity = new Array2DRowRealMatrix(rows, STATE_DIMENSION);
+    RealVector residuals = new ArrayRealVector(rows);
+    double[] noise = new double[rows];
+    RealMatrix lastTransition = null;
+    int row = 0;
+    for (ObservedMeasurement<?> measurement : sorted) {
+      SpacecraftState predicted = propagator.propagate(measurement.getDate());
+      lastTransition = harvester.getStateTransitionMatrix(predicted);
+      setReferenceDates(measurement, state.getDate());
+      EstimatedMeasurement<?> estimated = measurement.estimate(0, 0,
+          new SpacecraftState[]{predicted});
+      RealMatrix partials = MatrixUtils.createRealMatrix(estimated.getStateDerivatives(0))
+          .multiply(lastTransition);
+      double[] observed = measurement.getObservedValue();
+      double[] value = estimated.getEstimatedValue();
+      double[] sigma = measurement.getTheoreticalStandardDeviation();
+      for (int i = 0; i < measurement.getDimension(); i++) {
+        sensitivity.setRow(row, partials.getRow(i));
+        residuals.setEntry(row, observed[i] - value[i]);
+        noise[row] = sigma[i] * sigma[i];
+        row++;
+      }
+    }
+
+    RealMatrix innovation = symmetrize(sensitivity.multiply(initialCovariance)
+        .multiplyTransposed(sensitivity)
+        .add(MatrixUtils.createRealDiagonalMatrix(noise)));
+    double statistic = residuals.dotProduct(
+        new CholeskyDecomposition(innovation).getSolver().solve(residuals));
+
+    RealMatrix lastCovariance = symmetrize(lastTransition.multiply(initialCovariance)
+        .multiplyTransposed(lastTransition));
+    double maxVariance = 0.0;
+    for (double eigenvalue : new EigenDecomposition(
+        lastCovariance.getSubMatrix(0, 2, 0, 2)).getRealEigenvalues()) {
+      maxVariance = FastMath.max(maxVariance, eigenvalue);
+    }
+
+    return new Check(statistic, rows, FastMath.sqrt(maxVariance));
+  }
+
+  /**
+   * Removes the round-off asymmetry of a product {@code A P A^T}.
+   */
+  private static RealMatrix symmetrize(RealMatrix matrix) {
+    return matrix.add(matrix.transpose()).scalarMultiply(0.5);
+  }
+
+  /**
+   * Sets the reference date of the measurement parameters that have none, as the estimators do.
+   */
+  private static void setReferenceDates(ObservedMeasurement<?> measurement, AbsoluteDate date) {
+    for (ParameterDriver driver : measurement.getParametersDrivers()) {
+      if (driver.getReferenceDate() == null) {
+        driver.setReferenceDate(date);
+      }
+    }
+  }
+
+  private static final class Check {
+
+    private final double statistic;
+    private final int degreesOfFreedom;
+    private final double positionSigma;
+
+    private Check(double statistic, int degreesOfFreedom, double positionSigma) {
+      this.statistic = statistic;
+      this.degreesOfFreedom = degreesOfFreedom;
+      this.positionSigma = positionSigma;
+    }
+  }
+
+}
@@ -0,0 +1,233 @@
+package org.cohere.od;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import lombok.NonNull;
+import lombok.extern.log4j.Log4j2;
+import org.cohere.od.models.StateAndCovariance;
+import org.cohere.od.models.UncertaintyPropagationResult;
+import org.cohere.od.models.UncertaintyPropagationSettings;
+import org.cohere.od.utils.PropagatorFactory;
+import org.cohere.od.utils.SamplingMethod;
+import org.hipparchus.geometry.euclidean.threed.Vector3D;
+import org.hipparchus.linear.Array2DRowRealMatrix;
+import org.hipparchus.linear.MatrixUtils;
+import org.hipparchus.linear.RealMatrix;
+import org.hipparchus.linear.RealVector;
+import org.hipparchus.random.CorrelatedRandomVectorGenerator;
+import org.hipparchus.random.GaussianRandomGenerator;
+import org.hipparchus.random.Well19937a;
+import org.hipparchus.util.MerweUnscentedTransform;
+import org.orekit.forces.ForceModel;
+import org.orekit.frames.Frame;
+import org.orekit.orbits.CartesianOrbit;
+import org.orekit.orbits.Orbit;
+import org.orekit.orbits.OrbitType;
+import org.orekit.orbits.PositionAngle;
+import org.orekit.propagation.SpacecraftState;
+import org.orekit.propagation.StateCovariance;
+import org.orekit.propagation.conversion.ODEIntegratorBuilder;
+import org.orekit.propagation.numerical.NumericalPropagator;
+import org.orekit.time.AbsoluteDate;
+import org.orekit.utils.PVCoordinates;
+import org.orekit.utils.TimeStampedPVCoordinates;
+
+/**
+ * Propagates a state and covariance nonlinearly, by drawing samples from the covariance and
+ * propagating each of them numerically.
+ * <p>
+ * The linear mapping of {@link org.cohere.od.utils.CovarianceUtils} becomes unrealistic over long
+ * gaps between passes, where the uncertainty stretches along the curved orbit. The samples are
+ * either the sigma points of the unscented transform, which cost 13 propagations, or Monte Carlo
+ * samples. They are propagated concurrently on the given executor; the force models are built once
+ * per propagation and shared by all the samples, each sample only owning its propagator and
+ * integrator.
+ * <p>
+ * The samples are drawn in the calling thread and the statistics are summed in sample order, so the
+ * result only depends on the settings, including the seed, and not on the executor.
+ */
+@Log4j2
+public class SampledCovariancePropagator {
+
+  private static final double MAX_INTEGRATOR_STEP = 300.0;
+  private static final double MIN_INTEGRATOR_STEP = 0.001;
+  /**
+   * Threshold below which the covariance eigenvalues are considered null when drawing Monte Carlo
+   * samples.
+   */
+  private static final double RANK_THRESHOLD = 1.0e-12;
+
+  private final ExecutorService executor;
+  private final UncertaintyPropagationSettings settings;
+
+  /**
+   * Constructor.
+   *
+   * @param settings The uncertainty propagation settings.
+   * @param executor The executor propagating the samples. It is owned by the caller.
+   */
+  public SampledCovariancePropagator(@NonNull UncertaintyPropagationSettings settings,
+      @NonNull ExecutorService executor) {
+    if (settings.getSamplingMethod() == SamplingMethod.MONTE_CARLO
+        && settings.getSampleCount() < 2) {
+      throw new IllegalArgumentException("Must draw at least 2 Monte Carlo samples.");
+    }
+    this.settings = settings;
+    this.executor = executor;
+  }
+
+  /**
+   * Propagates the state and covariance to the given epochs.
+   *
+   * @param stateAndCovariance The state and covariance to propagate, such as an OD result.
+   * @param epochs             The epochs at which the statistics are computed.
+   * @return The mean state and sample covariance at each epoch.
+   */
+  public UncertaintyPropagationResult propagate(@NonNull StateAndCovariance stateAndCovariance,
+      @NonNull List<AbsoluteDate> epochs) {
+
+    if (epochs.isEmpty()) {
+      throw new IllegalArgumentException("Must provide at least 1 epoch.");
+    }
+
+    long start = System.nanoTime();
+    SpacecraftState state = stateAndCovariance.getState();
+    Orbit orbit = state.getOrbit();
+    Frame frame = state.getFrame();
+    RealMatrix covariance = stateAndCovariance.getCovariance()
+        .changeCovarianceFrame(orbit, frame)
+        .changeCovarianceType(orbit, OrbitType.CARTESIAN, PositionAngle.MEAN)
+        .getMatrix();
+    RealVector mean = MatrixUtils.createRealVector(toArray(state.getPVCoordinates()));
+
+    RealVector[] samples;
+    double[] meanWeights;
+    double[] covarianceWeights;
+    if (settings.getSamplingMethod() == SamplingMethod.SIGMA_POINTS) {
+      MerweUnscentedTransform transform = new MerweUnscentedTransform(mean.getDimension());
+      samples = transform.unscentedTransform(mean, covariance);
+      meanWeights = transform.getWm().toArray();
+      covarianceWeights = transform.getWc().toArray();
+    } else {
+      int count = settings.getSampleCount();
+      CorrelatedRandomVectorGenerator generator = new CorrelatedRandomVectorGenerator(
+          mean.toArray(), covariance, RANK_THRESHOLD,
+          new GaussianRandomGenerator(new Well19937a(settings.getSeed())));
+      samples = new RealVector[count];
+      for (int i = 0; i < count; i++) {
+        samples[i] = MatrixUtils.createRealVector(generator.nextVector());
+      }
+      meanWeights = new double[count];
+      covarianceWeights = new double[count];
+      Arrays.fill(meanWeights, 1.0 / count);
+      Arrays.fill(covarianceWeights, 1.0 / (count - 1));
+    }
+
+    // Shared by all the samples: the force models are only read during propagation.
+    ODEIntegratorBuilder integratorBuilder = PropagatorFactory.createIntegratorBuilder(
+        MIN_INTEGRATOR_STEP, MAX_INTEGRATOR_STEP, settings.getPositionError());
+    List<ForceModel> forceModels = PropagatorFactory.createForceModels(
+        settings.getForceModelProfile());
+
+    // Each sample propagates through the epochs in chronological order.
+    List<Integer> order = IntStream.range(0, epochs.size()).boxed()
+        .sorted(Comparator.comparing(epochs::get))
+        .collect(Collectors.toList());
+
+    List<Callable<double[][]>> tasks = new ArrayList<>(samples.length);
+    for (RealVector sample : samples) {
+      SpacecraftState sampleState = new SpacecraftState(new CartesianOrbit(
+          new TimeStampedPVCoordinates(state.getDate(), new PVCoordinates(
+              new Vector3D(sample.getSubVector(0, 3).toArray()),
+              new Vector3D(sample.getSubVector(3, 3).toArray()))),
+          frame, state.getMu()), state.getMass());
+      tasks.add(() -> {
+        NumericalPropagator propagator = PropagatorFactory.createPropagator(sampleState,
+            forceModels, integratorBuilder);
+        double[][] propagated = new double[epochs.size()][];
+        for (int index : order) {
+          propagated[index] = toArray(
+              propagator.propagate(epochs.get(index)).getPVCoordinates(frame));
+        }
+        return propagated;
+      });
+    }
+
+    List<double[][]> propagatedSamples = invokeAll(tasks);
+
+    List<StateAndCovariance> statistics = new ArrayList<>(epochs.size());
+    for (int e = 0; e < epochs.size(); e++) {
+      double[] sampleMean = new double[6];
+      for (int i = 0; i < samples.length; i++) {
+        double[] values = propagatedSamples.get(i)[e];
+        for (int k = 0; k < 6; k++) {
+          sampleMean[k] += meanWeights[i] * values[k];
+        }
+      }
+      RealMatrix sampleCovariance = new Array2DRowRealMatrix(6, 6);
+      for (int i = 0; i < samples.length; i++) {
+        double[] values = propagatedSamples.get(i)[e];
+        for (int k = 0; k < 6; k++) {
+          for (int l = 0; l < 6; l++) {
+            sampleCovariance.addToEntry(k, l, covarianceWeights[i]
+                * (values[k] - sampleMean[k]) * (values[l] - sampleMean[l]));
+          }
+        }
+      }
+      AbsoluteDate epoch = epochs.get(e);
+      SpacecraftState meanState = new SpacecraftState(new CartesianOrbit(
+          new TimeStampedPVCoordinates(epoch,
+              new Vector3D(sampleMean[0], sampleMean[1], sampleMean[2]),
+              new Vector3D(sampleMean[3], sampleMean[4], sampleMean[5])),
+          frame, state.getMu()), state.getMass());
+      statistics.add(new StateAndCovariance(new StateCovariance(sampleCovariance, epoch, frame,
+          OrbitType.CARTESIAN, PositionAngle.MEAN), meanState));
+    }
+
+    long elapsedNanos = System.nanoTime() - start;
+    log.debug("Propagated {} samples to {} epochs in {} ms.", samples.length, epochs.size(),
+        elapsedNanos / 1.0e6);
+    return new UncertaintyPropagationResult(statistics, samples.length, elapsedNanos);
+  }
+
+  private List<double[][]> invokeAll(List<Callable<double[][]>> tasks) {
+
+    List<Future<double[][]>> futures;
+    try {
+      futures = executor.invokeAll(tasks);
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while propagating samples.");
+    }
+
+    List<double[][]> results = new ArrayList<>(futures.size());
+    for (Future<double[][]> future : futures) {
+      try {
+        results.add(future.get());
+      } catch (ExecutionException ex) {
+        throw new IllegalStateException("Failed to propagate sample: "
+            + ex.getCause().getMessage());
+      } catch (InterruptedException ex) {
+        // Cannot happen: invokeAll returns completed futures.
+        Thread.currentThread().interrupt();
+        throw new IllegalStateException("Interrupted while reading propagated sample.");
+      }
+    }
+    return results;
+  }
+
+  private static double[] toArray(PVCoordinates pv) {
+    return new double[]{
+        pv.getPosition().getX(), pv.getPosition().getY(), pv.getPosition().getZ(),
+        pv.getVelocity().getX(), pv.getVelocity().getY(), pv.getVelocity().getZ()};
+  }
+
+}
@@ -0,0 +1,190 @@
+package org.cohere.od;
+
+import java.util.List;
+import lombok.NonNull;
+import lombok.extern.log4j.Log4j2;
+import org.cohere.od.estimation.FiniteDifferenceTleBatchLSModel;
+import org.cohere.od.estimation.ModelOverridingPropagatorBuilder;
+import org.cohere.od.models.OdSettings;
+import org.cohere.od.models.OdSolution;
+import org.cohere.od.models.OdStatus;
+import org.cohere.od.models.StateAndCovariance;
+import org.cohere.od.models.TleSolution;
+import org.cohere.od.utils.EstimatorFactory;
+import org.cohere.od.utils.OdEpochStrategy;
+import org.hipparchus.linear.RealMatrix;
+import org.orekit.errors.OrekitException;
+import org.orekit.estimation.leastsquares.BatchLSEstimator;
+import org.orekit.estimation.leastsquares.BatchLSObserver;
+import org.orekit.estimation.measurements.ObservedMeasurement;
+import org.orekit.frames.Frame;
+import org.orekit.frames.FramesFactory;
+import org.orekit.orbits.CartesianOrbit;
+import org.orekit.orbits.KeplerianOrbit;
+import org.orekit.orbits.Orbit;
+import org.orekit.orbits.OrbitType;
+import org.orekit.orbits.PositionAngle;
+import org.orekit.propagation.SpacecraftState;
+import org.orekit.propagation.StateCovariance;
+import org.orekit.propagation.analytical.tle.TLE;
+import org.orekit.propagation.analytical.tle.TLEPropagator;
+import org.orekit.propagation.conversion.TLEPropagatorBuilder;
+import org.orekit.utils.ParameterDriver;
+
+/**
+ * An {@link OdProcessor} fitting SGP4/SDP4 mean elements to right ascension and declination
+ * measurements with a batch least-squares estimator.
+ * <p>
+ * The analytical TLE propagator replaces the numerical propagation of the
+ * {@link RaDecOdProcessor}, which makes a fit far cheaper at TLE-grade accuracy. The Jacobian is
+ * computed by finite differences of the TLE propagator, see
+ * {@link FiniteDifferenceTleBatchLSModel}. The fitted TLE is returned along with the state and
+ * covariance at its epoch, expressed in the frame of the initial state. The covariance is estimated
+ * on the TLE mean elements and mapped to Cartesian coordinates with the osculating Jacobian, so it
+ * is only an approximation of the covariance of the SGP4 state.
+ * <p>
+ * Of the settings, only the epoch strategy applies, and the others are reset to their defaults:
+ * the regime-aware force models, Jacobian reuse and streamed normal equations require a numerical
+ * propagator, and the subsampling schedule, parallel solver and budgets are not supported. The
+ * right ascension and declination measurements are always evaluated by
+ * {@link org.cohere.od.estimation.FastAngularRaDec} when eligible, as their automatic
+ * differentiation would otherwise cost most of the fit.
+ */
+@Log4j2
+public class TleOdProcessor implements OdProcessor {
+
+  /**
+   * Satellite number of the TLEs fitted without an explicit number.
+   */
+  public static final int DEFAULT_SATELLITE_NUMBER = 99999;
+
+  /**
+   * Scale of the position parameters, in meters. Converting the state to mean elements is only
+   * converged to about a millimeter, so with a 1 m scale the parameter changes hover around the
+   * convergence threshold once the fit has converged.
+   */
+  private static final double POSITION_SCALE = 10.0;
+
+  private final OdSettings settings;
+  private final boolean isBStarEstimated;
+
+  /**
+   * Default constructor. The OD is performed at the epoch of the final measurement, and B* is not
+   * estimated.
+   */
+  public TleOdProcessor() {
+    this(OdSettings.DEFAULT, false);
+  }
+
+  /**
+   * Constructor.
+   *
+   * @param settings         The OD settings, of which only the epoch strategy is used.
+   * @param isBStarEstimated Whether the B* drag term is estimated along with the mean elements. It
+   *                         is only observable from measurement spans long enough for drag to show.
+   */
+  public TleOdProcessor(@NonNull OdSettings settings, boolean isBStarEstimated) {
+    this.settings = OdSettings.builder()
+        .epochStrategy(settings.getEpochStrategy())
+        .fastAngularMeasurements(true)
+        .build();
+    this.isBStarEstimated = isBStarEstimated;
+  }
+
+  /**
+   * Given the initial state and set of measurements, fit a TLE and return the state and covariance
+   * at its epoch, selected by the {@link OdEpochStrategy} of the settings of this processor.
+   *
+   * @param initialState The initial state of the spacecraft.
+   * @param measurements The set of measurements to use.
+   * @return The estimate state and covariance of the spacecraft at the TLE epoch.
+   */
+  @Override
+  public StateAndCovariance processMeasurements(@NonNull SpacecraftState initialState,
+      @NonNull List<ObservedMeasurement<?>> measurements) {
+    return estimate(initialState, measurements, DEFAULT_SATELLITE_NUMBER).getSolution()
+        .getStateAndCovariance();
+  }
+
+  /**
+   * Given the initial state and set of measurements, fit a TLE and return it with the state,
+   * covariance and estimator diagnostics at its epoch.
+   *
+   * @param initialState    The initial state of the spacecraft.
+   * @param measurements    The set of measurements to use.
+   * @param satelliteNumber The satellite number of the TLE.
+   * @param observers       Additional observers notified after each estimator evaluation.
+   * @return The fitted TLE and OD solution.
+   */
+  public TleSolution estimate(@NonNull SpacecraftState initialState,
+      @NonNull List<ObservedMeasurement<?>> measurements, int satelliteNumber,
+      BatchLSObserver... observers) {
+
+    if (measurements.isEmpty()) {
+      throw new IllegalArgumentException("Must provide at least 1 measurement.");
+    }
+
+    // The TLE elements are mean elements in TEME, fitted to the initial state.
+    Frame teme = FramesFactory.getTEME();
+    SpacecraftState temeState = new SpacecraftState(new CartesianOrbit(
+        initialState.getPVCoordinates(teme), teme, initialState.getMu()), initialState.getMass());
+    TLE initialTle = TLE.stateToTLE(temeState, createTemplate(temeState, satelliteNumber));
+
+    TLEPropagatorBuilder propagatorBuilder = new TLEPropagatorBuilder(initialTle,
+        PositionAngle.MEAN, POSITION_SCALE);
+    if (isBStarEstimated) {
+      for (ParameterDriver driver : propagatorBuilder.getPropagationParametersDrivers()
+          .getDrivers()) {
+        if (driver.getName().equals(TLE.B_STAR)) {
+          driver.setSelected(true);
+        }
+      }
+    }
+    BatchLSEstimator estimator = EstimatorFactory.createBatchLsEstimator(
+        new ModelOverridingPropagatorBuilder(propagatorBuilder,
+            FiniteDifferenceTleBatchLSModel.factory()), measurements, settings, observers);
+
+    // Execute the OD.
+    TLEPropagator estimatedPropagator;
+    try {
+      estimatedPropagator = (TLEPropagator) estimator.estimate()[0];
+    } catch (OrekitException ex) {
+      throw new IllegalStateException("Failed to execute OD: " + ex.getMessage());
+    }
+
+    // Express the state and covariance in Cartesian coordinates in the frame of the initial state.
+    SpacecraftState estimatedState = estimatedPropagator.getInitialState();
+    Orbit estimatedOrbit = estimatedState.getOrbit();
+    RealMatrix elementsCovariance = estimator.getPhysicalCovariances(Double.MIN_VALUE)
+        .getSubMatrix(0, 5, 0, 5);
+    StateCovariance covariance = new StateCovariance(elementsCovariance,
+        estimatedState.getDate(), propagatorBuilder.getFrame(), propagatorBuilder.getOrbitType(),
+        propagatorBuilder.getPositionAngle())
+        .changeCovarianceType(estimatedOrbit, OrbitType.CARTESIAN, PositionAngle.MEAN)
+        .changeCovarianceFrame(estimatedOrbit, initialState.getFrame());
+    SpacecraftState outputState = new SpacecraftState(new CartesianOrbit(
+        estimatedState.getPVCoordinates(initialState.getFrame()), initialState.getFrame(),
+        estimatedState.getMu()), estimatedState.getMass());
+
+    TLE tle = estimatedPropagator.getTLE();
+    log.debug("Fitted TLE:\n{}\n{}", tle.getLine1(), tle.getLine2());
+    OdSolution solution = new OdSolution(new StateAndCovariance(covariance, outputState),
+        estimator.getOptimum().getRMS(), estimator.getIterationsCount(),
+        estimator.getEvaluationsCount(), OdStatus.CONVERGED, null);
+    return new TleSolution(tle, solution);
+  }
+
+  /**
+   * Creates the template of the fitted TLEs, which provides the identification fields and the
+   * first guess of the mean elements.
+   */
+  private static TLE createTemplate(SpacecraftState temeState, int satelliteNumber) {
+    KeplerianOrbit orbit = (KeplerianOrbit) OrbitType.KEPLERIAN.convertType(
+        temeState.getOrbit());
+    return new TLE(satelliteNumber, 'U', 2000, 1, "A", 0, 999, temeState.getDate(),
+        orbit.getKeplerianMeanMotion(), 0.0, 0.0, orbit.getE(), orbit.getI(),
+        orbit.getPerigeeArgument(), orbit.getRightAscensionOfAscendingNode(),
+        orbit.getMeanAnomaly(), 0, 0.0);
+  }
+
+}
@@ -0,0 +1,64 @@
+package org.cohere.od.association;
+
+import lombok.Builder;
+import lombok.NonNull;
+import lombok.Value;
+import org.cohere.od.utils.ForceModelProfile;
+
+/**
+ * Configuration of a {@link TrackletAssociator}.
+ */
+@Value
+@Builder(toBuilder = true)
+public class AssociationSettings {
+
+  /**
+   * The default settings.
+   */
+  public static final AssociationSettings DEFAULT = AssociationSettings.builder().build();
+
+  /**
+   * Approximate side of the sky grid cells, in radians.
+   */
+  @Builder.Default
+  double cellSize = Math.toRadians(1.0);
+
+  /**
+   * Step of the time grid the catalog is predicted on, in seconds.
+   */
+  @Builder.Default
+  double predictionStep = 120.0;
+
+  /**
+   * Standard deviation of the predicted right ascension and declination of the catalog objects, in
+   * radians. It is combined with the measurement standard deviations in the gated residual test.
+   */
+  @Builder.Default
+  double predictionSigma = Math.toRadians(0.02);
+
+  /**
+   * Probability of the chi-square gate of the residual test: a tracklet of the predicted object
+   * passes the gate with this probability.
+   */
+  @Builder.Default
+  double gateProbability = 0.9999;
+
+  /**
+   * Elevation below which a catalog object is not indexed for a sensor, in radians.
+   */
+  @Builder.Default
+  double minElevation = 0.0;
+
+  /**
+   * The force models used to predict the catalog.
+   */
+  @NonNull
+  @Builder.Default
+  ForceModelProfile forceModelProfile = ForceModelProfile.FULL;
+
+  /**
+   * Position error tolerance of the integrator, in meters.
+   */
+  @Builder.Default
+  double positionError = 1.0;
+}
@@ -0,0 +1,120 @@
+package org.cohere.od.association;
+
+import java.util.function.IntConsumer;
+import org.hipparchus.util.FastMath;
+import org.hipparchus.util.MathUtils;
+
+/**
+ * Partition of the celestial sphere into cells of nearly equal area, in the spirit of HEALPix.
+ * <p>
+ * The sphere is cut into declination bands of equal height, and each band into right ascension
+ * cells whose number is proportional to the cosine of the declination at the middle of the band,
+ * so that the cells are close to square. Cells are numbered band by band from the south pole.
+ */
+public class SkyGrid {
+
+  private static final double HALF_PI = 0.5 * FastMath.PI;
+
+  private final int bands;
+  private final double bandHeight;
+  private final int[] firstCells;
+  private final int[] bandCells;
+  private final int cellCount;
+
+  /**
+   * Constructor.
+   *
+   * @param cellSize The approximate side of the cells, in radians.
+   */
+  public SkyGrid(double cellSize) {
+    if (cellSize <= 0.0 || cellSize > HALF_PI) {
+      throw new IllegalArgumentException("Cell size must be in (0, pi/2]: " + cellSize);
+    }
+    this.bands = (int) FastMath.ceil(FastMath.PI / cellSize);
+    this.bandHeight = FastMath.PI / bands;
+    this.firstCells = new int[bands];
+    this.bandCells = new int[bands];
+    int count = 0;
+    for (int band = 0; band < bands; band++) {
+      double middle = -HALF_PI + (band + 0.5) * bandHeight;
+      firstCells[band] = count;
+      bandCells[band] = Math.max(1,
+          (int) FastMath.ceil(MathUtils.TWO_PI * FastMath.cos(middle) / cellSize));
+      count += bandCells[band];
+    }
+    this.cellCount = count;
+  }
+
+  /**
+   * Gets the number of cells.
+   *
+   * @return The number of cells.
+   */
+  public int getCellCount() {
+    return cellCount;
+  }
+
+  /**
+   * Gets the cell containing a direction.
+   *
+   * @param rightAscension The right ascension, in radians.
+   * @param declination    The declination, in radians.
+   * @return The cell index.
+   */
+  public int cellOf(double rightAscension, double declination) {
+    int band = bandOf(declination);
+    return firstCells[band] + raIndex(band, rightAscension);
+  }
+
+  /**
+   * Visits every cell intersecting the cap of the given angular radius around a direction. Each
+   * cell is visited once; cells only close to the cap may be visited too.
+   *
+   * @param rightAscension The right ascension of the center of the cap, in radians.
+   * @param declination    The declination of the center of the cap, in radians.
+   * @param radius         The angular radius of the cap, in radians.
+   * @param visitor        The visitor of the cell indices.
+   */
+  public void forEachCellWithin(double rightAscension, double declination, double radius,
+      IntConsumer visitor) {
+
+    double lowest = declination - radius;
+    double highest = declination + radius;
+    boolean containsPole = lowest <= -HALF_PI || highest >= HALF_PI;
+    double maxAbsDeclination = FastMath.min(
+        FastMath.max(FastMath.abs(lowest), FastMath.abs(highest)), HALF_PI);
+    double sinRatio = FastMath.sin(FastMath.min(radius, HALF_PI))
+        / FastMath.cos(maxAbsDeclination);
+    boolean isFullCircle = containsPole || radius >= HALF_PI || sinRatio >= 1.0;
+    double halfWidth = isFullCircle ? FastMath.PI : FastMath.asin(sinRatio);
+
+    for (int band = bandOf(lowest); band <= bandOf(highest); band++) {
+      int cells = bandCells[band];
+      if (isFullCircle) {
+        for (int i = 0; i < cells; i++) {
+          visitor.accept(firstCells[band] + i);
+        }
+        continue;
+      }
+      double width = MathUtils.TWO_PI / cells;
+      double start = MathUtils.normalizeAngle(rightAscension - halfWidth, FastMath.PI);
+      int first = (int) FastMath.floor(start / width);
+      int count = Math.min(cells, (int) FastMath.floor((start + 2 * halfWidth) / width) - first + 1);
+      for (int i = 0; i < count; i++) {
+        visitor.accept(firstCells[band] + (first + i) % cells);
+      }
+    }
+  }
+
+  private int bandOf(double declination) {
+    int band = (int) FastMath.floor((declination + HALF_PI) / bandHeight);
+    return Math.max(0, Math.min(bands - 1, band));
+  }
+
+  private int raIndex(int band, double rightAscension) {
+    int cells = bandCells[band];
+    double normalized = MathUtils.normalizeAngle(rightAscension, FastMath.PI);
+    return Math.min(cells - 1, (int) FastMath.floor(normalized * cells / MathUtils.TWO_PI));
+  }
+
+}
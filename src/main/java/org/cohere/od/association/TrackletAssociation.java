@@ -0,0 +1,27 @@
+package org.cohere.od.association;
+
+import java.util.List;
+import lombok.Value;
+
+/**
+ * The result of associating a tracklet with the catalog. The object is the gated object with the
+ * smallest chi-square, or null if no object passed the gate. Several gated objects make the
+ * association ambiguous.
+ */
+@Value
+public class TrackletAssociation {
+
+  String objectId;
+  double chiSquare;
+  List<String> gatedObjectIds;
+  int candidates;
+
+  /**
+   * Whether an object passed the gate.
+   *
+   * @return true if the tracklet is associated.
+   */
+  public boolean isAssociated() {
+    return objectId != null;
+  }
+}
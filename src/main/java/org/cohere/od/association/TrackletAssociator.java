@@ -0,0 +1,380 @@
+package org.cohere.od.association;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import lombok.NonNull;
+import lombok.extern.log4j.Log4j2;
+import org.cohere.od.models.StateAndCovariance;
+import org.cohere.od.utils.PropagatorFactory;
+import org.hipparchus.distribution.continuous.ChiSquaredDistribution;
+import org.hipparchus.geometry.euclidean.threed.Vector3D;
+import org.hipparchus.util.FastMath;
+import org.hipparchus.util.MathUtils;
+import org.orekit.bodies.GeodeticPoint;
+import org.orekit.estimation.measurements.AngularRaDec;
+import org.orekit.forces.ForceModel;
+import org.orekit.frames.Frame;
+import org.orekit.frames.FramesFactory;
+import org.orekit.frames.TopocentricFrame;
+import org.orekit.propagation.SpacecraftState;
+import org.orekit.propagation.conversion.ODEIntegratorBuilder;
+import org.orekit.propagation.numerical.NumericalPropagator;
+import org.orekit.propagation.sampling.OrekitFixedStepHandler;
+import org.orekit.time.AbsoluteDate;
+import org.orekit.utils.Constants;
+import org.orekit.utils.PVCoordinates;
+
+/**
+ * Associates tracklets of uncorrelated right ascension and declination measurements with the
+ * objects of a catalog.
+ * <p>
+ * The catalog is propagated once onto a time grid over the association span. For each sensor, the
+ * directions of the catalog objects above the sensor's horizon are computed at every grid point and
+ * indexed in the cells of a {@link SkyGrid}. A tracklet is matched by looking up the cells around
+ * one of its observations at the nearest grid point, then by a chi-square test of the residuals of
+ * every observation against the predictions of the objects found. Only the objects in a small
+ * region of the sky are tested, so the cost of an association depends on the density of the
+ * catalog around the tracklet rather than on its size.
+ * <p>
+ * The sensor indexes are built on the first tracklet of each sensor. Tracklets can be associated
+ * concurrently.
+ */
+@Log4j2
+public class TrackletAssociator {
+
+  private static final double MAX_INTEGRATOR_STEP = 300.0;
+  private static final double MIN_INTEGRATOR_STEP = 0.001;
+  /**
+   * Resolution of the sensor locations identifying a sensor index, in radians and meters.
+   */
+  private static final double SENSOR_ANGLE_RESOLUTION = 1.0e-4;
+  private static final double SENSOR_ALTITUDE_RESOLUTION = 100.0;
+
+  private final Frame frame = FramesFactory.getGCRF();
+  private final AssociationSettings settings;
+  private final SkyGrid grid;
+  private final String[] objectIds;
+  private final AbsoluteDate start;
+  private final double step;
+  private final int lastIndex;
+  private final double[][] ephemerides;
+  private final Map<String, SensorIndex> sensorIndexes = new ConcurrentHashMap<>();
+  private final Map<Integer, Double> gates = new ConcurrentHashMap<>();
+
+  /**
+   * Constructor. Propagates the catalog over the association span.
+   *
+   * @param catalog  The catalog, by object identifier. Only the states are used.
+   * @param start    The start of the association span.
+   * @param end      The end of the association span.
+   * @param settings The association settings.
+   * @param executor The executor propagating the catalog. It is owned by the caller.
+   */
+  public TrackletAssociator(@NonNull Map<String, StateAndCovariance> catalog,
+      @NonNull AbsoluteDate start, @NonNull AbsoluteDate end,
+      @NonNull AssociationSettings settings, @NonNull ExecutorService executor) {
+
+    if (end.compareTo(start) <= 0) {
+      throw new IllegalArgumentException("Association span must end after it starts.");
+    }
+
+    long startNanos = System.nanoTime();
+    this.settings = settings;
+    this.grid = new SkyGrid(settings.getCellSize());
+    this.start = start;
+    this.step = settings.getPredictionStep();
+    this.lastIndex = (int) FastMath.ceil(end.durationFrom(start) / step);
+
+    Map<String, StateAndCovariance> sorted = new TreeMap<>(catalog);
+    this.objectIds = sorted.keySet().toArray(new String[0]);
+    List<ForceModel> forceModels = PropagatorFactory.createForceModels(
+        settings.getForceModelProfile());
+    ODEIntegratorBuilder integratorBuilder = PropagatorFactory.createIntegratorBuilder(
+        MIN_INTEGRATOR_STEP, MAX_INTEGRATOR_STEP, settings.getPositionError());
+    List<Callable<double[]>> tasks = new ArrayList<>();
+    for (StateAndCovariance stateAndCovariance : sorted.values()) {
+      tasks.add(() -> propagate(stateAndCovariance.getState(), forceModels, integratorBuilder));
+    }
+    this.ephemerides = invokeAll(executor, tasks).toArray(new double[0][]);
+
+    log.debug("Predicted {} objects over {} steps in {} ms.", objectIds.length, lastIndex + 1,
+        (System.nanoTime() - startNanos) / 1.0e6);
+  }
+
+  /**
+   * Associates a tracklet with the catalog.
+   *
+   * @param tracklet The measurements of the tracklet, from a single sensor.
+   * @return The association.
+   */
+  public TrackletAssociation associate(@NonNull List<AngularRaDec> tracklet) {
+
+    if (tracklet.isEmpty()) {
+      throw new IllegalArgumentException("Must provide at least 1 measurement.");
+    }
+
+    // Any object passing the gate is within the square root of the gate, in standard deviations,
+    // of every observation.
+    double gate = gates.computeIfAbsent(tracklet.size(), size ->
+        new ChiSquaredDistribution(2.0 * size).inverseCumulativeProbability(
+            settings.getGateProbability()));
+    double maxSigma = 0.0;
+    for (AngularRaDec measurement : tracklet) {
+      for (double sigma : measurement.getTheoreticalStandardDeviation()) {
+        maxSigma = FastMath.max(maxSigma, sigma);
+      }
+    }
+    double lookupRadius = FastMath.sqrt(gate)
+        * FastMath.hypot(maxSigma, settings.getPredictionSigma());
+
+    AngularRaDec reference = tracklet.get(tracklet.size() / 2);
+    double offset = reference.getDate().durationFrom(start);
+    int index = (int) FastMath.rint(offset / step);
+    if (index < 0 || index > lastIndex) {
+      throw new IllegalArgumentException("Tracklet is outside of the association span: "
+          + reference.getDate());
+    }
+
+    SensorIndex sensorIndex = getSensorIndex(reference.getStation().getBaseFrame());
+    Vector3D direction = toGcrf(reference);
+    int[] candidates = sensorIndex.lookup(index, direction,
+        lookupRadius + sensorIndex.maxRates[index] * FastMath.abs(offset - index * step));
+
+    List<double[]> gated = new ArrayList<>();
+    for (int object : candidates) {
+      double chiSquare = chiSquare(object, tracklet);
+      if (chiSquare <= gate) {
+        gated.add(new double[]{chiSquare, object});
+      }
+    }
+    gated.sort(Comparator.comparingDouble(entry -> entry[0]));
+
+    List<String> gatedIds = new ArrayList<>(gated.size());
+    gated.forEach(entry -> gatedIds.add(objectIds[(int) entry[1]]));
+    return gated.isEmpty()
+        ? new TrackletAssociation(null, Double.NaN, gatedIds, candidates.length)
+        : new TrackletAssociation(gatedIds.get(0), gated.get(0)[0], gatedIds, candidates.length);
+  }
+
+  /**
+   * Gets the number of catalog objects.
+   *
+   * @return The number of objects.
+   */
+  public int getObjectCount() {
+    return objectIds.length;
+  }
+
+  private double[] propagate(SpacecraftState state, List<ForceModel> forceModels,
+      ODEIntegratorBuilder integratorBuilder) {
+
+    double[] rows = new double[(lastIndex + 1) * 6];
+    NumericalPropagator propagator = PropagatorFactory.createPropagator(state, forceModels,
+        integratorBuilder);
+    store(rows, 0, propagator.propagate(start));
+    propagator.setStepHandler(step, new OrekitFixedStepHandler() {
+      @Override
+      public void handleStep(SpacecraftState currentState) {
+        int index = (int) FastMath.rint(currentState.getDate().durationFrom(start) / step);
+        if (index > 0 && index <= lastIndex) {
+          store(rows, index, currentState);
+        }
+      }
+
+      @Override
+      public void finish(SpacecraftState finalState) {
+        store(rows, lastIndex, finalState);
+      }
+    });
+    propagator.propagate(start.shiftedBy(lastIndex * step));
+    return rows;
+  }
+
+  private void store(double[] rows, int index, SpacecraftState state) {
+    PVCoordinates pv = state.getPVCoordinates(frame);
+    int offset = index * 6;
+    rows[offset] = pv.getPosition().getX();
+    rows[offset + 1] = pv.getPosition().getY();
+    rows[offset + 2] = pv.getPosition().getZ();
+    rows[offset + 3] = pv.getVelocity().getX();
+    rows[offset + 4] = pv.getVelocity().getY();
+    rows[offset + 5] = pv.getVelocity().getZ();
+  }
+
+  /**
+   * Interpolates the position of an object with a cubic Hermite polynomial between the grid
+   * points around the date.
+   */
+  private Vector3D position(int object, double offset) {
+    double[] rows = ephemerides[object];
+    if (lastIndex == 0) {
+      return new Vector3D(rows[0], rows[1], rows[2])
+          .add(offset, new Vector3D(rows[3], rows[4], rows[5]));
+    }
+    int index = Math.max(0, Math.min(lastIndex - 1, (int) FastMath.floor(offset / step)));
+    int first = index * 6;
+    int second = first + 6;
+    double s = (offset - index * step) / step;
+    double s2 = s * s;
+    double s3 = s2 * s;
+    double h00 = 2 * s3 - 3 * s2 + 1;
+    double h10 = s3 - 2 * s2 + s;
+    double h01 = -2 * s3 + 3 * s2;
+    double h11 = s3 - s2;
+    double[] position = new double[3];
+    for (int axis = 0; axis < 3; axis++) {
+      position[axis] = h00 * rows[first + axis] + h10 * step * rows[first + 3 + axis]
+          + h01 * rows[second + axis] + h11 * step * rows[second + 3 + axis];
+    }
+    return new Vector3D(position);
+  }
+
+  private Vector3D velocity(int object, double offset) {
+    int index = Math.max(0, Math.min(lastIndex, (int) FastMath.rint(offset / step))) * 6;
+    double[] rows = ephemerides[object];
+    return new Vector3D(rows[index + 3], rows[index + 4], rows[index + 5]);
+  }
+
+  /**
+   * Computes the chi-square of the residuals of the tracklet against the predictions of an object,
+   * accounting for the light time.
+   */
+  private double chiSquare(int object, List<AngularRaDec> tracklet) {
+
+    double predictionVariance = settings.getPredictionSigma() * settings.getPredictionSigma();
+    double chiSquare = 0.0;
+    for (AngularRaDec measurement : tracklet) {
+      AbsoluteDate date = measurement.getDate();
+      double offset = date.durationFrom(start);
+      Vector3D station = measurement.getStation().getBaseFrame()
+          .getPVCoordinates(date, frame).getPosition();
+      Vector3D position = position(object, offset);
+      double lightTime = position.subtract(station).getNorm() / Constants.SPEED_OF_LIGHT;
+      Vector3D lineOfSight = position.subtract(lightTime, velocity(object, offset))
+          .subtract(station);
+      if (measurement.getReferenceFrame() != frame) {
+        lineOfSight = frame.getTransformTo(measurement.getReferenceFrame(), date)
+            .transformVector(lineOfSight);
+      }
+
+      double[] observed = measurement.getObservedValue();
+      double[] sigma = measurement.getTheoreticalStandardDeviation();
+      double declination = lineOfSight.getDelta();
+      double raResidual = MathUtils.normalizeAngle(observed[0] - lineOfSight.getAlpha(), 0.0)
+          * FastMath.cos(declination);
+      double decResidual = observed[1] - declination;
+      chiSquare += raResidual * raResidual / (sigma[0] * sigma[0] + predictionVariance)
+          + decResidual * decResidual / (sigma[1] * sigma[1] + predictionVariance);
+    }
+    return chiSquare;
+  }
+
+  private Vector3D toGcrf(AngularRaDec measurement) {
+    double[] observed = measurement.getObservedValue();
+    Vector3D direction = new Vector3D(observed[0], observed[1]);
+    if (measurement.getReferenceFrame() == frame) {
+      return direction;
+    }
+    return measurement.getReferenceFrame().getTransformTo(frame, measurement.getDate())
+        .transformVector(direction);
+  }
+
+  private SensorIndex getSensorIndex(TopocentricFrame sensor) {
+    GeodeticPoint point = sensor.getPoint();
+    String key = FastMath.rint(point.getLatitude() / SENSOR_ANGLE_RESOLUTION) + ","
+        + FastMath.rint(point.getLongitude() / SENSOR_ANGLE_RESOLUTION) + ","
+        + FastMath.rint(point.getAltitude() / SENSOR_ALTITUDE_RESOLUTION);
+    return sensorIndexes.computeIfAbsent(key, k -> new SensorIndex(sensor));
+  }
+
+  private static <T> List<T> invokeAll(ExecutorService executor, List<Callable<T>> tasks) {
+
+    List<Future<T>> futures;
+    try {
+      futures = executor.invokeAll(tasks);
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while predicting the catalog.");
+    }
+
+    List<T> results = new ArrayList<>(futures.size());
+    for (Future<T> future : futures) {
+      try {
+        results.add(future.get());
+      } catch (ExecutionException ex) {
+        throw new IllegalStateException("Failed to predict the catalog: "
+            + ex.getCause().getMessage());
+      } catch (InterruptedException ex) {
+        // Cannot happen: invokeAll returns completed futures.
+        Thread.currentThread().interrupt();
+        throw new IllegalStateException("Interrupted while reading the catalog predictions.");
+      }
+    }
+    return results;
+  }
+
+  /**
+   * The sky cells of the catalog objects above the horizon of a sensor at each grid point, as
+   * sorted (cell, object) pairs, and the highest angular rate of the objects at each grid point.
+   */
+  private final class SensorIndex {
+
+    private final long[][] entries;
+    private final double[] maxRates;
+
+    private SensorIndex(TopocentricFrame sensor) {
+
+      entries = new long[lastIndex + 1][];
+      maxRates = new double[lastIndex + 1];
+      double sinMinElevation = FastMath.sin(settings.getMinElevation());
+      for (int index = 0; index <= lastIndex; index++) {
+        AbsoluteDate date = start.shiftedBy(index * step);
+        PVCoordinates station = sensor.getPVCoordinates(date, frame);
+        Vector3D zenith = sensor.getTransformTo(frame, date).transformVector(Vector3D.PLUS_K);
+        long[] pairs = new long[ephemerides.length];
+        int count = 0;
+        for (int object = 0; object < ephemerides.length; object++) {
+          int offset = index * 6;
+          double[] rows = ephemerides[object];
+          Vector3D lineOfSight = new Vector3D(rows[offset], rows[offset + 1], rows[offset + 2])
+              .subtract(station.getPosition());
+          if (Vector3D.dotProduct(lineOfSight, zenith) < sinMinElevation * lineOfSight.getNorm()) {
+            continue;
+          }
+          Vector3D relativeVelocity = new Vector3D(rows[offset + 3], rows[offset + 4],
+              rows[offset + 5]).subtract(station.getVelocity());
+          double rate = Vector3D.crossProduct(lineOfSight, relativeVelocity).getNorm()
+              / lineOfSight.getNormSq();
+          maxRates[index] = FastMath.max(maxRates[index], rate);
+          pairs[count++] = ((long) grid.cellOf(lineOfSight.getAlpha(), lineOfSight.getDelta())
+              << 32) | object;
+        }
+        entries[index] = Arrays.copyOf(pairs, count);
+        Arrays.sort(entries[index]);
+      }
+    }
+
+    private int[] lookup(int index, Vector3D direction, double radius) {
+      long[] pairs = entries[index];
+      List<Integer> objects = new ArrayList<>();
+      grid.forEachCellWithin(direction.getAlpha(), direction.getDelta(), radius, cell -> {
+        int position = Arrays.binarySearch(pairs, (long) cell << 32);
+        for (int i = position < 0 ? -position - 1 : position;
+            i < pairs.length && (int) (pairs[i] >>> 32) == cell; i++) {
+          objects.add((int) pairs[i]);
+        }
+      });
+      return objects.stream().mapToInt(Integer::intValue).toArray();
+    }
+  }
+
+}
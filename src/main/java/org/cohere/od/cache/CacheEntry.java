@@ -0,0 +1,14 @@
+package org.cohere.od.cache;
+
+import lombok.Value;
+import org.cohere.od.models.StateAndCovariance;
+
+/**
+ * A cached OD result with the CPU time spent computing it.
+ */
+@Value
+class CacheEntry {
+
+  StateAndCovariance result;
+  long cpuNanos;
+}
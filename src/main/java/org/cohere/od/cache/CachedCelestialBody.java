@@ -0,0 +1,135 @@
+package org.cohere.od.cache;
+
+import org.hipparchus.CalculusFieldElement;
+import org.hipparchus.geometry.euclidean.threed.Vector3D;
+import org.orekit.bodies.CelestialBody;
+import org.orekit.frames.Frame;
+import org.orekit.frames.FramesFactory;
+import org.orekit.time.AbsoluteDate;
+import org.orekit.time.FieldAbsoluteDate;
+import org.orekit.utils.TimeStampedFieldPVCoordinates;
+import org.orekit.utils.TimeStampedPVCoordinates;
+
+/**
+ * A {@link CelestialBody} whose position is interpolated from cached samples of another body.
+ * <p>
+ * The position, velocity and acceleration of the body in GCRF are sampled on a time grid, and
+ * interpolated between the two samples around a date with a quintic Hermite polynomial, which
+ * matches the samples up to the acceleration.
+ */
+class CachedCelestialBody implements CelestialBody {
+
+  private static final long serialVersionUID = 1L;
+
+  private final transient CelestialBody body;
+  private final transient TimeSampleCache<double[]> samples;
+  private final transient Frame frame = FramesFactory.getGCRF();
+
+  /**
+   * Constructor.
+   *
+   * @param body         The body to cache.
+   * @param step         The step of the samples, in seconds.
+   * @param blockSamples The number of samples generated together.
+   * @param maxBlocks    The maximum number of blocks kept.
+   */
+  CachedCelestialBody(CelestialBody body, double step, int blockSamples, int maxBlocks) {
+    this.body = body;
+    this.samples = new TimeSampleCache<>(step, blockSamples, maxBlocks, this::sample);
+  }
+
+  @Override
+  public TimeStampedPVCoordinates getPVCoordinates(AbsoluteDate date, Frame frame) {
+
+    double index = samples.indexOf(date);
+    long first = (long) Math.floor(index);
+    double[] p0 = samples.get(first);
+    double[] p1 = samples.get(first + 1);
+    double h = samples.getStep();
+    double s = index - first;
+    double s2 = s * s;
+    double s3 = s2 * s;
+    double s4 = s3 * s;
+    double s5 = s4 * s;
+
+    // Quintic Hermite basis on [0, 1] for the position, velocity and acceleration of each sample.
+    double hp0 = 1 - 10 * s3 + 15 * s4 - 6 * s5;
+    double hv0 = s - 6 * s3 + 8 * s4 - 3 * s5;
+    double ha0 = 0.5 * s2 - 1.5 * s3 + 1.5 * s4 - 0.5 * s5;
+    double ha1 = 0.5 * s3 - s4 + 0.5 * s5;
+    double hv1 = -4 * s3 + 7 * s4 - 3 * s5;
+    double hp1 = 10 * s3 - 15 * s4 + 6 * s5;
+    double dp0 = -30 * s2 + 60 * s3 - 30 * s4;
+    double dv0 = 1 - 18 * s2 + 32 * s3 - 15 * s4;
+    double da0 = s - 4.5 * s2 + 6 * s3 - 2.5 * s4;
+    double da1 = 1.5 * s2 - 4 * s3 + 2.5 * s4;
+    double dv1 = -12 * s2 + 28 * s3 - 15 * s4;
+    double ddp0 = -60 * s + 180 * s2 - 120 * s3;
+    double ddv0 = -36 * s + 96 * s2 - 60 * s3;
+    double dda0 = 1 - 9 * s + 18 * s2 - 10 * s3;
+    double dda1 = 3 * s - 12 * s2 + 10 * s3;
+    double ddv1 = -24 * s + 84 * s2 - 60 * s3;
+
+    double[] pva = new double[9];
+    for (int axis = 0; axis < 3; axis++) {
+      double x0 = p0[axis];
+      double v0 = p0[axis + 3];
+      double a0 = p0[axis + 6];
+      double x1 = p1[axis];
+      double v1 = p1[axis + 3];
+      double a1 = p1[axis + 6];
+      pva[axis] = hp0 * x0 + hp1 * x1 + h * (hv0 * v0 + hv1 * v1) + h * h * (ha0 * a0 + ha1 * a1);
+      pva[axis + 3] = dp0 * (x0 - x1) / h + dv0 * v0 + dv1 * v1 + h * (da0 * a0 + da1 * a1);
+      pva[axis + 6] = ddp0 * (x0 - x1) / (h * h) + (ddv0 * v0 + ddv1 * v1) / h + dda0 * a0
+          + dda1 * a1;
+    }
+
+    TimeStampedPVCoordinates pv = new TimeStampedPVCoordinates(date,
+        new Vector3D(pva[0], pva[1], pva[2]), new Vector3D(pva[3], pva[4], pva[5]),
+        new Vector3D(pva[6], pva[7], pva[8]));
+    return frame == this.frame ? pv : this.frame.getTransformTo(frame, date)
+        .transformPVCoordinates(pv);
+  }
+
+  @Override
+  public <T extends CalculusFieldElement<T>> TimeStampedFieldPVCoordinates<T> getPVCoordinates(
+      FieldAbsoluteDate<T> date, Frame frame) {
+    AbsoluteDate sampleDate = date.toAbsoluteDate();
+    return new TimeStampedFieldPVCoordinates<>(new FieldAbsoluteDate<>(date.getField(),
+        sampleDate), date.getField().getOne(), getPVCoordinates(sampleDate, frame))
+        .shiftedBy(date.durationFrom(sampleDate));
+  }
+
+  @Override
+  public Frame getInertiallyOrientedFrame() {
+    return body.getInertiallyOrientedFrame();
+  }
+
+  @Override
+  public Frame getBodyOrientedFrame() {
+    return body.getBodyOrientedFrame();
+  }
+
+  @Override
+  public String getName() {
+    return body.getName();
+  }
+
+  @Override
+  public double getGM() {
+    return body.getGM();
+  }
+
+  GeometryCacheMetrics getMetrics() {
+    return samples.getMetrics();
+  }
+
+  private double[] sample(AbsoluteDate date) {
+    TimeStampedPVCoordinates pv = body.getPVCoordinates(date, frame);
+    return new double[]{
+        pv.getPosition().getX(), pv.getPosition().getY(), pv.getPosition().getZ(),
+        pv.getVelocity().getX(), pv.getVelocity().getY(), pv.getVelocity().getZ(),
+        pv.getAcceleration().getX(), pv.getAcceleration().getY(), pv.getAcceleration().getZ()};
+  }
+
+}
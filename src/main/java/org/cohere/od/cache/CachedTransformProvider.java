@@ -0,0 +1,55 @@
+package org.cohere.od.cache;
+
+import org.hipparchus.CalculusFieldElement;
+import org.orekit.frames.FieldTransform;
+import org.orekit.frames.Frame;
+import org.orekit.frames.Transform;
+import org.orekit.frames.TransformProvider;
+import org.orekit.time.AbsoluteDate;
+import org.orekit.time.FieldAbsoluteDate;
+
+/**
+ * A {@link TransformProvider} serving the transform between two frames from cached samples.
+ * <p>
+ * The transform is sampled on a time grid, and the sample nearest to a date is shifted to it
+ * using its rates, which is accurate for the slowly varying rates of the Earth orientation.
+ */
+class CachedTransformProvider implements TransformProvider {
+
+  private static final long serialVersionUID = 1L;
+
+  private final transient TimeSampleCache<Transform> samples;
+
+  /**
+   * Constructor.
+   *
+   * @param from         The frame the transforms are from.
+   * @param to           The frame the transforms are to.
+   * @param step         The step of the samples, in seconds.
+   * @param blockSamples The number of samples generated together.
+   * @param maxBlocks    The maximum number of blocks kept.
+   */
+  CachedTransformProvider(Frame from, Frame to, double step, int blockSamples, int maxBlocks) {
+    this.samples = new TimeSampleCache<>(step, blockSamples, maxBlocks,
+        date -> from.getTransformTo(to, date));
+  }
+
+  @Override
+  public Transform getTransform(AbsoluteDate date) {
+    Transform sample = samples.get(Math.round(samples.indexOf(date)));
+    return sample.shiftedBy(date.durationFrom(sample.getDate()));
+  }
+
+  @Override
+  public <T extends CalculusFieldElement<T>> FieldTransform<T> getTransform(
+      FieldAbsoluteDate<T> date) {
+    Transform sample = samples.get(Math.round(samples.indexOf(date.toAbsoluteDate())));
+    return new FieldTransform<>(date.getField(), sample)
+        .shiftedBy(date.durationFrom(sample.getDate()));
+  }
+
+  GeometryCacheMetrics getMetrics() {
+    return samples.getMetrics();
+  }
+
+}
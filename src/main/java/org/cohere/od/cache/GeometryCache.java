@@ -0,0 +1,139 @@
+package org.cohere.od.cache;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.NonNull;
+import org.orekit.bodies.CelestialBodies;
+import org.orekit.bodies.CelestialBody;
+import org.orekit.bodies.GeodeticPoint;
+import org.orekit.bodies.OneAxisEllipsoid;
+import org.orekit.data.DataContext;
+import org.orekit.estimation.measurements.GroundStation;
+import org.orekit.frames.EOPHistory;
+import org.orekit.frames.Frame;
+import org.orekit.frames.FramesFactory;
+import org.orekit.frames.TopocentricFrame;
+import org.orekit.utils.Constants;
+import org.orekit.utils.IERSConventions;
+
+/**
+ * Cache of the time-dependent geometry shared by the ODs over a time span: the positions of the
+ * Sun and Moon, and the orientation of the Earth, which also positions the ground stations.
+ * <p>
+ * None of these depend on the object being estimated, so one cache can be shared by the
+ * iterations of an OD and by concurrent ODs over the same span. The quantities are sampled on time
+ * grids and interpolated, so they are only computed once per grid point whatever the number of
+ * propagations. The cache is thread-safe and its memory is bounded by the settings.
+ */
+public class GeometryCache {
+
+  private final GeometryCacheSettings settings;
+  private final Map<String, CachedCelestialBody> bodies = new ConcurrentHashMap<>();
+  private final CelestialBodies celestialBodies;
+  private final EOPHistory eopHistory;
+  private final CachedTransformProvider earthOrientation;
+  private final OneAxisEllipsoid earth;
+
+  /**
+   * Constructor, caching the geometry of the default data context.
+   *
+   * @param settings The cache settings.
+   */
+  public GeometryCache(@NonNull GeometryCacheSettings settings) {
+    this(settings, DataContext.getDefault());
+  }
+
+  /**
+   * Constructor.
+   *
+   * @param settings    The cache settings.
+   * @param dataContext The data context providing the Earth orientation and the celestial bodies.
+   */
+  public GeometryCache(@NonNull GeometryCacheSettings settings,
+      @NonNull DataContext dataContext) {
+
+    if (settings.getBodyStep() <= 0.0 || settings.getEarthStep() <= 0.0) {
+      throw new IllegalArgumentException("Sample steps must be positive.");
+    }
+    if (settings.getBlockSamples() < 1 || settings.getMaxBlocks() < 2) {
+      throw new IllegalArgumentException(
+          "Must keep at least 2 blocks of at least 1 sample each.");
+    }
+
+    this.settings = settings;
+    this.celestialBodies = dataContext.getCelestialBodies();
+    Frame gcrf = dataContext.getFrames().getGCRF();
+    Frame earthFrame = dataContext.getFrames().getITRF(IERSConventions.IERS_2010, true);
+    this.eopHistory = FramesFactory.findEOP(earthFrame);
+    this.earthOrientation = new CachedTransformProvider(gcrf, earthFrame,
+        settings.getEarthStep(), settings.getBlockSamples(), settings.getMaxBlocks());
+    this.earth = new OneAxisEllipsoid(Constants.IERS2010_EARTH_EQUATORIAL_RADIUS,
+        Constants.IERS2010_EARTH_FLATTENING,
+        new Frame(gcrf, earthOrientation, "Cached " + earthFrame.getName()));
+  }
+
+  /**
+   * Gets the cached Sun.
+   *
+   * @return The Sun.
+   */
+  public CelestialBody getSun() {
+    return getBody(celestialBodies.getSun());
+  }
+
+  /**
+   * Gets the cached Moon.
+   *
+   * @return The Moon.
+   */
+  public CelestialBody getMoon() {
+    return getBody(celestialBodies.getMoon());
+  }
+
+  /**
+   * Gets a cached version of a celestial body. Bodies are identified by name.
+   *
+   * @param body The body.
+   * @return The cached body.
+   */
+  public CelestialBody getBody(@NonNull CelestialBody body) {
+    return bodies.computeIfAbsent(body.getName(), name -> new CachedCelestialBody(body,
+        settings.getBodyStep(), settings.getBlockSamples(), settings.getMaxBlocks()));
+  }
+
+  /**
+   * Gets the Earth, whose body frame is the cached ITRF. Force models and ground stations built
+   * on it share the cached Earth orientation.
+   *
+   * @return The Earth.
+   */
+  public OneAxisEllipsoid getEarth() {
+    return earth;
+  }
+
+  /**
+   * Creates a ground station on the cached Earth.
+   *
+   * @param point The location of the station.
+   * @param name  The name of the station.
+   * @return The ground station.
+   */
+  public GroundStation createGroundStation(@NonNull GeodeticPoint point, @NonNull String name) {
+    // The Earth orientation parameters are not cached, only the transform they contribute to.
+    return new GroundStation(new TopocentricFrame(earth, point, name), eopHistory);
+  }
+
+  /**
+   * Returns a snapshot of the metrics of all the cached quantities.
+   *
+   * @return The metrics.
+   */
+  public GeometryCacheMetrics getMetrics() {
+    GeometryCacheMetrics metrics = earthOrientation.getMetrics();
+    for (CachedCelestialBody body : bodies.values()) {
+      metrics = metrics.plus(body.getMetrics());
+    }
+    return metrics;
+  }
+
+}
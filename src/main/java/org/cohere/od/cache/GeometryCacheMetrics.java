@@ -0,0 +1,42 @@
+package org.cohere.od.cache;
+
+import lombok.Value;
+
+/**
+ * Snapshot of the metrics of a {@link GeometryCache}.
+ */
+@Value
+public class GeometryCacheMetrics {
+
+  /**
+   * Sample lookups served from a block already in the cache.
+   */
+  long hits;
+  /**
+   * Sample lookups that generated their block.
+   */
+  long misses;
+  long evictions;
+  long memorySamples;
+
+  /**
+   * Returns the fraction of sample lookups that did not trigger a generation.
+   *
+   * @return The hit ratio, or 0 if there has been no lookup.
+   */
+  public double getHitRatio() {
+    long total = hits + misses;
+    return total == 0 ? 0.0 : (double) hits / total;
+  }
+
+  /**
+   * Adds the metrics of another cache to these.
+   *
+   * @param other The other metrics.
+   * @return The combined metrics.
+   */
+  public GeometryCacheMetrics plus(GeometryCacheMetrics other) {
+    return new GeometryCacheMetrics(hits + other.hits, misses + other.misses,
+        evictions + other.evictions, memorySamples + other.memorySamples);
+  }
+}
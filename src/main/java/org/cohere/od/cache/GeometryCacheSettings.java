@@ -0,0 +1,42 @@
+package org.cohere.od.cache;
+
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * Configuration of a {@link GeometryCache}.
+ */
+@Value
+@Builder(toBuilder = true)
+public class GeometryCacheSettings {
+
+  /**
+   * The default settings.
+   */
+  public static final GeometryCacheSettings DEFAULT = GeometryCacheSettings.builder().build();
+
+  /**
+   * Step of the samples of the celestial body positions, in seconds.
+   */
+  @Builder.Default
+  double bodyStep = 300.0;
+
+  /**
+   * Step of the samples of the Earth orientation, in seconds.
+   */
+  @Builder.Default
+  double earthStep = 60.0;
+
+  /**
+   * Number of consecutive samples generated together.
+   */
+  @Builder.Default
+  int blockSamples = 64;
+
+  /**
+   * Maximum number of blocks of samples kept for each cached quantity, which bounds the memory of
+   * the cache. With the defaults, a quantity keeps at least 2.8 days of samples.
+   */
+  @Builder.Default
+  int maxBlocks = 64;
+}
@@ -0,0 +1,123 @@
+package org.cohere.od.cache;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import org.cohere.od.utils.BinaryCodecUtils;
+import org.hipparchus.geometry.euclidean.threed.Vector3D;
+import org.orekit.bodies.GeodeticPoint;
+import org.orekit.estimation.measurements.AngularRaDec;
+import org.orekit.estimation.measurements.ObservableSatellite;
+import org.orekit.estimation.measurements.ObservedMeasurement;
+import org.orekit.propagation.SpacecraftState;
+import org.orekit.time.TimeStamped;
+import org.orekit.utils.ParameterDriver;
+import org.orekit.utils.TimeStampedPVCoordinates;
+
+/**
+ * Content hash identifying an OD request.
+ * <p>
+ * The key is the SHA-256 digest of the initial state, the measurements (sorted by date, so the
+ * order in which they are supplied does not matter) and a description of the processor
+ * configuration.
+ */
+public class OdCacheKey {
+
+  private static final String ALGORITHM = "SHA-256";
+  private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+  private OdCacheKey() {
+  }
+
+  /**
+   * Computes the key of an OD request.
+   *
+   * @param initialState  The initial state of the spacecraft.
+   * @param measurements  The measurements.
+   * @param configuration A description of the processor configuration.
+   * @return The hexadecimal key.
+   */
+  public static String compute(SpacecraftState initialState,
+      List<ObservedMeasurement<?>> measurements, String configuration) {
+
+    MessageDigest digest;
+    try {
+      digest = MessageDigest.getInstance(ALGORITHM);
+    } catch (NoSuchAlgorithmException ex) {
+      throw new IllegalStateException(ALGORITHM + " is not available.", ex);
+    }
+
+    try (DataOutputStream out = new DataOutputStream(
+        new DigestOutputStream(OutputStream.nullOutputStream(), digest))) {
+
+      out.writeUTF(configuration);
+      writeState(initialState, out);
+
+      List<ObservedMeasurement<?>> sorted = new ArrayList<>(measurements);
+      sorted.sort(Comparator.comparing(TimeStamped::getDate));
+      out.writeInt(sorted.size());
+      for (ObservedMeasurement<?> measurement : sorted) {
+        writeMeasurement(measurement, out);
+      }
+
+    } catch (IOException ex) {
+      // Cannot happen when writing to a digest.
+      throw new IllegalStateException("Unable to hash OD request.", ex);
+    }
+
+    return toHex(digest.digest());
+  }
+
+  private static void writeState(SpacecraftState state, DataOutputStream out) throws IOException {
+    TimeStampedPVCoordinates pv = state.getPVCoordinates();
+    BinaryCodecUtils.writeDate(state.getDate(), out);
+    out.writeUTF(state.getFrame().getName());
+    BinaryCodecUtils.writeVector(pv.getPosition(), out);
+    BinaryCodecUtils.writeVector(pv.getVelocity(), out);
+    out.writeDouble(state.getMu());
+    out.writeDouble(state.getMass());
+  }
+
+  private static void writeMeasurement(ObservedMeasurement<?> measurement, DataOutputStream out)
+      throws IOException {
+
+    out.writeUTF(measurement.getMeasurementType());
+    BinaryCodecUtils.writeDate(measurement.getDate(), out);
+    out.writeBoolean(measurement.isEnabled());
+    BinaryCodecUtils.writeArray(measurement.getObservedValue(), out);
+    BinaryCodecUtils.writeArray(measurement.getTheoreticalStandardDeviation(), out);
+    BinaryCodecUtils.writeArray(measurement.getBaseWeight(), out);
+    for (ObservableSatellite satellite : measurement.getSatellites()) {
+      out.writeInt(satellite.getPropagatorIndex());
+    }
+    for (ParameterDriver driver : measurement.getParametersDrivers()) {
+      out.writeUTF(driver.getName());
+      out.writeDouble(driver.getValue());
+      out.writeBoolean(driver.isSelected());
+    }
+
+    if (measurement instanceof AngularRaDec) {
+      AngularRaDec raDec = (AngularRaDec) measurement;
+      GeodeticPoint point = raDec.getStation().getBaseFrame().getPoint();
+      out.writeUTF(raDec.getReferenceFrame().getName());
+      BinaryCodecUtils.writeVector(
+          new Vector3D(point.getLatitude(), point.getLongitude(), point.getAltitude()), out);
+    }
+  }
+
+  private static String toHex(byte[] bytes) {
+    char[] chars = new char[2 * bytes.length];
+    for (int i = 0; i < bytes.length; i++) {
+      chars[2 * i] = HEX[(bytes[i] >> 4) & 0xF];
+      chars[2 * i + 1] = HEX[bytes[i] & 0xF];
+    }
+    return new String(chars);
+  }
+
+}
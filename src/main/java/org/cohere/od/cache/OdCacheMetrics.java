@@ -0,0 +1,36 @@
+package org.cohere.od.cache;
+
+import lombok.Value;
+
+/**
+ * Snapshot of the metrics of an {@link OdResultCache}.
+ */
+@Value
+public class OdCacheMetrics {
+
+  long memoryHits;
+  long diskHits;
+  long misses;
+  /**
+   * Requests that waited for an identical in-flight computation instead of starting their own.
+   */
+  long coalesced;
+  long evictions;
+  /**
+   * CPU time that would have been spent recomputing the results served from the cache or
+   * coalesced, in nanoseconds.
+   */
+  long savedCpuNanos;
+  int memorySize;
+
+  /**
+   * Returns the fraction of requests that did not trigger a computation.
+   *
+   * @return The hit ratio, or 0 if there has been no request.
+   */
+  public double getHitRatio() {
+    long hits = memoryHits + diskHits + coalesced;
+    long total = hits + misses;
+    return total == 0 ? 0.0 : (double) hits / total;
+  }
+}
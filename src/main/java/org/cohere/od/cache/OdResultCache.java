@@ -0,0 +1,236 @@
+package org.cohere.od.cache;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import lombok.extern.log4j.Log4j2;
+import org.cohere.od.models.StateAndCovariance;
+
+/**
+ * Two-tier cache of OD results keyed by {@link OdCacheKey}.
+ * <p>
+ * Results are kept in an in-memory LRU tier and, when a directory is given, written through to an
+ * on-disk tier that survives restarts. Concurrent requests for the same key are coalesced, so only
+ * one computation runs and the other callers wait for its result.
+ */
+@Log4j2
+public class OdResultCache {
+
+  private static final String FILE_EXTENSION = ".odc";
+
+  private final Path directory;
+  private final Map<String, CompletableFuture<CacheEntry>> inFlight = new ConcurrentHashMap<>();
+  private final Map<String, CacheEntry> memory;
+
+  private final LongAdder coalesced = new LongAdder();
+  private final LongAdder diskHits = new LongAdder();
+  private final LongAdder evictions = new LongAdder();
+  private final LongAdder memoryHits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder savedCpuNanos = new LongAdder();
+
+  /**
+   * Constructor.
+   *
+   * @param memoryCapacity The maximum number of results kept in memory.
+   * @param directory      The directory of the on-disk tier, or null for a memory-only cache.
+   * @throws IOException if the directory cannot be created.
+   */
+  public OdResultCache(int memoryCapacity, Path directory) throws IOException {
+
+    if (memoryCapacity < 1) {
+      throw new IllegalArgumentException("Memory capacity must be at least 1.");
+    }
+
+    this.directory = directory;
+    if (directory != null) {
+      Files.createDirectories(directory);
+    }
+
+    this.memory = new LinkedHashMap<>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, CacheEntry> eldest) {
+        boolean isFull = size() > memoryCapacity;
+        if (isFull) {
+          evictions.increment();
+        }
+        return isFull;
+      }
+    };
+  }
+
+  /**
+   * Gets the result for a key, computing it if it is in neither tier. If another thread is already
+   * computing the same key, waits for its result instead.
+   *
+   * @param key     The key of the request.
+   * @param compute The computation producing the result on a miss.
+   * @return The result.
+   */
+  public StateAndCovariance get(String key, Supplier<StateAndCovariance> compute) {
+
+    CacheEntry entry = getFromMemory(key);
+    if (entry != null) {
+      memoryHits.increment();
+      savedCpuNanos.add(entry.getCpuNanos());
+      return entry.getResult();
+    }
+
+    entry = getFromDisk(key);
+    if (entry != null) {
+      diskHits.increment();
+      savedCpuNanos.add(entry.getCpuNanos());
+      putInMemory(key, entry);
+      return entry.getResult();
+    }
+
+    CompletableFuture<CacheEntry> future = new CompletableFuture<>();
+    CompletableFuture<CacheEntry> existing = inFlight.putIfAbsent(key, future);
+    if (existing != null) {
+      coalesced.increment();
+      entry = await(existing);
+      savedCpuNanos.add(entry.getCpuNanos());
+      return entry.getResult();
+    }
+
+    try {
+      // An identical computation may have completed between the lookups and the registration.
+      entry = getFromMemory(key);
+      if (entry != null) {
+        memoryHits.increment();
+        savedCpuNanos.add(entry.getCpuNanos());
+        future.complete(entry);
+        return entry.getResult();
+      }
+
+      misses.increment();
+      entry = computeEntry(compute);
+      putInMemory(key, entry);
+      putOnDisk(key, entry);
+      future.complete(entry);
+      return entry.getResult();
+    } catch (RuntimeException ex) {
+      future.completeExceptionally(ex);
+      throw ex;
+    } finally {
+      inFlight.remove(key);
+    }
+  }
+
+  /**
+   * Returns a snapshot of the cache metrics.
+   *
+   * @return The metrics.
+   */
+  public OdCacheMetrics getMetrics() {
+    int memorySize;
+    synchronized (memory) {
+      memorySize = memory.size();
+    }
+    return new OdCacheMetrics(memoryHits.sum(), diskHits.sum(), misses.sum(), coalesced.sum(),
+        evictions.sum(), savedCpuNanos.sum(), memorySize);
+  }
+
+  private static CacheEntry computeEntry(Supplier<StateAndCovariance> compute) {
+    ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+    boolean isCpuTimeSupported = threads.isCurrentThreadCpuTimeSupported();
+    long start = isCpuTimeSupported ? threads.getCurrentThreadCpuTime() : System.nanoTime();
+    StateAndCovariance result = compute.get();
+    long end = isCpuTimeSupported ? threads.getCurrentThreadCpuTime() : System.nanoTime();
+    return new CacheEntry(result, end - start);
+  }
+
+  private static CacheEntry await(CompletableFuture<CacheEntry> future) {
+    try {
+      return future.get();
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while waiting for an identical OD.");
+    } catch (ExecutionException ex) {
+      if (ex.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) ex.getCause();
+      }
+      throw new IllegalStateException("Identical OD failed: " + ex.getCause().getMessage());
+    }
+  }
+
+  private CacheEntry getFromMemory(String key) {
+    synchronized (memory) {
+      return memory.get(key);
+    }
+  }
+
+  private void putInMemory(String key, CacheEntry entry) {
+    synchronized (memory) {
+      memory.put(key, entry);
+    }
+  }
+
+  private CacheEntry getFromDisk(String key) {
+
+    if (directory == null) {
+      return null;
+    }
+
+    Path file = directory.resolve(key + FILE_EXTENSION);
+    if (!Files.isRegularFile(file)) {
+      return null;
+    }
+
+    try (DataInputStream in = new DataInputStream(
+        new BufferedInputStream(Files.newInputStream(file)))) {
+      return OdResultCodec.read(in);
+    } catch (IOException | RuntimeException ex) {
+      log.warn("Ignoring unreadable cache entry {}: {}", file, ex.getMessage());
+      return null;
+    }
+  }
+
+  private void putOnDisk(String key, CacheEntry entry) {
+
+    if (directory == null || !OdResultCodec.isEncodable(entry.getResult())) {
+      return;
+    }
+
+    // Write to a temporary file first so that readers never see a partial entry.
+    Path file = directory.resolve(key + FILE_EXTENSION);
+    Path temporary = null;
+    try {
+      temporary = Files.createTempFile(directory, key, ".tmp");
+      try (DataOutputStream out = new DataOutputStream(
+          new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+        OdResultCodec.write(entry, out);
+      }
+      Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING,
+          StandardCopyOption.ATOMIC_MOVE);
+    } catch (IOException ex) {
+      log.warn("Unable to write cache entry {}: {}", file, ex.getMessage());
+      deleteQuietly(temporary);
+    }
+  }
+
+  private static void deleteQuietly(Path file) {
+    if (file != null) {
+      try {
+        Files.deleteIfExists(file);
+      } catch (IOException ex) {
+        log.debug("Unable to delete {}: {}", file, ex.getMessage());
+      }
+    }
+  }
+
+}
@@ -0,0 +1,58 @@
+package org.cohere.od.cache;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import org.cohere.od.models.StateAndCovariance;
+import org.cohere.od.utils.BinaryCodecUtils;
+import org.orekit.frames.Predefined;
+import org.orekit.propagation.SpacecraftState;
+import org.orekit.propagation.StateCovariance;
+
+/**
+ * Binary encoding of cached OD results.
+ * <p>
+ * States and covariances are encoded with {@link BinaryCodecUtils}, so only those expressed in
+ * {@link Predefined} frames can be encoded.
+ */
+class OdResultCodec {
+
+  private static final int FORMAT_VERSION = 1;
+
+  private OdResultCodec() {
+  }
+
+  /**
+   * Checks whether a result can be encoded.
+   *
+   * @param result The result to check.
+   * @return True if the frames of the state and covariance are predefined frames.
+   */
+  static boolean isEncodable(StateAndCovariance result) {
+    return BinaryCodecUtils.isPredefined(result.getState().getFrame())
+        && result.getCovariance().getFrame() != null
+        && BinaryCodecUtils.isPredefined(result.getCovariance().getFrame());
+  }
+
+  static void write(CacheEntry entry, DataOutputStream out) throws IOException {
+    out.writeInt(FORMAT_VERSION);
+    out.writeLong(entry.getCpuNanos());
+    BinaryCodecUtils.writeState(entry.getResult().getState(), out);
+    BinaryCodecUtils.writeCovariance(entry.getResult().getCovariance(), out);
+  }
+
+  static CacheEntry read(DataInputStream in) throws IOException {
+
+    int version = in.readInt();
+    if (version != FORMAT_VERSION) {
+      throw new IOException("Unsupported cache entry version: " + version);
+    }
+    long cpuNanos = in.readLong();
+
+    SpacecraftState state = BinaryCodecUtils.readState(in);
+    StateCovariance covariance = BinaryCodecUtils.readCovariance(in);
+
+    return new CacheEntry(new StateAndCovariance(covariance, state), cpuNanos);
+  }
+
+}
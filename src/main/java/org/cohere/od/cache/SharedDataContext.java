@@ -0,0 +1,212 @@
+package org.cohere.od.cache;
+
+import lombok.NonNull;
+import lombok.extern.log4j.Log4j2;
+import org.hipparchus.util.FastMath;
+import org.orekit.bodies.CelestialBody;
+import org.orekit.bodies.GeodeticPoint;
+import org.orekit.bodies.OneAxisEllipsoid;
+import org.orekit.data.DataContext;
+import org.orekit.estimation.measurements.GroundStation;
+import org.orekit.forces.gravity.potential.NormalizedSphericalHarmonicsProvider;
+import org.orekit.frames.Frame;
+import org.orekit.time.AbsoluteDate;
+import org.orekit.time.TimeScale;
+
+/**
+ * The Orekit data shared by concurrent ODs, loaded once and injected into the factories and
+ * processors instead of being looked up in the global factories.
+ * <p>
+ * The global factories load their data lazily behind locks, and some lookups, such as
+ * {@code GravityFieldFactory.getNormalizedProvider}, parse their data files again on each call.
+ * With many ODs running concurrently, they serialize on these locks. This context resolves the
+ * time scales, the GCRF, the gravity field at its maximum degree and order and, optionally, the Sun
+ * and Moon once, at construction. It owns a {@link GeometryCache} sized to hold the configured time
+ * span, and samples the Earth orientation and the bodies over the span up front. After that, reads
+ * within the span only go through lock-free map lookups. Dates outside the span are still served,
+ * by sampling on demand.
+ * <p>
+ * The context is immutable apart from its geometry cache, and is meant to be built once per process
+ * and shared by all threads, rather than giving each thread its own data context.
+ */
+@Log4j2
+public final class SharedDataContext {
+
+  private final DataContext dataContext;
+  private final TimeScale utc;
+  private final TimeScale tai;
+  private final Frame gcrf;
+  private final NormalizedSphericalHarmonicsProvider gravityField;
+  private final GeometryCache geometryCache;
+  private final CelestialBody sun;
+  private final CelestialBody moon;
+
+  /**
+   * Constructor, loading the data of the default data context.
+   *
+   * @param settings The settings.
+   */
+  public SharedDataContext(@NonNull SharedDataContextSettings settings) {
+    this(settings, DataContext.getDefault());
+  }
+
+  /**
+   * Constructor. Loads the data and samples the geometry over the time span of the settings.
+   *
+   * @param settings    The settings.
+   * @param dataContext The data context the data is loaded from.
+   */
+  public SharedDataContext(@NonNull SharedDataContextSettings settings,
+      @NonNull DataContext dataContext) {
+
+    if (settings.getMaxGravityDegree() < 0
+        || settings.getMaxGravityOrder() > settings.getMaxGravityDegree()) {
+      throw new IllegalArgumentException("The gravity order must be at most the degree.");
+    }
+    if (!(settings.getDuration() > 0.0)) {
+      throw new IllegalArgumentException("The sampled time span must be positive.");
+    }
+
+    long start = System.nanoTime();
+    this.dataContext = dataContext;
+    this.utc = dataContext.getTimeScales().getUTC();
+    this.tai = dataContext.getTimeScales().getTAI();
+    this.gcrf = dataContext.getFrames().getGCRF();
+    this.gravityField = dataContext.getGravityFields().getNormalizedProvider(
+        settings.getMaxGravityDegree(), settings.getMaxGravityOrder());
+
+    // Keep the whole span, so the samples taken up front are never evicted.
+    GeometryCacheSettings cacheSettings = settings.getGeometryCacheSettings();
+    double blockDuration = cacheSettings.getBlockSamples()
+        * FastMath.min(cacheSettings.getEarthStep(), cacheSettings.getBodyStep());
+    int spanBlocks = (int) FastMath.ceil(settings.getDuration() / blockDuration) + 2;
+    this.geometryCache = new GeometryCache(cacheSettings.toBuilder()
+        .maxBlocks(FastMath.max(cacheSettings.getMaxBlocks(), 2 * spanBlocks))
+        .build(), dataContext);
+    this.sun = settings.isCelestialBodies() ? geometryCache.getSun() : null;
+    this.moon = settings.isCelestialBodies() ? geometryCache.getMoon() : null;
+
+    AbsoluteDate spanStart = settings.getStart();
+    if (spanStart != null) {
+      Frame earthFrame = geometryCache.getEarth().getBodyFrame();
+      gravityField.onDate(spanStart);
+      for (double offset = 0.0; offset <= settings.getDuration() + blockDuration;
+          offset += blockDuration) {
+        AbsoluteDate date = spanStart.shiftedBy(offset);
+        earthFrame.getTransformTo(gcrf, date);
+        if (sun != null) {
+          sun.getPVCoordinates(date, gcrf);
+          moon.getPVCoordinates(date, gcrf);
+        }
+      }
+    }
+    log.info("Loaded shared data context in {} ms: {}x{} gravity field, {}.",
+        (System.nanoTime() - start) / 1.0e6, gravityField.getMaxDegree(),
+        gravityField.getMaxOrder(), geometryCache.getMetrics());
+  }
+
+  /**
+   * Gets the data context the data was loaded from.
+   *
+   * @return The data context.
+   */
+  public DataContext getDataContext() {
+    return dataContext;
+  }
+
+  /**
+   * Gets the UTC time scale.
+   *
+   * @return UTC.
+   */
+  public TimeScale getUtc() {
+    return utc;
+  }
+
+  /**
+   * Gets the TAI time scale.
+   *
+   * @return TAI.
+   */
+  public TimeScale getTai() {
+    return tai;
+  }
+
+  /**
+   * Gets the GCRF.
+   *
+   * @return The GCRF.
+   */
+  public Frame getGcrf() {
+    return gcrf;
+  }
+
+  /**
+   * Gets the shared Earth, whose body frame is the cached ITRF of the geometry cache.
+   *
+   * @return The Earth.
+   */
+  public OneAxisEllipsoid getEarth() {
+    return geometryCache.getEarth();
+  }
+
+  /**
+   * Gets the shared geometry cache.
+   *
+   * @return The geometry cache.
+   */
+  public GeometryCache getGeometryCache() {
+    return geometryCache;
+  }
+
+  /**
+   * Gets the cached Sun. Unless it was loaded up front, the first call loads it.
+   *
+   * @return The Sun.
+   */
+  public CelestialBody getSun() {
+    return sun == null ? geometryCache.getSun() : sun;
+  }
+
+  /**
+   * Gets the cached Moon. Unless it was loaded up front, the first call loads it.
+   *
+   * @return The Moon.
+   */
+  public CelestialBody getMoon() {
+    return moon == null ? geometryCache.getMoon() : moon;
+  }
+
+  /**
+   * Gets the gravity field up to a degree and order, from the field loaded at construction.
+   *
+   * @param degree The maximum degree.
+   * @param order  The maximum order.
+   * @return The gravity field.
+   * @throws IllegalArgumentException if the degree or order exceed those of the loaded field.
+   */
+  public NormalizedSphericalHarmonicsProvider getGravityField(int degree, int order) {
+    if (degree > gravityField.getMaxDegree() || order > gravityField.getMaxOrder()
+        || order > degree) {
+      throw new IllegalArgumentException("Cannot serve a " + degree + "x" + order
+          + " gravity field from the loaded " + gravityField.getMaxDegree() + "x"
+          + gravityField.getMaxOrder() + " one.");
+    }
+    if (degree == gravityField.getMaxDegree() && order == gravityField.getMaxOrder()) {
+      return gravityField;
+    }
+    return new TruncatedGravityField(gravityField, degree, order);
+  }
+
+  /**
+   * Creates a ground station on the shared Earth.
+   *
+   * @param point The location of the station.
+   * @param name  The name of the station.
+   * @return The ground station.
+   */
+  public GroundStation createGroundStation(@NonNull GeodeticPoint point, @NonNull String name) {
+    return geometryCache.createGroundStation(point, name);
+  }
+
+}
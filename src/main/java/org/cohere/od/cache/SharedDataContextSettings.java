@@ -0,0 +1,60 @@
+package org.cohere.od.cache;
+
+import lombok.Builder;
+import lombok.NonNull;
+import lombok.Value;
+import org.orekit.time.AbsoluteDate;
+
+/**
+ * Configuration of a {@link SharedDataContext}.
+ */
+@Value
+@Builder(toBuilder = true)
+public class SharedDataContextSettings {
+
+  /**
+   * The default settings.
+   */
+  public static final SharedDataContextSettings DEFAULT = SharedDataContextSettings.builder()
+      .build();
+
+  /**
+   * Maximum degree of the gravity fields served, loaded once.
+   */
+  @Builder.Default
+  int maxGravityDegree = 21;
+
+  /**
+   * Maximum order of the gravity fields served.
+   */
+  @Builder.Default
+  int maxGravityOrder = 21;
+
+  /**
+   * Whether the Sun and Moon are loaded up front. Requires planetary ephemerides.
+   */
+  @Builder.Default
+  boolean celestialBodies = false;
+
+  /**
+   * Start of the time span over which the Earth orientation, and the Sun and Moon when loaded, are
+   * sampled up front, or null to sample them on demand only.
+   */
+  @Builder.Default
+  AbsoluteDate start = null;
+
+  /**
+   * Duration of the time span sampled up front, in seconds. The geometry cache keeps at least the
+   * whole span.
+   */
+  @Builder.Default
+  double duration = 7.0 * 86400.0;
+
+  /**
+   * Settings of the shared geometry cache.
+   */
+  @NonNull
+  @Builder.Default
+  GeometryCacheSettings geometryCacheSettings = GeometryCacheSettings.DEFAULT;
+
+}
@@ -0,0 +1,144 @@
+package org.cohere.od.cache;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import org.orekit.time.AbsoluteDate;
+
+/**
+ * Thread-safe cache of samples of a time-dependent quantity on a regular time grid.
+ * <p>
+ * The grid is aligned on a fixed reference date, so a sample only depends on its index and the
+ * values served do not depend on the order of the requests. Samples are generated by blocks of
+ * consecutive indices; concurrent requests for a missing block wait for a single generation. When
+ * the number of blocks exceeds the capacity, the least recently used block is evicted.
+ *
+ * @param <T> The type of the samples.
+ */
+final class TimeSampleCache<T> {
+
+  private static final AbsoluteDate REFERENCE = AbsoluteDate.J2000_EPOCH;
+
+  private final double step;
+  private final int blockSamples;
+  private final int maxBlocks;
+  private final Function<AbsoluteDate, T> generator;
+  private final Map<Long, Block> blocks = new ConcurrentHashMap<>();
+
+  private final LongAdder evictions = new LongAdder();
+  private final LongAdder lookups = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+
+  /**
+   * Constructor.
+   *
+   * @param step         The step of the time grid, in seconds.
+   * @param blockSamples The number of samples generated together.
+   * @param maxBlocks    The maximum number of blocks kept.
+   * @param generator    The generator of the sample at a grid date.
+   */
+  TimeSampleCache(double step, int blockSamples, int maxBlocks,
+      Function<AbsoluteDate, T> generator) {
+    this.step = step;
+    this.blockSamples = blockSamples;
+    this.maxBlocks = maxBlocks;
+    this.generator = generator;
+  }
+
+  /**
+   * Gets the position of a date on the time grid.
+   *
+   * @param date The date.
+   * @return The fractional grid index of the date.
+   */
+  double indexOf(AbsoluteDate date) {
+    return date.durationFrom(REFERENCE) / step;
+  }
+
+  /**
+   * Gets the date of a grid index.
+   *
+   * @param index The grid index.
+   * @return The date.
+   */
+  AbsoluteDate dateOf(long index) {
+    return REFERENCE.shiftedBy(index * step);
+  }
+
+  double getStep() {
+    return step;
+  }
+
+  /**
+   * Gets the sample at a grid index, generating its block if needed.
+   *
+   * @param index The grid index.
+   * @return The sample.
+   */
+  @SuppressWarnings("unchecked")
+  T get(long index) {
+
+    lookups.increment();
+    long blockIndex = Math.floorDiv(index, blockSamples);
+    Block block = blocks.get(blockIndex);
+    if (block == null) {
+      // Concurrent lookups of a missing block wait for a single generation.
+      block = blocks.computeIfAbsent(blockIndex, this::generate);
+      if (blocks.size() > maxBlocks) {
+        evictLeastRecentlyUsed(blockIndex);
+      }
+    }
+    block.lastAccess = System.nanoTime();
+    return (T) block.samples[(int) (index - blockIndex * blockSamples)];
+  }
+
+  /**
+   * Returns a snapshot of the metrics of this cache.
+   *
+   * @return The metrics.
+   */
+  GeometryCacheMetrics getMetrics() {
+    long missCount = misses.sum();
+    return new GeometryCacheMetrics(lookups.sum() - missCount, missCount, evictions.sum(),
+        (long) blocks.size() * blockSamples);
+  }
+
+  private Block generate(long blockIndex) {
+    misses.increment();
+    Object[] samples = new Object[blockSamples];
+    for (int i = 0; i < blockSamples; i++) {
+      samples[i] = generator.apply(dateOf(blockIndex * blockSamples + i));
+    }
+    return new Block(samples);
+  }
+
+  private void evictLeastRecentlyUsed(long keep) {
+    // Scanning is only done after a generation, which is far more expensive.
+    while (blocks.size() > maxBlocks) {
+      Long eldest = null;
+      long eldestAccess = Long.MAX_VALUE;
+      for (Map.Entry<Long, Block> entry : blocks.entrySet()) {
+        if (entry.getKey() != keep && entry.getValue().lastAccess < eldestAccess) {
+          eldest = entry.getKey();
+          eldestAccess = entry.getValue().lastAccess;
+        }
+      }
+      if (eldest == null || blocks.remove(eldest) == null) {
+        return;
+      }
+      evictions.increment();
+    }
+  }
+
+  private static final class Block {
+
+    private final Object[] samples;
+    private volatile long lastAccess = System.nanoTime();
+
+    private Block(Object[] samples) {
+      this.samples = samples;
+    }
+  }
+
+}
@@ -0,0 +1,80 @@
+package org.cohere.od.cache;
+
+import org.orekit.forces.gravity.potential.NormalizedSphericalHarmonicsProvider;
+import org.orekit.forces.gravity.potential.TideSystem;
+import org.orekit.time.AbsoluteDate;
+
+/**
+ * A view of a gravity field limited to a lower degree and order, so that fields of any size can be
+ * served from a single loaded one.
+ * <p>
+ * The spherical harmonics models only read the coefficients up to the maximum degree and order of
+ * their provider, so the coefficients of the loaded field are used as they are.
+ */
+final class TruncatedGravityField implements NormalizedSphericalHarmonicsProvider {
+
+  private final NormalizedSphericalHarmonicsProvider field;
+  private final int degree;
+  private final int order;
+
+  /**
+   * Constructor.
+   *
+   * @param field  The loaded field.
+   * @param degree The maximum degree, at most the one of the loaded field.
+   * @param order  The maximum order, at most the degree and the one of the loaded field.
+   */
+  TruncatedGravityField(NormalizedSphericalHarmonicsProvider field, int degree, int order) {
+    this.field = field;
+    this.degree = degree;
+    this.order = order;
+  }
+
+  @Override
+  public NormalizedSphericalHarmonics onDate(AbsoluteDate date) {
+    return field.onDate(date);
+  }
+
+  @Override
+  public int getMaxDegree() {
+    return degree;
+  }
+
+  @Override
+  public int getMaxOrder() {
+    return order;
+  }
+
+  @Override
+  public double getMu() {
+    return field.getMu();
+  }
+
+  @Override
+  public double getAe() {
+    return field.getAe();
+  }
+
+  @Override
+  public AbsoluteDate getReferenceDate() {
+    return field.getReferenceDate();
+  }
+
+  /**
+   * Gets the offset from the reference date of the field.
+   *
+   * @deprecated Deprecated in the provider interface since Orekit 11.1, only delegated to the
+   *     truncated field until it is removed.
+   */
+  @Deprecated
+  @Override
+  public double getOffset(AbsoluteDate date) {
+    return field.getOffset(date);
+  }
+
+  @Override
+  public TideSystem getTideSystem() {
+    return field.getTideSystem();
+  }
+
+}
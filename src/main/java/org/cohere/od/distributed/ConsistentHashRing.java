@@ -0,0 +1,77 @@
+package org.cohere.od.distributed;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Consistent hash ring mapping target identifiers to workers.
+ * <p>
+ * Each worker is placed on the ring at several virtual nodes, so that targets are spread evenly and
+ * removing a worker only moves the targets it owned. This class is not thread-safe.
+ */
+class ConsistentHashRing {
+
+  private final int virtualNodes;
+  private final TreeMap<Long, String> ring = new TreeMap<>();
+
+  /**
+   * Constructor.
+   *
+   * @param virtualNodes The number of virtual nodes of each worker.
+   */
+  ConsistentHashRing(int virtualNodes) {
+    if (virtualNodes < 1) {
+      throw new IllegalArgumentException("Must have at least 1 virtual node per worker.");
+    }
+    this.virtualNodes = virtualNodes;
+  }
+
+  void add(String workerId) {
+    for (int i = 0; i < virtualNodes; i++) {
+      ring.put(hash(workerId + "#" + i), workerId);
+    }
+  }
+
+  void remove(String workerId) {
+    for (int i = 0; i < virtualNodes; i++) {
+      ring.remove(hash(workerId + "#" + i), workerId);
+    }
+  }
+
+  boolean isEmpty() {
+    return ring.isEmpty();
+  }
+
+  /**
+   * Gets the worker owning a target: the first worker clockwise from the hash of the target.
+   *
+   * @param targetId The target identifier.
+   * @return The worker identifier, or null if the ring is empty.
+   */
+  String route(String targetId) {
+    if (ring.isEmpty()) {
+      return null;
+    }
+    SortedMap<Long, String> tail = ring.tailMap(hash(targetId));
+    return tail.isEmpty() ? ring.firstEntry().getValue() : tail.get(tail.firstKey());
+  }
+
+  private static long hash(String key) {
+    MessageDigest digest;
+    try {
+      digest = MessageDigest.getInstance("MD5");
+    } catch (NoSuchAlgorithmException ex) {
+      throw new IllegalStateException("MD5 is not available.", ex);
+    }
+    byte[] bytes = digest.digest(key.getBytes(StandardCharsets.UTF_8));
+    long hash = 0;
+    for (int i = 0; i < Long.BYTES; i++) {
+      hash = (hash << 8) | (bytes[i] & 0xff);
+    }
+    return hash;
+  }
+
+}
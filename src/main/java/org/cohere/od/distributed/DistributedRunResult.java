@@ -0,0 +1,29 @@
+package org.cohere.od.distributed;
+
+import java.util.List;
+import lombok.Value;
+
+/**
+ * The results of a distributed run, with the scheduling diagnostics.
+ */
+@Value
+public class DistributedRunResult {
+
+  /**
+   * The results, in the order of the submitted jobs.
+   */
+  List<OdJobResult> results;
+  /**
+   * The number of jobs taken from the queue of another worker.
+   */
+  int stolenJobs;
+  /**
+   * The number of jobs moved to another worker after the loss of their worker.
+   */
+  int reassignedJobs;
+  /**
+   * The workers lost during the run.
+   */
+  List<String> lostWorkers;
+  long elapsedNanos;
+}
@@ -0,0 +1,63 @@
+package org.cohere.od.distributed;
+
+import java.io.IOException;
+import lombok.NonNull;
+
+/**
+ * A {@link WorkerConnection} calling an {@link OdWorker} of the same JVM.
+ * <p>
+ * A connection can be {@link #disconnect() disconnected} to simulate the loss of its worker.
+ */
+public class InProcessWorkerConnection implements WorkerConnection {
+
+  private final OdWorker worker;
+  private volatile boolean isConnected = true;
+
+  /**
+   * Constructor.
+   *
+   * @param worker The worker to call.
+   */
+  public InProcessWorkerConnection(@NonNull OdWorker worker) {
+    this.worker = worker;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public String getWorkerId() {
+    return worker.getWorkerId();
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public OdJobResult process(OdJob job) throws IOException {
+    if (!isConnected) {
+      throw new IOException("Worker " + worker.getWorkerId() + " is disconnected.");
+    }
+    OdJobResult result = worker.process(job);
+    if (!isConnected) {
+      throw new IOException("Worker " + worker.getWorkerId() + " disconnected during the OD.");
+    }
+    return result;
+  }
+
+  /**
+   * Disconnects the worker: the job in progress and all the following ones fail.
+   */
+  public void disconnect() {
+    isConnected = false;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void close() {
+    isConnected = false;
+  }
+
+}
@@ -0,0 +1,260 @@
+package org.cohere.od.distributed;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import lombok.NonNull;
+import lombok.extern.log4j.Log4j2;
+
+/**
+ * Coordinator of a distributed OD, dispatching jobs to workers through pluggable
+ * {@link WorkerConnection}s.
+ * <p>
+ * Jobs are partitioned on a {@link ConsistentHashRing} by target identifier, so that a target is
+ * processed by the same worker on every run and the state a worker keeps for its targets stays
+ * local. Each connection is served by a dispatcher thread taking jobs from the queue of its worker.
+ * A dispatcher whose queue is empty steals the last job of the longest queue of another worker, so
+ * that stragglers do not hold up the run.
+ * <p>
+ * A connection failing with an {@link IOException} marks its worker as lost: the worker is removed
+ * from the ring, its queued jobs and the job in progress are re-assigned to the workers now owning
+ * their targets, and its connections are closed.
+ */
+@Log4j2
+public class OdCoordinator {
+
+  /**
+   * Default number of virtual nodes of each worker on the hash ring.
+   */
+  public static final int DEFAULT_VIRTUAL_NODES = 64;
+
+  private final Map<String, List<WorkerConnection>> connections = new LinkedHashMap<>();
+  private final int virtualNodes;
+
+  /**
+   * Constructor.
+   *
+   * @param connections  The connections to the workers. Connections sharing a worker identifier
+   *                     share the jobs of that worker.
+   * @param virtualNodes The number of virtual nodes of each worker on the hash ring.
+   */
+  public OdCoordinator(@NonNull List<? extends WorkerConnection> connections, int virtualNodes) {
+    if (connections.isEmpty()) {
+      throw new IllegalArgumentException("Must provide at least 1 worker connection.");
+    }
+    for (WorkerConnection connection : connections) {
+      this.connections.computeIfAbsent(connection.getWorkerId(), id -> new ArrayList<>())
+          .add(connection);
+    }
+    this.virtualNodes = virtualNodes;
+  }
+
+  /**
+   * Constructor with {@link #DEFAULT_VIRTUAL_NODES} virtual nodes per worker.
+   *
+   * @param connections The connections to the workers.
+   */
+  public OdCoordinator(@NonNull List<? extends WorkerConnection> connections) {
+    this(connections, DEFAULT_VIRTUAL_NODES);
+  }
+
+  /**
+   * Processes jobs on the workers and waits for all the results.
+   *
+   * @param jobs The jobs to process.
+   * @return The results, in the order of the jobs.
+   * @throws IllegalStateException if all the workers are lost before the jobs are processed, or if
+   *                               interrupted.
+   */
+  public DistributedRunResult run(@NonNull List<OdJob> jobs) {
+
+    long start = System.nanoTime();
+    Run run = new Run(jobs);
+    List<Thread> dispatchers = new ArrayList<>();
+    connections.forEach((workerId, workerConnections) -> {
+      for (int i = 0; i < workerConnections.size(); i++) {
+        WorkerConnection connection = workerConnections.get(i);
+        Thread dispatcher = new Thread(() -> dispatch(run, connection),
+            "od-dispatch-" + workerId + "-" + i);
+        dispatcher.setDaemon(true);
+        dispatchers.add(dispatcher);
+      }
+    });
+    dispatchers.forEach(Thread::start);
+
+    try {
+      run.awaitCompletion();
+    } catch (InterruptedException ex) {
+      run.abort();
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while waiting for distributed OD.");
+    }
+    return run.toResult(System.nanoTime() - start);
+  }
+
+  private void dispatch(Run run, WorkerConnection connection) {
+    String workerId = connection.getWorkerId();
+    int index;
+    while ((index = run.take(workerId)) >= 0) {
+      OdJob job = run.getJob(index);
+      OdJobResult result;
+      try {
+        result = connection.process(job);
+      } catch (IOException ex) {
+        log.warn("Lost worker {} while processing target {}: {}", workerId, job.getTargetId(),
+            ex.getMessage());
+        if (run.loseWorker(workerId, index)) {
+          closeConnections(workerId);
+        }
+        return;
+      } catch (RuntimeException ex) {
+        // The job itself is at fault, for example it cannot be encoded.
+        result = new OdJobResult(job.getTargetId(), workerId, null,
+            String.valueOf(ex.getMessage()), 0);
+      }
+      run.complete(index, result);
+    }
+  }
+
+  private void closeConnections(String workerId) {
+    for (WorkerConnection connection : connections.get(workerId)) {
+      try {
+        connection.close();
+      } catch (IOException ex) {
+        log.debug("Failed to close connection to worker {}: {}", workerId, ex.getMessage());
+      }
+    }
+  }
+
+  /**
+   * The scheduling state of a run, shared by the dispatchers.
+   */
+  private final class Run {
+
+    private final List<OdJob> jobs;
+    private final ConsistentHashRing ring = new ConsistentHashRing(virtualNodes);
+    private final Map<String, Deque<Integer>> queues = new LinkedHashMap<>();
+    private final OdJobResult[] results;
+    private final List<String> lostWorkers = new ArrayList<>();
+    private int pending;
+    private int stolen;
+    private int reassigned;
+    private boolean isAborted;
+
+    Run(List<OdJob> jobs) {
+      this.jobs = new ArrayList<>(jobs);
+      this.results = new OdJobResult[jobs.size()];
+      this.pending = jobs.size();
+      for (String workerId : connections.keySet()) {
+        ring.add(workerId);
+        queues.put(workerId, new ArrayDeque<>());
+      }
+      for (int i = 0; i < jobs.size(); i++) {
+        queues.get(ring.route(jobs.get(i).getTargetId())).addLast(i);
+      }
+    }
+
+    OdJob getJob(int index) {
+      return jobs.get(index);
+    }
+
+    /**
+     * Takes the next job of a worker, stealing one if its queue is empty, and waits while jobs are
+     * in progress elsewhere, since they may be re-assigned to it.
+     *
+     * @return The index of the job, or -1 once the run is over for this worker.
+     */
+    synchronized int take(String workerId) {
+      while (true) {
+        if (pending == 0 || isAborted || lostWorkers.contains(workerId)) {
+          return -1;
+        }
+        Integer index = queues.get(workerId).pollFirst();
+        if (index != null) {
+          return index;
+        }
+        Deque<Integer> victim = null;
+        for (Map.Entry<String, Deque<Integer>> entry : queues.entrySet()) {
+          if (!lostWorkers.contains(entry.getKey()) && !entry.getValue().isEmpty()
+              && (victim == null || entry.getValue().size() > victim.size())) {
+            victim = entry.getValue();
+          }
+        }
+        if (victim != null) {
+          stolen++;
+          return victim.pollLast();
+        }
+        try {
+          wait();
+        } catch (InterruptedException ex) {
+          Thread.currentThread().interrupt();
+          return -1;
+        }
+      }
+    }
+
+    synchronized void complete(int index, OdJobResult result) {
+      if (results[index] == null) {
+        results[index] = result;
+        pending--;
+      }
+      notifyAll();
+    }
+
+    /**
+     * Removes a lost worker and re-assigns its jobs, including the one in progress.
+     *
+     * @return True if the worker was not already known to be lost.
+     */
+    synchronized boolean loseWorker(String workerId, int inProgress) {
+      boolean isNewlyLost = !lostWorkers.contains(workerId);
+      if (isNewlyLost) {
+        lostWorkers.add(workerId);
+        ring.remove(workerId);
+      }
+      Deque<Integer> orphans = queues.get(workerId);
+      orphans.addFirst(inProgress);
+      if (ring.isEmpty()) {
+        log.error("All workers lost with {} jobs pending.", pending);
+        isAborted = true;
+      } else {
+        while (!orphans.isEmpty()) {
+          int index = orphans.pollFirst();
+          queues.get(ring.route(jobs.get(index).getTargetId())).addLast(index);
+          reassigned++;
+        }
+      }
+      notifyAll();
+      return isNewlyLost;
+    }
+
+    synchronized void abort() {
+      isAborted = true;
+      notifyAll();
+    }
+
+    synchronized void awaitCompletion() throws InterruptedException {
+      while (pending > 0 && !isAborted) {
+        wait();
+      }
+      if (pending > 0) {
+        throw new IllegalStateException(
+            "All workers lost with " + pending + " of " + jobs.size() + " jobs pending.");
+      }
+    }
+
+    synchronized DistributedRunResult toResult(long elapsedNanos) {
+      return new DistributedRunResult(Collections.unmodifiableList(Arrays.asList(results)),
+          stolen, reassigned, Collections.unmodifiableList(new ArrayList<>(lostWorkers)),
+          elapsedNanos);
+    }
+
+  }
+
+}
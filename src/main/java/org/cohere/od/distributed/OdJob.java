@@ -0,0 +1,21 @@
+package org.cohere.od.distributed;
+
+import java.util.List;
+import lombok.NonNull;
+import lombok.Value;
+import org.orekit.estimation.measurements.ObservedMeasurement;
+import org.orekit.propagation.SpacecraftState;
+
+/**
+ * An OD request for a single target, as dispatched to a worker.
+ */
+@Value
+public class OdJob {
+
+  /**
+   * The target identifier, used to route the job to the same worker on every run.
+   */
+  @NonNull String targetId;
+  @NonNull SpacecraftState initialState;
+  @NonNull List<ObservedMeasurement<?>> measurements;
+}
@@ -0,0 +1,118 @@
+package org.cohere.od.distributed;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.cohere.od.models.StateAndCovariance;
+import org.cohere.od.utils.AstroUtils;
+import org.cohere.od.utils.BinaryCodecUtils;
+import org.orekit.bodies.GeodeticPoint;
+import org.orekit.estimation.measurements.AngularRaDec;
+import org.orekit.estimation.measurements.GroundStation;
+import org.orekit.estimation.measurements.ObservableSatellite;
+import org.orekit.estimation.measurements.ObservedMeasurement;
+import org.orekit.frames.Frame;
+import org.orekit.frames.Predefined;
+import org.orekit.frames.TopocentricFrame;
+import org.orekit.propagation.SpacecraftState;
+import org.orekit.propagation.StateCovariance;
+
+/**
+ * Binary encoding of {@link OdJob} and {@link OdJobResult} for the socket transport.
+ * <p>
+ * States, dates and frames are encoded with {@link BinaryCodecUtils}, so only states expressed in
+ * {@link Predefined} frames and {@link AngularRaDec} measurements can be encoded. Stations are
+ * encoded by name and geodetic point, and a decoder reuses the stations it already rebuilt.
+ */
+class OdJobCodec {
+
+  private final Map<String, GroundStation> stations = new HashMap<>();
+
+  void writeJob(OdJob job, DataOutputStream out) throws IOException {
+    out.writeUTF(job.getTargetId());
+    BinaryCodecUtils.writeState(job.getInitialState(), out);
+    out.writeInt(job.getMeasurements().size());
+    for (ObservedMeasurement<?> measurement : job.getMeasurements()) {
+      if (!(measurement instanceof AngularRaDec)) {
+        throw new IllegalArgumentException(
+            "Unsupported measurement type: " + measurement.getMeasurementType());
+      }
+      AngularRaDec raDec = (AngularRaDec) measurement;
+      TopocentricFrame station = raDec.getStation().getBaseFrame();
+      GeodeticPoint point = station.getPoint();
+      out.writeUTF(station.getName());
+      out.writeDouble(point.getLatitude());
+      out.writeDouble(point.getLongitude());
+      out.writeDouble(point.getAltitude());
+      BinaryCodecUtils.writeFrame(raDec.getReferenceFrame(), out);
+      BinaryCodecUtils.writeDate(raDec.getDate(), out);
+      BinaryCodecUtils.writeArray(raDec.getObservedValue(), out);
+      BinaryCodecUtils.writeArray(raDec.getTheoreticalStandardDeviation(), out);
+      BinaryCodecUtils.writeArray(raDec.getBaseWeight(), out);
+      out.writeInt(raDec.getSatellites().get(0).getPropagatorIndex());
+      out.writeBoolean(raDec.isEnabled());
+    }
+  }
+
+  OdJob readJob(DataInputStream in) throws IOException {
+    String targetId = in.readUTF();
+    SpacecraftState initialState = BinaryCodecUtils.readState(in);
+    int count = in.readInt();
+    List<ObservedMeasurement<?>> measurements = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      String name = in.readUTF();
+      GeodeticPoint point = new GeodeticPoint(in.readDouble(), in.readDouble(), in.readDouble());
+      GroundStation station = station(name, point);
+      Frame frame = BinaryCodecUtils.readFrame(in);
+      AngularRaDec raDec = new AngularRaDec(station, frame, BinaryCodecUtils.readDate(in),
+          BinaryCodecUtils.readArray(in), BinaryCodecUtils.readArray(in),
+          BinaryCodecUtils.readArray(in), new ObservableSatellite(in.readInt()));
+      raDec.setEnabled(in.readBoolean());
+      measurements.add(raDec);
+    }
+    return new OdJob(targetId, initialState, measurements);
+  }
+
+  void writeResult(OdJobResult result, DataOutputStream out) throws IOException {
+    out.writeUTF(result.getTargetId());
+    out.writeUTF(result.getWorkerId());
+    out.writeLong(result.getElapsedNanos());
+    out.writeBoolean(result.isSuccessful());
+    if (!result.isSuccessful()) {
+      out.writeUTF(result.getError());
+      return;
+    }
+    BinaryCodecUtils.writeState(result.getResult().getState(), out);
+    BinaryCodecUtils.writeCovariance(result.getResult().getCovariance(), out);
+  }
+
+  OdJobResult readResult(DataInputStream in) throws IOException {
+    String targetId = in.readUTF();
+    String workerId = in.readUTF();
+    long elapsedNanos = in.readLong();
+    if (!in.readBoolean()) {
+      return new OdJobResult(targetId, workerId, null, in.readUTF(), elapsedNanos);
+    }
+    SpacecraftState state = BinaryCodecUtils.readState(in);
+    StateCovariance covariance = BinaryCodecUtils.readCovariance(in);
+    return new OdJobResult(targetId, workerId, new StateAndCovariance(covariance, state), null,
+        elapsedNanos);
+  }
+
+  private GroundStation station(String name, GeodeticPoint point) {
+    GroundStation station = stations.get(name);
+    GeodeticPoint known = station == null ? null : station.getBaseFrame().getPoint();
+    if (known == null || known.getLatitude() != point.getLatitude()
+        || known.getLongitude() != point.getLongitude()
+        || known.getAltitude() != point.getAltitude()) {
+      station = new GroundStation(new TopocentricFrame(AstroUtils.EARTH, point, name));
+      stations.put(name, station);
+    }
+    return station;
+  }
+
+}
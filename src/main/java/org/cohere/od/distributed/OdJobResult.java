@@ -0,0 +1,36 @@
+package org.cohere.od.distributed;
+
+import lombok.Value;
+import org.cohere.od.models.StateAndCovariance;
+
+/**
+ * The outcome of an {@link OdJob}: either the estimated state and covariance or the error message
+ * of the failed OD.
+ */
+@Value
+public class OdJobResult {
+
+  String targetId;
+  /**
+   * The identifier of the worker that processed the job.
+   */
+  String workerId;
+  /**
+   * The estimated state and covariance, or null if the OD failed.
+   */
+  StateAndCovariance result;
+  /**
+   * The error message, or null if the OD succeeded.
+   */
+  String error;
+  long elapsedNanos;
+
+  /**
+   * Whether the OD succeeded.
+   *
+   * @return True if the result is set.
+   */
+  public boolean isSuccessful() {
+    return result != null;
+  }
+}
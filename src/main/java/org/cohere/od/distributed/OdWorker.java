@@ -0,0 +1,67 @@
+package org.cohere.od.distributed;
+
+import java.util.ArrayList;
+import lombok.NonNull;
+import lombok.extern.log4j.Log4j2;
+import org.apache.logging.log4j.CloseableThreadContext;
+import org.cohere.od.OdProcessor;
+import org.cohere.od.jfr.OdJobEvent;
+import org.cohere.od.models.StateAndCovariance;
+
+/**
+ * The worker side of the distributed OD, processing jobs with an {@link OdProcessor}.
+ * <p>
+ * The coordinator routes a target to the same worker on every run, so a processor keeping state
+ * across jobs, such as a {@link org.cohere.od.CachingOdProcessor}, stays warm for its targets.
+ */
+@Log4j2
+public class OdWorker {
+
+  private final String workerId;
+  private final OdProcessor processor;
+
+  /**
+   * Constructor.
+   *
+   * @param workerId  The identifier of the worker.
+   * @param processor The processor performing the ODs. It must be thread-safe if the worker is
+   *                  reached through several connections.
+   */
+  public OdWorker(@NonNull String workerId, @NonNull OdProcessor processor) {
+    this.workerId = workerId;
+    this.processor = processor;
+  }
+
+  /**
+   * Gets the identifier of the worker.
+   *
+   * @return The worker identifier.
+   */
+  public String getWorkerId() {
+    return workerId;
+  }
+
+  /**
+   * Processes a job. A failed OD is reported in the result rather than thrown.
+   *
+   * @param job The job to process.
+   * @return The result of the job.
+   */
+  public OdJobResult process(@NonNull OdJob job) {
+    long start = System.nanoTime();
+    try (CloseableThreadContext.Instance ignored = CloseableThreadContext.put(
+        OdJobEvent.TARGET_CONTEXT_KEY, job.getTargetId())) {
+      // The processor sorts the measurements, so give it its own copy.
+      StateAndCovariance result = processor.processMeasurements(job.getInitialState(),
+          new ArrayList<>(job.getMeasurements()));
+      return new OdJobResult(job.getTargetId(), workerId, result, null,
+          System.nanoTime() - start);
+    } catch (RuntimeException ex) {
+      log.warn("OD of target {} failed on worker {}: {}", job.getTargetId(), workerId,
+          ex.getMessage());
+      return new OdJobResult(job.getTargetId(), workerId, null, String.valueOf(ex.getMessage()),
+          System.nanoTime() - start);
+    }
+  }
+
+}
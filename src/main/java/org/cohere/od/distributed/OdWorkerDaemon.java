@@ -0,0 +1,506 @@
+package org.cohere.od.distributed;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import lombok.NonNull;
+import lombok.extern.log4j.Log4j2;
+import org.cohere.od.OdProcessor;
+import org.cohere.od.RaDecOdProcessor;
+import org.cohere.od.cache.SharedDataContext;
+import org.cohere.od.cache.SharedDataContextSettings;
+import org.cohere.od.models.OdSettings;
+import org.cohere.od.utils.AstroUtils;
+import org.cohere.od.utils.ForceModelProfile;
+import org.cohere.od.utils.PropagatorFactory;
+import org.hipparchus.geometry.euclidean.threed.Vector3D;
+import org.hipparchus.util.FastMath;
+import org.orekit.bodies.CelestialBodyFactory;
+import org.orekit.bodies.GeodeticPoint;
+import org.orekit.data.DataContext;
+import org.orekit.data.DirectoryCrawler;
+import org.orekit.estimation.measurements.AngularRaDec;
+import org.orekit.estimation.measurements.GroundStation;
+import org.orekit.estimation.measurements.ObservableSatellite;
+import org.orekit.estimation.measurements.ObservedMeasurement;
+import org.orekit.frames.Frame;
+import org.orekit.frames.FramesFactory;
+import org.orekit.frames.TopocentricFrame;
+import org.orekit.orbits.CartesianOrbit;
+import org.orekit.orbits.Orbit;
+import org.orekit.propagation.SpacecraftState;
+import org.orekit.propagation.analytical.KeplerianPropagator;
+import org.orekit.time.AbsoluteDate;
+import org.orekit.time.TimeScalesFactory;
+import org.orekit.utils.Constants;
+import org.orekit.utils.PVCoordinates;
+import org.orekit.utils.TimeStampedPVCoordinates;
+
+/**
+ * A long-lived {@link OdWorker} that pays the startup costs once: it loads the Orekit data and the
+ * force models, runs warm-up ODs so that the JIT compiles the hot paths, and only then accepts
+ * jobs, so their latency is the steady-state one.
+ * <p>
+ * Jobs are accepted over a loopback socket, with the protocol of {@link SocketOdWorkerServer}, and
+ * from job files dropped in a watched directory. A job file holds the number of jobs followed by
+ * the encoded {@link OdJob}s, see {@link #writeJobFile}, and must be moved into the directory once
+ * complete; a truncated file is left in place. Its results are written, in the same order, to a
+ * result file of the same name with the {@link #RESULT_SUFFIX} suffix, see
+ * {@link #readResultFile}, and the job file is then deleted.
+ */
+@Log4j2
+public class OdWorkerDaemon implements AutoCloseable {
+
+  /**
+   * The suffix of the job files.
+   */
+  public static final String JOB_SUFFIX = ".odjob";
+  /**
+   * The suffix of the result files.
+   */
+  public static final String RESULT_SUFFIX = ".odresult";
+
+  private static final String WARM_UP_TARGET = "warm-up";
+  private static final double GEO_RADIUS = 42164.0e3;
+  private static final double SPACECRAFT_MASS = 500.0;
+  private static final double[] WARM_UP_SIGMAS = new double[]{Math.toRadians(1.0 / 3600.0),
+      Math.toRadians(1.0 / 3600.0)};
+  private static final double[] WARM_UP_WEIGHTS = new double[]{1.0, 1.0};
+
+  private final WorkerDaemonSettings settings;
+  private final OdWorker worker;
+  private final List<OdJobResult> warmUpResults;
+  private final long startupNanos;
+  private final SocketOdWorkerServer server;
+  private final WatchService watchService;
+  private final ExecutorService fileExecutor;
+  private final Thread fileThread;
+
+  /**
+   * Constructor. Loads the data and force models, runs the warm-up ODs, then starts accepting
+   * jobs.
+   *
+   * @param settings  The daemon settings.
+   * @param processor The processor performing the ODs. It must be thread-safe.
+   * @throws IOException if the socket cannot be bound or the job directory cannot be watched.
+   */
+  public OdWorkerDaemon(@NonNull WorkerDaemonSettings settings, @NonNull OdProcessor processor)
+      throws IOException {
+
+    long start = System.nanoTime();
+    this.settings = settings;
+    this.worker = new OdWorker(settings.getWorkerId(), processor);
+
+    OdJob warmUpJob = createWarmUpJob();
+    preload(settings.getPreloadProfile(), settings.getDataContext(),
+        warmUpJob.getInitialState().getDate());
+    List<OdJobResult> results = new ArrayList<>();
+    for (int i = 0; i < settings.getWarmUpRuns(); i++) {
+      OdJobResult result = worker.process(warmUpJob);
+      log.info("Warm-up OD {} of worker {} took {} ms{}", i + 1, settings.getWorkerId(),
+          result.getElapsedNanos() / 1000000, result.isSuccessful() ? "" : ": " + result.getError());
+      results.add(result);
+    }
+    this.warmUpResults = Collections.unmodifiableList(results);
+    this.startupNanos = System.nanoTime() - start;
+
+    this.server = settings.getPort() < 0 ? null : new SocketOdWorkerServer(worker,
+        settings.getPort());
+    if (settings.getJobDirectory() == null) {
+      this.watchService = null;
+      this.fileExecutor = null;
+      this.fileThread = null;
+    } else {
+      Files.createDirectories(settings.getJobDirectory());
+      Files.createDirectories(getResultDirectory());
+      this.watchService = FileSystems.getDefault().newWatchService();
+      settings.getJobDirectory().register(watchService, StandardWatchEventKinds.ENTRY_CREATE);
+      this.fileExecutor = Executors.newFixedThreadPool(settings.getFileJobThreads());
+      this.fileThread = new Thread(this::watchJobs, "od-worker-" + settings.getWorkerId()
+          + "-files");
+      this.fileThread.setDaemon(true);
+      this.fileThread.start();
+    }
+    log.info("Worker {} ready in {} ms", settings.getWorkerId(), startupNanos / 1000000);
+  }
+
+  /**
+   * Starts a daemon from the command line, serving a {@link RaDecOdProcessor} with the default
+   * settings and a {@link SharedDataContext}, until the JVM is stopped.
+   * <p>
+   * Arguments: the orekit-data directory, then optionally {@code --port=<port>},
+   * {@code --jobs=<directory>}, {@code --results=<directory>}, {@code --id=<worker id>} and
+   * {@code --warm-up=<runs>}.
+   *
+   * @param args The command line arguments.
+   * @throws IOException          if the daemon cannot be started.
+   * @throws InterruptedException if interrupted while serving.
+   */
+  public static void main(String[] args) throws IOException, InterruptedException {
+
+    if (args.length < 1) {
+      throw new IllegalArgumentException("Usage: OdWorkerDaemon <orekit-data> [--port=<port>]"
+          + " [--jobs=<directory>] [--results=<directory>] [--id=<worker id>]"
+          + " [--warm-up=<runs>]");
+    }
+    DataContext.getDefault().getDataProvidersManager()
+        .addProvider(new DirectoryCrawler(new File(args[0])));
+
+    WorkerDaemonSettings.WorkerDaemonSettingsBuilder builder = WorkerDaemonSettings.builder();
+    for (int i = 1; i < args.length; i++) {
+      String[] option = args[i].split("=", 2);
+      if (option.length != 2) {
+        throw new IllegalArgumentException("Invalid option: " + args[i]);
+      }
+      switch (option[0]) {
+        case "--port":
+          builder.port(Integer.parseInt(option[1]));
+          break;
+        case "--jobs":
+          builder.jobDirectory(Path.of(option[1]));
+          break;
+        case "--results":
+          builder.resultDirectory(Path.of(option[1]));
+          break;
+        case "--id":
+          builder.workerId(option[1]);
+          break;
+        case "--warm-up":
+          builder.warmUpRuns(Integer.parseInt(option[1]));
+          break;
+        default:
+          throw new IllegalArgumentException("Unknown option: " + option[0]);
+      }
+    }
+
+    SharedDataContext dataContext = new SharedDataContext(SharedDataContextSettings.builder()
+        .celestialBodies(true)
+        .build());
+    OdProcessor processor = new RaDecOdProcessor(OdSettings.DEFAULT, dataContext);
+    OdWorkerDaemon daemon = new OdWorkerDaemon(builder.dataContext(dataContext).build(),
+        processor);
+    if (daemon.getPort() >= 0) {
+      log.info("Worker {} listening on port {}", daemon.settings.getWorkerId(), daemon.getPort());
+    }
+    CountDownLatch stopped = new CountDownLatch(1);
+    Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+      daemon.close();
+      stopped.countDown();
+    }));
+    stopped.await();
+  }
+
+  /**
+   * Creates the warm-up job: three tracklets of a geostationary object over three hours from a
+   * single station, computed geometrically, with an initial state one kilometer off.
+   *
+   * @return The warm-up job.
+   */
+  public static OdJob createWarmUpJob() {
+
+    AbsoluteDate start = new AbsoluteDate(2023, 3, 18, 0, 0, 0.0, TimeScalesFactory.getUTC());
+    Frame gcrf = FramesFactory.getGCRF();
+    GeodeticPoint site = new GeodeticPoint(FastMath.toRadians(20.6924),
+        FastMath.toRadians(-156.309), 2119.62);
+    GroundStation station = new GroundStation(new TopocentricFrame(AstroUtils.EARTH, site,
+        "WarmUp"));
+
+    // Geostationary object ten degrees east of the station.
+    double longitude = site.getLongitude() + FastMath.toRadians(10.0);
+    PVCoordinates fixed = new PVCoordinates(new Vector3D(GEO_RADIUS * FastMath.cos(longitude),
+        GEO_RADIUS * FastMath.sin(longitude), 0.0), Vector3D.ZERO);
+    PVCoordinates inertial = AstroUtils.EARTH.getBodyFrame().getTransformTo(gcrf, start)
+        .transformPVCoordinates(fixed);
+    Orbit orbit = new CartesianOrbit(new TimeStampedPVCoordinates(start, inertial), gcrf,
+        Constants.IERS2010_EARTH_MU);
+    KeplerianPropagator propagator = new KeplerianPropagator(orbit);
+
+    List<ObservedMeasurement<?>> measurements = new ArrayList<>();
+    ObservableSatellite satellite = new ObservableSatellite(0);
+    for (int tracklet = 0; tracklet < 3; tracklet++) {
+      for (int i = 0; i < 10; i++) {
+        AbsoluteDate date = start.shiftedBy(tracklet * 5400.0 + i * 60.0);
+        Vector3D lineOfSight = propagator.getPVCoordinates(date, gcrf).getPosition()
+            .subtract(station.getBaseFrame().getPVCoordinates(date, gcrf).getPosition());
+        measurements.add(new AngularRaDec(station, gcrf, date,
+            new double[]{lineOfSight.getAlpha(), lineOfSight.getDelta()}, WARM_UP_SIGMAS,
+            WARM_UP_WEIGHTS, satellite));
+      }
+    }
+
+    Orbit initialOrbit = new CartesianOrbit(new TimeStampedPVCoordinates(start,
+        inertial.getPosition().add(new Vector3D(1000.0, 0.0, 0.0)), inertial.getVelocity()),
+        gcrf, Constants.IERS2010_EARTH_MU);
+    return new OdJob(WARM_UP_TARGET, new SpacecraftState(initialOrbit, SPACECRAFT_MASS),
+        measurements);
+  }
+
+  /**
+   * Writes jobs to a job file. The file starts with the number of jobs, so that a truncated file
+   * is detected.
+   *
+   * @param file The file to write.
+   * @param jobs The jobs.
+   * @throws IOException if the file cannot be written.
+   */
+  public static void writeJobFile(@NonNull Path file, @NonNull List<OdJob> jobs)
+      throws IOException {
+    OdJobCodec codec = new OdJobCodec();
+    try (DataOutputStream out = new DataOutputStream(
+        new BufferedOutputStream(Files.newOutputStream(file)))) {
+      out.writeInt(jobs.size());
+      for (OdJob job : jobs) {
+        codec.writeJob(job, out);
+      }
+    }
+  }
+
+  /**
+   * Reads the results of a result file.
+   *
+   * @param file The file to read.
+   * @return The results, in the order of the jobs.
+   * @throws IOException if the file cannot be read or is truncated.
+   */
+  public static List<OdJobResult> readResultFile(@NonNull Path file) throws IOException {
+    OdJobCodec codec = new OdJobCodec();
+    return readRecords(file, "results", codec::readResult);
+  }
+
+  /**
+   * Gets the port the jobs are accepted on.
+   *
+   * @return The local port, or -1 if the socket interface is disabled.
+   */
+  public int getPort() {
+    return server == null ? -1 : server.getPort();
+  }
+
+  /**
+   * Gets the results of the warm-up ODs, whose elapsed times show the JIT warming up.
+   *
+   * @return The warm-up results, in order.
+   */
+  public List<OdJobResult> getWarmUpResults() {
+    return warmUpResults;
+  }
+
+  /**
+   * Gets the time from the construction of the daemon until it was ready to accept jobs.
+   *
+   * @return The startup time in nanoseconds.
+   */
+  public long getStartupNanos() {
+    return startupNanos;
+  }
+
+  /**
+   * Stops accepting jobs. Jobs in progress on the socket are abandoned, and the job file in
+   * progress is completed.
+   */
+  @Override
+  public void close() {
+    if (server != null) {
+      try {
+        server.close();
+      } catch (IOException ex) {
+        log.warn("Failed to close the worker server: {}", ex.getMessage());
+      }
+    }
+    if (watchService != null) {
+      try {
+        watchService.close();
+        fileThread.join();
+      } catch (IOException ex) {
+        log.warn("Failed to close the job directory watch: {}", ex.getMessage());
+      } catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+      } finally {
+        fileExecutor.shutdown();
+      }
+    }
+  }
+
+  /**
+   * Loads the time scales, Earth orientation, gravity field and, when the profile uses them, the
+   * Sun and Moon ephemerides, from the data context of the processor or from the global factories,
+   * so that the first OD does not pay for them. The Earth orientation of {@link AstroUtils#EARTH}
+   * is always loaded, as the stations of the decoded jobs are located on it.
+   */
+  private static void preload(ForceModelProfile profile, SharedDataContext dataContext,
+      AbsoluteDate date) {
+    AstroUtils.EARTH.getBodyFrame().getTransformTo(FramesFactory.getGCRF(), date);
+    boolean hasSun = profile.isSunAttraction() || profile.isSolarRadiationPressure();
+    if (dataContext == null) {
+      PropagatorFactory.createForceModels(profile);
+      if (hasSun) {
+        CelestialBodyFactory.getSun().getPVCoordinates(date, FramesFactory.getGCRF());
+      }
+      if (profile.isMoonAttraction()) {
+        CelestialBodyFactory.getMoon().getPVCoordinates(date, FramesFactory.getGCRF());
+      }
+    } else {
+      dataContext.getEarth().getBodyFrame().getTransformTo(dataContext.getGcrf(), date);
+      PropagatorFactory.createForceModels(profile, dataContext);
+      if (hasSun) {
+        dataContext.getSun().getPVCoordinates(date, dataContext.getGcrf());
+      }
+      if (profile.isMoonAttraction()) {
+        dataContext.getMoon().getPVCoordinates(date, dataContext.getGcrf());
+      }
+    }
+  }
+
+  private Path getResultDirectory() {
+    return settings.getResultDirectory() == null ? settings.getJobDirectory()
+        : settings.getResultDirectory();
+  }
+
+  private void watchJobs() {
+    try {
+      processJobDirectory();
+      while (true) {
+        WatchKey key = watchService.take();
+        for (WatchEvent<?> event : key.pollEvents()) {
+          if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+            processJobDirectory();
+          } else {
+            processJobFile(settings.getJobDirectory().resolve((Path) event.context()));
+          }
+        }
+        key.reset();
+      }
+    } catch (ClosedWatchServiceException ex) {
+      // Closed by close().
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+    } catch (IOException ex) {
+      log.error("Failed to list the job directory: {}", ex.getMessage(), ex);
+    }
+  }
+
+  private void processJobDirectory() throws IOException, InterruptedException {
+    List<Path> files;
+    try (Stream<Path> stream = Files.list(settings.getJobDirectory())) {
+      files = stream.sorted().collect(Collectors.toList());
+    }
+    for (Path file : files) {
+      processJobFile(file);
+    }
+  }
+
+  private void processJobFile(Path file) throws InterruptedException {
+
+    String name = file.getFileName().toString();
+    if (!name.endsWith(JOB_SUFFIX) || !Files.isRegularFile(file)) {
+      return;
+    }
+
+    try {
+      List<OdJob> jobs = readJobFile(file);
+      List<Callable<OdJobResult>> tasks = jobs.stream()
+          .<Callable<OdJobResult>>map(job -> () -> worker.process(job))
+          .collect(Collectors.toList());
+      List<OdJobResult> results = new ArrayList<>(jobs.size());
+      for (Future<OdJobResult> future : fileExecutor.invokeAll(tasks)) {
+        results.add(future.get());
+      }
+
+      String resultName = name.substring(0, name.length() - JOB_SUFFIX.length()) + RESULT_SUFFIX;
+      Path staging = getResultDirectory().resolve("." + resultName + ".tmp");
+      OdJobCodec codec = new OdJobCodec();
+      try (DataOutputStream out = new DataOutputStream(
+          new BufferedOutputStream(Files.newOutputStream(staging)))) {
+        out.writeInt(results.size());
+        for (OdJobResult result : results) {
+          codec.writeResult(result, out);
+        }
+      }
+      Files.move(staging, getResultDirectory().resolve(resultName),
+          StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+      Files.delete(file);
+      log.info("Processed {} jobs of {}", jobs.size(), name);
+    } catch (IOException | RuntimeException ex) {
+      log.error("Failed to process job file {}: {}", name, ex.getMessage(), ex);
+    } catch (ExecutionException ex) {
+      // Cannot happen: the worker reports failed ODs in the results.
+      log.error("Failed to process job file {}: {}", name, ex.getCause().getMessage(),
+          ex.getCause());
+    }
+  }
+
+  /**
+   * Reads the jobs of a job file.
+   *
+   * @param file The file to read.
+   * @return The jobs.
+   * @throws IOException if the file cannot be read or is truncated.
+   */
+  static List<OdJob> readJobFile(Path file) throws IOException {
+    OdJobCodec codec = new OdJobCodec();
+    return readRecords(file, "jobs", codec::readJob);
+  }
+
+  /**
+   * Reads a file holding the number of records followed by the records, failing if it holds fewer
+   * or more of them. The count is checked against the size of the file before reading, as every
+   * record takes at least a byte, so that a corrupt count cannot exhaust the memory.
+   */
+  private static <T> List<T> readRecords(Path file, String description, RecordReader<T> reader)
+      throws IOException {
+    try (DataInputStream in = new DataInputStream(
+        new BufferedInputStream(Files.newInputStream(file)))) {
+      int count = in.readInt();
+      long remaining = Files.size(file) - Integer.BYTES;
+      if (count < 0 || count > remaining) {
+        throw new IOException("Invalid count of " + count + " " + description + " in " + file
+            + ", which holds " + remaining + " bytes of records.");
+      }
+      List<T> records = new ArrayList<>();
+      for (int i = 0; i < count; i++) {
+        try {
+          records.add(reader.read(in));
+        } catch (EOFException ex) {
+          throw new IOException("Truncated file " + file + ": read " + i + " of " + count + " "
+              + description + ".", ex);
+        }
+      }
+      if (in.read() >= 0) {
+        throw new IOException("Unexpected data after the " + count + " " + description + " of "
+            + file + ".");
+      }
+      return records;
+    }
+  }
+
+  @FunctionalInterface
+  private interface RecordReader<T> {
+
+    T read(DataInputStream in) throws IOException;
+  }
+
+}
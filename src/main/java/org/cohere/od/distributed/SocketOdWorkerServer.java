@@ -0,0 +1,128 @@
+package org.cohere.od.distributed;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.NonNull;
+import lombok.extern.log4j.Log4j2;
+
+/**
+ * Serves an {@link OdWorker} over local sockets, to run workers in separate JVMs of the same
+ * machine. Each accepted connection is served by its own thread, one job at a time.
+ * <p>
+ * On connection the server sends {@link #PROTOCOL_VERSION} and the worker identifier; then each
+ * request is an encoded {@link OdJob} answered by an encoded {@link OdJobResult}.
+ */
+@Log4j2
+public class SocketOdWorkerServer implements AutoCloseable {
+
+  /**
+   * Version of the protocol, sent on connection.
+   */
+  static final int PROTOCOL_VERSION = 1;
+
+  private final Set<Socket> connections = ConcurrentHashMap.newKeySet();
+  private final ServerSocket serverSocket;
+  private final OdWorker worker;
+
+  /**
+   * Constructor. Binds the server to the loopback address and starts accepting connections.
+   *
+   * @param worker The worker serving the jobs.
+   * @param port   The port to listen on, or 0 for an ephemeral port.
+   * @throws IOException if the server socket cannot be bound.
+   */
+  public SocketOdWorkerServer(@NonNull OdWorker worker, int port) throws IOException {
+    this.worker = worker;
+    this.serverSocket = new ServerSocket(port, 0, InetAddress.getLoopbackAddress());
+    Thread acceptor = new Thread(this::accept, "od-worker-" + worker.getWorkerId() + "-accept");
+    acceptor.setDaemon(true);
+    acceptor.start();
+  }
+
+  /**
+   * Gets the port the server listens on.
+   *
+   * @return The local port.
+   */
+  public int getPort() {
+    return serverSocket.getLocalPort();
+  }
+
+  /**
+   * Stops accepting connections and closes the open ones. Jobs in progress are abandoned, which the
+   * coordinator sees as the loss of the worker.
+   *
+   * @throws IOException if the server socket cannot be closed.
+   */
+  @Override
+  public void close() throws IOException {
+    serverSocket.close();
+    for (Socket socket : connections) {
+      try {
+        socket.close();
+      } catch (IOException ex) {
+        log.debug("Failed to close connection: {}", ex.getMessage());
+      }
+    }
+  }
+
+  private void accept() {
+    while (!serverSocket.isClosed()) {
+      try {
+        Socket socket = serverSocket.accept();
+        connections.add(socket);
+        Thread handler = new Thread(() -> serve(socket),
+            "od-worker-" + worker.getWorkerId() + "-" + socket.getPort());
+        handler.setDaemon(true);
+        handler.start();
+      } catch (IOException ex) {
+        if (!serverSocket.isClosed()) {
+          log.error("Failed to accept connection on worker {}.", worker.getWorkerId(), ex);
+        }
+      }
+    }
+  }
+
+  private void serve(Socket socket) {
+    OdJobCodec codec = new OdJobCodec();
+    try (socket;
+        DataInputStream in = new DataInputStream(
+            new BufferedInputStream(socket.getInputStream()));
+        DataOutputStream out = new DataOutputStream(
+            new BufferedOutputStream(socket.getOutputStream()))) {
+
+      out.writeInt(PROTOCOL_VERSION);
+      out.writeUTF(worker.getWorkerId());
+      out.flush();
+
+      while (true) {
+        OdJob job;
+        try {
+          job = codec.readJob(in);
+        } catch (EOFException ex) {
+          // The coordinator closed the connection.
+          return;
+        }
+        codec.writeResult(worker.process(job), out);
+        out.flush();
+      }
+    } catch (SocketException ex) {
+      log.debug("Connection to worker {} closed: {}", worker.getWorkerId(), ex.getMessage());
+    } catch (IOException | RuntimeException ex) {
+      log.error("Connection to worker {} failed.", worker.getWorkerId(), ex);
+    } finally {
+      connections.remove(socket);
+    }
+  }
+
+}
@@ -0,0 +1,81 @@
+package org.cohere.od.distributed;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.time.Duration;
+import lombok.NonNull;
+
+/**
+ * A {@link WorkerConnection} to a {@link SocketOdWorkerServer}.
+ */
+public class SocketWorkerConnection implements WorkerConnection {
+
+  private final OdJobCodec codec = new OdJobCodec();
+  private final DataInputStream in;
+  private final DataOutputStream out;
+  private final Socket socket;
+  private final String workerId;
+
+  /**
+   * Constructor. Connects to the server and reads the identifier of its worker.
+   *
+   * @param address     The address of the server.
+   * @param readTimeout The longest time to wait for a result before the worker is considered lost,
+   *                    or zero to wait indefinitely.
+   * @throws IOException if the server cannot be reached.
+   */
+  public SocketWorkerConnection(@NonNull InetSocketAddress address, @NonNull Duration readTimeout)
+      throws IOException {
+    this.socket = new Socket();
+    try {
+      socket.connect(address);
+      socket.setSoTimeout(Math.toIntExact(readTimeout.toMillis()));
+      this.in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+      this.out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+      int version = in.readInt();
+      if (version != SocketOdWorkerServer.PROTOCOL_VERSION) {
+        throw new IOException("Unsupported worker protocol version: " + version);
+      }
+      this.workerId = in.readUTF();
+    } catch (IOException ex) {
+      socket.close();
+      throw ex;
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public String getWorkerId() {
+    return workerId;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public OdJobResult process(OdJob job) throws IOException {
+    // Encode the whole job first, so that a job that cannot be encoded leaves the stream intact.
+    ByteArrayOutputStream encoded = new ByteArrayOutputStream();
+    codec.writeJob(job, new DataOutputStream(encoded));
+    encoded.writeTo(out);
+    out.flush();
+    return codec.readResult(in);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void close() throws IOException {
+    socket.close();
+  }
+
+}
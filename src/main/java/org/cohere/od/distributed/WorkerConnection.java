@@ -0,0 +1,38 @@
+package org.cohere.od.distributed;
+
+import java.io.IOException;
+
+/**
+ * A connection from the {@link OdCoordinator} to a worker, the pluggable transport of the
+ * distributed OD.
+ * <p>
+ * A connection processes one job at a time. A worker processing several jobs concurrently is
+ * reached through several connections sharing the same worker identifier.
+ */
+public interface WorkerConnection extends AutoCloseable {
+
+  /**
+   * Gets the identifier of the worker, on which the jobs are partitioned.
+   *
+   * @return The worker identifier.
+   */
+  String getWorkerId();
+
+  /**
+   * Processes a job on the worker and waits for its result. A failed OD is reported in the result;
+   * an exception means the worker is no longer reachable.
+   *
+   * @param job The job to process.
+   * @return The result of the job.
+   * @throws IOException if the worker cannot be reached.
+   */
+  OdJobResult process(OdJob job) throws IOException;
+
+  /**
+   * Closes the connection.
+   *
+   * @throws IOException if the connection cannot be closed cleanly.
+   */
+  @Override
+  void close() throws IOException;
+}
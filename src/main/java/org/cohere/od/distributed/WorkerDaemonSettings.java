@@ -0,0 +1,66 @@
+package org.cohere.od.distributed;
+
+import java.nio.file.Path;
+import lombok.Builder;
+import lombok.Value;
+import org.cohere.od.cache.SharedDataContext;
+import org.cohere.od.utils.ForceModelProfile;
+
+/**
+ * Configuration of an {@link OdWorkerDaemon}.
+ */
+@Value
+@Builder(toBuilder = true)
+public class WorkerDaemonSettings {
+
+  public static final WorkerDaemonSettings DEFAULT = WorkerDaemonSettings.builder().build();
+
+  /**
+   * The identifier of the worker.
+   */
+  @Builder.Default
+  String workerId = "daemon";
+
+  /**
+   * The loopback port the jobs are accepted on, 0 for an ephemeral port, or a negative value to
+   * disable the socket interface.
+   */
+  @Builder.Default
+  int port = 0;
+
+  /**
+   * The directory watched for job files, or null to disable the file-drop interface.
+   */
+  Path jobDirectory;
+
+  /**
+   * The directory the result files are written to, or null to write them to the job directory.
+   */
+  Path resultDirectory;
+
+  /**
+   * The force models loaded before the warm-up, which should be the ones of the processor.
+   */
+  @Builder.Default
+  ForceModelProfile preloadProfile = ForceModelProfile.FULL;
+
+  /**
+   * The shared data context of the processor, or null if it uses the global factories. The data
+   * are preloaded from it, so that the warm-up loads what the processor actually reads.
+   */
+  @Builder.Default
+  SharedDataContext dataContext = null;
+
+  /**
+   * The number of warm-up ODs run before accepting jobs.
+   */
+  @Builder.Default
+  int warmUpRuns = 3;
+
+  /**
+   * The number of jobs of a dropped file processed concurrently.
+   */
+  @Builder.Default
+  int fileJobThreads = 1;
+
+}
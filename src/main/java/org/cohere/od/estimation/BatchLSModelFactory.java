@@ -0,0 +1,25 @@
+package org.cohere.od.estimation;
+
+import java.util.List;
+import org.orekit.estimation.leastsquares.AbstractBatchLSModel;
+import org.orekit.estimation.leastsquares.ModelObserver;
+import org.orekit.estimation.measurements.ObservedMeasurement;
+import org.orekit.propagation.conversion.OrbitDeterminationPropagatorBuilder;
+import org.orekit.utils.ParameterDriversList;
+
+/**
+ * Factory for the least-squares model used by a
+ * {@link org.orekit.estimation.leastsquares.BatchLSEstimator}.
+ * <p>
+ * The arguments are those of
+ * {@link OrbitDeterminationPropagatorBuilder#buildLSModel(OrbitDeterminationPropagatorBuilder[],
+ * List, ParameterDriversList, ModelObserver)}.
+ */
+@FunctionalInterface
+public interface BatchLSModelFactory {
+
+  AbstractBatchLSModel create(OrbitDeterminationPropagatorBuilder[] builders,
+      List<ObservedMeasurement<?>> measurements,
+      ParameterDriversList estimatedMeasurementsParameters, ModelObserver observer);
+
+}
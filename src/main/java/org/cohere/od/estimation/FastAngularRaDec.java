@@ -0,0 +1,282 @@
+package org.cohere.od.estimation;
+
+import org.hipparchus.geometry.euclidean.threed.Rotation;
+import org.hipparchus.geometry.euclidean.threed.Vector3D;
+import org.hipparchus.util.FastMath;
+import org.hipparchus.util.MathUtils;
+import org.orekit.estimation.measurements.AbstractMeasurement;
+import org.orekit.estimation.measurements.AngularRaDec;
+import org.orekit.estimation.measurements.EstimatedMeasurement;
+import org.orekit.estimation.measurements.GroundStation;
+import org.orekit.estimation.measurements.ObservedMeasurement;
+import org.orekit.frames.Frame;
+import org.orekit.frames.Transform;
+import org.orekit.propagation.SpacecraftState;
+import org.orekit.time.AbsoluteDate;
+import org.orekit.utils.Constants;
+import org.orekit.utils.PVCoordinates;
+import org.orekit.utils.ParameterDriver;
+import org.orekit.utils.TimeStampedPVCoordinates;
+
+/**
+ * Right ascension and declination measurement from a ground station whose parameters are not
+ * estimated, computed with primitive doubles.
+ * <p>
+ * {@link AngularRaDec} evaluates the light time and the angles with automatic differentiation over
+ * the state and every station parameter, and recomputes the station position at each evaluation.
+ * This measurement gives the same values and partial derivatives with respect to the state: the
+ * light time is solved by fixed-point iteration and differentiated analytically, and the station
+ * position and the rotation to the reference frame, which only depend on the measurement date, are
+ * computed once and reused by every evaluation.
+ * <p>
+ * The station parameters are exposed as for {@link AngularRaDec} but must not be selected for
+ * estimation, and no derivatives are given for them. Use {@link #convert} to replace the
+ * eligible measurements of a list.
+ */
+public class FastAngularRaDec extends AbstractMeasurement<FastAngularRaDec> {
+
+  private static final int MAX_LIGHT_TIME_ITERATIONS = 10;
+
+  /**
+   * Work buffers of the evaluations, one set per thread as measurements can be evaluated
+   * concurrently. {@link EstimatedMeasurement#setStateDerivatives} copies the derivatives, so the
+   * buffers can be reused by the next evaluation.
+   */
+  private static final ThreadLocal<Buffers> BUFFERS = ThreadLocal.withInitial(Buffers::new);
+
+  private final GroundStation station;
+  private final Frame referenceFrame;
+
+  /**
+   * The geometry of the last frame the measurement was evaluated in. Measurements can be evaluated
+   * concurrently by several estimations, so it is replaced as a whole.
+   */
+  private volatile StationGeometry geometry;
+
+  /**
+   * Constructor.
+   *
+   * @param measurement The measurement to copy.
+   */
+  public FastAngularRaDec(AngularRaDec measurement) {
+    super(measurement.getDate(), measurement.getObservedValue(),
+        measurement.getTheoreticalStandardDeviation(), measurement.getBaseWeight(),
+        measurement.getSatellites());
+    this.station = measurement.getStation();
+    this.referenceFrame = measurement.getReferenceFrame();
+    measurement.getParametersDrivers().forEach(this::addParameterDriver);
+    setEnabled(measurement.isEnabled());
+  }
+
+  /**
+   * Converts a measurement to a {@link FastAngularRaDec} when it is an {@link AngularRaDec} with
+   * neither modifiers nor estimated parameters, and returns it unchanged otherwise.
+   *
+   * @param measurement The measurement.
+   * @return The converted measurement, or the measurement itself.
+   */
+  public static ObservedMeasurement<?> convert(ObservedMeasurement<?> measurement) {
+    if (!(measurement instanceof AngularRaDec) || !measurement.getModifiers().isEmpty()) {
+      return measurement;
+    }
+    for (ParameterDriver driver : measurement.getParametersDrivers()) {
+      if (driver.isSelected()) {
+        return measurement;
+      }
+    }
+    return new FastAngularRaDec((AngularRaDec) measurement);
+  }
+
+  /**
+   * Gets the ground station of this measurement.
+   *
+   * @return The ground station.
+   */
+  public GroundStation getStation() {
+    return station;
+  }
+
+  /**
+   * Gets the frame the right ascension and declination are expressed in.
+   *
+   * @return The reference frame.
+   */
+  public Frame getReferenceFrame() {
+    return referenceFrame;
+  }
+
+  /**
+   * Gets the measurement type, which is the one of {@link AngularRaDec} so that observers and
+   * reports treat both alike.
+   *
+   * @return The measurement type.
+   */
+  @Override
+  public String getMeasurementType() {
+    return AngularRaDec.MEASUREMENT_TYPE;
+  }
+
+  @Override
+  protected EstimatedMeasurement<FastAngularRaDec> theoreticalEvaluation(int iteration,
+      int evaluation, SpacecraftState[] states) {
+
+    SpacecraftState state = states[0];
+    StationGeometry stationGeometry = getGeometry(state.getFrame());
+    TimeStampedPVCoordinates pva = state.getPVCoordinates();
+    Vector3D position = pva.getPosition();
+    Vector3D velocity = pva.getVelocity();
+    Vector3D acceleration = pva.getAcceleration();
+    double px = position.getX();
+    double py = position.getY();
+    double pz = position.getZ();
+    double vx = velocity.getX();
+    double vy = velocity.getY();
+    double vz = velocity.getZ();
+    double ax = acceleration.getX();
+    double ay = acceleration.getY();
+    double az = acceleration.getZ();
+    double qx = stationGeometry.stationPosition[0];
+    double qy = stationGeometry.stationPosition[1];
+    double qz = stationGeometry.stationPosition[2];
+
+    // Light time from the emission to the reception at the station, with the state shifted by a
+    // second order Taylor expansion as in AngularRaDec.
+    double delta = stationGeometry.downlinkDate.durationFrom(state.getDate());
+    double tau = 0.0;
+    double ex = 0.0;
+    double ey = 0.0;
+    double ez = 0.0;
+    double shift = delta;
+    for (int i = 0; i < MAX_LIGHT_TIME_ITERATIONS; i++) {
+      shift = delta - tau;
+      double halfShift2 = 0.5 * shift * shift;
+      ex = px + vx * shift + ax * halfShift2 - qx;
+      ey = py + vy * shift + ay * halfShift2 - qy;
+      ez = pz + vz * shift + az * halfShift2 - qz;
+      double previous = tau;
+      tau = FastMath.sqrt(ex * ex + ey * ey + ez * ez) / Constants.SPEED_OF_LIGHT;
+      if (FastMath.abs(tau - previous) <= 2 * FastMath.ulp(tau)) {
+        break;
+      }
+    }
+    shift = delta - tau;
+    double range = tau * Constants.SPEED_OF_LIGHT;
+    double ux = ex / range;
+    double uy = ey / range;
+    double uz = ez / range;
+    double tx = vx + ax * shift;
+    double ty = vy + ay * shift;
+    double tz = vz + az * shift;
+
+    // Line of sight in the reference frame.
+    double[] r = stationGeometry.toReference;
+    double x = r[0] * ex + r[1] * ey + r[2] * ez;
+    double y = r[3] * ex + r[4] * ey + r[5] * ez;
+    double z = r[6] * ex + r[7] * ey + r[8] * ez;
+    double rho2 = x * x + y * y;
+    double rho = FastMath.sqrt(rho2);
+    double rightAscension = FastMath.atan2(y, x);
+    rightAscension = MathUtils.normalizeAngle(rightAscension, getObservedValue()[0]);
+    double declination = FastMath.atan2(z, rho);
+
+    // Gradients of the angles with respect to the line of sight in the state frame.
+    Buffers buffers = BUFFERS.get();
+    rotateBack(r, -y / rho2, x / rho2, 0.0, buffers.raGradient);
+    double decScale = 1.0 / (range * range * rho);
+    rotateBack(r, -x * z * decScale, -y * z * decScale, rho2 * decScale, buffers.decGradient);
+
+    // The line of sight e = p(delta - tau) - q depends on the state through the light time, with
+    // de/dp = I - t u^T / (c + u.t) and de/dv = shift de/dp, where t is the emission velocity.
+    double denominator = Constants.SPEED_OF_LIGHT + ux * tx + uy * ty + uz * tz;
+    stateDerivatives(buffers.raGradient, ux, uy, uz, tx, ty, tz, denominator, shift,
+        buffers.raDerivatives);
+    stateDerivatives(buffers.decGradient, ux, uy, uz, tx, ty, tz, denominator, shift,
+        buffers.decDerivatives);
+
+    double halfShift2 = 0.5 * shift * shift;
+    TimeStampedPVCoordinates transitPva = new TimeStampedPVCoordinates(
+        state.getDate().shiftedBy(shift),
+        new Vector3D(px + vx * shift + ax * halfShift2, py + vy * shift + ay * halfShift2,
+            pz + vz * shift + az * halfShift2),
+        new Vector3D(tx, ty, tz), acceleration);
+    EstimatedMeasurement<FastAngularRaDec> estimated = new EstimatedMeasurement<>(this,
+        iteration, evaluation, new SpacecraftState[]{state.shiftedBy(shift)},
+        new TimeStampedPVCoordinates[]{transitPva, stationGeometry.stationPva});
+    estimated.setEstimatedValue(rightAscension, declination);
+    estimated.setStateDerivatives(0, buffers.raDerivatives, buffers.decDerivatives);
+    return estimated;
+  }
+
+  private StationGeometry getGeometry(Frame frame) {
+    StationGeometry current = geometry;
+    if (current == null || current.frame != frame) {
+      current = new StationGeometry(frame);
+      geometry = current;
+    }
+    return current;
+  }
+
+  /**
+   * Multiplies a vector by the transpose of a row-major rotation matrix.
+   */
+  private static void rotateBack(double[] r, double x, double y, double z, double[] result) {
+    result[0] = r[0] * x + r[3] * y + r[6] * z;
+    result[1] = r[1] * x + r[4] * y + r[7] * z;
+    result[2] = r[2] * x + r[5] * y + r[8] * z;
+  }
+
+  /**
+   * Chains the gradient of an angle with respect to the line of sight with the derivatives of the
+   * line of sight with respect to the position and velocity.
+   */
+  private static void stateDerivatives(double[] g, double ux, double uy, double uz, double tx,
+      double ty, double tz, double denominator, double shift, double[] result) {
+    double k = (g[0] * tx + g[1] * ty + g[2] * tz) / denominator;
+    result[0] = g[0] - k * ux;
+    result[1] = g[1] - k * uy;
+    result[2] = g[2] - k * uz;
+    result[3] = shift * result[0];
+    result[4] = shift * result[1];
+    result[5] = shift * result[2];
+  }
+
+  /**
+   * The station position at the measurement date and the rotation to the reference frame, in a
+   * given frame.
+   */
+  private final class StationGeometry {
+
+    private final Frame frame;
+    private final AbsoluteDate downlinkDate;
+    private final TimeStampedPVCoordinates stationPva;
+    private final double[] stationPosition;
+    private final double[] toReference;
+
+    private StationGeometry(Frame frame) {
+      this.frame = frame;
+      Transform offsetToInertial = station.getOffsetToInertial(frame, getDate());
+      this.downlinkDate = offsetToInertial.getDate();
+      this.stationPva = offsetToInertial.transformPVCoordinates(
+          new TimeStampedPVCoordinates(downlinkDate, PVCoordinates.ZERO));
+      this.stationPosition = stationPva.getPosition().toArray();
+      Rotation rotation = frame.getTransformTo(referenceFrame, downlinkDate).getRotation();
+      double[][] matrix = rotation.getMatrix();
+      this.toReference = new double[]{
+          matrix[0][0], matrix[0][1], matrix[0][2],
+          matrix[1][0], matrix[1][1], matrix[1][2],
+          matrix[2][0], matrix[2][1], matrix[2][2]};
+    }
+  }
+
+  /**
+   * The work buffers of an evaluation.
+   */
+  private static final class Buffers {
+
+    private final double[] raGradient = new double[3];
+    private final double[] decGradient = new double[3];
+    private final double[] raDerivatives = new double[6];
+    private final double[] decDerivatives = new double[6];
+  }
+
+}
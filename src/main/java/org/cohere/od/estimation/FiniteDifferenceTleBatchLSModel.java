@@ -0,0 +1,163 @@
+package org.cohere.od.estimation;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.hipparchus.geometry.euclidean.threed.Vector3D;
+import org.hipparchus.linear.Array2DRowRealMatrix;
+import org.hipparchus.linear.ArrayRealVector;
+import org.hipparchus.linear.RealMatrix;
+import org.hipparchus.linear.RealVector;
+import org.hipparchus.util.Pair;
+import org.orekit.estimation.leastsquares.BatchLSModel;
+import org.orekit.estimation.leastsquares.ModelObserver;
+import org.orekit.estimation.measurements.EstimatedMeasurement;
+import org.orekit.estimation.measurements.ObservedMeasurement;
+import org.orekit.orbits.Orbit;
+import org.orekit.propagation.SpacecraftState;
+import org.orekit.propagation.analytical.tle.TLEPropagator;
+import org.orekit.propagation.conversion.OrbitDeterminationPropagatorBuilder;
+import org.orekit.utils.PVCoordinates;
+import org.orekit.utils.ParameterDriversList;
+
+/**
+ * Batch least-squares model for TLE fits computing the Jacobian by central finite differences of
+ * the SGP4/SDP4 propagator.
+ * <p>
+ * The {@link BatchLSModel} built by {@link org.orekit.propagation.conversion.TLEPropagatorBuilder}
+ * obtains the state partial derivatives from the matrices harvester of the TLE propagator, which
+ * differentiates SGP4/SDP4 with automatic differentiation at every measurement and costs far more
+ * than the propagation itself. As the TLE propagator evaluates any date directly, this model
+ * instead builds one propagator per perturbed parameter and differentiates the TEME positions and
+ * velocities they give at each measurement date. The measurement partial derivatives with respect
+ * to the state are still the exact ones.
+ * <p>
+ * The perturbation is {@link #NORMALIZED_STEP} on the normalized parameters, that is one scale of
+ * each parameter: for the orbital parameters, the position scale of the builder, 10 m for the
+ * builders of the {@link org.cohere.od.TleOdProcessor}. Estimations of several satellites or of
+ * measurement parameters fall back to the automatic differentiation of the superclass.
+ */
+public class FiniteDifferenceTleBatchLSModel extends BatchLSModel {
+
+  /**
+   * Perturbation of the normalized parameters.
+   */
+  public static final double NORMALIZED_STEP = 1.0;
+
+  private final OrbitDeterminationPropagatorBuilder[] builders;
+  private final List<ObservedMeasurement<?>> measurements;
+  private final ParameterDriversList estimatedMeasurementsParameters;
+  private final ModelObserver observer;
+
+  /**
+   * Constructor.
+   *
+   * @param builders                        The propagator builders.
+   * @param measurements                    The measurements.
+   * @param estimatedMeasurementsParameters The estimated measurements parameters.
+   * @param observer                        The model observer.
+   */
+  public FiniteDifferenceTleBatchLSModel(OrbitDeterminationPropagatorBuilder[] builders,
+      List<ObservedMeasurement<?>> measurements,
+      ParameterDriversList estimatedMeasurementsParameters, ModelObserver observer) {
+    super(builders, measurements, estimatedMeasurementsParameters, observer);
+    this.builders = builders.clone();
+    this.measurements = new ArrayList<>();
+    for (ObservedMeasurement<?> measurement : measurements) {
+      if (measurement.isEnabled()) {
+        this.measurements.add(measurement);
+      }
+    }
+    this.estimatedMeasurementsParameters = estimatedMeasurementsParameters;
+    this.observer = observer;
+  }
+
+  /**
+   * Creates a factory for this model.
+   *
+   * @return The model factory.
+   */
+  public static BatchLSModelFactory factory() {
+    return FiniteDifferenceTleBatchLSModel::new;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public Pair<RealVector, RealMatrix> value(RealVector point) {
+
+    if (builders.length != 1 || estimatedMeasurementsParameters.getNbParams() > 0) {
+      return super.value(point);
+    }
+
+    int columns = point.getDimension();
+    TLEPropagator nominal = createTlePropagator(point);
+    TLEPropagator[] plus = new TLEPropagator[columns];
+    TLEPropagator[] minus = new TLEPropagator[columns];
+    for (int j = 0; j < columns; j++) {
+      RealVector perturbed = point.copy();
+      perturbed.addToEntry(j, NORMALIZED_STEP);
+      plus[j] = createTlePropagator(perturbed);
+      perturbed.addToEntry(j, -2 * NORMALIZED_STEP);
+      minus[j] = createTlePropagator(perturbed);
+    }
+
+    int rowCount = 0;
+    for (ObservedMeasurement<?> measurement : measurements) {
+      rowCount += measurement.getDimension();
+    }
+    RealVector value = new ArrayRealVector(rowCount);
+    RealMatrix jacobian = new Array2DRowRealMatrix(rowCount, columns);
+    Map<ObservedMeasurement<?>, EstimatedMeasurement<?>> evaluations = new HashMap<>();
+    double[][] dCdP = new double[6][columns];
+
+    int row = 0;
+    for (ObservedMeasurement<?> measurement : measurements) {
+      SpacecraftState state = nominal.propagate(measurement.getDate());
+      EstimatedMeasurement<?> estimated = measurement.estimate(getIterationsCount(),
+          getEvaluationsCount(), new SpacecraftState[]{state});
+      evaluations.put(measurement, estimated);
+
+      // Partial derivatives of the Cartesian state with respect to the normalized parameters. The
+      // SGP4/SDP4 coordinates are in the TEME frame of the propagated state.
+      for (int j = 0; j < columns; j++) {
+        PVCoordinates difference = new PVCoordinates(
+            minus[j].getPVCoordinates(measurement.getDate()),
+            plus[j].getPVCoordinates(measurement.getDate()));
+        Vector3D position = difference.getPosition();
+        Vector3D velocity = difference.getVelocity();
+        dCdP[0][j] = position.getX() / (2 * NORMALIZED_STEP);
+        dCdP[1][j] = position.getY() / (2 * NORMALIZED_STEP);
+        dCdP[2][j] = position.getZ() / (2 * NORMALIZED_STEP);
+        dCdP[3][j] = velocity.getX() / (2 * NORMALIZED_STEP);
+        dCdP[4][j] = velocity.getY() / (2 * NORMALIZED_STEP);
+        dCdP[5][j] = velocity.getZ() / (2 * NORMALIZED_STEP);
+      }
+      RealMatrix dMdP = new Array2DRowRealMatrix(estimated.getStateDerivatives(0), false)
+          .multiply(new Array2DRowRealMatrix(dCdP, false));
+
+      double[] evaluated = estimated.getEstimatedValue();
+      double[] observed = measurement.getObservedValue();
+      double[] sigma = measurement.getTheoreticalStandardDeviation();
+      double[] weight = measurement.getBaseWeight();
+      for (int i = 0; i < evaluated.length; i++) {
+        double factor = weight[i] / sigma[i];
+        value.setEntry(row + i, factor * (evaluated[i] - observed[i]));
+        for (int j = 0; j < columns; j++) {
+          jacobian.setEntry(row + i, j, factor * dMdP.getEntry(i, j));
+        }
+      }
+      row += evaluated.length;
+    }
+
+    observer.modelCalled(new Orbit[]{nominal.getInitialState().getOrbit()}, evaluations);
+    return new Pair<>(value, jacobian);
+  }
+
+  private TLEPropagator createTlePropagator(RealVector point) {
+    return (TLEPropagator) createPropagators(point)[0];
+  }
+
+}
@@ -0,0 +1,268 @@
+package org.cohere.od.estimation;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import lombok.extern.log4j.Log4j2;
+import org.cohere.od.utils.JacobianUpdate;
+import org.hipparchus.linear.ArrayRealVector;
+import org.hipparchus.linear.RealMatrix;
+import org.hipparchus.linear.RealVector;
+import org.hipparchus.util.Pair;
+import org.orekit.estimation.leastsquares.BatchLSModel;
+import org.orekit.estimation.leastsquares.ModelObserver;
+import org.orekit.estimation.measurements.EstimatedMeasurement;
+import org.orekit.estimation.measurements.ObservedMeasurement;
+import org.orekit.orbits.Orbit;
+import org.orekit.propagation.Propagator;
+import org.orekit.propagation.SpacecraftState;
+import org.orekit.propagation.conversion.OrbitDeterminationPropagatorBuilder;
+import org.orekit.time.AbsoluteDate;
+import org.orekit.time.TimeStamped;
+import org.orekit.utils.ParameterDriversList;
+
+/**
+ * Batch least-squares model reusing the measurement Jacobian across evaluations.
+ * <p>
+ * A full evaluation integrates the variational equations alongside the orbit to obtain the
+ * Jacobian. A reuse evaluation only propagates the orbit to compute the residuals, and either keeps
+ * the last Jacobian ({@link JacobianUpdate#FROZEN}) or corrects it with a Broyden rank-one update
+ * ({@link JacobianUpdate#BROYDEN}). A full evaluation is performed:
+ * <ul>
+ *   <li>for the first evaluation,</li>
+ *   <li>when the cost of a reuse evaluation did not decrease (convergence stalled),</li>
+ *   <li>after {@link #MAX_CONSECUTIVE_REUSES} consecutive reuse evaluations,</li>
+ *   <li>when the step is small enough for the estimator to declare convergence, so that the final
+ *   covariance is always computed from an exact Jacobian.</li>
+ * </ul>
+ * Only single-satellite estimations reuse the Jacobian; otherwise every evaluation is full.
+ */
+@Log4j2
+public class JacobianReuseBatchLSModel extends BatchLSModel {
+
+  /**
+   * Maximum number of consecutive evaluations reusing the Jacobian.
+   */
+  public static final int MAX_CONSECUTIVE_REUSES = 5;
+  /**
+   * Margin applied to the convergence threshold when anticipating convergence.
+   */
+  private static final double CONVERGENCE_MARGIN = 2.0;
+
+  private final OrbitDeterminationPropagatorBuilder[] builders;
+  private final double convergenceThreshold;
+  private final List<ObservedMeasurement<?>> measurements;
+  private final ModelObserver observer;
+  private final Map<ObservedMeasurement<?>, Integer> rows = new HashMap<>();
+  private final JacobianUpdate update;
+
+  private int consecutiveReuses;
+  private int fullEvaluations;
+  private RealMatrix jacobian;
+  private RealVector previousPoint;
+  private RealVector previousValue;
+  private int reuseEvaluations;
+
+  /**
+   * Constructor.
+   *
+   * @param builders                        The propagator builders.
+   * @param measurements                    The measurements.
+   * @param estimatedMeasurementsParameters The estimated measurements parameters.
+   * @param observer                        The model observer.
+   * @param update                          The Jacobian update strategy.
+   * @param convergenceThreshold            The parameters convergence threshold of the estimator.
+   */
+  public JacobianReuseBatchLSModel(OrbitDeterminationPropagatorBuilder[] builders,
+      List<ObservedMeasurement<?>> measurements,
+      ParameterDriversList estimatedMeasurementsParameters, ModelObserver observer,
+      JacobianUpdate update, double convergenceThreshold) {
+    super(builders, measurements, estimatedMeasurementsParameters, observer);
+    this.builders = builders.clone();
+    this.convergenceThreshold = convergenceThreshold;
+    this.measurements = new ArrayList<>();
+    for (ObservedMeasurement<?> measurement : measurements) {
+      if (measurement.isEnabled()) {
+        this.measurements.add(measurement);
+      }
+    }
+    this.observer = observer;
+    this.update = update;
+  }
+
+  /**
+   * Creates a factory for this model.
+   *
+   * @param update               The Jacobian update strategy.
+   * @param convergenceThreshold The parameters convergence threshold of the estimator.
+   * @return The model factory.
+   */
+  public static BatchLSModelFactory factory(JacobianUpdate update, double convergenceThreshold) {
+    return (builders, measurements, parameters, observer) -> new JacobianReuseBatchLSModel(
+        builders, measurements, parameters, observer, update, convergenceThreshold);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public Pair<RealVector, RealMatrix> value(RealVector point) {
+
+    if (!isReusable(point)) {
+      return evaluateFully(point);
+    }
+
+    RealVector value = evaluateResiduals(point);
+    if (value == null || value.dotProduct(value) >= previousValue.dotProduct(previousValue)) {
+      log.debug("Convergence stalled with reused Jacobian, recomputing it.");
+      return evaluateFully(point);
+    }
+
+    if (update == JacobianUpdate.BROYDEN) {
+      RealVector step = point.subtract(previousPoint);
+      RealVector correction = value.subtract(previousValue).subtract(jacobian.operate(step))
+          .mapDivide(step.dotProduct(step));
+      jacobian = jacobian.add(correction.outerProduct(step));
+    }
+
+    previousPoint = point.copy();
+    previousValue = value;
+    consecutiveReuses++;
+    reuseEvaluations++;
+    return new Pair<>(value, jacobian);
+  }
+
+  /**
+   * {@inheritDoc}
+   * <p>
+   * Also records the row of each measurement, which reuse evaluations need.
+   */
+  @Override
+  public void fetchEvaluatedMeasurement(int index, EstimatedMeasurement<?> evaluation) {
+    rows.put(evaluation.getObservedMeasurement(), index);
+    super.fetchEvaluatedMeasurement(index, evaluation);
+  }
+
+  /**
+   * Gets the number of evaluations that computed the full Jacobian.
+   *
+   * @return The number of full evaluations.
+   */
+  public int getFullEvaluations() {
+    return fullEvaluations;
+  }
+
+  /**
+   * Gets the number of evaluations that reused the Jacobian.
+   *
+   * @return The number of reuse evaluations.
+   */
+  public int getReuseEvaluations() {
+    return reuseEvaluations;
+  }
+
+  private boolean isReusable(RealVector point) {
+    return update != JacobianUpdate.FULL
+        && builders.length == 1
+        && jacobian != null
+        && consecutiveReuses < MAX_CONSECUTIVE_REUSES
+        && point.getLInfDistance(previousPoint) > CONVERGENCE_MARGIN * convergenceThreshold;
+  }
+
+  private Pair<RealVector, RealMatrix> evaluateFully(RealVector point) {
+    Pair<RealVector, RealMatrix> evaluation = super.value(point);
+    // The superclass reuses its value and Jacobian instances, so keep copies.
+    previousPoint = point.copy();
+    previousValue = evaluation.getFirst().copy();
+    jacobian = evaluation.getSecond().copy();
+    consecutiveReuses = 0;
+    fullEvaluations++;
+    return evaluation;
+  }
+
+  /**
+   * Computes the weighted residuals by plain propagation, without variational equations. The orbit
+   * is propagated from its epoch backward over the earlier measurements and forward over the later
+   * ones.
+   *
+   * @param point The normalized parameters.
+   * @return The residuals, or null if a measurement has no known row.
+   */
+  private RealVector evaluateResiduals(RealVector point) {
+
+    for (ObservedMeasurement<?> measurement : measurements) {
+      if (!rows.containsKey(measurement)) {
+        return null;
+      }
+    }
+
+    Propagator propagator = createPropagators(point)[0];
+    SpacecraftState initialState = propagator.getInitialState();
+    AbsoluteDate epoch = initialState.getDate();
+
+    List<ObservedMeasurement<?>> before = new ArrayList<>();
+    List<ObservedMeasurement<?>> after = new ArrayList<>();
+    for (ObservedMeasurement<?> measurement : measurements) {
+      (measurement.getDate().compareTo(epoch) < 0 ? before : after).add(measurement);
+    }
+    after.sort(Comparator.comparing(TimeStamped::getDate));
+    before.sort(Comparator.comparing(TimeStamped::getDate).reversed());
+
+    int rowCount = 0;
+    for (ObservedMeasurement<?> measurement : measurements) {
+      rowCount = Math.max(rowCount, rows.get(measurement) + measurement.getDimension());
+    }
+    RealVector value = new ArrayRealVector(rowCount);
+    Map<ObservedMeasurement<?>, EstimatedMeasurement<?>> evaluations = new HashMap<>();
+
+    if (!after.isEmpty()) {
+      propagate(propagator, after, true, value, evaluations);
+    }
+    if (!before.isEmpty()) {
+      propagate(after.isEmpty() ? propagator : createPropagators(point)[0], before, false, value,
+          evaluations);
+    }
+
+    observer.modelCalled(new Orbit[]{initialState.getOrbit()}, evaluations);
+    return value;
+  }
+
+  private void propagate(Propagator propagator, List<ObservedMeasurement<?>> sorted,
+      boolean isForward, RealVector value,
+      Map<ObservedMeasurement<?>, EstimatedMeasurement<?>> evaluations) {
+
+    int[] next = {0};
+    propagator.setStepHandler(interpolator -> {
+      AbsoluteDate stepEnd = interpolator.getCurrentState().getDate();
+      while (next[0] < sorted.size()) {
+        ObservedMeasurement<?> measurement = sorted.get(next[0]);
+        int comparison = measurement.getDate().compareTo(stepEnd);
+        if (isForward ? comparison > 0 : comparison < 0) {
+          break;
+        }
+        SpacecraftState state = interpolator.getInterpolatedState(measurement.getDate());
+        EstimatedMeasurement<?> estimated = measurement.estimate(getIterationsCount(),
+            getEvaluationsCount(), new SpacecraftState[]{state});
+        setResiduals(rows.get(measurement), estimated, value);
+        evaluations.put(measurement, estimated);
+        next[0]++;
+      }
+    });
+
+    AbsoluteDate lastDate = sorted.get(sorted.size() - 1).getDate();
+    propagator.propagate(lastDate.shiftedBy(isForward ? 1.0 : -1.0));
+  }
+
+  private static void setResiduals(int row, EstimatedMeasurement<?> estimated, RealVector value) {
+    double[] evaluated = estimated.getEstimatedValue();
+    double[] observed = estimated.getObservedMeasurement().getObservedValue();
+    double[] sigma = estimated.getObservedMeasurement().getTheoreticalStandardDeviation();
+    double[] weight = estimated.getObservedMeasurement().getBaseWeight();
+    for (int i = 0; i < evaluated.length; i++) {
+      value.setEntry(row + i, weight[i] * (evaluated[i] - observed[i]) / sigma[i]);
+    }
+  }
+
+}
@@ -0,0 +1,104 @@
+package org.cohere.od.estimation;
+
+import java.util.List;
+import org.orekit.estimation.leastsquares.AbstractBatchLSModel;
+import org.orekit.estimation.leastsquares.ModelObserver;
+import org.orekit.estimation.measurements.ObservedMeasurement;
+import org.orekit.estimation.sequential.AbstractKalmanModel;
+import org.orekit.estimation.sequential.CovarianceMatrixProvider;
+import org.orekit.frames.Frame;
+import org.orekit.orbits.Orbit;
+import org.orekit.orbits.OrbitType;
+import org.orekit.orbits.PositionAngle;
+import org.orekit.propagation.Propagator;
+import org.orekit.propagation.conversion.OrbitDeterminationPropagatorBuilder;
+import org.orekit.time.AbsoluteDate;
+import org.orekit.utils.ParameterDriversList;
+
+/**
+ * Propagator builder delegating everything to another builder, except the creation of the batch
+ * least-squares model which is done by a {@link BatchLSModelFactory}.
+ * <p>
+ * This is the extension point used to plug custom least-squares models into a
+ * {@link org.orekit.estimation.leastsquares.BatchLSEstimator}.
+ */
+public class ModelOverridingPropagatorBuilder implements OrbitDeterminationPropagatorBuilder {
+
+  private final OrbitDeterminationPropagatorBuilder delegate;
+  private final BatchLSModelFactory modelFactory;
+
+  /**
+   * Constructor.
+   *
+   * @param delegate     The builder to delegate to.
+   * @param modelFactory The factory creating the least-squares model.
+   */
+  public ModelOverridingPropagatorBuilder(OrbitDeterminationPropagatorBuilder delegate,
+      BatchLSModelFactory modelFactory) {
+    this.delegate = delegate;
+    this.modelFactory = modelFactory;
+  }
+
+  @Override
+  public AbstractBatchLSModel buildLSModel(OrbitDeterminationPropagatorBuilder[] builders,
+      List<ObservedMeasurement<?>> measurements,
+      ParameterDriversList estimatedMeasurementsParameters, ModelObserver observer) {
+    return modelFactory.create(builders, measurements, estimatedMeasurementsParameters, observer);
+  }
+
+  @Override
+  public AbstractKalmanModel buildKalmanModel(
+      List<OrbitDeterminationPropagatorBuilder> propagatorBuilders,
+      List<CovarianceMatrixProvider> covarianceMatricesProviders,
+      ParameterDriversList estimatedMeasurementsParameters,
+      CovarianceMatrixProvider measurementProcessNoiseMatrix) {
+    return delegate.buildKalmanModel(propagatorBuilders, covarianceMatricesProviders,
+        estimatedMeasurementsParameters, measurementProcessNoiseMatrix);
+  }
+
+  @Override
+  public void resetOrbit(Orbit newOrbit) {
+    delegate.resetOrbit(newOrbit);
+  }
+
+  @Override
+  public Propagator buildPropagator(double[] normalizedParameters) {
+    return delegate.buildPropagator(normalizedParameters);
+  }
+
+  @Override
+  public double[] getSelectedNormalizedParameters() {
+    return delegate.getSelectedNormalizedParameters();
+  }
+
+  @Override
+  public OrbitType getOrbitType() {
+    return delegate.getOrbitType();
+  }
+
+  @Override
+  public PositionAngle getPositionAngle() {
+    return delegate.getPositionAngle();
+  }
+
+  @Override
+  public AbsoluteDate getInitialOrbitDate() {
+    return delegate.getInitialOrbitDate();
+  }
+
+  @Override
+  public Frame getFrame() {
+    return delegate.getFrame();
+  }
+
+  @Override
+  public ParameterDriversList getOrbitalParametersDrivers() {
+    return delegate.getOrbitalParametersDrivers();
+  }
+
+  @Override
+  public ParameterDriversList getPropagationParametersDrivers() {
+    return delegate.getPropagationParametersDrivers();
+  }
+
+}
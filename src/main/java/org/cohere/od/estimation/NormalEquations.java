@@ -0,0 +1,131 @@
+package org.cohere.od.estimation;
+
+import org.hipparchus.linear.MatrixUtils;
+import org.hipparchus.linear.RealMatrix;
+import org.hipparchus.linear.RealVector;
+
+/**
+ * Incremental accumulator of the normal equations JᵀJ δ = Jᵀr of a weighted least-squares problem,
+ * fed one Jacobian row and residual at a time.
+ * <p>
+ * Rows are first summed into a chunk accumulator which is folded into the totals every
+ * {@link #CHUNK_SIZE} rows. Summing in chunks keeps the rounding error of the totals low when
+ * millions of rows are accumulated. Only the sums are kept, not the rows nor their residuals, so
+ * the memory used is independent of the row count.
+ */
+class NormalEquations {
+
+  /**
+   * Number of rows summed before folding into the totals.
+   */
+  static final int CHUNK_SIZE = 1024;
+
+  private final int size;
+  private final double[][] normal;
+  private final double[] rightHandSide;
+  private final double[][] chunkNormal;
+  private final double[] chunkRightHandSide;
+  private double chiSquare;
+  private double chunkChiSquare;
+  private int chunkRows;
+  private int rows;
+
+  /**
+   * Constructor.
+   *
+   * @param size The number of estimated parameters.
+   */
+  NormalEquations(int size) {
+    this.size = size;
+    this.normal = new double[size][size];
+    this.rightHandSide = new double[size];
+    this.chunkNormal = new double[size][size];
+    this.chunkRightHandSide = new double[size];
+  }
+
+  /**
+   * Adds a row of the problem.
+   *
+   * @param jacobianRow The row of the Jacobian.
+   * @param residual    The residual of the row.
+   */
+  void addRow(double[] jacobianRow, double residual) {
+    for (int i = 0; i < size; i++) {
+      double ji = jacobianRow[i];
+      // Upper triangle only; the matrix is symmetric.
+      for (int j = i; j < size; j++) {
+        chunkNormal[i][j] += ji * jacobianRow[j];
+      }
+      chunkRightHandSide[i] += ji * residual;
+    }
+    chunkChiSquare += residual * residual;
+    rows++;
+    if (++chunkRows == CHUNK_SIZE) {
+      fold();
+    }
+  }
+
+  /**
+   * Gets the normal matrix JᵀJ.
+   *
+   * @return The normal matrix.
+   */
+  RealMatrix getNormalMatrix() {
+    fold();
+    RealMatrix matrix = MatrixUtils.createRealMatrix(size, size);
+    for (int i = 0; i < size; i++) {
+      for (int j = i; j < size; j++) {
+        matrix.setEntry(i, j, normal[i][j]);
+        matrix.setEntry(j, i, normal[i][j]);
+      }
+    }
+    return matrix;
+  }
+
+  /**
+   * Gets the right-hand side Jᵀr.
+   *
+   * @return The right-hand side.
+   */
+  RealVector getRightHandSide() {
+    fold();
+    return MatrixUtils.createRealVector(rightHandSide);
+  }
+
+  /**
+   * Gets the sum of the squared residuals.
+   *
+   * @return The chi-square.
+   */
+  double getChiSquare() {
+    fold();
+    return chiSquare;
+  }
+
+  /**
+   * Gets the number of rows added.
+   *
+   * @return The row count.
+   */
+  int getRowCount() {
+    return rows;
+  }
+
+  private void fold() {
+    if (chunkRows == 0) {
+      return;
+    }
+    for (int i = 0; i < size; i++) {
+      for (int j = i; j < size; j++) {
+        normal[i][j] += chunkNormal[i][j];
+        chunkNormal[i][j] = 0.0;
+      }
+      rightHandSide[i] += chunkRightHandSide[i];
+      chunkRightHandSide[i] = 0.0;
+    }
+    chiSquare += chunkChiSquare;
+    chunkChiSquare = 0.0;
+    chunkRows = 0;
+  }
+
+}
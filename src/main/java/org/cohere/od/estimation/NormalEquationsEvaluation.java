@@ -0,0 +1,156 @@
+package org.cohere.od.estimation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.ObjDoubleConsumer;
+import org.hipparchus.linear.MatrixUtils;
+import org.hipparchus.linear.QRDecomposition;
+import org.hipparchus.linear.RealMatrix;
+import org.hipparchus.linear.RealVector;
+import org.hipparchus.optim.nonlinear.vector.leastsquares.LeastSquaresProblem;
+import org.hipparchus.util.FastMath;
+
+/**
+ * A least-squares evaluation backed by accumulated normal equations. The step, covariances, cost
+ * and RMS come from the sums of the normal equations, and neither the Jacobian nor the residuals
+ * are kept: the first call to {@link #getJacobian()} or {@link #getResiduals()} evaluates the
+ * measurements again to build both, so only the callers that need them pay for their memory.
+ */
+class NormalEquationsEvaluation implements LeastSquaresProblem.Evaluation {
+
+  private final RealVector point;
+  private final RealMatrix normalMatrix;
+  private final RealVector rightHandSide;
+  private final double chiSquare;
+  private final int rowCount;
+  private final Consumer<ObjDoubleConsumer<double[]>> rowsEvaluator;
+  private RealMatrix jacobian;
+  private RealVector residuals;
+
+  /**
+   * Constructor.
+   *
+   * @param point         The normalized parameters of the evaluation.
+   * @param equations     The normal equations accumulated at the point.
+   * @param rowsEvaluator Evaluates the measurements at the point again, passing each weighted
+   *                      Jacobian row and residual to a consumer. The row array may be reused.
+   */
+  NormalEquationsEvaluation(RealVector point, NormalEquations equations,
+      Consumer<ObjDoubleConsumer<double[]>> rowsEvaluator) {
+    this.point = point.copy();
+    this.normalMatrix = equations.getNormalMatrix();
+    this.rightHandSide = equations.getRightHandSide();
+    this.chiSquare = equations.getChiSquare();
+    this.rowCount = equations.getRowCount();
+    this.rowsEvaluator = rowsEvaluator;
+  }
+
+  /**
+   * Solves the normal equations for the Gauss-Newton step.
+   *
+   * @param threshold The singularity threshold.
+   * @return The step on the normalized parameters.
+   */
+  RealVector solve(double threshold) {
+    return new QRDecomposition(normalMatrix, threshold).getSolver().solve(rightHandSide);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public RealMatrix getCovariances(double threshold) {
+    return new QRDecomposition(normalMatrix, threshold).getSolver().getInverse();
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public RealVector getSigma(double covarianceSingularityThreshold) {
+    RealMatrix covariances = getCovariances(covarianceSingularityThreshold);
+    RealVector sigma = point.copy();
+    for (int i = 0; i < sigma.getDimension(); i++) {
+      sigma.setEntry(i, FastMath.sqrt(covariances.getEntry(i, i)));
+    }
+    return sigma;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public double getRMS() {
+    return FastMath.sqrt(chiSquare / rowCount);
+  }
+
+  /**
+   * {@inheritDoc}
+   * <p>
+   * The first call evaluates the measurements again at the point.
+   */
+  @Override
+  public RealMatrix getJacobian() {
+    evaluateRows();
+    return jacobian.copy();
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public double getCost() {
+    return FastMath.sqrt(chiSquare);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public double getChiSquare() {
+    return chiSquare;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public double getReducedChiSquare(int numberOfFittedParameters) {
+    return chiSquare / (rowCount - numberOfFittedParameters + 1);
+  }
+
+  /**
+   * {@inheritDoc}
+   * <p>
+   * The first call evaluates the measurements again at the point.
+   */
+  @Override
+  public RealVector getResiduals() {
+    evaluateRows();
+    return residuals.copy();
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public RealVector getPoint() {
+    return point.copy();
+  }
+
+  private void evaluateRows() {
+    if (jacobian != null) {
+      return;
+    }
+    List<double[]> rows = new ArrayList<>(rowCount);
+    double[] values = new double[rowCount];
+    rowsEvaluator.accept((row, residual) -> {
+      values[rows.size()] = residual;
+      rows.add(row.clone());
+    });
+    residuals = MatrixUtils.createRealVector(values);
+    jacobian = MatrixUtils.createRealMatrix(rows.toArray(new double[0][]));
+  }
+
+}
@@ -0,0 +1,153 @@
+package org.cohere.od.estimation;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import lombok.NonNull;
+import lombok.extern.log4j.Log4j2;
+import org.cohere.od.models.OdSettings;
+import org.cohere.od.models.SubsamplingReport;
+import org.cohere.od.models.SubsamplingSchedule;
+import org.cohere.od.utils.EstimatorFactory;
+import org.hipparchus.exception.MathIllegalStateException;
+import org.hipparchus.util.FastMath;
+import org.orekit.errors.OrekitException;
+import org.orekit.estimation.leastsquares.BatchLSEstimator;
+import org.orekit.estimation.measurements.ObservedMeasurement;
+import org.orekit.orbits.Orbit;
+import org.orekit.propagation.conversion.OrbitDeterminationPropagatorBuilder;
+import org.orekit.time.TimeStamped;
+
+/**
+ * Fits the orbit of a propagator builder on growing sparse subsets of the measurements, so that a
+ * full-data OD started from it only makes the last corrections.
+ * <p>
+ * The early least-squares iterations only need enough measurements to get the orbit roughly right.
+ * The measurements are split into arcs, and each subset takes a few measurements spread evenly over
+ * each arc, including its first and last ones so that the OD epoch of every subset is the one of the
+ * full set. Each subset is fitted until the correction falls below the loose convergence threshold
+ * of the schedule, then the number of measurements per arc grows geometrically, until the subsets
+ * would hold too large a fraction of the measurements.
+ */
+@Log4j2
+public final class ProgressiveSubsampler {
+
+  private ProgressiveSubsampler() {
+  }
+
+  /**
+   * Selects the sparse subsets of the schedule, from the smallest to the largest. The full set is
+   * not included.
+   *
+   * @param measurements The measurements.
+   * @param schedule     The subsampling schedule.
+   * @return The subsets, sorted by date, possibly none if the measurements are too few.
+   */
+  public static List<List<ObservedMeasurement<?>>> selectSubsets(
+      @NonNull List<ObservedMeasurement<?>> measurements, @NonNull SubsamplingSchedule schedule) {
+
+    if (schedule.getInitialPerArc() < 2 || schedule.getGrowthFactor() <= 1.0) {
+      throw new IllegalArgumentException(
+          "The subsets must start with 2 measurements per arc and grow.");
+    }
+
+    List<ObservedMeasurement<?>> sorted = new ArrayList<>(measurements);
+    sorted.sort(Comparator.comparing(TimeStamped::getDate));
+    List<List<ObservedMeasurement<?>>> arcs = new ArrayList<>();
+    List<ObservedMeasurement<?>> arc = null;
+    for (ObservedMeasurement<?> measurement : sorted) {
+      if (arc == null || measurement.getDate().durationFrom(arc.get(arc.size() - 1).getDate())
+          > schedule.getArcGap()) {
+        arc = new ArrayList<>();
+        arcs.add(arc);
+      }
+      arc.add(measurement);
+    }
+
+    List<List<ObservedMeasurement<?>>> subsets = new ArrayList<>();
+    double maxSize = schedule.getMaxStageFraction() * sorted.size();
+    int perArc = schedule.getInitialPerArc();
+    while (true) {
+      List<ObservedMeasurement<?>> subset = new ArrayList<>();
+      for (List<ObservedMeasurement<?>> measurementsOfArc : arcs) {
+        subset.addAll(spread(measurementsOfArc, perArc));
+      }
+      if (subset.size() > maxSize || subset.size() == sorted.size()) {
+        return subsets;
+      }
+      subsets.add(subset);
+      perArc = (int) FastMath.ceil(perArc * schedule.getGrowthFactor());
+    }
+  }
+
+  /**
+   * Fits the orbit of the builder on the sparse subsets of the schedule of the settings, and resets
+   * the builder to the last fitted orbit, at the OD epoch of the settings. A subset whose fit fails,
+   * such as when its geometry is too weak, ends the schedule and leaves the builder at the orbit of
+   * the previous subset.
+   *
+   * @param builder      The propagator builder of the OD.
+   * @param measurements The measurements of the OD.
+   * @param settings     The OD settings, with a subsampling schedule.
+   * @return The report of the subset fits.
+   */
+  public static SubsamplingReport presolve(@NonNull OrbitDeterminationPropagatorBuilder builder,
+      @NonNull List<ObservedMeasurement<?>> measurements, @NonNull OdSettings settings) {
+
+    SubsamplingSchedule schedule = settings.getSubsamplingSchedule();
+    if (schedule == null) {
+      throw new IllegalArgumentException("The settings have no subsampling schedule.");
+    }
+    OdSettings stageSettings = settings.toBuilder()
+        .subsamplingSchedule(null)
+        .build();
+
+    int stages = 0;
+    int stageEvaluations = 0;
+    long stageMeasurementEvaluations = 0;
+    for (List<ObservedMeasurement<?>> subset : selectSubsets(measurements, schedule)) {
+      Orbit previous = builder.buildPropagator(builder.getSelectedNormalizedParameters())
+          .getInitialState().getOrbit();
+      BatchLSEstimator estimator = EstimatorFactory.createBatchLsEstimator(builder, subset,
+          stageSettings);
+      estimator.setParametersConvergenceThreshold(schedule.getStageConvergenceThreshold());
+      boolean isFitted;
+      try {
+        builder.resetOrbit(estimator.estimate()[0].getInitialState().getOrbit());
+        isFitted = true;
+      } catch (OrekitException | MathIllegalStateException ex) {
+        log.debug("Stopped the subsampling schedule at {} measurements: {}", subset.size(),
+            ex.getMessage());
+        builder.resetOrbit(previous);
+        isFitted = false;
+      }
+      stageEvaluations += estimator.getEvaluationsCount();
+      stageMeasurementEvaluations += (long) estimator.getEvaluationsCount() * subset.size();
+      if (!isFitted) {
+        break;
+      }
+      stages++;
+      log.debug("Fitted subset of {} measurements in {} evaluations.", subset.size(),
+          estimator.getEvaluationsCount());
+    }
+
+    return new SubsamplingReport(stages, stageEvaluations, stageMeasurementEvaluations,
+        measurements.size(), 0);
+  }
+
+  /**
+   * Selects measurements spread evenly over an arc, including its first and last ones.
+   */
+  private static List<ObservedMeasurement<?>> spread(List<ObservedMeasurement<?>> arc,
+      int count) {
+    if (count >= arc.size()) {
+      return arc;
+    }
+    List<ObservedMeasurement<?>> selected = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      selected.add(arc.get((int) FastMath.round(i * (arc.size() - 1.0) / (count - 1.0))));
+    }
+    return selected;
+  }
+
+}
@@ -0,0 +1,316 @@
+package org.cohere.od.estimation;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.ObjDoubleConsumer;
+import org.hipparchus.linear.MatrixUtils;
+import org.hipparchus.linear.RealMatrix;
+import org.hipparchus.linear.RealVector;
+import org.hipparchus.optim.nonlinear.vector.leastsquares.LeastSquaresProblem;
+import org.orekit.estimation.leastsquares.BatchLSObserver;
+import org.orekit.estimation.measurements.EstimatedMeasurement;
+import org.orekit.estimation.measurements.EstimationsProvider;
+import org.orekit.estimation.measurements.ObservedMeasurement;
+import org.orekit.orbits.Orbit;
+import org.orekit.propagation.MatricesHarvester;
+import org.orekit.propagation.Propagator;
+import org.orekit.propagation.SpacecraftState;
+import org.orekit.propagation.conversion.OrbitDeterminationPropagatorBuilder;
+import org.orekit.time.AbsoluteDate;
+import org.orekit.time.TimeStamped;
+import org.orekit.utils.ParameterDriver;
+import org.orekit.utils.ParameterDriversList;
+
+/**
+ * Gauss-Newton batch least-squares estimator accumulating the normal equations as the measurements
+ * are evaluated, instead of keeping every estimated measurement and the full Jacobian.
+ * <p>
+ * For each evaluation the orbit and its state transition matrix are propagated from the OD epoch,
+ * backward over the earlier measurements and forward over the later ones. Each measurement is
+ * evaluated when the propagation reaches it, and its Jacobian rows and residuals are folded into
+ * JᵀJ and Jᵀr before the next one is evaluated, and only their sums are kept, so the memory used by
+ * an evaluation does not depend on the number of measurements. The Jacobian and residuals are
+ * evaluated again only when the optimum is asked for them.
+ * <p>
+ * The iterations, convergence test and covariance follow {@link
+ * org.orekit.estimation.leastsquares.BatchLSEstimator} with a Gauss-Newton optimizer, so the
+ * solution matches the one of the batch estimator. Only the orbital parameters can be estimated.
+ */
+public class StreamingBatchLSEstimator {
+
+  private static final String STM_NAME = "streaming-stm";
+
+  /**
+   * The estimated measurements passed to the observers: they are not kept.
+   */
+  private static final EstimationsProvider NO_ESTIMATIONS = new EstimationsProvider() {
+    @Override
+    public int getNumber() {
+      return 0;
+    }
+
+    @Override
+    public EstimatedMeasurement<?> getEstimatedMeasurement(int index) {
+      throw new IndexOutOfBoundsException(
+          "Estimated measurements of a streamed evaluation are not kept.");
+    }
+  };
+
+  private final OrbitDeterminationPropagatorBuilder builder;
+  private final List<ObservedMeasurement<?>> before = new ArrayList<>();
+  private final List<ObservedMeasurement<?>> after = new ArrayList<>();
+  private final BatchLSObserver[] observers;
+  private final double convergenceThreshold;
+  private final int maxIterations;
+  private final double singularityThreshold;
+  private final List<ParameterDriver> drivers = new ArrayList<>();
+  private final ParameterDriversList orbitalParameters = new ParameterDriversList();
+  private final int[] columns;
+
+  // Work buffers of the Jacobian rows, reused for every measurement.
+  private final double[][] dCdY = new double[6][6];
+  private final double[][] dMdY;
+  private final double[] row;
+
+  private int iterations;
+  private int evaluations;
+  private NormalEquationsEvaluation optimum;
+
+  /**
+   * Constructor.
+   *
+   * @param builder              The propagator builder, at the OD epoch.
+   * @param measurements         The measurements; only the enabled ones are used.
+   * @param convergenceThreshold The convergence threshold on the normalized parameters.
+   * @param maxIterations        The maximum number of iterations.
+   * @param singularityThreshold The singularity threshold of the normal equations solver.
+   * @param observers            Observers notified after each evaluation.
+   */
+  public StreamingBatchLSEstimator(OrbitDeterminationPropagatorBuilder builder,
+      List<ObservedMeasurement<?>> measurements, double convergenceThreshold, int maxIterations,
+      double singularityThreshold, BatchLSObserver... observers) {
+
+    for (ParameterDriver driver : builder.getPropagationParametersDrivers().getDrivers()) {
+      if (driver.isSelected()) {
+        throw new IllegalArgumentException(
+            "Propagation parameters cannot be estimated with streamed normal equations: "
+                + driver.getName());
+      }
+    }
+    List<? extends ParameterDriver> orbitalDrivers = builder.getOrbitalParametersDrivers()
+        .getDrivers();
+    List<Integer> selected = new ArrayList<>();
+    for (int j = 0; j < orbitalDrivers.size(); j++) {
+      if (orbitalDrivers.get(j).isSelected()) {
+        drivers.add(orbitalDrivers.get(j));
+        orbitalParameters.add(orbitalDrivers.get(j));
+        selected.add(j);
+      }
+    }
+    this.columns = selected.stream().mapToInt(Integer::intValue).toArray();
+
+    // The measurements are split and sorted once, in the order the propagations reach them.
+    AbsoluteDate epoch = builder.getInitialOrbitDate();
+    int maxDimension = 1;
+    for (ObservedMeasurement<?> measurement : measurements) {
+      if (measurement.isEnabled()) {
+        (measurement.getDate().compareTo(epoch) < 0 ? before : after).add(measurement);
+        maxDimension = Math.max(maxDimension, measurement.getDimension());
+      }
+    }
+    after.sort(Comparator.comparing(TimeStamped::getDate));
+    before.sort(Comparator.comparing(TimeStamped::getDate).reversed());
+
+    this.builder = builder;
+    this.convergenceThreshold = convergenceThreshold;
+    this.maxIterations = maxIterations;
+    this.singularityThreshold = singularityThreshold;
+    this.observers = observers.clone();
+    this.dMdY = new double[maxDimension][6];
+    this.row = new double[drivers.size()];
+  }
+
+  /**
+   * Performs the estimation.
+   *
+   * @return The propagator built from the estimated parameters.
+   * @throws IllegalStateException if the estimation does not converge within the maximum number
+   *                               of iterations.
+   */
+  public Propagator estimate() {
+
+    RealVector point = MatrixUtils.createRealVector(builder.getSelectedNormalizedParameters());
+    RealVector previousPoint = null;
+
+    // As with the Gauss-Newton optimizer of the batch estimator, each iteration evaluates the
+    // problem once. The evaluations of the Jacobian requested by the observers are not counted.
+    iterations = 0;
+    evaluations = 0;
+    while (iterations < maxIterations) {
+
+      iterations++;
+      evaluations++;
+      optimum = evaluate(point);
+
+      if (previousPoint != null
+          && point.getLInfDistance(previousPoint) <= convergenceThreshold) {
+        return builder.buildPropagator(point.toArray());
+      }
+
+      previousPoint = point;
+      point = point.add(optimum.solve(singularityThreshold));
+    }
+
+    throw new IllegalStateException(
+        "OD did not converge within " + maxIterations + " iterations.");
+  }
+
+  /**
+   * Gets the covariance of the estimated orbital parameters, in physical units.
+   *
+   * @param threshold The singularity threshold.
+   * @return The covariance matrix.
+   */
+  public RealMatrix getPhysicalCovariances(double threshold) {
+    RealMatrix covariances = optimum.getCovariances(threshold);
+    for (int i = 0; i < drivers.size(); i++) {
+      for (int j = 0; j < drivers.size(); j++) {
+        covariances.multiplyEntry(i, j, drivers.get(i).getScale() * drivers.get(j).getScale());
+      }
+    }
+    return covariances;
+  }
+
+  /**
+   * Gets the estimated orbital parameters.
+   *
+   * @return The selected orbital parameters drivers.
+   */
+  public ParameterDriversList getOrbitalParametersDrivers() {
+    return orbitalParameters;
+  }
+
+  /**
+   * Gets the last evaluation of the problem.
+   *
+   * @return The optimum evaluation. Its Jacobian and residuals are evaluated again on demand.
+   */
+  public LeastSquaresProblem.Evaluation getOptimum() {
+    return optimum;
+  }
+
+  /**
+   * Gets the number of iterations performed.
+   *
+   * @return The iterations count.
+   */
+  public int getIterationsCount() {
+    return iterations;
+  }
+
+  /**
+   * Gets the number of evaluations performed.
+   *
+   * @return The evaluations count.
+   */
+  public int getEvaluationsCount() {
+    return evaluations;
+  }
+
+  private NormalEquationsEvaluation evaluate(RealVector point) {
+    NormalEquations equations = new NormalEquations(drivers.size());
+    Orbit orbit = evaluateMeasurements(point, equations::addRow);
+    NormalEquationsEvaluation evaluation = new NormalEquationsEvaluation(point, equations,
+        rows -> evaluateMeasurements(point, rows));
+    notifyObservers(orbit, evaluation);
+    return evaluation;
+  }
+
+  /**
+   * Evaluates the measurements at a point, passing each weighted Jacobian row and residual to a
+   * consumer, forward from the OD epoch then backward.
+   */
+  private Orbit evaluateMeasurements(RealVector point, ObjDoubleConsumer<double[]> rows) {
+    Propagator forward = builder.buildPropagator(point.toArray());
+    Orbit orbit = forward.getInitialState().getOrbit();
+    if (!after.isEmpty()) {
+      propagate(forward, after, true, rows);
+    }
+    if (!before.isEmpty()) {
+      propagate(builder.buildPropagator(point.toArray()), before, false, rows);
+    }
+    return orbit;
+  }
+
+  private void propagate(Propagator propagator, List<ObservedMeasurement<?>> sorted,
+      boolean isForward, ObjDoubleConsumer<double[]> rows) {
+
+    MatricesHarvester harvester = propagator.setupMatricesComputation(STM_NAME, null, null);
+    int[] next = {0};
+    propagator.setStepHandler(interpolator -> {
+      AbsoluteDate stepEnd = interpolator.getCurrentState().getDate();
+      while (next[0] < sorted.size()) {
+        ObservedMeasurement<?> measurement = sorted.get(next[0]);
+        int comparison = measurement.getDate().compareTo(stepEnd);
+        if (isForward ? comparison > 0 : comparison < 0) {
+          break;
+        }
+        accumulate(measurement, interpolator.getInterpolatedState(measurement.getDate()),
+            harvester, rows);
+        next[0]++;
+      }
+    });
+
+    AbsoluteDate lastDate = sorted.get(sorted.size() - 1).getDate();
+    propagator.propagate(lastDate.shiftedBy(isForward ? 1.0 : -1.0));
+  }
+
+  private void accumulate(ObservedMeasurement<?> measurement, SpacecraftState state,
+      MatricesHarvester harvester, ObjDoubleConsumer<double[]> rows) {
+
+    EstimatedMeasurement<?> estimated = measurement.estimate(iterations, evaluations,
+        new SpacecraftState[]{state});
+
+    // Same chain rule as Orekit's BatchLSModel: measurement -> Cartesian -> orbital parameters at
+    // the measurement date -> orbital parameters at the OD epoch. Only the columns of the selected
+    // parameters are computed.
+    state.getOrbit().getJacobianWrtParameters(builder.getPositionAngle(), dCdY);
+    double[][] dMdC = estimated.getStateDerivatives(0);
+    RealMatrix stm = harvester.getStateTransitionMatrix(state);
+    int dimension = dMdC.length;
+    for (int i = 0; i < dimension; i++) {
+      for (int k = 0; k < 6; k++) {
+        double sum = 0.0;
+        for (int a = 0; a < 6; a++) {
+          sum += dMdC[i][a] * dCdY[a][k];
+        }
+        dMdY[i][k] = sum;
+      }
+    }
+
+    double[] observed = measurement.getObservedValue();
+    double[] value = estimated.getEstimatedValue();
+    double[] sigma = measurement.getTheoreticalStandardDeviation();
+    double[] weight = measurement.getBaseWeight();
+    for (int i = 0; i < dimension; i++) {
+      double factor = weight[i] / sigma[i];
+      for (int c = 0; c < columns.length; c++) {
+        double sum = 0.0;
+        for (int k = 0; k < 6; k++) {
+          sum += dMdY[i][k] * stm.getEntry(k, columns[c]);
+        }
+        row[c] = factor * sum * drivers.get(c).getScale();
+      }
+      rows.accept(row, factor * (observed[i] - value[i]));
+    }
+  }
+
+  private void notifyObservers(Orbit orbit, NormalEquationsEvaluation evaluation) {
+    for (BatchLSObserver observer : observers) {
+      observer.evaluationPerformed(iterations, evaluations, new Orbit[]{orbit}, orbitalParameters,
+          new ParameterDriversList(), new ParameterDriversList(), NO_ESTIMATIONS, evaluation);
+    }
+  }
+
+}
@@ -0,0 +1,403 @@
+package org.cohere.od.estimation;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import lombok.NonNull;
+import org.hipparchus.exception.LocalizedCoreFormats;
+import org.hipparchus.exception.MathIllegalArgumentException;
+import org.hipparchus.linear.ArrayRealVector;
+import org.hipparchus.linear.DecompositionSolver;
+import org.hipparchus.linear.MatrixDecomposer;
+import org.hipparchus.linear.MatrixUtils;
+import org.hipparchus.linear.RealMatrix;
+import org.hipparchus.linear.RealVector;
+import org.hipparchus.util.FastMath;
+
+/**
+ * Tall-skinny QR (TSQR) decomposition of least-squares Jacobians, which have many more rows than
+ * columns, as a replacement of {@link org.hipparchus.linear.QRDecomposer}.
+ * <p>
+ * The rows are split into blocks that are factored with Householder reflections in parallel, then
+ * the triangular factors of the blocks are stacked by pairs and factored again, up a binary tree,
+ * down to the triangular factor of the whole matrix. The solver applies the same reflections to
+ * the right-hand side block by block and up the tree, and solves the final triangular system, so
+ * it gives the least-squares solution of {@link org.hipparchus.linear.QRDecomposition} to rounding
+ * errors, with the same singularity test.
+ * <p>
+ * The blocks are copied into column-major arrays which are kept and reused by the next
+ * decomposition of a matrix of the same shape, as the Gauss-Newton iterations do. A solver is
+ * therefore only valid until the next decomposition, and a decomposer must not be shared between
+ * estimators.
+ */
+public class TallSkinnyQrDecomposer implements MatrixDecomposer {
+
+  /**
+   * Default number of rows of a block, whose columns fit in the per-core cache for the usual
+   * Jacobian widths.
+   */
+  public static final int DEFAULT_BLOCK_ROWS = 4096;
+
+  private final double singularityThreshold;
+  private final int blockRows;
+  private final ExecutorService executor;
+
+  private int rows = -1;
+  private int columns = -1;
+  private Factor[] leaves;
+  private List<Factor[]> levels;
+
+  /**
+   * Constructor using blocks of {@link #DEFAULT_BLOCK_ROWS} rows.
+   *
+   * @param singularityThreshold The threshold under which a diagonal element of the triangular
+   *                             factor makes the matrix singular.
+   * @param executor             The executor factoring the blocks in parallel. It is owned by the
+   *                             caller.
+   */
+  public TallSkinnyQrDecomposer(double singularityThreshold, @NonNull ExecutorService executor) {
+    this(singularityThreshold, DEFAULT_BLOCK_ROWS, executor);
+  }
+
+  /**
+   * Constructor.
+   *
+   * @param singularityThreshold The threshold under which a diagonal element of the triangular
+   *                             factor makes the matrix singular.
+   * @param blockRows            The minimum number of rows of a block. Matrices with fewer than
+   *                             twice this number of rows are factored as a single block.
+   * @param executor             The executor factoring the blocks in parallel. It is owned by the
+   *                             caller.
+   */
+  public TallSkinnyQrDecomposer(double singularityThreshold, int blockRows,
+      @NonNull ExecutorService executor) {
+    if (blockRows < 1) {
+      throw new IllegalArgumentException("The blocks must have at least 1 row.");
+    }
+    this.singularityThreshold = singularityThreshold;
+    this.blockRows = blockRows;
+    this.executor = executor;
+  }
+
+  @Override
+  public DecompositionSolver decompose(RealMatrix matrix) {
+
+    allocate(matrix.getRowDimension(), matrix.getColumnDimension());
+
+    List<Callable<Void>> tasks = new ArrayList<>(leaves.length);
+    for (Factor leaf : leaves) {
+      tasks.add(() -> {
+        leaf.load(matrix);
+        leaf.factor();
+        return null;
+      });
+    }
+    invokeAll(tasks);
+
+    for (int level = 1; level < levels.size(); level++) {
+      Factor[] children = levels.get(level - 1);
+      Factor[] parents = levels.get(level);
+      for (int i = 0; i < children.length / 2; i++) {
+        parents[i].stack(children[2 * i], children[2 * i + 1]);
+        parents[i].factor();
+      }
+    }
+
+    return new Solver(rows, columns, leaves, levels);
+  }
+
+  /**
+   * Allocates the blocks and the reduction tree, unless the previous matrix had the same shape.
+   */
+  private void allocate(int rowDimension, int columnDimension) {
+
+    if (rowDimension == rows && columnDimension == columns) {
+      return;
+    }
+
+    int blockCount = FastMath.max(1, rowDimension / FastMath.max(blockRows, columnDimension));
+    leaves = new Factor[blockCount];
+    int start = 0;
+    for (int i = 0; i < blockCount; i++) {
+      // The last block takes the remaining rows.
+      int end = i == blockCount - 1 ? rowDimension
+          : start + rowDimension / blockCount;
+      leaves[i] = new Factor(start, end - start, columnDimension);
+      start = end;
+    }
+
+    levels = new ArrayList<>();
+    levels.add(leaves);
+    Factor[] children = leaves;
+    while (children.length > 1) {
+      Factor[] parents = new Factor[(children.length + 1) / 2];
+      for (int i = 0; i < children.length / 2; i++) {
+        parents[i] = new Factor(-1, 2 * columnDimension, columnDimension);
+      }
+      if (children.length % 2 == 1) {
+        // An odd factor is carried to the next level unchanged.
+        parents[parents.length - 1] = children[children.length - 1];
+      }
+      levels.add(parents);
+      children = parents;
+    }
+
+    rows = rowDimension;
+    columns = columnDimension;
+  }
+
+  private <T> List<T> invokeAll(List<Callable<T>> tasks) {
+
+    if (tasks.size() == 1) {
+      try {
+        return Collections.singletonList(tasks.get(0).call());
+      } catch (RuntimeException ex) {
+        throw ex;
+      } catch (Exception ex) {
+        throw new IllegalStateException("Failed to factor the block: " + ex.getMessage());
+      }
+    }
+
+    List<Future<T>> futures;
+    try {
+      futures = executor.invokeAll(tasks);
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while factoring the blocks.");
+    }
+
+    List<T> results = new ArrayList<>(futures.size());
+    for (Future<T> future : futures) {
+      try {
+        results.add(future.get());
+      } catch (ExecutionException ex) {
+        throw new IllegalStateException("Failed to factor the block: "
+            + ex.getCause().getMessage());
+      } catch (InterruptedException ex) {
+        // Cannot happen: invokeAll returns completed futures.
+        Thread.currentThread().interrupt();
+        throw new IllegalStateException("Interrupted while reading the block factor.");
+      }
+    }
+    return results;
+  }
+
+  /**
+   * Householder QR factor of a block of rows, or of two stacked triangular factors.
+   * <p>
+   * As in {@link org.hipparchus.linear.QRDecomposition}, the columns hold the triangular factor
+   * above the diagonal and the Householder vectors from the diagonal down, the diagonal of the
+   * triangular factor being kept apart.
+   */
+  private static final class Factor {
+
+    private final int start;
+    private final int rowCount;
+    private final int columnCount;
+    private final double[][] columns;
+    private final double[] diagonal;
+    private final double[] tau;
+
+    private Factor(int start, int rowCount, int columnCount) {
+      this.start = start;
+      this.rowCount = rowCount;
+      this.columnCount = columnCount;
+      this.columns = new double[columnCount][rowCount];
+      this.diagonal = new double[columnCount];
+      this.tau = new double[columnCount];
+    }
+
+    /**
+     * Copies the rows of the block from the matrix.
+     */
+    private void load(RealMatrix matrix) {
+      for (int j = 0; j < columnCount; j++) {
+        double[] column = columns[j];
+        for (int i = 0; i < rowCount; i++) {
+          column[i] = matrix.getEntry(start + i, j);
+        }
+      }
+    }
+
+    /**
+     * Stacks the triangular factors of two children.
+     */
+    private void stack(Factor top, Factor bottom) {
+      for (int j = 0; j < columnCount; j++) {
+        double[] column = columns[j];
+        for (int i = 0; i < columnCount; i++) {
+          column[i] = top.getR(i, j);
+          column[columnCount + i] = bottom.getR(i, j);
+        }
+      }
+    }
+
+    private double getR(int i, int j) {
+      if (i < j) {
+        return columns[j][i];
+      }
+      return i == j ? diagonal[j] : 0.0;
+    }
+
+    private void factor() {
+      int steps = FastMath.min(rowCount, columnCount);
+      for (int k = 0; k < steps; k++) {
+        double[] pivot = columns[k];
+        double normSquared = 0.0;
+        for (int i = k; i < rowCount; i++) {
+          normSquared += pivot[i] * pivot[i];
+        }
+        double norm = FastMath.sqrt(normSquared);
+        if (norm == 0.0) {
+          diagonal[k] = 0.0;
+          tau[k] = 0.0;
+          continue;
+        }
+        double alpha = pivot[k] > 0.0 ? -norm : norm;
+        // Reflection I - tau v vᵀ with v = x - alpha e1, so that vᵀv = 2 / tau.
+        tau[k] = 1.0 / (norm * (norm + FastMath.abs(pivot[k])));
+        pivot[k] -= alpha;
+        diagonal[k] = alpha;
+        for (int j = k + 1; j < columnCount; j++) {
+          reflect(k, columns[j], 0);
+        }
+      }
+      for (int k = steps; k < columnCount; k++) {
+        diagonal[k] = 0.0;
+        tau[k] = 0.0;
+      }
+    }
+
+    /**
+     * Applies the reflection k to the rows of the vector starting at the offset.
+     */
+    private void reflect(int k, double[] vector, int offset) {
+      if (tau[k] == 0.0) {
+        return;
+      }
+      double[] v = columns[k];
+      double dot = 0.0;
+      for (int i = k; i < rowCount; i++) {
+        dot += v[i] * vector[offset + i];
+      }
+      double scale = tau[k] * dot;
+      for (int i = k; i < rowCount; i++) {
+        vector[offset + i] -= scale * v[i];
+      }
+    }
+
+    /**
+     * Applies Qᵀ to the rows of the vector starting at the offset, and returns the leading entries
+     * that multiply the triangular factor.
+     */
+    private double[] project(double[] vector, int offset) {
+      for (int k = 0; k < FastMath.min(rowCount, columnCount); k++) {
+        reflect(k, vector, offset);
+      }
+      double[] projected = new double[columnCount];
+      System.arraycopy(vector, offset, projected, 0, FastMath.min(rowCount, columnCount));
+      return projected;
+    }
+  }
+
+  private final class Solver implements DecompositionSolver {
+
+    private final int rows;
+    private final int columns;
+    private final Factor[] leaves;
+    private final List<Factor[]> levels;
+    private final Factor root;
+
+    private Solver(int rows, int columns, Factor[] leaves, List<Factor[]> levels) {
+      this.rows = rows;
+      this.columns = columns;
+      this.leaves = leaves;
+      this.levels = levels;
+      this.root = levels.get(levels.size() - 1)[0];
+    }
+
+    @Override
+    public RealVector solve(RealVector b) {
+
+      if (b.getDimension() != rows) {
+        throw new MathIllegalArgumentException(LocalizedCoreFormats.DIMENSIONS_MISMATCH,
+            b.getDimension(), rows);
+      }
+      if (!isNonSingular()) {
+        throw new MathIllegalArgumentException(LocalizedCoreFormats.SINGULAR_MATRIX);
+      }
+
+      double[] values = b.toArray();
+      List<Callable<double[]>> tasks = new ArrayList<>(leaves.length);
+      for (Factor leaf : leaves) {
+        tasks.add(() -> leaf.project(values, leaf.start));
+      }
+      List<double[]> projections = invokeAll(tasks);
+
+      double[] stacked = new double[2 * columns];
+      for (int level = 1; level < levels.size(); level++) {
+        Factor[] parents = levels.get(level);
+        List<double[]> next = new ArrayList<>(parents.length);
+        for (int i = 0; i < projections.size() / 2; i++) {
+          System.arraycopy(projections.get(2 * i), 0, stacked, 0, columns);
+          System.arraycopy(projections.get(2 * i + 1), 0, stacked, columns, columns);
+          next.add(parents[i].project(stacked, 0));
+        }
+        if (projections.size() % 2 == 1) {
+          next.add(projections.get(projections.size() - 1));
+        }
+        projections = next;
+      }
+
+      // Back substitution R x = Qᵀb.
+      double[] x = projections.get(0);
+      for (int i = columns - 1; i >= 0; i--) {
+        double sum = x[i];
+        for (int j = i + 1; j < columns; j++) {
+          sum -= root.getR(i, j) * x[j];
+        }
+        x[i] = sum / root.diagonal[i];
+      }
+      return new ArrayRealVector(x, false);
+    }
+
+    @Override
+    public RealMatrix solve(RealMatrix b) {
+      RealMatrix solution = MatrixUtils.createRealMatrix(columns, b.getColumnDimension());
+      for (int j = 0; j < b.getColumnDimension(); j++) {
+        solution.setColumnVector(j, solve(b.getColumnVector(j)));
+      }
+      return solution;
+    }
+
+    @Override
+    public boolean isNonSingular() {
+      for (int i = 0; i < columns; i++) {
+        if (FastMath.abs(root.diagonal[i]) <= singularityThreshold) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    @Override
+    public RealMatrix getInverse() {
+      return solve(MatrixUtils.createRealIdentityMatrix(rows));
+    }
+
+    @Override
+    public int getRowDimension() {
+      return rows;
+    }
+
+    @Override
+    public int getColumnDimension() {
+      return columns;
+    }
+  }
+
+}
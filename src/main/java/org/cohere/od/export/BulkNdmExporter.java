@@ -0,0 +1,491 @@
+package org.cohere.od.export;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import lombok.NonNull;
+import lombok.extern.log4j.Log4j2;
+import org.cohere.od.models.StateAndCovariance;
+import org.cohere.od.utils.NdmUtils;
+import org.orekit.data.DataContext;
+import org.orekit.files.ccsds.definitions.BodyFacade;
+import org.orekit.files.ccsds.definitions.CenterName;
+import org.orekit.files.ccsds.definitions.FrameFacade;
+import org.orekit.files.ccsds.definitions.TimeSystem;
+import org.orekit.files.ccsds.ndm.Ndm;
+import org.orekit.files.ccsds.ndm.NdmConstituent;
+import org.orekit.files.ccsds.ndm.NdmWriter;
+import org.orekit.files.ccsds.ndm.WriterBuilder;
+import org.orekit.files.ccsds.ndm.odm.CartesianCovariance;
+import org.orekit.files.ccsds.ndm.odm.CommonMetadata;
+import org.orekit.files.ccsds.ndm.odm.oem.Oem;
+import org.orekit.files.ccsds.ndm.odm.oem.OemData;
+import org.orekit.files.ccsds.ndm.odm.oem.OemMetadata;
+import org.orekit.files.ccsds.ndm.odm.oem.OemSegment;
+import org.orekit.files.ccsds.ndm.odm.oem.OemWriter;
+import org.orekit.files.ccsds.ndm.odm.opm.Opm;
+import org.orekit.files.ccsds.ndm.odm.opm.OpmData;
+import org.orekit.files.ccsds.ndm.odm.opm.OpmWriter;
+import org.orekit.files.ccsds.section.Header;
+import org.orekit.files.ccsds.utils.generation.Generator;
+import org.orekit.files.ccsds.utils.generation.KvnGenerator;
+import org.orekit.files.ccsds.utils.generation.XmlGenerator;
+import org.orekit.frames.Frame;
+import org.orekit.orbits.OrbitType;
+import org.orekit.propagation.SpacecraftState;
+import org.orekit.propagation.StateCovariance;
+import org.orekit.utils.IERSConventions;
+import org.orekit.utils.TimeStampedPVCoordinates;
+
+/**
+ * Exports OD solutions as CCSDS OPMs and ephemerides as multi-segment OEMs, in batches, from a
+ * dedicated writer thread.
+ * <p>
+ * Submitting never blocks: objects are queued and the call returns immediately, or returns false if
+ * the queue is full. The writer thread builds the messages, renders a whole batch into a reused
+ * buffer with a single header, and writes it to one file, which is moved into place atomically so
+ * readers never see partial files. A batch is written when it is full, when its oldest object has
+ * waited for the maximum batch delay, on {@link #flush()} and on {@link #close()}.
+ * <p>
+ * The writer thread is a daemon thread; {@link #close()} must be called to write the last batches.
+ */
+@Log4j2
+public class BulkNdmExporter implements AutoCloseable {
+
+  /**
+   * Initial capacity of the rendering buffer, in characters.
+   */
+  private static final int INITIAL_BUFFER_CAPACITY = 1 << 16;
+  /**
+   * Capacity above which the rendering buffer is released after a batch, in characters.
+   */
+  private static final int MAX_RETAINED_BUFFER_CAPACITY = 1 << 24;
+  /**
+   * Interpolation degree declared in the OEM metadata.
+   */
+  private static final int OEM_INTERPOLATION_DEGREE = 4;
+  /**
+   * The center of the messages. Only its name is written, so the Earth body, which would require
+   * loading planetary ephemerides, is not resolved.
+   */
+  private static final BodyFacade EARTH_CENTER = new BodyFacade(CenterName.EARTH.name(), null);
+
+  private final NdmExportSettings settings;
+  private final BlockingQueue<ExportRecord> queue;
+  private final Thread writerThread;
+  private final AtomicLong fileSequence = new AtomicLong();
+  private final LongAdder submitted = new LongAdder();
+  private final LongAdder rejected = new LongAdder();
+  private final LongAdder written = new LongAdder();
+  private final LongAdder failed = new LongAdder();
+  private final LongAdder files = new LongAdder();
+  private final LongAdder bytes = new LongAdder();
+  private final OpmWriter opmWriter;
+  private final OemWriter oemWriter;
+  private final NdmWriter ndmWriter;
+
+  private volatile boolean isClosed = false;
+
+  // Only accessed by the writer thread.
+  private StringBuilder buffer = new StringBuilder(INITIAL_BUFFER_CAPACITY);
+
+  /**
+   * Constructor. Starts the writer thread.
+   *
+   * @param settings The export settings.
+   * @throws IOException if the output directory cannot be created.
+   */
+  public BulkNdmExporter(@NonNull NdmExportSettings settings) throws IOException {
+    this.settings = settings;
+    this.queue = new ArrayBlockingQueue<>(settings.getQueueCapacity());
+    Files.createDirectories(settings.getDirectory());
+
+    WriterBuilder writerBuilder = new WriterBuilder().withConventions(IERSConventions.IERS_2010);
+    this.opmWriter = writerBuilder.buildOpmWriter();
+    this.oemWriter = writerBuilder.buildOemWriter();
+    this.ndmWriter = writerBuilder.buildNdmWriter();
+
+    this.writerThread = new Thread(this::run, "ndm-export-" + settings.getFilePrefix());
+    this.writerThread.setDaemon(true);
+    this.writerThread.start();
+  }
+
+  /**
+   * Queues an OD solution for export as an OPM.
+   *
+   * @param objectName The object name.
+   * @param objectId   The object identifier.
+   * @param solution   The estimated state and its Cartesian covariance.
+   * @return True if queued, false if the queue is full.
+   */
+  public boolean submitOpm(@NonNull String objectName, @NonNull String objectId,
+      @NonNull StateAndCovariance solution) {
+    return submit(new OpmRecord(objectName, objectId, solution));
+  }
+
+  /**
+   * Queues an ephemeris for export as a segment of an OEM.
+   *
+   * @param objectName The object name.
+   * @param objectId   The object identifier.
+   * @param frame      The frame of the ephemeris.
+   * @param ephemeris  The ephemeris, sorted by date.
+   * @return True if queued, false if the queue is full.
+   */
+  public boolean submitOem(@NonNull String objectName, @NonNull String objectId,
+      @NonNull Frame frame, @NonNull List<TimeStampedPVCoordinates> ephemeris) {
+    if (ephemeris.isEmpty()) {
+      throw new IllegalArgumentException("Must provide at least 1 ephemeris point.");
+    }
+    return submit(new OemRecord(objectName, objectId, frame, List.copyOf(ephemeris)));
+  }
+
+  /**
+   * Writes all objects submitted before this call, and waits until they are written.
+   *
+   * @throws InterruptedException if interrupted while waiting.
+   */
+  public void flush() throws InterruptedException {
+    Marker marker = new Marker(false);
+    queue.put(marker);
+    await(marker);
+  }
+
+  /**
+   * Writes all submitted objects and stops the writer thread. Further submissions are refused.
+   */
+  @Override
+  public void close() {
+    if (isClosed) {
+      return;
+    }
+    isClosed = true;
+    Marker marker = new Marker(true);
+    try {
+      queue.put(marker);
+      await(marker);
+      writerThread.join();
+    } catch (InterruptedException ex) {
+      writerThread.interrupt();
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  /**
+   * Gets a snapshot of the export counters.
+   *
+   * @return The export metrics.
+   */
+  public NdmExportMetrics getMetrics() {
+    return new NdmExportMetrics(submitted.sum(), rejected.sum(), written.sum(), failed.sum(),
+        files.sum(), bytes.sum(), queue.size());
+  }
+
+  private boolean submit(ExportRecord record) {
+    if (isClosed) {
+      throw new IllegalStateException("Exporter is closed.");
+    }
+    if (queue.offer(record)) {
+      submitted.increment();
+      return true;
+    }
+    rejected.increment();
+    return false;
+  }
+
+  private void await(Marker marker) throws InterruptedException {
+    try {
+      marker.done.get();
+    } catch (ExecutionException ex) {
+      throw new IllegalStateException("Export writer failed: " + ex.getCause().getMessage(),
+          ex.getCause());
+    }
+  }
+
+  private void run() {
+
+    Batch<OpmRecord> opms = new Batch<>(this::writeOpms);
+    Batch<OemRecord> oems = new Batch<>(this::writeOems);
+
+    try {
+      while (true) {
+        long now = System.currentTimeMillis();
+        long deadline = Math.min(opms.deadline, oems.deadline);
+        ExportRecord record = deadline == Long.MAX_VALUE
+            ? queue.take()
+            : queue.poll(Math.max(0L, deadline - now), TimeUnit.MILLISECONDS);
+
+        if (record instanceof Marker) {
+          Marker marker = (Marker) record;
+          List<Marker> markers = new ArrayList<>(List.of(marker));
+          if (marker.isClose) {
+            // Objects submitted concurrently with close may be queued after the marker.
+            ExportRecord late;
+            while ((late = queue.poll()) != null) {
+              if (late instanceof Marker) {
+                markers.add((Marker) late);
+              } else {
+                add(late, opms, oems);
+              }
+            }
+          }
+          opms.write();
+          oems.write();
+          markers.forEach(done -> done.done.complete(null));
+          if (marker.isClose) {
+            return;
+          }
+        } else if (record != null) {
+          add(record, opms, oems);
+        }
+
+        now = System.currentTimeMillis();
+        opms.writeIfDue(now);
+        oems.writeIfDue(now);
+      }
+    } catch (InterruptedException ex) {
+      opms.write();
+      oems.write();
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private static void add(ExportRecord record, Batch<OpmRecord> opms, Batch<OemRecord> oems) {
+    if (record instanceof OpmRecord) {
+      opms.add((OpmRecord) record);
+    } else if (record instanceof OemRecord) {
+      oems.add((OemRecord) record);
+    }
+  }
+
+  private void writeOpms(List<OpmRecord> records) {
+    String fileName = nextFileName("opm");
+    try {
+      Header header = createHeader();
+      List<NdmConstituent<?, ?>> opms = new ArrayList<>();
+      for (OpmRecord record : records) {
+        opms.add(createOpm(header, record));
+      }
+
+      try (Generator generator = createGenerator(fileName, OpmWriter.KVN_PADDING_WIDTH)) {
+        if (settings.getFormat() == NdmFormat.XML) {
+          ndmWriter.writeMessage(generator, new Ndm(List.of(), opms));
+        } else {
+          for (NdmConstituent<?, ?> opm : opms) {
+            opmWriter.writeMessage(generator, (Opm) opm);
+          }
+        }
+      }
+      writeFile(fileName, records.size());
+    } catch (IOException | RuntimeException ex) {
+      failed.add(records.size());
+      log.error("Failed to write {} OPMs to {}: {}", records.size(), fileName, ex.getMessage());
+    }
+  }
+
+  private void writeOems(List<OemRecord> records) {
+    String fileName = nextFileName("oem");
+    try {
+      List<OemSegment> segments = new ArrayList<>();
+      for (OemRecord record : records) {
+        segments.add(createOemSegment(record));
+      }
+      Oem oem = new Oem(createHeader(), segments, IERSConventions.IERS_2010,
+          DataContext.getDefault(), settings.getMu());
+
+      try (Generator generator = createGenerator(fileName, OemWriter.KVN_PADDING_WIDTH)) {
+        oemWriter.writeMessage(generator, oem);
+      }
+      writeFile(fileName, records.size());
+    } catch (IOException | RuntimeException ex) {
+      failed.add(records.size());
+      log.error("Failed to write {} OEM segments to {}: {}", records.size(), fileName,
+          ex.getMessage());
+    }
+  }
+
+  private Opm createOpm(Header header, OpmRecord record) {
+
+    SpacecraftState state = record.solution.getState();
+    StateCovariance covariance = record.solution.getCovariance();
+    if (covariance.getOrbitType() != OrbitType.CARTESIAN
+        || covariance.getFrame() != state.getFrame()) {
+      covariance = covariance.changeCovarianceFrame(state.getOrbit(), state.getFrame());
+    }
+    CartesianCovariance covarianceBlock = NdmUtils.createCartesianCovariance(state.getDate(),
+        state.getFrame(), covariance.getMatrix());
+
+    OpmData data = new OpmData(NdmUtils.createStateVector(state.getPVCoordinates()),
+        NdmUtils.createKeplerianElements(state.getOrbit()), null, covarianceBlock,
+        new ArrayList<>(), null, state.getMass());
+    CommonMetadata metadata = new CommonMetadata();
+    metadata.setObjectName(record.objectName);
+    metadata.setObjectID(record.objectId);
+    metadata.setCenter(EARTH_CENTER);
+    metadata.setReferenceFrame(FrameFacade.map(state.getFrame()));
+    metadata.setTimeSystem(TimeSystem.UTC);
+    return new Opm(header, NdmUtils.createOpmSegments(metadata, data),
+        IERSConventions.IERS_2010, DataContext.getDefault(), state.getMu());
+  }
+
+  private OemSegment createOemSegment(OemRecord record) {
+
+    OemMetadata metadata = new OemMetadata(OEM_INTERPOLATION_DEGREE);
+    metadata.setObjectName(record.objectName);
+    metadata.setObjectID(record.objectId);
+    metadata.setCenter(EARTH_CENTER);
+    metadata.setReferenceFrame(FrameFacade.map(record.frame));
+    metadata.setTimeSystem(TimeSystem.UTC);
+    metadata.setStartTime(record.ephemeris.get(0).getDate());
+    metadata.setStopTime(record.ephemeris.get(record.ephemeris.size() - 1).getDate());
+
+    OemData data = new OemData();
+    for (TimeStampedPVCoordinates pv : record.ephemeris) {
+      data.addData(pv, false);
+    }
+    return new OemSegment(metadata, data, settings.getMu());
+  }
+
+  private Header createHeader() {
+    Header header = NdmUtils.createHeader();
+    header.setOriginator(settings.getOriginator());
+    return header;
+  }
+
+  private Generator createGenerator(String fileName, int kvnPaddingWidth) throws IOException {
+    buffer.setLength(0);
+    if (settings.getFormat() == NdmFormat.XML) {
+      return new XmlGenerator(buffer, XmlGenerator.DEFAULT_INDENT, fileName, true);
+    }
+    return new KvnGenerator(buffer, kvnPaddingWidth, fileName, 0);
+  }
+
+  private void writeFile(String fileName, int count) throws IOException {
+
+    Path target = settings.getDirectory().resolve(fileName);
+    Path temporary = Files.createTempFile(settings.getDirectory(), fileName, ".tmp");
+    try {
+      try (BufferedWriter writer = Files.newBufferedWriter(temporary, StandardCharsets.UTF_8)) {
+        writer.append(buffer);
+      }
+      Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE);
+    } finally {
+      Files.deleteIfExists(temporary);
+    }
+
+    written.add(count);
+    files.increment();
+    bytes.add(Files.size(target));
+    log.debug("Wrote {} objects to {}", count, target);
+
+    if (buffer.capacity() > MAX_RETAINED_BUFFER_CAPACITY) {
+      buffer = new StringBuilder(INITIAL_BUFFER_CAPACITY);
+    }
+  }
+
+  private String nextFileName(String messageType) {
+    return String.format(Locale.US, "%s_%s_%06d.%s", settings.getFilePrefix(), messageType,
+        fileSequence.incrementAndGet(), settings.getFormat().getExtension());
+  }
+
+  /**
+   * Objects of one message type waiting to be written.
+   */
+  private final class Batch<R extends ExportRecord> {
+
+    private final List<R> records = new ArrayList<>();
+    private final BatchWriter<R> writer;
+    private long deadline = Long.MAX_VALUE;
+
+    private Batch(BatchWriter<R> writer) {
+      this.writer = writer;
+    }
+
+    private void add(R record) {
+      if (records.isEmpty()) {
+        deadline = System.currentTimeMillis() + settings.getMaxBatchDelayMillis();
+      }
+      records.add(record);
+      if (records.size() >= settings.getBatchSize()) {
+        write();
+      }
+    }
+
+    private void writeIfDue(long now) {
+      if (now >= deadline) {
+        write();
+      }
+    }
+
+    private void write() {
+      if (!records.isEmpty()) {
+        writer.write(new ArrayList<>(records));
+        records.clear();
+      }
+      deadline = Long.MAX_VALUE;
+    }
+  }
+
+  @FunctionalInterface
+  private interface BatchWriter<R> {
+
+    void write(List<R> records);
+  }
+
+  private interface ExportRecord {
+
+  }
+
+  private static final class OpmRecord implements ExportRecord {
+
+    private final String objectName;
+    private final String objectId;
+    private final StateAndCovariance solution;
+
+    private OpmRecord(String objectName, String objectId, StateAndCovariance solution) {
+      this.objectName = objectName;
+      this.objectId = objectId;
+      this.solution = solution;
+    }
+  }
+
+  private static final class OemRecord implements ExportRecord {
+
+    private final String objectName;
+    private final String objectId;
+    private final Frame frame;
+    private final List<TimeStampedPVCoordinates> ephemeris;
+
+    private OemRecord(String objectName, String objectId, Frame frame,
+        List<TimeStampedPVCoordinates> ephemeris) {
+      this.objectName = objectName;
+      this.objectId = objectId;
+      this.frame = frame;
+      this.ephemeris = ephemeris;
+    }
+  }
+
+  private static final class Marker implements ExportRecord {
+
+    private final boolean isClose;
+    private final CompletableFuture<Void> done = new CompletableFuture<>();
+
+    private Marker(boolean isClose) {
+      this.isClose = isClose;
+    }
+  }
+
+}
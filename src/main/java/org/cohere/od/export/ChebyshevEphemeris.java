@@ -0,0 +1,290 @@
+package org.cohere.od.export;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import lombok.NonNull;
+import org.cohere.od.utils.BinaryCodecUtils;
+import org.orekit.time.AbsoluteDate;
+
+/**
+ * An ephemeris stored as Chebyshev polynomials of the position components over segments of equal
+ * duration, built by a {@link ChebyshevEphemerisFitter}.
+ * <p>
+ * Since the segments have the same duration, the segment of a date is found by a division rather
+ * than a search, and evaluating the position and velocity allocates nothing. The velocity is the
+ * derivative of the position polynomials. Instances are immutable and may be shared between
+ * threads.
+ * <p>
+ * The binary file written by {@link #write(Path)} holds a header, with the start date encoded by
+ * {@link BinaryCodecUtils}, followed by the coefficients as big-endian doubles, segment by segment,
+ * then axis by axis, from degree 0.
+ */
+public final class ChebyshevEphemeris {
+
+  private static final int BINARY_MAGIC = 0x4348_4542;
+  private static final int BINARY_VERSION = 2;
+  private static final int AXES = 3;
+
+  private final String frameName;
+  private final AbsoluteDate start;
+  private final double segmentDuration;
+  private final int segmentCount;
+  private final int degree;
+  private final double maxPositionError;
+  private final double maxVelocityError;
+  private final double[] coefficients;
+
+  private final double duration;
+  private final int segmentStride;
+  private final int axisStride;
+
+  /**
+   * Constructor.
+   *
+   * @param frameName        The name of the frame of the positions.
+   * @param start            The start date of the first segment.
+   * @param segmentDuration  The duration of each segment, in seconds.
+   * @param segmentCount     The number of segments.
+   * @param degree           The degree of the polynomials.
+   * @param maxPositionError The maximum position error found when fitting, in meters.
+   * @param maxVelocityError The maximum velocity error found when fitting, in meters per second.
+   * @param coefficients     The coefficients, segment by segment, then axis by axis, from degree 0.
+   *                         The array is not copied.
+   */
+  ChebyshevEphemeris(@NonNull String frameName, @NonNull AbsoluteDate start,
+      double segmentDuration, int segmentCount, int degree, double maxPositionError,
+      double maxVelocityError, @NonNull double[] coefficients) {
+
+    if (degree < 1 || segmentCount < 1 || !(segmentDuration > 0.0)) {
+      throw new IllegalArgumentException("Invalid Chebyshev ephemeris layout: " + segmentCount
+          + " segments of " + segmentDuration + " s, degree " + degree + ".");
+    }
+    if (coefficients.length != segmentCount * AXES * (degree + 1)) {
+      throw new IllegalArgumentException("Expected " + segmentCount * AXES * (degree + 1)
+          + " coefficients, got " + coefficients.length + ".");
+    }
+    this.frameName = frameName;
+    this.start = start;
+    this.segmentDuration = segmentDuration;
+    this.segmentCount = segmentCount;
+    this.degree = degree;
+    this.maxPositionError = maxPositionError;
+    this.maxVelocityError = maxVelocityError;
+    this.coefficients = coefficients;
+    this.duration = segmentDuration * segmentCount;
+    this.axisStride = degree + 1;
+    this.segmentStride = AXES * axisStride;
+  }
+
+  /**
+   * Evaluates the position and velocity at a date.
+   *
+   * @param date The date, within the ephemeris.
+   * @param pv   The array receiving the position, in meters, then the velocity, in meters per
+   *             second, in the frame of the ephemeris. Its length must be at least 6.
+   * @throws IllegalArgumentException if the date is outside the ephemeris.
+   */
+  public void evaluate(AbsoluteDate date, double[] pv) {
+    evaluate(date.durationFrom(start), pv);
+  }
+
+  /**
+   * Evaluates the position and velocity at an offset from the start of the ephemeris.
+   *
+   * @param offset The offset from the start date, in seconds, between 0 and the duration.
+   * @param pv     The array receiving the position, in meters, then the velocity, in meters per
+   *               second, in the frame of the ephemeris. Its length must be at least 6.
+   * @throws IllegalArgumentException if the offset is outside the ephemeris.
+   */
+  public void evaluate(double offset, double[] pv) {
+
+    if (!(offset >= 0.0 && offset <= duration)) {
+      throw new IllegalArgumentException("Offset " + offset + " s is outside the ephemeris, "
+          + duration + " s long.");
+    }
+    // The end date belongs to the last segment.
+    int segment = Math.min((int) (offset / segmentDuration), segmentCount - 1);
+    evaluate(segment, 2.0 * (offset - segment * segmentDuration) / segmentDuration - 1.0, pv);
+  }
+
+  /**
+   * Evaluates the polynomials of a segment, including outside of its own span.
+   *
+   * @param segment The index of the segment.
+   * @param x       The normalized time, -1 at the start of the segment and 1 at its end.
+   * @param pv      The array receiving the position and velocity.
+   */
+  void evaluate(int segment, double x, double[] pv) {
+
+    double scale = 2.0 / segmentDuration;
+    int first = segment * segmentStride;
+    for (int axis = 0; axis < AXES; axis++) {
+      int base = first + axis * axisStride;
+      // T(j) and its derivative by the recurrence T(j+1) = 2x T(j) - T(j-1).
+      double previous = 1.0;
+      double current = x;
+      double previousDerivative = 0.0;
+      double currentDerivative = 1.0;
+      double value = coefficients[base] + coefficients[base + 1] * x;
+      double derivative = coefficients[base + 1];
+      for (int j = 2; j <= degree; j++) {
+        double next = 2.0 * x * current - previous;
+        double nextDerivative = 2.0 * current + 2.0 * x * currentDerivative - previousDerivative;
+        value += coefficients[base + j] * next;
+        derivative += coefficients[base + j] * nextDerivative;
+        previous = current;
+        current = next;
+        previousDerivative = currentDerivative;
+        currentDerivative = nextDerivative;
+      }
+      pv[axis] = value;
+      pv[axis + AXES] = derivative * scale;
+    }
+  }
+
+  /**
+   * Gets the name of the frame of the positions and velocities.
+   *
+   * @return The frame name.
+   */
+  public String getFrameName() {
+    return frameName;
+  }
+
+  /**
+   * Gets the start date of the ephemeris.
+   *
+   * @return The start date.
+   */
+  public AbsoluteDate getStart() {
+    return start;
+  }
+
+  /**
+   * Gets the end date of the ephemeris.
+   *
+   * @return The end date.
+   */
+  public AbsoluteDate getEnd() {
+    return start.shiftedBy(duration);
+  }
+
+  /**
+   * Gets the duration of the ephemeris.
+   *
+   * @return The duration, in seconds.
+   */
+  public double getDuration() {
+    return duration;
+  }
+
+  /**
+   * Gets the duration of each segment.
+   *
+   * @return The segment duration, in seconds.
+   */
+  public double getSegmentDuration() {
+    return segmentDuration;
+  }
+
+  /**
+   * Gets the number of segments.
+   *
+   * @return The segment count.
+   */
+  public int getSegmentCount() {
+    return segmentCount;
+  }
+
+  /**
+   * Gets the degree of the polynomials.
+   *
+   * @return The degree.
+   */
+  public int getDegree() {
+    return degree;
+  }
+
+  /**
+   * Gets the maximum position error found when fitting, at the check points of the fit.
+   *
+   * @return The maximum position error, in meters.
+   */
+  public double getMaxPositionError() {
+    return maxPositionError;
+  }
+
+  /**
+   * Gets the maximum velocity error found when fitting, at the check points of the fit.
+   *
+   * @return The maximum velocity error, in meters per second.
+   */
+  public double getMaxVelocityError() {
+    return maxVelocityError;
+  }
+
+  /**
+   * Writes the ephemeris to a binary file. The start date is stored at full precision.
+   *
+   * @param file The output file.
+   * @throws IOException if the file cannot be written.
+   */
+  public void write(@NonNull Path file) throws IOException {
+
+    try (DataOutputStream output = new DataOutputStream(
+        new BufferedOutputStream(Files.newOutputStream(file)))) {
+      output.writeInt(BINARY_MAGIC);
+      output.writeInt(BINARY_VERSION);
+      output.writeUTF(frameName);
+      BinaryCodecUtils.writeDate(start, output);
+      output.writeDouble(segmentDuration);
+      output.writeInt(segmentCount);
+      output.writeInt(degree);
+      output.writeDouble(maxPositionError);
+      output.writeDouble(maxVelocityError);
+      for (double coefficient : coefficients) {
+        output.writeDouble(coefficient);
+      }
+    }
+  }
+
+  /**
+   * Reads an ephemeris written by {@link #write(Path)}.
+   *
+   * @param file The input file.
+   * @return The ephemeris.
+   * @throws IOException if the file cannot be read or is not a Chebyshev ephemeris file.
+   */
+  public static ChebyshevEphemeris read(@NonNull Path file) throws IOException {
+
+    try (DataInputStream input = new DataInputStream(
+        new BufferedInputStream(Files.newInputStream(file)))) {
+      if (input.readInt() != BINARY_MAGIC || input.readInt() != BINARY_VERSION) {
+        throw new IOException("Not a version " + BINARY_VERSION + " Chebyshev ephemeris file: "
+            + file);
+      }
+      String frameName = input.readUTF();
+      AbsoluteDate start = BinaryCodecUtils.readDate(input);
+      double segmentDuration = input.readDouble();
+      int segmentCount = input.readInt();
+      int degree = input.readInt();
+      double maxPositionError = input.readDouble();
+      double maxVelocityError = input.readDouble();
+      if (segmentCount < 1 || degree < 1) {
+        throw new IOException("Invalid Chebyshev ephemeris layout in " + file);
+      }
+      double[] coefficients = new double[segmentCount * AXES * (degree + 1)];
+      for (int i = 0; i < coefficients.length; i++) {
+        coefficients[i] = input.readDouble();
+      }
+      return new ChebyshevEphemeris(frameName, start, segmentDuration, segmentCount, degree,
+          maxPositionError, maxVelocityError, coefficients);
+    }
+  }
+
+}
@@ -0,0 +1,182 @@
+package org.cohere.od.export;
+
+import lombok.NonNull;
+import lombok.extern.log4j.Log4j2;
+import org.hipparchus.util.FastMath;
+import org.orekit.frames.Frame;
+import org.orekit.propagation.BoundedPropagator;
+import org.orekit.propagation.EphemerisGenerator;
+import org.orekit.propagation.Propagator;
+import org.orekit.time.AbsoluteDate;
+import org.orekit.utils.PVCoordinates;
+import org.orekit.utils.PVCoordinatesProvider;
+
+/**
+ * Fits {@link ChebyshevEphemeris Chebyshev ephemerides} to propagated orbits.
+ * <p>
+ * Each segment interpolates the position at the Chebyshev nodes of its degree, which is close to
+ * the best polynomial approximation. The polynomials of each segment are checked at the extrema of
+ * the Chebyshev polynomial of the next degree, which include both ends of the segment and
+ * interleave with the nodes, near where the interpolation error peaks. The segments have the same
+ * duration, so while an error bound is exceeded at a check point, the number of segments is
+ * doubled and every segment is fitted again.
+ * <p>
+ * Only these degree + 2 points per segment are checked, so the error bounds are met there and not
+ * guaranteed in between, where the error may slightly exceed them.
+ */
+@Log4j2
+public final class ChebyshevEphemerisFitter {
+
+  private static final int AXES = 3;
+
+  private ChebyshevEphemerisFitter() {
+  }
+
+  /**
+   * Propagates an orbit over a time span and fits an ephemeris to it, in the frame of the
+   * propagator.
+   *
+   * @param propagator The propagator, such as one built from an OD solution.
+   * @param start      The start date of the ephemeris.
+   * @param end        The end date of the ephemeris.
+   * @param settings   The fit settings.
+   * @return The ephemeris.
+   * @throws IllegalStateException if the error bounds cannot be met with the maximum number of
+   *                               segments.
+   */
+  public static ChebyshevEphemeris fit(@NonNull Propagator propagator, @NonNull AbsoluteDate start,
+      @NonNull AbsoluteDate end, @NonNull ChebyshevEphemerisSettings settings) {
+
+    EphemerisGenerator generator = propagator.getEphemerisGenerator();
+    propagator.propagate(start, end);
+    BoundedPropagator ephemeris = generator.getGeneratedEphemeris();
+    return fit(ephemeris, propagator.getFrame(), start, end, settings);
+  }
+
+  /**
+   * Fits an ephemeris to positions and velocities over a time span.
+   *
+   * @param provider The provider of the positions and velocities, such as a generated ephemeris.
+   * @param frame    The frame of the ephemeris.
+   * @param start    The start date of the ephemeris.
+   * @param end      The end date of the ephemeris.
+   * @param settings The fit settings.
+   * @return The ephemeris.
+   * @throws IllegalStateException if the error bounds cannot be met with the maximum number of
+   *                               segments.
+   */
+  public static ChebyshevEphemeris fit(@NonNull PVCoordinatesProvider provider,
+      @NonNull Frame frame, @NonNull AbsoluteDate start, @NonNull AbsoluteDate end,
+      @NonNull ChebyshevEphemerisSettings settings) {
+
+    double duration = end.durationFrom(start);
+    if (!(duration > 0.0)) {
+      throw new IllegalArgumentException("The ephemeris must end after it starts.");
+    }
+    if (settings.getDegree() < 2 || !(settings.getPositionTolerance() > 0.0)
+        || !(settings.getVelocityTolerance() > 0.0) || !(settings.getMaxSegmentDuration() > 0.0)) {
+      throw new IllegalArgumentException(
+          "The degree must be at least 2 and the tolerances and segment duration positive.");
+    }
+
+    int nodeCount = settings.getDegree() + 1;
+    double[] nodes = new double[nodeCount];
+    double[][] cosines = new double[nodeCount][nodeCount];
+    for (int k = 0; k < nodeCount; k++) {
+      nodes[k] = FastMath.cos(FastMath.PI * (k + 0.5) / nodeCount);
+      for (int j = 0; j < nodeCount; j++) {
+        cosines[j][k] = FastMath.cos(FastMath.PI * j * (k + 0.5) / nodeCount);
+      }
+    }
+    double[] checkPoints = new double[nodeCount + 1];
+    for (int k = 0; k <= nodeCount; k++) {
+      checkPoints[k] = FastMath.cos(FastMath.PI * k / nodeCount);
+    }
+
+    long segmentCount = Math.max(1L,
+        (long) FastMath.ceil(duration / settings.getMaxSegmentDuration()));
+    while (segmentCount <= settings.getMaxSegments()) {
+      ChebyshevEphemeris ephemeris = fitSegments(provider, frame, start, duration,
+          (int) segmentCount, nodes, cosines, checkPoints, settings);
+      if (ephemeris != null) {
+        log.debug("Fitted {} s of ephemeris with {} segments of degree {}: {} m, {} m/s.",
+            duration, segmentCount, settings.getDegree(), ephemeris.getMaxPositionError(),
+            ephemeris.getMaxVelocityError());
+        return ephemeris;
+      }
+      segmentCount *= 2;
+    }
+    throw new IllegalStateException("Failed to fit the ephemeris within "
+        + settings.getPositionTolerance() + " m and " + settings.getVelocityTolerance()
+        + " m/s with at most " + settings.getMaxSegments() + " segments.");
+  }
+
+  /**
+   * Fits segments of equal duration, or returns null as soon as an error bound is exceeded.
+   */
+  private static ChebyshevEphemeris fitSegments(PVCoordinatesProvider provider, Frame frame,
+      AbsoluteDate start, double duration, int segmentCount, double[] nodes, double[][] cosines,
+      double[] checkPoints, ChebyshevEphemerisSettings settings) {
+
+    int nodeCount = nodes.length;
+    double segmentDuration = duration / segmentCount;
+    double[] coefficients = new double[segmentCount * AXES * nodeCount];
+    double[][] samples = new double[AXES][nodeCount];
+    for (int segment = 0; segment < segmentCount; segment++) {
+      double segmentStart = segment * segmentDuration;
+      for (int k = 0; k < nodeCount; k++) {
+        PVCoordinates pv = provider.getPVCoordinates(
+            start.shiftedBy(segmentStart + 0.5 * (nodes[k] + 1.0) * segmentDuration), frame);
+        samples[0][k] = pv.getPosition().getX();
+        samples[1][k] = pv.getPosition().getY();
+        samples[2][k] = pv.getPosition().getZ();
+      }
+      for (int axis = 0; axis < AXES; axis++) {
+        int base = (segment * AXES + axis) * nodeCount;
+        for (int j = 0; j < nodeCount; j++) {
+          double sum = 0.0;
+          for (int k = 0; k < nodeCount; k++) {
+            sum += samples[axis][k] * cosines[j][k];
+          }
+          coefficients[base + j] = (j == 0 ? 1.0 : 2.0) * sum / nodeCount;
+        }
+      }
+    }
+
+    ChebyshevEphemeris ephemeris = new ChebyshevEphemeris(frame.getName(), start,
+        segmentDuration, segmentCount, nodeCount - 1, 0.0, 0.0, coefficients);
+    double maxPositionError = 0.0;
+    double maxVelocityError = 0.0;
+    double[] fitted = new double[2 * AXES];
+    for (int segment = 0; segment < segmentCount; segment++) {
+      for (double checkPoint : checkPoints) {
+        double offset = FastMath.min((segment + 0.5 * (checkPoint + 1.0)) * segmentDuration,
+            duration);
+        PVCoordinates pv = provider.getPVCoordinates(start.shiftedBy(offset), frame);
+        // The end of a segment is the start of the next one, which evaluate(offset) would pick.
+        ephemeris.evaluate(segment, checkPoint, fitted);
+        double positionError = FastMath.sqrt(
+            square(fitted[0] - pv.getPosition().getX())
+                + square(fitted[1] - pv.getPosition().getY())
+                + square(fitted[2] - pv.getPosition().getZ()));
+        double velocityError = FastMath.sqrt(
+            square(fitted[3] - pv.getVelocity().getX())
+                + square(fitted[4] - pv.getVelocity().getY())
+                + square(fitted[5] - pv.getVelocity().getZ()));
+        if (positionError > settings.getPositionTolerance()
+            || velocityError > settings.getVelocityTolerance()) {
+          return null;
+        }
+        maxPositionError = FastMath.max(maxPositionError, positionError);
+        maxVelocityError = FastMath.max(maxVelocityError, velocityError);
+      }
+    }
+    return new ChebyshevEphemeris(frame.getName(), start, segmentDuration, segmentCount,
+        nodeCount - 1, maxPositionError, maxVelocityError, coefficients);
+  }
+
+  private static double square(double value) {
+    return value * value;
+  }
+
+}
@@ -0,0 +1,51 @@
+package org.cohere.od.export;
+
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * Configuration of a {@link ChebyshevEphemerisFitter}.
+ */
+@Value
+@Builder(toBuilder = true)
+public class ChebyshevEphemerisSettings {
+
+  /**
+   * The default settings.
+   */
+  public static final ChebyshevEphemerisSettings DEFAULT =
+      ChebyshevEphemerisSettings.builder().build();
+
+  /**
+   * Degree of the Chebyshev polynomials of the position components.
+   */
+  @Builder.Default
+  int degree = 13;
+
+  /**
+   * Maximum position error of the fit at its check points, in meters.
+   */
+  @Builder.Default
+  double positionTolerance = 1.0;
+
+  /**
+   * Maximum velocity error of the fit at its check points, in meters per second. The velocity is
+   * the derivative of the position polynomials, so it is not stored.
+   */
+  @Builder.Default
+  double velocityTolerance = 1.0e-3;
+
+  /**
+   * Maximum duration of a segment, in seconds. Shorter segments are used when the error bounds
+   * require them.
+   */
+  @Builder.Default
+  double maxSegmentDuration = 86400.0;
+
+  /**
+   * Maximum number of segments, beyond which the fit fails rather than meeting the error bounds.
+   */
+  @Builder.Default
+  int maxSegments = 1 << 20;
+
+}
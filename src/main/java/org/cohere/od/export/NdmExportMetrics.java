@@ -0,0 +1,19 @@
+package org.cohere.od.export;
+
+import lombok.Value;
+
+/**
+ * A snapshot of the counters of a {@link BulkNdmExporter}.
+ */
+@Value
+public class NdmExportMetrics {
+
+  long submitted;
+  long rejected;
+  long written;
+  long failed;
+  long files;
+  long bytes;
+  int pending;
+
+}
@@ -0,0 +1,67 @@
+package org.cohere.od.export;
+
+import java.nio.file.Path;
+import lombok.Builder;
+import lombok.NonNull;
+import lombok.Value;
+import org.cohere.od.utils.NdmUtils;
+import org.orekit.utils.Constants;
+
+/**
+ * Configuration of a {@link BulkNdmExporter}.
+ */
+@Value
+@Builder(toBuilder = true)
+public class NdmExportSettings {
+
+  /**
+   * The directory the files are written to.
+   */
+  @NonNull
+  Path directory;
+
+  /**
+   * The prefix of the file names.
+   */
+  @Builder.Default
+  String filePrefix = "catalog";
+
+  /**
+   * The syntax of the files.
+   */
+  @Builder.Default
+  NdmFormat format = NdmFormat.KVN;
+
+  /**
+   * The maximum number of objects written to a single file.
+   */
+  @Builder.Default
+  int batchSize = 1000;
+
+  /**
+   * The maximum time a submitted object waits for its batch to fill before the batch is written,
+   * in milliseconds.
+   */
+  @Builder.Default
+  long maxBatchDelayMillis = 1000L;
+
+  /**
+   * The maximum number of submitted objects waiting to be written. Submissions beyond it are
+   * rejected rather than blocking the caller.
+   */
+  @Builder.Default
+  int queueCapacity = 10000;
+
+  /**
+   * The originator written in the headers.
+   */
+  @Builder.Default
+  String originator = NdmUtils.DEFAULT_ORIGINATOR;
+
+  /**
+   * The central attraction coefficient of the OEMs.
+   */
+  @Builder.Default
+  double mu = Constants.IERS2010_EARTH_MU;
+
+}
@@ -0,0 +1,33 @@
+package org.cohere.od.export;
+
+/**
+ * The syntaxes in which CCSDS navigation data messages can be exported.
+ */
+public enum NdmFormat {
+
+  /**
+   * Keyword = value notation. OPMs of a batch are written one after the other in the same file.
+   */
+  KVN("kvn"),
+
+  /**
+   * XML notation. OPMs of a batch are written as a combined instantiation NDM.
+   */
+  XML("xml");
+
+  private final String extension;
+
+  NdmFormat(String extension) {
+    this.extension = extension;
+  }
+
+  /**
+   * Gets the file extension of this format.
+   *
+   * @return The file extension, without the dot.
+   */
+  public String getExtension() {
+    return extension;
+  }
+
+}
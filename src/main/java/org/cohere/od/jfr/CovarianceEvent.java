@@ -0,0 +1,32 @@
+package org.cohere.od.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event spanning the computation of the OD covariance and its mapping to the output epoch.
+ */
+@Name("org.cohere.od.Covariance")
+@Label("Covariance")
+@Category("Orbit Determination")
+@Description("Computation of the OD covariance and its mapping to the output epoch")
+@StackTrace(false)
+public class CovarianceEvent extends Event {
+
+  @Label("Mapped")
+  boolean mapped;
+
+  /**
+   * Constructor.
+   *
+   * @param mapped Whether the covariance is propagated to an output epoch.
+   */
+  public CovarianceEvent(boolean mapped) {
+    this.mapped = mapped;
+  }
+
+}
@@ -0,0 +1,48 @@
+package org.cohere.od.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import org.cohere.od.utils.OdEpochStrategy;
+
+/**
+ * JFR event spanning the creation of the estimator, including the shift of the initial guess to
+ * the OD epoch.
+ */
+@Name("org.cohere.od.EstimatorSetup")
+@Label("Estimator Setup")
+@Category("Orbit Determination")
+@Description("Shift of the initial guess to the OD epoch and creation of the estimator")
+@StackTrace(false)
+public class EstimatorSetupEvent extends Event {
+
+  @Label("Measurements")
+  int measurementCount;
+
+  @Label("Epoch Strategy")
+  String epochStrategy;
+
+  @Label("Jacobian Update")
+  String jacobianUpdate;
+
+  /**
+   * Constructor.
+   *
+   * @param measurementCount The number of measurements.
+   * @param epochStrategy    The OD epoch strategy.
+   * @param jacobianUpdate   The name of the Jacobian update strategy, or STREAMED for the streamed
+   *                         normal equations.
+   */
+  public EstimatorSetupEvent(int measurementCount, OdEpochStrategy epochStrategy,
+      String jacobianUpdate) {
+    if (isEnabled()) {
+      this.measurementCount = measurementCount;
+      this.epochStrategy = String.valueOf(epochStrategy);
+      this.jacobianUpdate = jacobianUpdate;
+    }
+  }
+
+}
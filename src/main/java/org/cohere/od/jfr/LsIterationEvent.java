@@ -0,0 +1,48 @@
+package org.cohere.od.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event spanning one evaluation of the batch least-squares estimator, from the end of the
+ * previous evaluation (or the start of the estimation) to the end of this one.
+ */
+@Name("org.cohere.od.LsIteration")
+@Label("LS Iteration")
+@Category("Orbit Determination")
+@Description("Evaluation of the batch least-squares problem")
+@StackTrace(false)
+public class LsIterationEvent extends Event {
+
+  @Label("Iteration")
+  int iteration;
+
+  @Label("Evaluation")
+  int evaluation;
+
+  @Label("RMS")
+  double rms;
+
+  @Label("Measurements")
+  int measurementCount;
+
+  /**
+   * Records the outcome of the evaluation.
+   *
+   * @param iteration        The iteration count.
+   * @param evaluation       The evaluation count.
+   * @param rms              The RMS of the normalized residuals.
+   * @param measurementCount The number of evaluated measurements.
+   */
+  public void evaluated(int iteration, int evaluation, double rms, int measurementCount) {
+    this.iteration = iteration;
+    this.evaluation = evaluation;
+    this.rms = rms;
+    this.measurementCount = measurementCount;
+  }
+
+}
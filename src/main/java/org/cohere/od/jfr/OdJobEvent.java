@@ -0,0 +1,101 @@
+package org.cohere.od.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import org.apache.logging.log4j.ThreadContext;
+import org.cohere.od.models.OdStatus;
+import org.cohere.od.utils.OdEpochStrategy;
+
+/**
+ * JFR event spanning a whole OD job, from the creation of the propagator builder to the final
+ * covariance.
+ * <p>
+ * The target is read from the Log4j {@link ThreadContext} key {@link #TARGET_CONTEXT_KEY}, so that
+ * the recording and the logs of a job carry the same identifier.
+ */
+@Name("org.cohere.od.OdJob")
+@Label("OD Job")
+@Category("Orbit Determination")
+@Description("Execution of an orbit determination")
+@StackTrace(false)
+public class OdJobEvent extends Event {
+
+  /**
+   * The thread context key holding the target of the current OD job.
+   */
+  public static final String TARGET_CONTEXT_KEY = "targetId";
+
+  @Label("Target")
+  String target;
+
+  @Label("Measurements")
+  int measurementCount;
+
+  @Label("Epoch Strategy")
+  String epochStrategy;
+
+  @Label("Converged")
+  boolean converged;
+
+  @Label("Status")
+  String status;
+
+  @Label("Iterations")
+  int iterations;
+
+  @Label("Evaluations")
+  int evaluations;
+
+  @Label("RMS")
+  double rms;
+
+  /**
+   * Starts timing a job.
+   *
+   * @param measurementCount The number of measurements of the job.
+   * @param epochStrategy    The OD epoch strategy.
+   */
+  public void start(int measurementCount, OdEpochStrategy epochStrategy) {
+    if (isEnabled()) {
+      this.target = ThreadContext.get(TARGET_CONTEXT_KEY);
+      this.measurementCount = measurementCount;
+      this.epochStrategy = String.valueOf(epochStrategy);
+    }
+    begin();
+  }
+
+  /**
+   * Records the outcome of a converged job.
+   *
+   * @param iterations  The number of iterations.
+   * @param evaluations The number of evaluations.
+   * @param rms         The final RMS of the normalized residuals.
+   */
+  public void converged(int iterations, int evaluations, double rms) {
+    this.converged = true;
+    this.status = OdStatus.CONVERGED.name();
+    this.iterations = iterations;
+    this.evaluations = evaluations;
+    this.rms = rms;
+  }
+
+  /**
+   * Records the outcome of a job stopped before convergence, which returned its best solution.
+   *
+   * @param status      Why the job was stopped.
+   * @param iterations  The number of iterations.
+   * @param evaluations The number of evaluations.
+   * @param rms         The RMS of the normalized residuals of the best solution.
+   */
+  public void stopped(OdStatus status, int iterations, int evaluations, double rms) {
+    this.status = String.valueOf(status);
+    this.iterations = iterations;
+    this.evaluations = evaluations;
+    this.rms = rms;
+  }
+
+}
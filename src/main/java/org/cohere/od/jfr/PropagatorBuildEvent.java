@@ -0,0 +1,32 @@
+package org.cohere.od.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event spanning the creation of the propagator builder and its force models.
+ */
+@Name("org.cohere.od.PropagatorBuild")
+@Label("Propagator Build")
+@Category("Orbit Determination")
+@Description("Creation of the propagator builder and its force models")
+@StackTrace(false)
+public class PropagatorBuildEvent extends Event {
+
+  @Label("Regime Aware")
+  boolean regimeAware;
+
+  /**
+   * Constructor.
+   *
+   * @param regimeAware Whether the force models are selected from the orbit regime.
+   */
+  public PropagatorBuildEvent(boolean regimeAware) {
+    this.regimeAware = regimeAware;
+  }
+
+}
@@ -0,0 +1,17 @@
+package org.cohere.od.models;
+
+import lombok.Value;
+import org.cohere.od.utils.ForceModelProfile;
+import org.cohere.od.utils.OrbitRegime;
+
+/**
+ * Expected and measured cost of a regime force model profile, relative to the full profile.
+ */
+@Value
+public class ForceModelCostReport {
+
+  OrbitRegime regime;
+  ForceModelProfile profile;
+  double expectedRelativeCost;
+  double measuredRelativeCost;
+}
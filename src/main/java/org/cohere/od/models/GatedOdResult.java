@@ -0,0 +1,61 @@
+package org.cohere.od.models;
+
+import lombok.Value;
+
+/**
+ * The result of a residual-gated update: the orbit after the update, and the consistency check of
+ * the new measurements against the orbit before it.
+ */
+@Value
+public class GatedOdResult {
+
+  /**
+   * The current orbit if the new measurements are consistent with it, else the result of the full
+   * OD.
+   */
+  StateAndCovariance solution;
+  Decision decision;
+  /**
+   * The Mahalanobis statistic of the residuals of the new measurements, chi-squared distributed
+   * with one degree of freedom per measurement component if they are consistent.
+   */
+  double statistic;
+  int degreesOfFreedom;
+  /**
+   * The gate of the statistic.
+   */
+  double threshold;
+  /**
+   * The largest one-sigma position uncertainty of the current orbit at the last new measurement,
+   * in meters.
+   */
+  double positionSigma;
+  long elapsedNanos;
+
+  /**
+   * Outcome of the consistency check.
+   */
+  public enum Decision {
+    /**
+     * The new measurements agree with the current orbit, which is kept.
+     */
+    CONSISTENT,
+    /**
+     * The residuals of the new measurements exceed the gate, so a full OD was run.
+     */
+    INCONSISTENT,
+    /**
+     * The uncertainty of the current orbit exceeds the maximum, so a full OD was run.
+     */
+    COVARIANCE_GROWN
+  }
+
+  /**
+   * Whether a full OD was run.
+   *
+   * @return True unless the new measurements are consistent with the current orbit.
+   */
+  public boolean isOdRun() {
+    return decision != Decision.CONSISTENT;
+  }
+}
@@ -0,0 +1,41 @@
+package org.cohere.od.models;
+
+import java.util.List;
+import lombok.Value;
+
+/**
+ * The result of a multi-start OD: the best solution and the outcome of every hypothesis.
+ */
+@Value
+public class MultiStartResult {
+
+  OdSolution solution;
+  int hypothesisIndex;
+  List<HypothesisOutcome> outcomes;
+  long elapsedNanos;
+
+  /**
+   * Status of a single hypothesis.
+   */
+  public enum Status {
+    CONVERGED,
+    NOT_CONVERGED,
+    FAILED,
+    CANCELLED
+  }
+
+  /**
+   * Outcome of a single hypothesis. The RMS is NaN and the iteration count is 0 unless the
+   * hypothesis returned a solution. A solution that did not converge within the budget of the
+   * settings is never selected.
+   */
+  @Value
+  public static class HypothesisOutcome {
+
+    int index;
+    Status status;
+    double rms;
+    int iterations;
+    String message;
+  }
+}
@@ -0,0 +1,48 @@
+package org.cohere.od.models;
+
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * Configuration of a {@link org.cohere.od.MultiStartOdProcessor}.
+ */
+@Value
+@Builder(toBuilder = true)
+public class MultiStartSettings {
+
+  /**
+   * The default settings.
+   */
+  public static final MultiStartSettings DEFAULT = MultiStartSettings.builder().build();
+
+  /**
+   * Number of initial hypotheses, including the unperturbed initial state.
+   */
+  @Builder.Default
+  int hypothesisCount = 4;
+
+  /**
+   * Standard deviation of the position perturbation applied to each axis, in meters.
+   */
+  @Builder.Default
+  double positionSigma = 10000.0;
+
+  /**
+   * Standard deviation of the velocity perturbation applied to each axis, in meters per second.
+   */
+  @Builder.Default
+  double velocitySigma = 1.0;
+
+  /**
+   * Weighted RMS of the residuals at or below which a converged hypothesis is accepted and the
+   * remaining hypotheses are cancelled.
+   */
+  @Builder.Default
+  double acceptableRms = 3.0;
+
+  /**
+   * Seed of the random generator used to perturb the initial state.
+   */
+  @Builder.Default
+  long seed = 0L;
+}
@@ -0,0 +1,120 @@
+package org.cohere.od.models;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import lombok.Builder;
+import lombok.Value;
+import org.cohere.od.utils.JacobianUpdate;
+import org.cohere.od.utils.OdEpochStrategy;
+
+/**
+ * Configuration of an {@link org.cohere.od.OdProcessor}. The defaults reproduce the historical
+ * behaviour of the processor.
+ */
+@Value
+@Builder(toBuilder = true)
+public class OdSettings {
+
+  /**
+   * The default settings.
+   */
+  public static final OdSettings DEFAULT = OdSettings.builder().build();
+
+  /**
+   * The strategy used to select the epoch at which the OD is performed.
+   */
+  @Builder.Default
+  OdEpochStrategy epochStrategy = OdEpochStrategy.LAST_MEASUREMENT;
+
+  /**
+   * Whether the force models are selected from the orbit regime of the initial state instead of
+   * always using the full force model.
+   */
+  @Builder.Default
+  boolean regimeAwareForceModels = false;
+
+  /**
+   * How the measurement Jacobian is computed across least-squares iterations.
+   */
+  @Builder.Default
+  JacobianUpdate jacobianUpdate = JacobianUpdate.FULL;
+
+  /**
+   * Whether the normal equations are accumulated measurement by measurement instead of forming the
+   * full Jacobian, bounding the memory of each evaluation for large measurement sets. Only the
+   * orbital parameters are estimated and {@link #jacobianUpdate} is ignored.
+   */
+  @Builder.Default
+  boolean streamedNormalEquations = false;
+
+  /**
+   * Whether the right ascension and declination measurements from stations whose parameters are
+   * not estimated are evaluated by {@link org.cohere.od.estimation.FastAngularRaDec} instead of
+   * Orekit's automatic differentiation.
+   */
+  @Builder.Default
+  boolean fastAngularMeasurements = false;
+
+  /**
+   * The schedule of the sparse measurement subsets fitted before the full-data OD, or null to
+   * evaluate every measurement at every iteration.
+   */
+  SubsamplingSchedule subsamplingSchedule;
+
+  /**
+   * The executor factoring the Jacobian of the least-squares iterations by row blocks in parallel
+   * with a {@link org.cohere.od.estimation.TallSkinnyQrDecomposer}, or null to use Hipparchus' QR
+   * decomposition. It is owned by the caller. Ignored by the streamed normal equations.
+   */
+  ExecutorService solverExecutor;
+
+  /**
+   * The wall-clock budget of an OD, or null for no limit. When it expires the best solution found
+   * so far is returned, flagged as not converged. The budget is checked after each evaluation, so
+   * it can be exceeded by the duration of one evaluation.
+   */
+  Duration timeBudget;
+
+  /**
+   * The maximum number of evaluations of an OD before the best solution found so far is returned,
+   * or 0 to fail when the estimator reaches its own limit.
+   */
+  @Builder.Default
+  int evaluationBudget = 0;
+
+  /**
+   * The number of consecutive evaluations with a growing RMS after which the OD is aborted as
+   * diverging, returning the best solution found so far, or 0 to never abort.
+   */
+  @Builder.Default
+  int divergenceEvaluations = 0;
+
+  /**
+   * Whether any budget or divergence check is set, in which case the OD returns the best solution
+   * found so far instead of failing when it is stopped.
+   *
+   * @return True if the OD is budgeted.
+   */
+  public boolean isBudgeted() {
+    return timeBudget != null || evaluationBudget > 0 || divergenceEvaluations > 0;
+  }
+
+  /**
+   * Describes the settings that affect the estimate, such as for a result cache key. Unlike
+   * {@link #toString()}, the description leaves out the {@link #solverExecutor}, whose state
+   * changes between calls, so it is stable across calls and JVMs.
+   *
+   * @return The description.
+   */
+  public String describeEstimate() {
+    return "epochStrategy=" + epochStrategy
+        + ", regimeAwareForceModels=" + regimeAwareForceModels
+        + ", jacobianUpdate=" + jacobianUpdate
+        + ", streamedNormalEquations=" + streamedNormalEquations
+        + ", fastAngularMeasurements=" + fastAngularMeasurements
+        + ", subsamplingSchedule=" + subsamplingSchedule
+        + ", timeBudget=" + timeBudget
+        + ", evaluationBudget=" + evaluationBudget
+        + ", divergenceEvaluations=" + divergenceEvaluations;
+  }
+}
@@ -0,0 +1,31 @@
+package org.cohere.od.models;
+
+import lombok.Value;
+
+/**
+ * The result of an OD, with the estimator diagnostics.
+ */
+@Value
+public class OdSolution {
+
+  StateAndCovariance stateAndCovariance;
+  double rms;
+  int iterations;
+  int evaluations;
+  OdStatus status;
+  /**
+   * The evaluations of the subset fits and of the full-data OD, or null if the settings set no
+   * subsampling schedule.
+   */
+  SubsamplingReport subsampling;
+
+  /**
+   * Whether the estimator converged. Otherwise the solution is the best one found before the
+   * estimation was stopped.
+   *
+   * @return True if the status is {@link OdStatus#CONVERGED}.
+   */
+  public boolean isConverged() {
+    return status == OdStatus.CONVERGED;
+  }
+}
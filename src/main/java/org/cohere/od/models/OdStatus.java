@@ -0,0 +1,24 @@
+package org.cohere.od.models;
+
+/**
+ * How an OD terminated.
+ */
+public enum OdStatus {
+
+  /**
+   * The estimator converged.
+   */
+  CONVERGED,
+
+  /**
+   * The time or evaluation budget expired before convergence. The solution is the best one found
+   * so far.
+   */
+  BUDGET_EXHAUSTED,
+
+  /**
+   * The RMS grew over consecutive evaluations and the estimation was aborted. The solution is the
+   * best one found so far.
+   */
+  DIVERGED
+}
@@ -0,0 +1,28 @@
+package org.cohere.od.models;
+
+import lombok.Value;
+
+/**
+ * A snapshot of the counters of a {@link org.cohere.od.ResidualGatedOdProcessor}.
+ */
+@Value
+public class ResidualGateMetrics {
+
+  long updates;
+  long consistent;
+  long inconsistent;
+  long covarianceGrown;
+  /**
+   * The number of measurements of the consistent passes, recorded without an OD.
+   */
+  long recordedMeasurements;
+
+  /**
+   * Gets the fraction of updates that kept the current orbit without an OD.
+   *
+   * @return The skip ratio, or 0 if no update was made.
+   */
+  public double getSkipRatio() {
+    return updates == 0 ? 0.0 : (double) consistent / updates;
+  }
+}
@@ -0,0 +1,47 @@
+package org.cohere.od.models;
+
+import lombok.Builder;
+import lombok.NonNull;
+import lombok.Value;
+import org.cohere.od.utils.ForceModelProfile;
+
+/**
+ * Configuration of a {@link org.cohere.od.ResidualGatedOdProcessor}.
+ */
+@Value
+@Builder(toBuilder = true)
+public class ResidualGateSettings {
+
+  /**
+   * The default settings.
+   */
+  public static final ResidualGateSettings DEFAULT = ResidualGateSettings.builder().build();
+
+  /**
+   * Probability of the chi-squared gate: new measurements whose consistency statistic exceeds this
+   * quantile of its distribution are inconsistent with the current orbit.
+   */
+  @Builder.Default
+  double gateProbability = 0.99;
+
+  /**
+   * Largest one-sigma position uncertainty, in meters, that the current orbit may have at the new
+   * measurements before a full OD is required regardless of the residuals.
+   */
+  @Builder.Default
+  double maxPositionSigma = 10000.0;
+
+  /**
+   * The force models used to predict the current orbit to the new measurements, which should be
+   * the ones of the OD.
+   */
+  @NonNull
+  @Builder.Default
+  ForceModelProfile forceModelProfile = ForceModelProfile.FULL;
+
+  /**
+   * Position error tolerance of the integrator, in meters.
+   */
+  @Builder.Default
+  double positionError = 1.0;
+}
@@ -0,0 +1,54 @@
+package org.cohere.od.models;
+
+import lombok.Value;
+
+/**
+ * The evaluations of an OD run with a {@link SubsamplingSchedule}: those of the fits of the sparse
+ * subsets, then those of the full-data OD. Only the evaluations performed are counted: how many a
+ * full-data OD alone would have needed is not known without running it.
+ */
+@Value
+public class SubsamplingReport {
+
+  /**
+   * The number of subsets fitted before the full-data OD.
+   */
+  int stages;
+  /**
+   * The number of evaluations of the subset fits, summed over the subsets.
+   */
+  int stageEvaluations;
+  /**
+   * The number of measurement evaluations of the subset fits, summed over their evaluations.
+   */
+  long stageMeasurementEvaluations;
+  /**
+   * The number of measurements of the full-data OD.
+   */
+  int measurementCount;
+  /**
+   * The number of evaluations of the full-data OD.
+   */
+  int finalEvaluations;
+
+  /**
+   * Gets a copy of this report with the evaluations of the full-data OD.
+   *
+   * @param evaluations The number of evaluations of the full-data OD.
+   * @return The report.
+   */
+  public SubsamplingReport withFinalEvaluations(int evaluations) {
+    return new SubsamplingReport(stages, stageEvaluations, stageMeasurementEvaluations,
+        measurementCount, evaluations);
+  }
+
+  /**
+   * Gets the number of measurement evaluations, summed over the evaluations of the subset fits and
+   * of the full-data OD.
+   *
+   * @return The number of measurement evaluations.
+   */
+  public long getMeasurementEvaluations() {
+    return stageMeasurementEvaluations + (long) finalEvaluations * measurementCount;
+  }
+}
@@ -0,0 +1,52 @@
+package org.cohere.od.models;
+
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * Schedule of the sparse measurement subsets fitted before a full-data OD, see
+ * {@link org.cohere.od.estimation.ProgressiveSubsampler}.
+ */
+@Value
+@Builder(toBuilder = true)
+public class SubsamplingSchedule {
+
+  /**
+   * The default schedule.
+   */
+  public static final SubsamplingSchedule DEFAULT = SubsamplingSchedule.builder().build();
+
+  /**
+   * Gap between consecutive measurements, in seconds, beyond which they belong to different arcs.
+   */
+  @Builder.Default
+  double arcGap = 3600.0;
+
+  /**
+   * Number of measurements per arc of the first subset, at least 2 so that each arc keeps its first
+   * and last measurements.
+   */
+  @Builder.Default
+  int initialPerArc = 4;
+
+  /**
+   * Factor by which the number of measurements per arc grows from one subset to the next.
+   */
+  @Builder.Default
+  double growthFactor = 4.0;
+
+  /**
+   * Parameters convergence threshold of the fit of a subset, after which the next subset is used,
+   * in normalized parameters: meters for the builders of {@link org.cohere.od.utils.PropagatorFactory}.
+   * It is much looser than the one of the full-data OD, which makes the last corrections.
+   */
+  @Builder.Default
+  double stageConvergenceThreshold = 1000.0;
+
+  /**
+   * Largest fraction of the measurements that a subset may hold. Larger subsets save too little
+   * over the full set, which is used instead.
+   */
+  @Builder.Default
+  double maxStageFraction = 0.5;
+}
@@ -0,0 +1,14 @@
+package org.cohere.od.models;
+
+import lombok.Value;
+import org.orekit.propagation.analytical.tle.TLE;
+
+/**
+ * The result of a TLE fit: the fitted TLE and the corresponding OD solution.
+ */
+@Value
+public class TleSolution {
+
+  TLE tle;
+  OdSolution solution;
+}
@@ -0,0 +1,17 @@
+package org.cohere.od.models;
+
+import java.util.List;
+import lombok.Value;
+
+/**
+ * The result of a nonlinear uncertainty propagation: the mean state and the covariance of the
+ * samples at each requested epoch, in the order the epochs were requested. The states and
+ * covariances are Cartesian, in the frame of the propagated state.
+ */
+@Value
+public class UncertaintyPropagationResult {
+
+  List<StateAndCovariance> statistics;
+  int sampleCount;
+  long elapsedNanos;
+}
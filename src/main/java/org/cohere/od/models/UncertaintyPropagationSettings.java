@@ -0,0 +1,54 @@
+package org.cohere.od.models;
+
+import lombok.Builder;
+import lombok.NonNull;
+import lombok.Value;
+import org.cohere.od.utils.ForceModelProfile;
+import org.cohere.od.utils.SamplingMethod;
+
+/**
+ * Configuration of a {@link org.cohere.od.SampledCovariancePropagator}.
+ */
+@Value
+@Builder(toBuilder = true)
+public class UncertaintyPropagationSettings {
+
+  /**
+   * The default settings.
+   */
+  public static final UncertaintyPropagationSettings DEFAULT =
+      UncertaintyPropagationSettings.builder().build();
+
+  /**
+   * How the samples are drawn from the covariance.
+   */
+  @NonNull
+  @Builder.Default
+  SamplingMethod samplingMethod = SamplingMethod.SIGMA_POINTS;
+
+  /**
+   * Number of Monte Carlo samples. Ignored for sigma points.
+   */
+  @Builder.Default
+  int sampleCount = 1000;
+
+  /**
+   * Seed of the random generator drawing the Monte Carlo samples.
+   */
+  @Builder.Default
+  long seed = 0L;
+
+  /**
+   * The force models used to propagate the samples.
+   */
+  @NonNull
+  @Builder.Default
+  ForceModelProfile forceModelProfile = ForceModelProfile.FULL;
+
+  /**
+   * Position error tolerance of the integrator, in meters. It should be well below the dispersion
+   * of the samples.
+   */
+  @Builder.Default
+  double positionError = 1.0;
+}
@@ -0,0 +1,199 @@
+package org.cohere.od.observer;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import lombok.extern.log4j.Log4j2;
+import org.cohere.od.models.OdStatus;
+import org.hipparchus.exception.MathIllegalArgumentException;
+import org.hipparchus.linear.RealMatrix;
+import org.hipparchus.linear.RealVector;
+import org.hipparchus.optim.nonlinear.vector.leastsquares.LeastSquaresProblem;
+import org.orekit.estimation.leastsquares.BatchLSObserver;
+import org.orekit.estimation.measurements.EstimationsProvider;
+import org.orekit.orbits.Orbit;
+import org.orekit.utils.ParameterDriver;
+import org.orekit.utils.ParameterDriversList;
+
+/**
+ * Observer keeping the best evaluation of an estimation and stopping it when its time or evaluation
+ * budget expires, or when the RMS grows over consecutive evaluations.
+ * <p>
+ * The estimation is stopped with an {@link EstimationStoppedException}, after which the best
+ * evaluation is available from {@link #getBestPropagationParameters()} and
+ * {@link #getBestCovariance()}. An evaluation that satisfies the convergence criterion of the
+ * estimator is never stopped, so that a converging estimation always completes.
+ * <p>
+ * Orekit propagations cannot be interrupted, so the budget is only checked after each evaluation.
+ */
+@Log4j2
+public class AnytimeObserver implements BatchLSObserver {
+
+  private final double convergenceThreshold;
+  private final long deadlineNanos;
+  private final int divergenceEvaluations;
+  private final int evaluationBudget;
+
+  private RealMatrix bestCovariance;
+  private int bestEvaluation;
+  private double[] bestPropagationParameters;
+  private double bestRms = Double.POSITIVE_INFINITY;
+  private int growingEvaluations;
+  private int iterations;
+  private int evaluations;
+  private RealVector previousPoint;
+  private double previousRms = Double.POSITIVE_INFINITY;
+
+  /**
+   * Constructor. The time budget starts now.
+   *
+   * @param timeBudget            The wall-clock budget, or null for no limit.
+   * @param evaluationBudget      The maximum number of evaluations.
+   * @param divergenceEvaluations The number of consecutive evaluations with a growing RMS after
+   *                              which the estimation is stopped, or 0 to never stop.
+   * @param convergenceThreshold  The parameters convergence threshold of the estimator.
+   */
+  public AnytimeObserver(Duration timeBudget, int evaluationBudget, int divergenceEvaluations,
+      double convergenceThreshold) {
+    this.convergenceThreshold = convergenceThreshold;
+    this.deadlineNanos = timeBudget == null ? Long.MAX_VALUE
+        : System.nanoTime() + timeBudget.toNanos();
+    this.divergenceEvaluations = divergenceEvaluations;
+    this.evaluationBudget = evaluationBudget;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void evaluationPerformed(int iterationsCount, int evaluationsCount, Orbit[] orbits,
+      ParameterDriversList estimatedOrbitalParameters,
+      ParameterDriversList estimatedPropagatorParameters,
+      ParameterDriversList estimatedMeasurementsParameters,
+      EstimationsProvider evaluationsProvider,
+      LeastSquaresProblem.Evaluation lspEvaluation) {
+
+    iterations = iterationsCount;
+    evaluations = evaluationsCount;
+    RealVector point = lspEvaluation.getPoint();
+    double rms = lspEvaluation.getRMS();
+
+    if (rms < bestRms) {
+      keepBest(evaluationsCount, point, rms, lspEvaluation, estimatedOrbitalParameters,
+          estimatedPropagatorParameters, estimatedMeasurementsParameters);
+    }
+    growingEvaluations = rms > previousRms ? growingEvaluations + 1 : 0;
+    previousRms = rms;
+
+    boolean isConverging = previousPoint != null
+        && point.getLInfDistance(previousPoint) <= convergenceThreshold;
+    previousPoint = point;
+    if (isConverging) {
+      return;
+    }
+
+    if (divergenceEvaluations > 0 && growingEvaluations >= divergenceEvaluations) {
+      throw stop(OdStatus.DIVERGED, "RMS grew over " + growingEvaluations
+          + " consecutive evaluations");
+    }
+    if (evaluationsCount >= evaluationBudget) {
+      throw stop(OdStatus.BUDGET_EXHAUSTED, "Evaluation budget of " + evaluationBudget
+          + " exhausted");
+    }
+    if (System.nanoTime() >= deadlineNanos) {
+      throw stop(OdStatus.BUDGET_EXHAUSTED, "Time budget exhausted after " + evaluationsCount
+          + " evaluations");
+    }
+  }
+
+  /**
+   * Gets the normalized orbital and propagation parameters of the best evaluation, to build its
+   * propagator.
+   *
+   * @return The normalized parameters, or null if no evaluation was performed.
+   */
+  public double[] getBestPropagationParameters() {
+    return bestPropagationParameters == null ? null : bestPropagationParameters.clone();
+  }
+
+  /**
+   * Gets the covariance of all the estimated parameters at the best evaluation, in physical units.
+   *
+   * @return The covariance matrix, or null if no evaluation was performed.
+   */
+  public RealMatrix getBestCovariance() {
+    return bestCovariance == null ? null : bestCovariance.copy();
+  }
+
+  /**
+   * Gets the RMS of the best evaluation.
+   *
+   * @return The lowest RMS, or infinity if no evaluation was performed.
+   */
+  public double getBestRms() {
+    return bestRms;
+  }
+
+  /**
+   * Gets the index of the best evaluation.
+   *
+   * @return The evaluation count of the best evaluation.
+   */
+  public int getBestEvaluation() {
+    return bestEvaluation;
+  }
+
+  /**
+   * Gets the number of iterations performed.
+   *
+   * @return The iterations count of the last evaluation.
+   */
+  public int getIterations() {
+    return iterations;
+  }
+
+  /**
+   * Gets the number of evaluations performed.
+   *
+   * @return The evaluations count of the last evaluation.
+   */
+  public int getEvaluations() {
+    return evaluations;
+  }
+
+  private void keepBest(int evaluationsCount, RealVector point, double rms,
+      LeastSquaresProblem.Evaluation lspEvaluation, ParameterDriversList orbitalParameters,
+      ParameterDriversList propagatorParameters, ParameterDriversList measurementsParameters) {
+
+    List<ParameterDriver> drivers = new ArrayList<>(orbitalParameters.getDrivers());
+    drivers.addAll(propagatorParameters.getDrivers());
+    drivers.addAll(measurementsParameters.getDrivers());
+
+    RealMatrix covariance;
+    try {
+      covariance = lspEvaluation.getCovariances(Double.MIN_VALUE);
+    } catch (MathIllegalArgumentException ex) {
+      log.debug("Singular covariance at evaluation {}, not kept as best.", evaluationsCount);
+      return;
+    }
+    // Same scaling as BatchLSEstimator.getPhysicalCovariances.
+    for (int i = 0; i < covariance.getRowDimension(); i++) {
+      for (int j = 0; j < covariance.getColumnDimension(); j++) {
+        covariance.multiplyEntry(i, j, drivers.get(i).getScale() * drivers.get(j).getScale());
+      }
+    }
+
+    int propagationParameterCount = orbitalParameters.getNbParams()
+        + propagatorParameters.getNbParams();
+    bestPropagationParameters = point.getSubVector(0, propagationParameterCount).toArray();
+    bestCovariance = covariance;
+    bestEvaluation = evaluationsCount;
+    bestRms = rms;
+  }
+
+  private EstimationStoppedException stop(OdStatus status, String reason) {
+    log.warn("{}, returning evaluation {} with RMS {}.", reason, bestEvaluation, bestRms);
+    return new EstimationStoppedException(status, reason + ".");
+  }
+
+}
@@ -0,0 +1,47 @@
+package org.cohere.od.observer;
+
+import java.util.concurrent.CancellationException;
+import java.util.function.BooleanSupplier;
+import org.hipparchus.optim.nonlinear.vector.leastsquares.LeastSquaresProblem;
+import org.orekit.estimation.leastsquares.BatchLSObserver;
+import org.orekit.estimation.measurements.EstimationsProvider;
+import org.orekit.orbits.Orbit;
+import org.orekit.utils.ParameterDriversList;
+
+/**
+ * Observer aborting the estimation once it has been cancelled.
+ * <p>
+ * Orekit propagations do not respond to thread interruption, so the estimation is checked after
+ * each evaluation and aborted with a {@link CancellationException}.
+ */
+public class CancellationObserver implements BatchLSObserver {
+
+  private final BooleanSupplier isCancelled;
+
+  /**
+   * Constructor.
+   *
+   * @param isCancelled Supplier returning true once the estimation should be aborted.
+   */
+  public CancellationObserver(BooleanSupplier isCancelled) {
+    this.isCancelled = isCancelled;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void evaluationPerformed(int iterationsCount, int evaluationsCount, Orbit[] orbits,
+      ParameterDriversList estimatedOrbitalParameters,
+      ParameterDriversList estimatedPropagatorParameters,
+      ParameterDriversList estimatedMeasurementsParameters,
+      EstimationsProvider evaluationsProvider,
+      LeastSquaresProblem.Evaluation lspEvaluation) {
+
+    if (isCancelled.getAsBoolean() || Thread.currentThread().isInterrupted()) {
+      throw new CancellationException(
+          "OD cancelled after " + evaluationsCount + " evaluations.");
+    }
+  }
+
+}
@@ -0,0 +1,46 @@
+package org.cohere.od.observer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.hipparchus.optim.nonlinear.vector.leastsquares.LeastSquaresProblem;
+import org.orekit.estimation.leastsquares.BatchLSObserver;
+import org.orekit.estimation.measurements.EstimationsProvider;
+import org.orekit.orbits.Orbit;
+import org.orekit.utils.ParameterDriversList;
+
+/**
+ * Observer forwarding each evaluation to several observers, in order.
+ */
+public class CompositeObserver implements BatchLSObserver {
+
+  private final List<BatchLSObserver> observers;
+
+  /**
+   * Constructor.
+   *
+   * @param observers The observers to notify.
+   */
+  public CompositeObserver(BatchLSObserver... observers) {
+    this.observers = new ArrayList<>(Arrays.asList(observers));
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void evaluationPerformed(int iterationsCount, int evaluationsCount, Orbit[] orbits,
+      ParameterDriversList estimatedOrbitalParameters,
+      ParameterDriversList estimatedPropagatorParameters,
+      ParameterDriversList estimatedMeasurementsParameters,
+      EstimationsProvider evaluationsProvider,
+      LeastSquaresProblem.Evaluation lspEvaluation) {
+
+    for (BatchLSObserver observer : observers) {
+      observer.evaluationPerformed(iterationsCount, evaluationsCount, orbits,
+          estimatedOrbitalParameters, estimatedPropagatorParameters,
+          estimatedMeasurementsParameters, evaluationsProvider, lspEvaluation);
+    }
+  }
+
+}
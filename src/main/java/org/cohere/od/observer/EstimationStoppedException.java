@@ -0,0 +1,34 @@
+package org.cohere.od.observer;
+
+import org.cohere.od.models.OdStatus;
+
+/**
+ * Thrown by an {@link AnytimeObserver} to stop an estimation before convergence.
+ */
+public class EstimationStoppedException extends RuntimeException {
+
+  private static final long serialVersionUID = 1L;
+
+  private final OdStatus status;
+
+  /**
+   * Constructor.
+   *
+   * @param status  Why the estimation was stopped.
+   * @param message The detail message.
+   */
+  public EstimationStoppedException(OdStatus status, String message) {
+    super(message);
+    this.status = status;
+  }
+
+  /**
+   * Gets why the estimation was stopped.
+   *
+   * @return The status of the OD.
+   */
+  public OdStatus getStatus() {
+    return status;
+  }
+
+}
@@ -0,0 +1,55 @@
+package org.cohere.od.observer;
+
+import jdk.jfr.EventType;
+import org.cohere.od.jfr.LsIterationEvent;
+import org.hipparchus.optim.nonlinear.vector.leastsquares.LeastSquaresProblem;
+import org.orekit.estimation.leastsquares.BatchLSObserver;
+import org.orekit.estimation.measurements.EstimationsProvider;
+import org.orekit.orbits.Orbit;
+import org.orekit.utils.ParameterDriversList;
+
+/**
+ * Observer emitting a {@link LsIterationEvent} for each evaluation of the estimator. An observer
+ * instance must only be attached to a single estimator.
+ * <p>
+ * No event is allocated while the event type is disabled, so that the observer costs nothing
+ * unless a recording is running. An evaluation following the start of a recording is not
+ * recorded, as its start time is unknown.
+ */
+public class IterationEventObserver implements BatchLSObserver {
+
+  private static final EventType EVENT_TYPE = EventType.getEventType(LsIterationEvent.class);
+
+  /**
+   * The event of the current evaluation, null if the event type was disabled when it started.
+   */
+  private LsIterationEvent event = startEvent();
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void evaluationPerformed(int iterationsCount, int evaluationsCount, Orbit[] orbits,
+      ParameterDriversList estimatedOrbitalParameters,
+      ParameterDriversList estimatedPropagatorParameters,
+      ParameterDriversList estimatedMeasurementsParameters,
+      EstimationsProvider evaluationsProvider, LeastSquaresProblem.Evaluation lspEvaluation) {
+
+    if (event != null && event.shouldCommit()) {
+      event.evaluated(iterationsCount, evaluationsCount, lspEvaluation.getRMS(),
+          evaluationsProvider.getNumber());
+      event.commit();
+    }
+    event = startEvent();
+  }
+
+  private static LsIterationEvent startEvent() {
+    if (!EVENT_TYPE.isEnabled()) {
+      return null;
+    }
+    LsIterationEvent event = new LsIterationEvent();
+    event.begin();
+    return event;
+  }
+
+}
@@ -64,12 +64,27 @@ public class OrbitDeterminationObserver implements BatchLSObserver {
    * @param estimator    estimator to observe
    */
   public OrbitDeterminationObserver(Orbit initialGuess, BatchLSEstimator estimator) {
-    this.previousPV = initialGuess.getPVCoordinates();
-    String header = FORMAT_HEADER;
-    header = addParametersNames(header,
-        estimator.getOrbitalParametersDrivers(true),
+    this(initialGuess, estimator.getOrbitalParametersDrivers(true),
         estimator.getPropagatorParametersDrivers(true),
         estimator.getMeasurementsParametersDrivers(true));
+  }
+
+  /**
+   * Constructor, for estimators other than the {@link BatchLSEstimator}.
+   *
+   * @param initialGuess                    initial guess orbit
+   * @param estimatedOrbitalParameters      the estimated orbital parameters list
+   * @param estimatedPropagatorParameters   the estimated propagation parameters list
+   * @param estimatedMeasurementsParameters the estimated measurements parameters list
+   */
+  public OrbitDeterminationObserver(Orbit initialGuess,
+      ParameterDriversList estimatedOrbitalParameters,
+      ParameterDriversList estimatedPropagatorParameters,
+      ParameterDriversList estimatedMeasurementsParameters) {
+    this.previousPV = initialGuess.getPVCoordinates();
+    String header = FORMAT_HEADER;
+    header = addParametersNames(header, estimatedOrbitalParameters,
+        estimatedPropagatorParameters, estimatedMeasurementsParameters);
     log.info(header);
   }
 
@@ -0,0 +1,533 @@
+package org.cohere.od.pipeline;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.Phaser;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import lombok.NonNull;
+import lombok.extern.log4j.Log4j2;
+import org.cohere.od.OdProcessor;
+import org.cohere.od.export.BulkNdmExporter;
+import org.cohere.od.models.StateAndCovariance;
+import org.orekit.estimation.measurements.ObservedMeasurement;
+import org.orekit.propagation.SpacecraftState;
+
+/**
+ * Ingestion-to-export pipeline: watches drop directories for OIF files, parses them, groups the
+ * measurements by target, runs an OD per target on a bounded worker pool and exports the solutions
+ * as OPMs.
+ * <p>
+ * The stages are connected by {@link SubmissionPublisher}s with bounded buffers, and each stage
+ * only requests new items when it has capacity for them: the exporter is retried while it is full,
+ * which blocks the publication of solutions, which holds the OD workers, which stops the parser,
+ * which stops the watcher. A slow exporter therefore throttles ingestion instead of growing the
+ * heap.
+ * <p>
+ * Each target accumulates its measurements, up to a maximum count. A target is queued for an OD
+ * when new measurements arrive, their span reaches the minimum arc duration of the settings and it
+ * is not already queued, so files arriving while it waits are folded into the same OD. The ODs of
+ * a target run one at a time, from its last solution, or from the state given by the initial state
+ * provider for its first OD.
+ * <p>
+ * Files are expected to be moved into the directories once complete. The OD workers run on a
+ * caller-owned executor, and the exporter is caller-owned: it must be closed after the pipeline to
+ * write the last batches.
+ */
+@Log4j2
+public class OdPipeline implements AutoCloseable {
+
+  private static final int STAGE_THREADS = 3;
+
+  private final PipelineSettings settings;
+  private final OdProcessor processor;
+  private final Function<String, SpacecraftState> initialStateProvider;
+  private final BulkNdmExporter exporter;
+  private final ExecutorService odExecutor;
+  private final ExecutorService stageExecutor;
+  private final WatchService watchService;
+  private final Map<WatchKey, Path> watchedDirectories = new HashMap<>();
+  private final Set<Path> detectedFiles = ConcurrentHashMap.newKeySet();
+  private final Map<String, TargetGroup> targets = new ConcurrentHashMap<>();
+  private final SubmissionPublisher<DetectedFile> filePublisher;
+  private final SubmissionPublisher<TargetGroup> targetPublisher;
+  private final SubmissionPublisher<TargetSolution> solutionPublisher;
+  private final CompletableFuture<Void> completion = new CompletableFuture<>();
+  private final Thread watcherThread;
+  private final LongAdder filesDetected = new LongAdder();
+  private final LongAdder filesParsed = new LongAdder();
+  private final LongAdder filesFailed = new LongAdder();
+  private final LongAdder measurementCount = new LongAdder();
+  private final LongAdder unknownTargetMeasurements = new LongAdder();
+  private final LongAdder odRuns = new LongAdder();
+  private final LongAdder odFailures = new LongAdder();
+  private final LongAdder exported = new LongAdder();
+  private final LongAdder exportFailures = new LongAdder();
+  private final LongAdder exportRetries = new LongAdder();
+  private final LongAdder totalLatency = new LongAdder();
+  private final LongAccumulator maxLatency = new LongAccumulator(Long::max, 0L);
+  // Items submitted to a stage, or blocked submitting, and not yet received. The publishers are
+  // not queried, because they hold their lock while a submission is blocked.
+  private final AtomicInteger queuedFiles = new AtomicInteger();
+  private final AtomicInteger queuedTargets = new AtomicInteger();
+  private final AtomicInteger queuedSolutions = new AtomicInteger();
+
+  private volatile boolean isClosed = false;
+
+  /**
+   * Constructor. Starts watching the directories.
+   *
+   * @param settings             The pipeline settings.
+   * @param processor            The OD processor, called concurrently by the OD workers.
+   * @param initialStateProvider The initial state of the first OD of a target, from its
+   *                             identifier, or null to ignore the target.
+   * @param exporter             The exporter of the solutions.
+   * @param odExecutor           The executor running the ODs.
+   * @throws IOException if a directory cannot be created or watched.
+   */
+  public OdPipeline(@NonNull PipelineSettings settings, @NonNull OdProcessor processor,
+      @NonNull Function<String, SpacecraftState> initialStateProvider,
+      @NonNull BulkNdmExporter exporter, @NonNull ExecutorService odExecutor) throws IOException {
+
+    if (settings.getOdParallelism() < 1) {
+      throw new IllegalArgumentException("OD parallelism must be positive.");
+    }
+    this.settings = settings;
+    this.processor = processor;
+    this.initialStateProvider = initialStateProvider;
+    this.exporter = exporter;
+    this.odExecutor = odExecutor;
+
+    this.watchService = FileSystems.getDefault().newWatchService();
+    try {
+      for (Path directory : settings.getDirectories()) {
+        Files.createDirectories(directory);
+        watchedDirectories.put(
+            directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE), directory);
+      }
+    } catch (IOException ex) {
+      watchService.close();
+      throw ex;
+    }
+
+    this.stageExecutor = Executors.newFixedThreadPool(STAGE_THREADS, runnable -> {
+      Thread thread = new Thread(runnable, "od-pipeline-stage");
+      thread.setDaemon(true);
+      return thread;
+    });
+    this.filePublisher = new SubmissionPublisher<>(stageExecutor, settings.getFileBufferSize());
+    this.targetPublisher = new SubmissionPublisher<>(stageExecutor,
+        settings.getTargetBufferSize());
+    this.solutionPublisher = new SubmissionPublisher<>(stageExecutor,
+        settings.getResultBufferSize());
+    filePublisher.subscribe(new ParseStage());
+    targetPublisher.subscribe(new OdStage());
+    solutionPublisher.subscribe(new ExportStage());
+
+    this.watcherThread = new Thread(this::watch, "od-pipeline-watcher");
+    this.watcherThread.setDaemon(true);
+    this.watcherThread.start();
+  }
+
+  /**
+   * Stops watching the directories, processes and exports everything detected so far, and stops
+   * the pipeline threads. The exporter is not closed.
+   */
+  @Override
+  public void close() {
+    if (isClosed) {
+      return;
+    }
+    isClosed = true;
+    try {
+      watchService.close();
+    } catch (IOException ex) {
+      log.warn("Failed to close the watch service: {}", ex.getMessage());
+    }
+    try {
+      watcherThread.join();
+      completion.get();
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+    } catch (ExecutionException ex) {
+      log.error("OD pipeline failed: {}", ex.getCause().getMessage(), ex.getCause());
+    } finally {
+      stageExecutor.shutdown();
+    }
+  }
+
+  /**
+   * Gets a snapshot of the pipeline counters.
+   *
+   * @return The pipeline metrics.
+   */
+  public PipelineMetrics getMetrics() {
+    return new PipelineMetrics(filesDetected.sum(), filesParsed.sum(), filesFailed.sum(),
+        measurementCount.sum(), unknownTargetMeasurements.sum(), odRuns.sum(), odFailures.sum(),
+        exported.sum(), exportFailures.sum(), exportRetries.sum(), totalLatency.sum(),
+        maxLatency.get(), queuedFiles.get(), queuedTargets.get(), queuedSolutions.get());
+  }
+
+  private void watch() {
+    try {
+      if (settings.isProcessExistingFiles()) {
+        for (Path directory : settings.getDirectories()) {
+          scan(directory);
+        }
+      }
+      while (true) {
+        WatchKey key = watchService.take();
+        long arrival = System.nanoTime();
+        Path directory = watchedDirectories.get(key);
+        for (WatchEvent<?> event : key.pollEvents()) {
+          if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+            // Events were lost, so the directory is listed again.
+            log.warn("Watch events lost for {}, rescanning", directory);
+            scan(directory);
+          } else {
+            detect(directory.resolve((Path) event.context()), arrival);
+          }
+        }
+        key.reset();
+      }
+    } catch (ClosedWatchServiceException ex) {
+      // Closed by close().
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+    } catch (IOException ex) {
+      log.error("Failed to scan the drop directories: {}", ex.getMessage(), ex);
+    } finally {
+      filePublisher.close();
+    }
+  }
+
+  private void scan(Path directory) throws IOException {
+    long arrival = System.nanoTime();
+    List<Path> files;
+    try (Stream<Path> stream = Files.list(directory)) {
+      files = stream.sorted().collect(Collectors.toList());
+    }
+    for (Path file : files) {
+      detect(file, arrival);
+    }
+  }
+
+  private void detect(Path file, long arrival) {
+    if (!file.getFileName().toString().endsWith(settings.getFileSuffix())
+        || !Files.isRegularFile(file) || !detectedFiles.add(file)) {
+      return;
+    }
+    filesDetected.increment();
+    // Blocks while the parser is behind.
+    queuedFiles.incrementAndGet();
+    filePublisher.submit(new DetectedFile(file, arrival));
+  }
+
+  private TargetGroup getTargetGroup(String targetId) {
+    TargetGroup group = targets.get(targetId);
+    if (group != null) {
+      return group;
+    }
+    return targets.computeIfAbsent(targetId, id -> {
+      SpacecraftState initialState = initialStateProvider.apply(id);
+      return initialState == null ? null : new TargetGroup(id, initialState);
+    });
+  }
+
+  private void runOd(TargetGroup group) {
+
+    // The ODs of a target are serialized so that each one starts from the previous solution.
+    group.odLock.lock();
+    try {
+      List<ObservedMeasurement<?>> measurements;
+      SpacecraftState initialState;
+      long arrival;
+      synchronized (group) {
+        group.isQueued = false;
+        if (!group.hasPending) {
+          // Already used by the previous OD.
+          return;
+        }
+        group.hasPending = false;
+        measurements = new ArrayList<>(group.measurements);
+        initialState = group.state;
+        arrival = group.pendingSince;
+      }
+
+      StateAndCovariance solution;
+      odRuns.increment();
+      try {
+        solution = processor.processMeasurements(initialState, measurements);
+      } catch (RuntimeException ex) {
+        odFailures.increment();
+        log.warn("OD failed for target {} with {} measurements: {}", group.targetId,
+            measurements.size(), ex.getMessage());
+        return;
+      }
+      synchronized (group) {
+        group.state = solution.getState();
+      }
+
+      // Blocks while the exporter is behind.
+      queuedSolutions.incrementAndGet();
+      solutionPublisher.submit(new TargetSolution(group.targetId, solution, arrival));
+    } finally {
+      group.odLock.unlock();
+    }
+  }
+
+  private void export(TargetSolution solution) {
+    try {
+      while (!exporter.submitOpm(solution.targetId, solution.targetId, solution.solution)) {
+        exportRetries.increment();
+        Thread.sleep(settings.getExportRetryMillis());
+      }
+      long latency = System.nanoTime() - solution.arrival;
+      exported.increment();
+      totalLatency.add(latency);
+      maxLatency.accumulate(latency);
+    } catch (InterruptedException ex) {
+      exportFailures.increment();
+      Thread.currentThread().interrupt();
+    } catch (IllegalStateException ex) {
+      exportFailures.increment();
+      log.warn("Failed to export target {}: {}", solution.targetId, ex.getMessage());
+    }
+  }
+
+  /**
+   * Parses the detected files and queues the targets with new measurements for an OD.
+   */
+  private final class ParseStage implements Flow.Subscriber<DetectedFile> {
+
+    private Flow.Subscription subscription;
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+      this.subscription = subscription;
+      subscription.request(1);
+    }
+
+    @Override
+    public void onNext(DetectedFile file) {
+      queuedFiles.decrementAndGet();
+      try {
+        Map<String, List<ObservedMeasurement<?>>> measurements = OifParser.parse(file.path,
+            settings.getRaDecSigmas(), settings.getDataContext());
+        filesParsed.increment();
+        for (Map.Entry<String, List<ObservedMeasurement<?>>> entry : measurements.entrySet()) {
+          int count = entry.getValue().size();
+          measurementCount.add(count);
+          TargetGroup group = getTargetGroup(entry.getKey());
+          if (group == null) {
+            unknownTargetMeasurements.add(count);
+          } else if (group.add(entry.getValue(), file.arrival)) {
+            // Blocks while the OD workers are behind.
+            queuedTargets.incrementAndGet();
+            targetPublisher.submit(group);
+          }
+        }
+      } catch (IOException | RuntimeException ex) {
+        filesFailed.increment();
+        log.warn("Failed to parse {}: {}", file.path, ex.getMessage());
+      } finally {
+        subscription.request(1);
+      }
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+      targetPublisher.closeExceptionally(throwable);
+    }
+
+    @Override
+    public void onComplete() {
+      targetPublisher.close();
+    }
+  }
+
+  /**
+   * Runs the ODs on the worker pool, with at most the configured number in flight.
+   */
+  private final class OdStage implements Flow.Subscriber<TargetGroup> {
+
+    private final Phaser running = new Phaser(1);
+    private Flow.Subscription subscription;
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+      this.subscription = subscription;
+      subscription.request(settings.getOdParallelism());
+    }
+
+    @Override
+    public void onNext(TargetGroup group) {
+      queuedTargets.decrementAndGet();
+      running.register();
+      try {
+        odExecutor.execute(() -> {
+          try {
+            runOd(group);
+          } finally {
+            running.arriveAndDeregister();
+            subscription.request(1);
+          }
+        });
+      } catch (RejectedExecutionException ex) {
+        odFailures.increment();
+        log.warn("OD rejected for target {}: {}", group.targetId, ex.getMessage());
+        synchronized (group) {
+          group.isQueued = false;
+        }
+        running.arriveAndDeregister();
+        subscription.request(1);
+      }
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+      running.arriveAndAwaitAdvance();
+      solutionPublisher.closeExceptionally(throwable);
+    }
+
+    @Override
+    public void onComplete() {
+      running.arriveAndAwaitAdvance();
+      solutionPublisher.close();
+    }
+  }
+
+  /**
+   * Submits the solutions to the exporter, retrying while it is full.
+   */
+  private final class ExportStage implements Flow.Subscriber<TargetSolution> {
+
+    private Flow.Subscription subscription;
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+      this.subscription = subscription;
+      subscription.request(1);
+    }
+
+    @Override
+    public void onNext(TargetSolution solution) {
+      queuedSolutions.decrementAndGet();
+      try {
+        export(solution);
+      } finally {
+        subscription.request(1);
+      }
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+      completion.completeExceptionally(throwable);
+    }
+
+    @Override
+    public void onComplete() {
+      completion.complete(null);
+    }
+  }
+
+  /**
+   * The measurements and last solution of a target.
+   */
+  private final class TargetGroup {
+
+    private final String targetId;
+    private final ReentrantLock odLock = new ReentrantLock();
+
+    // Guarded by this.
+    private final List<ObservedMeasurement<?>> measurements = new ArrayList<>();
+    private SpacecraftState state;
+    private boolean isQueued = false;
+    private boolean hasPending = false;
+    private long pendingSince = 0L;
+
+    private TargetGroup(String targetId, SpacecraftState state) {
+      this.targetId = targetId;
+      this.state = state;
+    }
+
+    /**
+     * Adds measurements, and marks the target as queued if they span enough to determine an orbit.
+     *
+     * @return True if the target must be queued, false if it is already or if its arc is still too
+     *     short.
+     */
+    private synchronized boolean add(List<ObservedMeasurement<?>> newMeasurements,
+        long arrival) {
+      measurements.addAll(newMeasurements);
+      measurements.sort(Comparator.comparing(ObservedMeasurement::getDate));
+      int maxMeasurements = settings.getMaxMeasurementsPerTarget();
+      if (maxMeasurements > 0 && measurements.size() > maxMeasurements) {
+        measurements.subList(0, measurements.size() - maxMeasurements).clear();
+      }
+      if (!hasPending) {
+        hasPending = true;
+        pendingSince = arrival;
+      }
+      double arc = measurements.get(measurements.size() - 1).getDate()
+          .durationFrom(measurements.get(0).getDate());
+      if (arc < settings.getMinArcDuration()) {
+        return false;
+      }
+      boolean mustQueue = !isQueued;
+      isQueued = true;
+      return mustQueue;
+    }
+  }
+
+  private static final class DetectedFile {
+
+    private final Path path;
+    private final long arrival;
+
+    private DetectedFile(Path path, long arrival) {
+      this.path = path;
+      this.arrival = arrival;
+    }
+  }
+
+  private static final class TargetSolution {
+
+    private final String targetId;
+    private final StateAndCovariance solution;
+    private final long arrival;
+
+    private TargetSolution(String targetId, StateAndCovariance solution, long arrival) {
+      this.targetId = targetId;
+      this.solution = solution;
+      this.arrival = arrival;
+    }
+  }
+
+}
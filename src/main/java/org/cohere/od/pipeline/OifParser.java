@@ -0,0 +1,152 @@
+package org.cohere.od.pipeline;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import org.cohere.od.cache.SharedDataContext;
+import org.cohere.od.utils.AstroUtils;
+import org.hipparchus.geometry.euclidean.threed.Vector3D;
+import org.orekit.bodies.GeodeticPoint;
+import org.orekit.bodies.OneAxisEllipsoid;
+import org.orekit.estimation.measurements.AngularRaDec;
+import org.orekit.estimation.measurements.GroundStation;
+import org.orekit.estimation.measurements.ObservableSatellite;
+import org.orekit.estimation.measurements.ObservedMeasurement;
+import org.orekit.frames.Frame;
+import org.orekit.frames.FramesFactory;
+import org.orekit.frames.TopocentricFrame;
+import org.orekit.time.AbsoluteDate;
+import org.orekit.utils.Constants;
+
+/**
+ * Streaming parser of OIF measurement files.
+ * <p>
+ * Lines are converted to {@link AngularRaDec} measurements as they are read, without holding the
+ * file in memory. As in the test OIF reader, the right ascension, declination and sensor positions
+ * are assumed to be in GCRF, the sensor position in kilometers is converted to a geodetic point on
+ * {@link AstroUtils#EARTH}, and NaN lines are skipped.
+ */
+public class OifParser {
+
+  private static final double KM_TO_M = 1000.0;
+  private static final String NAN = "nan";
+  private static final String MJD_KEYWORD = "MJD =";
+  private static final int NUMBER_OF_HEADER_LINES = 3;
+  private static final double[] RA_DEC_WEIGHTS = new double[]{1.0, 1.0};
+
+  private OifParser() {
+  }
+
+  /**
+   * Parses an OIF file into measurements grouped by target.
+   *
+   * @param filePath    The file path for the OIF.
+   * @param raDecSigmas The standard deviations for right ascension and declination measurements,
+   *                    respectively.
+   * @return The measurements of each target identifier, in file order. Empty if the file has no
+   *     observation.
+   * @throws IOException if the file cannot be read or is not an OIF file.
+   */
+  public static Map<String, List<ObservedMeasurement<?>>> parse(Path filePath,
+      double[] raDecSigmas) throws IOException {
+    return parse(filePath, raDecSigmas, null);
+  }
+
+  /**
+   * Parses an OIF file into measurements grouped by target, with the frames and Earth of a shared
+   * data context.
+   *
+   * @param filePath    The file path for the OIF.
+   * @param raDecSigmas The standard deviations for right ascension and declination measurements,
+   *                    respectively.
+   * @param dataContext The shared data context, whose Earth locates the sensors, or null to use the
+   *                    global factories and {@link AstroUtils#EARTH}.
+   * @return The measurements of each target identifier, in file order. Empty if the file has no
+   *     observation.
+   * @throws IOException if the file cannot be read or is not an OIF file.
+   */
+  public static Map<String, List<ObservedMeasurement<?>>> parse(Path filePath,
+      double[] raDecSigmas, SharedDataContext dataContext) throws IOException {
+
+    // Assume RA/Dec measurements and sensor positions are in GCRF frame.
+    Frame raDecFrame = dataContext == null ? FramesFactory.getGCRF() : dataContext.getGcrf();
+    Frame sensorPositionFrame = raDecFrame;
+    OneAxisEllipsoid earth = dataContext == null ? AstroUtils.EARTH : dataContext.getEarth();
+    ObservableSatellite satellite = new ObservableSatellite(0);
+
+    Map<String, List<ObservedMeasurement<?>>> measurements = new LinkedHashMap<>();
+    try (BufferedReader reader = Files.newBufferedReader(filePath)) {
+
+      AbsoluteDate oifEpoch = null;
+      for (int i = 0; i < NUMBER_OF_HEADER_LINES; i++) {
+        String line = reader.readLine();
+        if (line == null) {
+          throw new IOException("Truncated OIF header: " + filePath);
+        }
+        if (i == 1) {
+          oifEpoch = parseEpoch(line, filePath);
+        }
+      }
+
+      String line;
+      while ((line = reader.readLine()) != null) {
+
+        String trimmed = line.trim();
+        if (trimmed.isEmpty() || trimmed.toLowerCase(Locale.ROOT).startsWith(NAN)) {
+          continue;
+        }
+
+        String[] lineParts = trimmed.split("\\s+");
+        if (lineParts.length < 7) {
+          throw new IOException("Malformed OIF line in " + filePath + ": " + line);
+        }
+        try {
+          String targetId = lineParts[0];
+          AbsoluteDate epoch = oifEpoch.shiftedBy(Double.parseDouble(lineParts[1]));
+          double rightAscension = Math.toRadians(Double.parseDouble(lineParts[2]));
+          double declination = Math.toRadians(Double.parseDouble(lineParts[3]));
+          Vector3D sensorPosition = new Vector3D(Double.parseDouble(lineParts[4]),
+              Double.parseDouble(lineParts[5]), Double.parseDouble(lineParts[6]))
+              .scalarMultiply(KM_TO_M);
+          GeodeticPoint sensorLocation = earth.transform(sensorPosition, sensorPositionFrame,
+              epoch);
+
+          GroundStation groundStation = dataContext == null
+              ? new GroundStation(new TopocentricFrame(earth, sensorLocation, "gsFrame"))
+              : dataContext.createGroundStation(sensorLocation, "gsFrame");
+          measurements.computeIfAbsent(targetId, id -> new ArrayList<>()).add(
+              new AngularRaDec(groundStation, raDecFrame, epoch,
+                  new double[]{rightAscension, declination}, raDecSigmas, RA_DEC_WEIGHTS,
+                  satellite));
+        } catch (NumberFormatException ex) {
+          throw new IOException("Malformed OIF line in " + filePath + ": " + line, ex);
+        }
+      }
+    }
+
+    return measurements;
+  }
+
+  private static AbsoluteDate parseEpoch(String line, Path filePath) throws IOException {
+    int index = line.indexOf(MJD_KEYWORD);
+    if (index < 0) {
+      throw new IOException("Missing base MJD in OIF header: " + filePath);
+    }
+    String[] mjdParts = line.substring(index + MJD_KEYWORD.length()).trim().split("\\s+");
+    try {
+      double mjdDay = Double.parseDouble(mjdParts[0]);
+      double mjdDayFraction = mjdParts.length > 1 ? Double.parseDouble(mjdParts[1]) : 0.0;
+      return AbsoluteDate.MODIFIED_JULIAN_EPOCH.shiftedBy(
+          (mjdDay + mjdDayFraction) * Constants.JULIAN_DAY);
+    } catch (NumberFormatException ex) {
+      throw new IOException("Malformed base MJD in OIF header: " + filePath, ex);
+    }
+  }
+
+}
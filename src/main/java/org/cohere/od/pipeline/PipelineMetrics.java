@@ -0,0 +1,48 @@
+package org.cohere.od.pipeline;
+
+import lombok.Value;
+
+/**
+ * A snapshot of the counters of an {@link OdPipeline}.
+ * <p>
+ * The latency of an exported solution is the time from the arrival of the oldest file whose
+ * measurements it is the first to use, to the acceptance of its OPM by the exporter.
+ */
+@Value
+public class PipelineMetrics {
+
+  long filesDetected;
+  long filesParsed;
+  long filesFailed;
+  long measurements;
+  long unknownTargetMeasurements;
+  long odRuns;
+  long odFailures;
+  long exported;
+  long exportFailures;
+  long exportRetries;
+  long totalLatencyNanos;
+  long maxLatencyNanos;
+  int queuedFiles;
+  int queuedTargets;
+  int queuedResults;
+
+  /**
+   * Gets the mean latency from file arrival to OPM export.
+   *
+   * @return The mean latency in milliseconds, or 0 if nothing was exported.
+   */
+  public double getMeanLatencyMillis() {
+    return exported == 0 ? 0.0 : totalLatencyNanos / (exported * 1.0e6);
+  }
+
+  /**
+   * Gets the maximum latency from file arrival to OPM export.
+   *
+   * @return The maximum latency in milliseconds.
+   */
+  public double getMaxLatencyMillis() {
+    return maxLatencyNanos / 1.0e6;
+  }
+
+}
@@ -0,0 +1,95 @@
+package org.cohere.od.pipeline;
+
+import java.nio.file.Path;
+import java.util.List;
+import lombok.Builder;
+import lombok.NonNull;
+import lombok.Value;
+import org.cohere.od.cache.SharedDataContext;
+
+/**
+ * Configuration of an {@link OdPipeline}.
+ */
+@Value
+@Builder(toBuilder = true)
+public class PipelineSettings {
+
+  /**
+   * The drop directories watched for new OIF files.
+   */
+  @NonNull
+  List<Path> directories;
+
+  /**
+   * The suffix of the file names to ingest. Other files are ignored.
+   */
+  @Builder.Default
+  String fileSuffix = ".oif";
+
+  /**
+   * Whether the files already in the directories when the pipeline starts are ingested.
+   */
+  @Builder.Default
+  boolean processExistingFiles = true;
+
+  /**
+   * The standard deviations of the right ascension and declination measurements, in radians.
+   */
+  @Builder.Default
+  double[] raDecSigmas = new double[]{Math.toRadians(1.0 / 3600.0), Math.toRadians(1.0 / 3600.0)};
+
+  /**
+   * The maximum number of detected files waiting to be parsed. The watcher blocks beyond it.
+   */
+  @Builder.Default
+  int fileBufferSize = 16;
+
+  /**
+   * The maximum number of targets with new measurements waiting for an OD. The parser blocks
+   * beyond it.
+   */
+  @Builder.Default
+  int targetBufferSize = 64;
+
+  /**
+   * The maximum number of OD solutions waiting to be exported. The OD workers block beyond it.
+   */
+  @Builder.Default
+  int resultBufferSize = 64;
+
+  /**
+   * The maximum number of ODs running concurrently on the worker pool.
+   */
+  @Builder.Default
+  int odParallelism = 4;
+
+  /**
+   * The maximum number of measurements retained for a target. The oldest measurements are dropped
+   * beyond it, and 0 retains them all.
+   */
+  @Builder.Default
+  int maxMeasurementsPerTarget = 2000;
+
+  /**
+   * The minimum time span of the measurements of a target before it is queued for an OD, in
+   * seconds. A single short tracklet of angles cannot determine an orbit, so the measurements of a
+   * target wait for a second tracklet or a longer arc.
+   */
+  @Builder.Default
+  double minArcDuration = 600.0;
+
+  /**
+   * The delay before submitting again a solution rejected by a full exporter, in milliseconds.
+   */
+  @Builder.Default
+  long exportRetryMillis = 10L;
+
+  /**
+   * The shared data context whose Earth locates the sensors of the parsed files, or null to use the
+   * global factories. It should be the one of the OD processor, so that the stations share its Earth
+   * orientation.
+   */
+  @Builder.Default
+  SharedDataContext dataContext = null;
+
+}
@@ -0,0 +1,18 @@
+package org.cohere.od.screening;
+
+import lombok.Value;
+import org.orekit.time.AbsoluteDate;
+
+/**
+ * A close approach between two objects, at the time of closest approach. The primary is the object
+ * whose identifier sorts first.
+ */
+@Value
+public class Conjunction {
+
+  String primaryId;
+  String secondaryId;
+  AbsoluteDate timeOfClosestApproach;
+  double missDistance;
+  double relativeSpeed;
+}
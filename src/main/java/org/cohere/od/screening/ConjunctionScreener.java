@@ -0,0 +1,473 @@
+package org.cohere.od.screening;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+import lombok.NonNull;
+import lombok.extern.log4j.Log4j2;
+import org.cohere.od.models.StateAndCovariance;
+import org.cohere.od.utils.PropagatorFactory;
+import org.hipparchus.analysis.interpolation.HermiteInterpolator;
+import org.hipparchus.optim.MaxEval;
+import org.hipparchus.optim.nonlinear.scalar.GoalType;
+import org.hipparchus.optim.univariate.BrentOptimizer;
+import org.hipparchus.optim.univariate.SearchInterval;
+import org.hipparchus.optim.univariate.UnivariateObjectiveFunction;
+import org.hipparchus.optim.univariate.UnivariatePointValuePair;
+import org.hipparchus.util.FastMath;
+import org.orekit.forces.ForceModel;
+import org.orekit.frames.Frame;
+import org.orekit.frames.FramesFactory;
+import org.orekit.orbits.KeplerianOrbit;
+import org.orekit.orbits.OrbitType;
+import org.orekit.propagation.SpacecraftState;
+import org.orekit.propagation.conversion.ODEIntegratorBuilder;
+import org.orekit.propagation.numerical.NumericalPropagator;
+import org.orekit.propagation.sampling.OrekitFixedStepHandler;
+import org.orekit.time.AbsoluteDate;
+import org.orekit.utils.PVCoordinates;
+
+/**
+ * Screens a catalog of OD results for close approaches between all pairs of objects, without
+ * comparing every pair at every time.
+ * <p>
+ * The screening runs a chain of filters of increasing cost:
+ * <ol>
+ *   <li>The apsis filter drops the objects whose perigee to apogee shell does not come within the
+ *   screening distance of the shell of any other object, before anything is propagated. Pairs of
+ *   remaining objects with disjoint shells are dropped as well.</li>
+ *   <li>The remaining objects are propagated onto a shared time grid. At each grid point their
+ *   positions are hashed into cubic cells large enough that two objects which can come within the
+ *   screening distance around that grid point are in neighbouring cells.</li>
+ *   <li>The time filter bounds the miss distance of each pair in neighbouring cells over half a grid
+ *   step on either side of the grid point, from their relative position and velocity.</li>
+ *   <li>The pairs that pass are refined: their relative motion is interpolated between the grid
+ *   points and its minimum distance is searched.</li>
+ * </ol>
+ * The grid is processed in chunks of {@link ScreeningSettings#getChunkSteps()} steps. Within a
+ * chunk the objects are propagated concurrently, then the grid points are screened concurrently.
+ * The force models are shared by all the propagators.
+ */
+@Log4j2
+public class ConjunctionScreener {
+
+  private static final double MAX_INTEGRATOR_STEP = 300.0;
+  private static final double MIN_INTEGRATOR_STEP = 0.001;
+  /**
+   * Absolute accuracy of the times of closest approach, in seconds.
+   */
+  private static final double TIME_TOLERANCE = 1.0e-3;
+  /**
+   * Distance to an interval edge, in seconds, within which a time of closest approach is
+   * considered to be on the edge.
+   */
+  private static final double BOUNDARY_MARGIN = 2 * TIME_TOLERANCE;
+  private static final int MAX_EVALUATIONS = 100;
+  private static final int CELL_BITS = 21;
+  private static final long CELL_MASK = (1L << CELL_BITS) - 1;
+
+  private final ExecutorService executor;
+  private final ScreeningSettings settings;
+
+  /**
+   * Constructor.
+   *
+   * @param settings The screening settings.
+   * @param executor The executor propagating and screening in parallel. It is owned by the caller.
+   */
+  public ConjunctionScreener(@NonNull ScreeningSettings settings,
+      @NonNull ExecutorService executor) {
+    if (settings.getScreeningDistance() <= 0.0 || settings.getGridStep() <= 0.0
+        || settings.getChunkSteps() < 1) {
+      throw new IllegalArgumentException(
+          "Screening distance, grid step and chunk steps must be positive.");
+    }
+    this.settings = settings;
+    this.executor = executor;
+  }
+
+  /**
+   * Screens the catalog for close approaches between the given dates.
+   *
+   * @param catalog The OD results, by object identifier. Only the states are used.
+   * @param start   The start of the screening span.
+   * @param end     The end of the screening span.
+   * @return The close approaches and the filter statistics.
+   */
+  public ScreeningResult screen(@NonNull Map<String, StateAndCovariance> catalog,
+      @NonNull AbsoluteDate start, @NonNull AbsoluteDate end) {
+
+    if (end.compareTo(start) <= 0) {
+      throw new IllegalArgumentException("Screening span must end after it starts.");
+    }
+
+    long startNanos = System.nanoTime();
+    List<Track> tracks = applyApsisFilter(catalog);
+    LongAdder candidatePairs = new LongAdder();
+    LongAdder refinedPairs = new LongAdder();
+    List<Conjunction> conjunctions = new ArrayList<>();
+
+    if (tracks.size() > 1) {
+      Grid grid = new Grid(tracks, start, end, candidatePairs, refinedPairs);
+      for (int first = 0; first <= grid.lastIndex; first += settings.getChunkSteps()) {
+        int last = Math.min(first + settings.getChunkSteps() - 1, grid.lastIndex);
+        int chunkFirst = first;
+        invokeAll(tracks.stream().<Callable<Void>>map(track -> () -> {
+          grid.propagate(track, chunkFirst, last);
+          return null;
+        }).collect(Collectors.toList()));
+        List<Callable<List<Conjunction>>> steps = new ArrayList<>();
+        for (int k = first; k <= last; k++) {
+          int index = k;
+          steps.add(() -> grid.screen(index));
+        }
+        invokeAll(steps).forEach(conjunctions::addAll);
+      }
+    }
+
+    conjunctions.sort(Comparator.comparing(Conjunction::getTimeOfClosestApproach)
+        .thenComparing(Conjunction::getPrimaryId)
+        .thenComparing(Conjunction::getSecondaryId));
+    long elapsedNanos = System.nanoTime() - startNanos;
+    log.debug("Screened {} of {} objects in {} ms: {} candidate pairs, {} refined, {} "
+            + "conjunctions.", tracks.size(), catalog.size(), elapsedNanos / 1.0e6,
+        candidatePairs.sum(), refinedPairs.sum(), conjunctions.size());
+    return new ScreeningResult(conjunctions, catalog.size(), tracks.size(), candidatePairs.sum(),
+        refinedPairs.sum(), elapsedNanos);
+  }
+
+  /**
+   * Keeps the objects whose padded perigee to apogee shell comes within the screening distance of
+   * the shell of another object, sorted by identifier.
+   */
+  private List<Track> applyApsisFilter(Map<String, StateAndCovariance> catalog) {
+
+    List<Track> all = new ArrayList<>();
+    new TreeMap<>(catalog).forEach((id, stateAndCovariance) -> all.add(
+        new Track(id, stateAndCovariance.getState(), settings.getApsisPadding())));
+
+    // Sorted by perigee, a shell overlaps an earlier one if it starts below the highest apogee so
+    // far, and a later one if the next shell starts below its apogee.
+    List<Track> byPerigee = new ArrayList<>(all);
+    byPerigee.sort(Comparator.comparingDouble(track -> track.perigee));
+    double reach = settings.getScreeningDistance();
+    double highestApogee = Double.NEGATIVE_INFINITY;
+    for (int i = 0; i < byPerigee.size(); i++) {
+      Track track = byPerigee.get(i);
+      boolean overlapsEarlier = track.perigee - highestApogee <= reach;
+      boolean overlapsLater = i + 1 < byPerigee.size()
+          && byPerigee.get(i + 1).perigee - track.apogee <= reach;
+      track.isScreened = overlapsEarlier || overlapsLater;
+      highestApogee = Math.max(highestApogee, track.apogee);
+    }
+
+    List<Track> screened = new ArrayList<>();
+    for (Track track : all) {
+      if (track.isScreened) {
+        screened.add(track);
+      }
+    }
+    return screened;
+  }
+
+  private <T> List<T> invokeAll(List<Callable<T>> tasks) {
+
+    List<Future<T>> futures;
+    try {
+      futures = executor.invokeAll(tasks);
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while screening.");
+    }
+
+    List<T> results = new ArrayList<>(futures.size());
+    for (Future<T> future : futures) {
+      try {
+        results.add(future.get());
+      } catch (ExecutionException ex) {
+        throw new IllegalStateException("Failed to screen: " + ex.getCause().getMessage());
+      } catch (InterruptedException ex) {
+        // Cannot happen: invokeAll returns completed futures.
+        Thread.currentThread().interrupt();
+        throw new IllegalStateException("Interrupted while reading screening result.");
+      }
+    }
+    return results;
+  }
+
+  private static long cellKey(long x, long y, long z) {
+    return ((x & CELL_MASK) << (2 * CELL_BITS)) | ((y & CELL_MASK) << CELL_BITS) | (z & CELL_MASK);
+  }
+
+  /**
+   * An object of the catalog and its positions and velocities on the grid points of the current
+   * chunk.
+   */
+  private static final class Track {
+
+    private final String id;
+    private final SpacecraftState state;
+    private final double perigee;
+    private final double apogee;
+    private final double perigeeSpeed;
+    private boolean isScreened;
+    private NumericalPropagator propagator;
+    private double[] rows;
+    private int base;
+    private int computed = -1;
+
+    private Track(String id, SpacecraftState state, double apsisPadding) {
+      this.id = id;
+      this.state = state;
+      KeplerianOrbit orbit = (KeplerianOrbit) OrbitType.KEPLERIAN.convertType(state.getOrbit());
+      double a = orbit.getA();
+      double e = orbit.getE();
+      this.perigee = a * (1.0 - e) - apsisPadding;
+      this.apogee = e < 1.0 ? a * (1.0 + e) + apsisPadding : Double.POSITIVE_INFINITY;
+      double rp = a * (1.0 - e);
+      this.perigeeSpeed = FastMath.sqrt(orbit.getMu() * (2.0 / rp - 1.0 / a));
+    }
+  }
+
+  /**
+   * The time grid and spatial index shared by the tracks.
+   */
+  private final class Grid {
+
+    private final Frame frame = FramesFactory.getGCRF();
+    private final List<Track> tracks;
+    private final AbsoluteDate start;
+    private final double step;
+    private final int lastIndex;
+    private final double spanEnd;
+    private final double cellSize;
+    private final double accelerationMargin;
+    private final List<ForceModel> forceModels;
+    private final ODEIntegratorBuilder integratorBuilder;
+    private final LongAdder candidatePairs;
+    private final LongAdder refinedPairs;
+
+    private Grid(List<Track> tracks, AbsoluteDate start, AbsoluteDate end,
+        LongAdder candidatePairs, LongAdder refinedPairs) {
+
+      this.tracks = tracks;
+      this.start = start;
+      this.step = settings.getGridStep();
+      this.spanEnd = end.durationFrom(start);
+      this.lastIndex = (int) FastMath.ceil(spanEnd / step);
+      this.candidatePairs = candidatePairs;
+      this.refinedPairs = refinedPairs;
+
+      // Over half a step the relative position of two objects moves by at most their relative
+      // speed times half a step, plus the drift of the gravity gradient across their separation.
+      double maxRelativeSpeed = 0.0;
+      double minRadius = Double.POSITIVE_INFINITY;
+      for (Track track : tracks) {
+        maxRelativeSpeed = Math.max(maxRelativeSpeed, 2.0 * track.perigeeSpeed);
+        minRadius = Math.min(minRadius,
+            track.perigee + settings.getApsisPadding());
+      }
+      double halfStep = 0.5 * step;
+      double mu = tracks.get(0).state.getMu();
+      double gradientFactor = 1.5 * mu / (minRadius * minRadius * minRadius) * halfStep * halfStep;
+      if (gradientFactor >= 0.5) {
+        throw new IllegalArgumentException("Grid step is too large for the lowest orbit.");
+      }
+      this.cellSize = (settings.getScreeningDistance() + maxRelativeSpeed * halfStep)
+          / (1.0 - gradientFactor);
+      this.accelerationMargin = gradientFactor * cellSize;
+
+      this.forceModels = PropagatorFactory.createForceModels(settings.getForceModelProfile());
+      this.integratorBuilder = PropagatorFactory.createIntegratorBuilder(MIN_INTEGRATOR_STEP,
+          MAX_INTEGRATOR_STEP, settings.getPositionError());
+    }
+
+    private AbsoluteDate gridDate(int index) {
+      return start.shiftedBy(index * step);
+    }
+
+    /**
+     * Fills the rows of the track for the grid points from first - 1 to last + 1, keeping the rows
+     * of the previous chunk it overlaps.
+     */
+    private void propagate(Track track, int first, int last) {
+
+      int newBase = Math.max(first - 1, 0);
+      int target = Math.min(last + 1, lastIndex);
+      if (track.rows == null) {
+        track.rows = new double[(settings.getChunkSteps() + 2) * 6];
+        track.propagator = PropagatorFactory.createPropagator(track.state, forceModels,
+            integratorBuilder);
+      } else if (track.computed >= newBase) {
+        System.arraycopy(track.rows, (newBase - track.base) * 6, track.rows, 0,
+            (track.computed - newBase + 1) * 6);
+      }
+      track.base = newBase;
+
+      if (track.computed < 0) {
+        store(track, 0, track.propagator.propagate(start));
+        track.computed = 0;
+      }
+      if (target > track.computed) {
+        int from = track.computed;
+        OrekitFixedStepHandler handler = new OrekitFixedStepHandler() {
+          @Override
+          public void handleStep(SpacecraftState currentState) {
+            int index = from + (int) FastMath.round(
+                currentState.getDate().durationFrom(gridDate(from)) / step);
+            if (index > from && index <= target) {
+              store(track, index, currentState);
+            }
+          }
+
+          @Override
+          public void finish(SpacecraftState finalState) {
+            store(track, target, finalState);
+          }
+        };
+        track.propagator.setStepHandler(step, handler);
+        track.propagator.propagate(gridDate(target));
+        track.computed = target;
+      }
+    }
+
+    private void store(Track track, int index, SpacecraftState state) {
+      PVCoordinates pv = state.getPVCoordinates(frame);
+      int offset = (index - track.base) * 6;
+      track.rows[offset] = pv.getPosition().getX();
+      track.rows[offset + 1] = pv.getPosition().getY();
+      track.rows[offset + 2] = pv.getPosition().getZ();
+      track.rows[offset + 3] = pv.getVelocity().getX();
+      track.rows[offset + 4] = pv.getVelocity().getY();
+      track.rows[offset + 5] = pv.getVelocity().getZ();
+    }
+
+    /**
+     * Screens the pairs of tracks in neighbouring cells at a grid point.
+     */
+    private List<Conjunction> screen(int index) {
+
+      Map<Long, List<Integer>> cells = new HashMap<>();
+      long[][] coordinates = new long[tracks.size()][3];
+      for (int i = 0; i < tracks.size(); i++) {
+        Track track = tracks.get(i);
+        int offset = (index - track.base) * 6;
+        for (int axis = 0; axis < 3; axis++) {
+          coordinates[i][axis] = (long) FastMath.floor(track.rows[offset + axis] / cellSize);
+        }
+        cells.computeIfAbsent(cellKey(coordinates[i][0], coordinates[i][1], coordinates[i][2]),
+            key -> new ArrayList<>()).add(i);
+      }
+
+      List<Conjunction> conjunctions = new ArrayList<>();
+      for (int i = 0; i < tracks.size(); i++) {
+        for (int dx = -1; dx <= 1; dx++) {
+          for (int dy = -1; dy <= 1; dy++) {
+            for (int dz = -1; dz <= 1; dz++) {
+              List<Integer> cell = cells.get(cellKey(coordinates[i][0] + dx,
+                  coordinates[i][1] + dy, coordinates[i][2] + dz));
+              if (cell == null) {
+                continue;
+              }
+              for (int j : cell) {
+                if (j > i) {
+                  Conjunction conjunction = screenPair(tracks.get(i), tracks.get(j), index);
+                  if (conjunction != null) {
+                    conjunctions.add(conjunction);
+                  }
+                }
+              }
+            }
+          }
+        }
+      }
+      return conjunctions;
+    }
+
+    private Conjunction screenPair(Track primary, Track secondary, int index) {
+
+      candidatePairs.increment();
+      double screeningDistance = settings.getScreeningDistance();
+      if (Math.max(primary.perigee, secondary.perigee)
+          - Math.min(primary.apogee, secondary.apogee) > screeningDistance) {
+        return null;
+      }
+
+      double[] relative = relativeRow(primary, secondary, index);
+      double distance = FastMath.sqrt(relative[0] * relative[0] + relative[1] * relative[1]
+          + relative[2] * relative[2]);
+      double speed = FastMath.sqrt(relative[3] * relative[3] + relative[4] * relative[4]
+          + relative[5] * relative[5]);
+      if (distance - 0.5 * step * speed - accelerationMargin > screeningDistance) {
+        return null;
+      }
+
+      // Interpolate the relative motion over the neighbouring grid points, in seconds from the
+      // grid point, and search the closest approach within half a step of it. The search extends
+      // slightly past the upper half step so that a minimum on the boundary with the next grid
+      // point is found inside the interval.
+      refinedPairs.increment();
+      HermiteInterpolator interpolator = new HermiteInterpolator();
+      for (int k = Math.max(index - 1, 0); k <= Math.min(index + 1, lastIndex); k++) {
+        double[] row = k == index ? relative : relativeRow(primary, secondary, k);
+        interpolator.addSamplePoint((k - index) * step, new double[]{row[0], row[1], row[2]},
+            new double[]{row[3], row[4], row[5]});
+      }
+      double offset = index * step;
+      double lower = Math.max(-0.5 * step, -offset);
+      double upper = Math.min(0.5 * step + 2 * BOUNDARY_MARGIN, spanEnd - offset);
+      if (upper <= lower) {
+        return null;
+      }
+      double guess = speed > 0.0
+          ? -(relative[0] * relative[3] + relative[1] * relative[4] + relative[2] * relative[5])
+          / (speed * speed) : 0.0;
+      guess = Math.max(lower, Math.min(upper, guess));
+
+      UnivariatePointValuePair minimum = new BrentOptimizer(1.0e-10, TIME_TOLERANCE).optimize(
+          new MaxEval(MAX_EVALUATIONS), GoalType.MINIMIZE, new SearchInterval(lower, upper, guess),
+          new UnivariateObjectiveFunction(s -> {
+            double[] position = interpolator.value(s);
+            return position[0] * position[0] + position[1] * position[1]
+                + position[2] * position[2];
+          }));
+
+      // Each grid point owns the minima from its lower half step boundary, exclusive, to its upper
+      // one, inclusive, so a minimum on a boundary is reported once. Both are widened by the
+      // margin: a minimum on the lower edge, unless it is the start of the screening span, belongs
+      // to the previous grid point, and one past the upper boundary to the next grid point.
+      double tca = minimum.getPoint();
+      boolean isOnLowerEdge = tca - lower <= BOUNDARY_MARGIN && lower > -offset;
+      boolean isPastUpperEdge = tca - 0.5 * step > BOUNDARY_MARGIN;
+      double missDistance = FastMath.sqrt(minimum.getValue());
+      if (isOnLowerEdge || isPastUpperEdge || missDistance > screeningDistance) {
+        return null;
+      }
+
+      double[] velocity = interpolator.derivatives(tca, 1)[1];
+      return new Conjunction(primary.id, secondary.id, gridDate(index).shiftedBy(tca),
+          missDistance, FastMath.sqrt(velocity[0] * velocity[0] + velocity[1] * velocity[1]
+          + velocity[2] * velocity[2]));
+    }
+
+    private double[] relativeRow(Track primary, Track secondary, int index) {
+      int primaryOffset = (index - primary.base) * 6;
+      int secondaryOffset = (index - secondary.base) * 6;
+      double[] relative = new double[6];
+      for (int i = 0; i < 6; i++) {
+        relative[i] = secondary.rows[secondaryOffset + i] - primary.rows[primaryOffset + i];
+      }
+      return relative;
+    }
+  }
+
+}
@@ -0,0 +1,19 @@
+package org.cohere.od.screening;
+
+import java.util.List;
+import lombok.Value;
+
+/**
+ * The result of a conjunction screening: the close approaches sorted by time, and the number of
+ * objects and pairs remaining after each filter.
+ */
+@Value
+public class ScreeningResult {
+
+  List<Conjunction> conjunctions;
+  int objects;
+  int screenedObjects;
+  long candidatePairs;
+  long refinedPairs;
+  long elapsedNanos;
+}
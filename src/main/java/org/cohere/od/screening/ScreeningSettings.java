@@ -0,0 +1,59 @@
+package org.cohere.od.screening;
+
+import lombok.Builder;
+import lombok.NonNull;
+import lombok.Value;
+import org.cohere.od.utils.ForceModelProfile;
+
+/**
+ * Configuration of a {@link ConjunctionScreener}.
+ */
+@Value
+@Builder(toBuilder = true)
+public class ScreeningSettings {
+
+  /**
+   * The default settings.
+   */
+  public static final ScreeningSettings DEFAULT = ScreeningSettings.builder().build();
+
+  /**
+   * Miss distance at or below which a close approach is reported, in meters.
+   */
+  @Builder.Default
+  double screeningDistance = 10000.0;
+
+  /**
+   * Step of the time grid the objects are propagated onto, in seconds. Larger steps make the
+   * spatial index coarser; the close approaches are always refined between grid points.
+   */
+  @Builder.Default
+  double gridStep = 120.0;
+
+  /**
+   * Number of grid steps propagated and screened at once, which bounds the memory used to six
+   * doubles per object and step.
+   */
+  @Builder.Default
+  int chunkSteps = 720;
+
+  /**
+   * Margin added to the perigee and apogee radii of each object by the apsis filter, in meters. It
+   * must cover the variation of the osculating apsides over the screening span.
+   */
+  @Builder.Default
+  double apsisPadding = 20000.0;
+
+  /**
+   * The force models used to propagate the objects.
+   */
+  @NonNull
+  @Builder.Default
+  ForceModelProfile forceModelProfile = ForceModelProfile.FULL;
+
+  /**
+   * Position error tolerance of the integrator, in meters.
+   */
+  @Builder.Default
+  double positionError = 1.0;
+}
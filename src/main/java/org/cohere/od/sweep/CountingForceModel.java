@@ -0,0 +1,93 @@
+package org.cohere.od.sweep;
+
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+import org.hipparchus.CalculusFieldElement;
+import org.hipparchus.Field;
+import org.hipparchus.geometry.euclidean.threed.FieldVector3D;
+import org.hipparchus.geometry.euclidean.threed.Vector3D;
+import org.orekit.forces.ForceModel;
+import org.orekit.propagation.FieldSpacecraftState;
+import org.orekit.propagation.SpacecraftState;
+import org.orekit.propagation.events.EventDetector;
+import org.orekit.propagation.events.FieldEventDetector;
+import org.orekit.time.AbsoluteDate;
+import org.orekit.time.FieldAbsoluteDate;
+import org.orekit.utils.ParameterDriver;
+
+/**
+ * A force model counting the acceleration evaluations of another one, including those with
+ * derivatives for the state transition matrix.
+ */
+class CountingForceModel implements ForceModel {
+
+  private final ForceModel forceModel;
+  private final LongAdder evaluations;
+
+  /**
+   * Constructor.
+   *
+   * @param forceModel  The counted force model.
+   * @param evaluations The counter, which can be shared by several force models.
+   */
+  CountingForceModel(ForceModel forceModel, LongAdder evaluations) {
+    this.forceModel = forceModel;
+    this.evaluations = evaluations;
+  }
+
+  @Override
+  public void init(SpacecraftState initialState, AbsoluteDate target) {
+    forceModel.init(initialState, target);
+  }
+
+  @Override
+  public <T extends CalculusFieldElement<T>> void init(FieldSpacecraftState<T> initialState,
+      FieldAbsoluteDate<T> target) {
+    forceModel.init(initialState, target);
+  }
+
+  @Override
+  public boolean dependsOnPositionOnly() {
+    return forceModel.dependsOnPositionOnly();
+  }
+
+  @Override
+  public Vector3D acceleration(SpacecraftState state, double[] parameters) {
+    evaluations.increment();
+    return forceModel.acceleration(state, parameters);
+  }
+
+  @Override
+  public <T extends CalculusFieldElement<T>> FieldVector3D<T> acceleration(
+      FieldSpacecraftState<T> state, T[] parameters) {
+    evaluations.increment();
+    return forceModel.acceleration(state, parameters);
+  }
+
+  @Override
+  public Stream<EventDetector> getEventsDetectors() {
+    return forceModel.getEventsDetectors();
+  }
+
+  @Override
+  public <T extends CalculusFieldElement<T>> Stream<FieldEventDetector<T>> getFieldEventsDetectors(
+      Field<T> field) {
+    return forceModel.getFieldEventsDetectors(field);
+  }
+
+  @Override
+  public ParameterDriver getParameterDriver(String name) {
+    return forceModel.getParameterDriver(name);
+  }
+
+  @Override
+  public boolean isSupported(String name) {
+    return forceModel.isSupported(name);
+  }
+
+  @Override
+  public List<ParameterDriver> getParametersDrivers() {
+    return forceModel.getParametersDrivers();
+  }
+}
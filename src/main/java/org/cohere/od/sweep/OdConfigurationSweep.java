@@ -0,0 +1,262 @@
+package org.cohere.od.sweep;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.LongAdder;
+import lombok.NonNull;
+import lombok.extern.log4j.Log4j2;
+import org.cohere.od.models.OdSettings;
+import org.cohere.od.utils.EstimatorFactory;
+import org.cohere.od.utils.PropagatorFactory;
+import org.hipparchus.exception.MathRuntimeException;
+import org.hipparchus.geometry.euclidean.threed.Vector3D;
+import org.hipparchus.linear.RealMatrix;
+import org.hipparchus.util.FastMath;
+import org.orekit.errors.OrekitException;
+import org.orekit.estimation.leastsquares.BatchLSEstimator;
+import org.orekit.forces.ForceModel;
+import org.orekit.forces.gravity.HolmesFeatherstoneAttractionModel;
+import org.orekit.orbits.OrbitType;
+import org.orekit.orbits.PositionAngle;
+import org.orekit.propagation.SpacecraftState;
+import org.orekit.propagation.StateCovariance;
+import org.orekit.propagation.conversion.NumericalPropagatorBuilder;
+
+/**
+ * Measures the cost and accuracy of propagator and estimator configurations, to pick the cheapest
+ * one meeting an accuracy budget.
+ * <p>
+ * Every case is solved with the reference configuration of the settings, then with every
+ * configuration of the grid. Each OD records its wall time, its force model evaluations and its
+ * iterations, and its position and position standard deviations are compared to the reference
+ * solution. The configurations are ranked by their force model evaluations weighted by the
+ * {@link org.cohere.od.utils.ForceModelProfile#getExpectedCost() expected cost} of their profile,
+ * which unlike the wall time does not depend on the load of the machine. The ODs run concurrently,
+ * one task per configuration and case, so the wall times include the contention between them.
+ */
+@Log4j2
+public class OdConfigurationSweep {
+
+  private static final double MIN_INTEGRATOR_STEP = 0.001;
+
+  private final SweepSettings settings;
+  private final ExecutorService executor;
+
+  /**
+   * Constructor.
+   *
+   * @param settings The sweep settings.
+   * @param executor The executor running the ODs in parallel. It is owned by the caller.
+   */
+  public OdConfigurationSweep(@NonNull SweepSettings settings, @NonNull ExecutorService executor) {
+    this.settings = settings;
+    this.executor = executor;
+  }
+
+  /**
+   * Runs the sweep.
+   *
+   * @param cases The OD problems.
+   * @return The report, from the cheapest configuration.
+   * @throws IllegalStateException if the reference OD of a case fails.
+   */
+  public SweepReport run(@NonNull List<SweepCase> cases) {
+
+    if (cases.isEmpty()) {
+      throw new IllegalArgumentException("Must provide at least 1 case.");
+    }
+
+    List<Callable<Run>> referenceTasks = new ArrayList<>();
+    for (SweepCase sweepCase : cases) {
+      referenceTasks.add(() -> solve(settings.getReference(), sweepCase));
+    }
+    List<Run> references = invokeAll(referenceTasks);
+    for (int i = 0; i < cases.size(); i++) {
+      if (references.get(i).state == null) {
+        throw new IllegalStateException("Failed to solve the reference of "
+            + cases.get(i).getName() + ": " + references.get(i).failure);
+      }
+    }
+
+    List<SweepConfiguration> configurations = settings.getConfigurations();
+    List<Callable<Run>> tasks = new ArrayList<>();
+    for (SweepConfiguration configuration : configurations) {
+      for (SweepCase sweepCase : cases) {
+        tasks.add(() -> solve(configuration, sweepCase));
+      }
+    }
+    List<Run> runs = invokeAll(tasks);
+
+    List<SweepResult> results = new ArrayList<>();
+    for (int i = 0; i < configurations.size(); i++) {
+      results.add(summarize(configurations.get(i),
+          runs.subList(i * cases.size(), (i + 1) * cases.size()), references));
+    }
+    results = markFrontier(results);
+
+    SweepReport report = new SweepReport(results);
+    log.info("Swept {} configurations over {} cases:\n{}", configurations.size(), cases.size(),
+        report.format());
+    return report;
+  }
+
+  private static Run solve(SweepConfiguration configuration, SweepCase sweepCase) {
+
+    // Every profile has a gravity field, evaluated once per derivatives evaluation.
+    LongAdder evaluations = new LongAdder();
+    List<ForceModel> forceModels = new ArrayList<>();
+    for (ForceModel forceModel : PropagatorFactory.createForceModels(
+        configuration.getForceModelProfile())) {
+      forceModels.add(forceModel instanceof HolmesFeatherstoneAttractionModel
+          ? new CountingForceModel(forceModel, evaluations) : forceModel);
+    }
+
+    long start = System.nanoTime();
+    try {
+      NumericalPropagatorBuilder builder = PropagatorFactory.createPropagatorBuilder(
+          sweepCase.getInitialState(), forceModels, PropagatorFactory.createIntegratorBuilder(
+              MIN_INTEGRATOR_STEP, configuration.getMaxStep(), configuration.getPositionError()));
+      BatchLSEstimator estimator = EstimatorFactory.createBatchLsEstimator(builder,
+          new ArrayList<>(sweepCase.getMeasurements()), OdSettings.DEFAULT);
+      estimator.setParametersConvergenceThreshold(configuration.getConvergenceThreshold());
+      estimator.setMaxIterations(configuration.getMaxIterations());
+      estimator.setMaxEvaluations(configuration.getMaxIterations());
+
+      SpacecraftState state = estimator.estimate()[0].getInitialState();
+      RealMatrix covariance = new StateCovariance(
+          estimator.getPhysicalCovariances(Double.MIN_VALUE).getSubMatrix(0, 5, 0, 5),
+          state.getDate(), state.getFrame(), builder.getOrbitType(), builder.getPositionAngle())
+          .changeCovarianceType(state.getOrbit(), OrbitType.CARTESIAN, PositionAngle.MEAN)
+          .getMatrix();
+      double[] positionSigmas = new double[3];
+      for (int i = 0; i < positionSigmas.length; i++) {
+        positionSigmas[i] = FastMath.sqrt(covariance.getEntry(i, i));
+      }
+      return new Run(state, positionSigmas, estimator.getIterationsCount(),
+          evaluations.sum(), System.nanoTime() - start, null);
+    } catch (OrekitException | MathRuntimeException ex) {
+      log.debug("{} failed on {}: {}", configuration.getLabel(), sweepCase.getName(),
+          ex.getMessage());
+      return new Run(null, null, 0, evaluations.sum(), System.nanoTime() - start,
+          ex.getMessage());
+    }
+  }
+
+  private static SweepResult summarize(SweepConfiguration configuration, List<Run> runs,
+      List<Run> references) {
+
+    int failures = 0;
+    long wallNanos = 0;
+    long forceModelEvaluations = 0;
+    long iterations = 0;
+    double maxPositionDeviation = 0.0;
+    double sumPositionDeviation = 0.0;
+    double maxCovarianceDeviation = 0.0;
+    for (int i = 0; i < runs.size(); i++) {
+      Run run = runs.get(i);
+      wallNanos += run.wallNanos;
+      forceModelEvaluations += run.forceModelEvaluations;
+      iterations += run.iterations;
+      if (run.state == null) {
+        failures++;
+        continue;
+      }
+      Run reference = references.get(i);
+      double positionDeviation = Vector3D.distance(
+          reference.state.getPVCoordinates().getPosition(),
+          run.state.shiftedBy(reference.state.getDate().durationFrom(run.state.getDate()))
+              .getPVCoordinates().getPosition());
+      maxPositionDeviation = FastMath.max(maxPositionDeviation, positionDeviation);
+      sumPositionDeviation += positionDeviation;
+      for (int j = 0; j < run.positionSigmas.length; j++) {
+        maxCovarianceDeviation = FastMath.max(maxCovarianceDeviation,
+            FastMath.abs(run.positionSigmas[j] / reference.positionSigmas[j] - 1.0));
+      }
+    }
+    int converged = runs.size() - failures;
+    return new SweepResult(configuration, runs.size(), failures, wallNanos,
+        forceModelEvaluations, iterations, maxPositionDeviation,
+        converged == 0 ? 0.0 : sumPositionDeviation / converged, maxCovarianceDeviation, false);
+  }
+
+  /**
+   * Sorts the results by cost and marks those on the Pareto frontier of cost and maximum position
+   * deviation.
+   */
+  private static List<SweepResult> markFrontier(List<SweepResult> results) {
+
+    List<SweepResult> sorted = new ArrayList<>(results);
+    sorted.sort(Comparator.comparingDouble(SweepResult::getCost)
+        .thenComparingDouble(SweepResult::getMaxPositionDeviation));
+
+    // From the cheapest, a result is optimal if it is more accurate than every cheaper one.
+    List<SweepResult> marked = new ArrayList<>(sorted.size());
+    double bestDeviation = Double.POSITIVE_INFINITY;
+    for (SweepResult result : sorted) {
+      boolean isOptimal = result.isSuccessful()
+          && result.getMaxPositionDeviation() < bestDeviation;
+      if (isOptimal) {
+        bestDeviation = result.getMaxPositionDeviation();
+      }
+      marked.add(new SweepResult(result.getConfiguration(), result.getCases(),
+          result.getFailures(), result.getWallNanos(), result.getForceModelEvaluations(),
+          result.getIterations(), result.getMaxPositionDeviation(),
+          result.getMeanPositionDeviation(), result.getMaxCovarianceDeviation(), isOptimal));
+    }
+    return marked;
+  }
+
+  private <T> List<T> invokeAll(List<Callable<T>> tasks) {
+
+    List<Future<T>> futures;
+    try {
+      futures = executor.invokeAll(tasks);
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while sweeping.");
+    }
+
+    List<T> results = new ArrayList<>(futures.size());
+    for (Future<T> future : futures) {
+      try {
+        results.add(future.get());
+      } catch (ExecutionException ex) {
+        throw new IllegalStateException("Failed to sweep: " + ex.getCause().getMessage());
+      } catch (InterruptedException ex) {
+        // Cannot happen: invokeAll returns completed futures.
+        Thread.currentThread().interrupt();
+        throw new IllegalStateException("Interrupted while reading sweep result.");
+      }
+    }
+    return results;
+  }
+
+  /**
+   * The outcome of one OD, without a state if it failed.
+   */
+  private static final class Run {
+
+    private final SpacecraftState state;
+    private final double[] positionSigmas;
+    private final int iterations;
+    private final long forceModelEvaluations;
+    private final long wallNanos;
+    private final String failure;
+
+    private Run(SpacecraftState state, double[] positionSigmas, int iterations,
+        long forceModelEvaluations, long wallNanos, String failure) {
+      this.state = state;
+      this.positionSigmas = positionSigmas;
+      this.iterations = iterations;
+      this.forceModelEvaluations = forceModelEvaluations;
+      this.wallNanos = wallNanos;
+      this.failure = failure;
+    }
+  }
+
+}
@@ -0,0 +1,21 @@
+package org.cohere.od.sweep;
+
+import java.util.List;
+import lombok.NonNull;
+import lombok.Value;
+import org.orekit.estimation.measurements.ObservedMeasurement;
+import org.orekit.propagation.SpacecraftState;
+
+/**
+ * An OD problem of a sweep: the initial guess and the measurements of one object.
+ */
+@Value
+public class SweepCase {
+
+  @NonNull
+  String name;
+  @NonNull
+  SpacecraftState initialState;
+  @NonNull
+  List<ObservedMeasurement<?>> measurements;
+}
@@ -0,0 +1,63 @@
+package org.cohere.od.sweep;
+
+import java.util.Locale;
+import lombok.Builder;
+import lombok.NonNull;
+import lombok.Value;
+import org.cohere.od.utils.ForceModelProfile;
+
+/**
+ * A propagator and estimator configuration evaluated by an {@link OdConfigurationSweep}.
+ */
+@Value
+@Builder(toBuilder = true)
+public class SweepConfiguration {
+
+  /**
+   * The configuration of the default OD: full force models, 300 s maximum step, 10 m position
+   * error, 1e-3 convergence threshold and 25 iterations.
+   */
+  public static final SweepConfiguration DEFAULT = SweepConfiguration.builder().build();
+
+  @NonNull
+  @Builder.Default
+  ForceModelProfile forceModelProfile = ForceModelProfile.FULL;
+
+  /**
+   * Maximum step of the integrator, in seconds.
+   */
+  @Builder.Default
+  double maxStep = 300.0;
+
+  /**
+   * Position error tolerance of the integrator, in meters.
+   */
+  @Builder.Default
+  double positionError = 10.0;
+
+  /**
+   * Parameters convergence threshold of the estimator.
+   */
+  @Builder.Default
+  double convergenceThreshold = 1e-3;
+
+  /**
+   * Maximum number of iterations of the estimator.
+   */
+  @Builder.Default
+  int maxIterations = 25;
+
+  /**
+   * Gets a short description of the configuration for reports.
+   *
+   * @return The label.
+   */
+  public String getLabel() {
+    return String.format(Locale.US, "%dx%d%s%s%s step=%.0fs err=%.3gm conv=%.0e iter=%d",
+        forceModelProfile.getGravityDegree(), forceModelProfile.getGravityOrder(),
+        forceModelProfile.isSunAttraction() ? "+sun" : "",
+        forceModelProfile.isMoonAttraction() ? "+moon" : "",
+        forceModelProfile.isSolarRadiationPressure() ? "+srp" : "",
+        maxStep, positionError, convergenceThreshold, maxIterations);
+  }
+}
@@ -0,0 +1,65 @@
+package org.cohere.od.sweep;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Collectors;
+import lombok.Value;
+
+/**
+ * The results of an {@link OdConfigurationSweep}, from the cheapest configuration to the most
+ * expensive one, see {@link SweepResult#getCost()}.
+ */
+@Value
+public class SweepReport {
+
+  List<SweepResult> results;
+
+  /**
+   * Gets the Pareto frontier of cost and accuracy: the configurations without failures that no
+   * other configuration beats on both cost and maximum position deviation.
+   *
+   * @return The Pareto-optimal results, from the cheapest.
+   */
+  public List<SweepResult> getFrontier() {
+    return results.stream().filter(SweepResult::isParetoOptimal).collect(Collectors.toList());
+  }
+
+  /**
+   * Gets the cheapest configuration meeting an accuracy budget.
+   *
+   * @param positionBudget   The largest acceptable position deviation, in meters.
+   * @param covarianceBudget The largest acceptable relative deviation of the position standard
+   *                         deviations.
+   * @return The cheapest result without failures within the budget, or null if there is none.
+   */
+  public SweepResult getCheapest(double positionBudget, double covarianceBudget) {
+    for (SweepResult result : results) {
+      if (result.isSuccessful() && result.getMaxPositionDeviation() <= positionBudget
+          && result.getMaxCovarianceDeviation() <= covarianceBudget) {
+        return result;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Formats the report as a table, one configuration per line from the cheapest, the Pareto-optimal
+   * ones marked with a star.
+   *
+   * @return The table.
+   */
+  public String format() {
+    StringBuilder table = new StringBuilder(String.format(Locale.US,
+        "  %-48s %8s %12s %12s %10s %10s %12s %12s %10s%n", "configuration", "failures",
+        "cost", "force evals", "iterations", "wall ms", "max dpos m", "mean dpos m", "max dcov"));
+    for (SweepResult result : results) {
+      table.append(String.format(Locale.US,
+          "%s %-48s %8d %12.4g %12d %10d %10.1f %12.3f %12.3f %10.4f%n",
+          result.isParetoOptimal() ? "*" : " ", result.getConfiguration().getLabel(),
+          result.getFailures(), result.getCost(), result.getForceModelEvaluations(),
+          result.getIterations(), result.getWallNanos() / 1.0e6, result.getMaxPositionDeviation(),
+          result.getMeanPositionDeviation(), result.getMaxCovarianceDeviation()));
+    }
+    return table.toString();
+  }
+}
@@ -0,0 +1,63 @@
+package org.cohere.od.sweep;
+
+import lombok.Value;
+
+/**
+ * The cost and accuracy of a configuration over all the cases of a sweep. The deviations are taken
+ * from the solutions of the reference configuration, over the cases that converged.
+ */
+@Value
+public class SweepResult {
+
+  SweepConfiguration configuration;
+  int cases;
+  /**
+   * The number of cases whose OD failed or did not converge within the iterations.
+   */
+  int failures;
+  /**
+   * The wall time of the ODs, summed over the cases.
+   */
+  long wallNanos;
+  /**
+   * The number of evaluations of the force models, one per derivatives evaluation of the
+   * propagations, summed over the cases.
+   */
+  long forceModelEvaluations;
+  /**
+   * The number of estimator iterations, summed over the cases.
+   */
+  long iterations;
+  /**
+   * The largest distance from the reference position, in meters.
+   */
+  double maxPositionDeviation;
+  double meanPositionDeviation;
+  /**
+   * The largest relative deviation of a position standard deviation from the reference one.
+   */
+  double maxCovarianceDeviation;
+  /**
+   * Whether no configuration without failures is at most as costly and more accurate.
+   */
+  boolean paretoOptimal;
+
+  /**
+   * Gets the cost of the configuration: its force model evaluations weighted by the expected cost
+   * of an evaluation of its force model profile, in spherical harmonic terms.
+   *
+   * @return The cost.
+   */
+  public double getCost() {
+    return forceModelEvaluations * configuration.getForceModelProfile().getExpectedCost();
+  }
+
+  /**
+   * Whether every case converged.
+   *
+   * @return True if there is no failure.
+   */
+  public boolean isSuccessful() {
+    return failures == 0;
+  }
+}
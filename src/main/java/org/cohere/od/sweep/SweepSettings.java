@@ -0,0 +1,88 @@
+package org.cohere.od.sweep;
+
+import java.util.ArrayList;
+import java.util.List;
+import lombok.Builder;
+import lombok.NonNull;
+import lombok.Value;
+import org.cohere.od.utils.ForceModelProfile;
+
+/**
+ * Configuration of an {@link OdConfigurationSweep}: the grid of configurations evaluated, and the
+ * high-fidelity reference they are compared against.
+ */
+@Value
+@Builder(toBuilder = true)
+public class SweepSettings {
+
+  /**
+   * The default settings, evaluating the default configuration only.
+   */
+  public static final SweepSettings DEFAULT = SweepSettings.builder().build();
+
+  @NonNull
+  @Builder.Default
+  List<ForceModelProfile> forceModelProfiles = List.of(ForceModelProfile.FULL);
+
+  /**
+   * Maximum steps of the integrator, in seconds.
+   */
+  @NonNull
+  @Builder.Default
+  List<Double> maxSteps = List.of(300.0);
+
+  /**
+   * Position error tolerances of the integrator, in meters.
+   */
+  @NonNull
+  @Builder.Default
+  List<Double> positionErrors = List.of(10.0);
+
+  @NonNull
+  @Builder.Default
+  List<Double> convergenceThresholds = List.of(1e-3);
+
+  @NonNull
+  @Builder.Default
+  List<Integer> maxIterations = List.of(25);
+
+  /**
+   * The configuration whose solutions are taken as the truth, which should be more accurate than
+   * any configuration of the grid.
+   */
+  @NonNull
+  @Builder.Default
+  SweepConfiguration reference = SweepConfiguration.builder()
+      .maxStep(60.0)
+      .positionError(0.01)
+      .convergenceThreshold(1e-5)
+      .maxIterations(50)
+      .build();
+
+  /**
+   * Gets the configurations of the grid, the Cartesian product of the settings values.
+   *
+   * @return The configurations.
+   */
+  public List<SweepConfiguration> getConfigurations() {
+    List<SweepConfiguration> configurations = new ArrayList<>();
+    for (ForceModelProfile profile : forceModelProfiles) {
+      for (double maxStep : maxSteps) {
+        for (double positionError : positionErrors) {
+          for (double convergenceThreshold : convergenceThresholds) {
+            for (int iterations : maxIterations) {
+              configurations.add(SweepConfiguration.builder()
+                  .forceModelProfile(profile)
+                  .maxStep(maxStep)
+                  .positionError(positionError)
+                  .convergenceThreshold(convergenceThreshold)
+                  .maxIterations(iterations)
+                  .build());
+            }
+          }
+        }
+      }
+    }
+    return configurations;
+  }
+}
@@ -0,0 +1,182 @@
+package org.cohere.od.utils;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import org.hipparchus.geometry.euclidean.threed.Vector3D;
+import org.hipparchus.linear.MatrixUtils;
+import org.hipparchus.linear.RealMatrix;
+import org.orekit.frames.Frame;
+import org.orekit.frames.FramesFactory;
+import org.orekit.frames.Predefined;
+import org.orekit.orbits.CartesianOrbit;
+import org.orekit.orbits.OrbitType;
+import org.orekit.orbits.PositionAngle;
+import org.orekit.propagation.SpacecraftState;
+import org.orekit.propagation.StateCovariance;
+import org.orekit.time.AbsoluteDate;
+import org.orekit.time.DateTimeComponents;
+import org.orekit.time.TimeScale;
+import org.orekit.time.TimeScalesFactory;
+import org.orekit.utils.PVCoordinates;
+import org.orekit.utils.TimeStampedPVCoordinates;
+
+/**
+ * Binary encoding of the dates, vectors, frames, states and covariances shared by the codecs of the
+ * result cache, the distributed jobs and the ephemeris products.
+ * <p>
+ * Dates are encoded as TAI date-time components, which round-trip without loss of precision, and
+ * frames by name, so only {@link Predefined} frames can be encoded.
+ */
+public final class BinaryCodecUtils {
+
+  private BinaryCodecUtils() {
+  }
+
+  public static void writeDate(AbsoluteDate date, DataOutput out) throws IOException {
+    DateTimeComponents components = date.getComponents(tai());
+    out.writeInt(components.getDate().getYear());
+    out.writeInt(components.getDate().getMonth());
+    out.writeInt(components.getDate().getDay());
+    out.writeInt(components.getTime().getHour());
+    out.writeInt(components.getTime().getMinute());
+    out.writeDouble(components.getTime().getSecond());
+  }
+
+  public static AbsoluteDate readDate(DataInput in) throws IOException {
+    return new AbsoluteDate(in.readInt(), in.readInt(), in.readInt(), in.readInt(), in.readInt(),
+        in.readDouble(), tai());
+  }
+
+  public static void writeVector(Vector3D vector, DataOutput out) throws IOException {
+    out.writeDouble(vector.getX());
+    out.writeDouble(vector.getY());
+    out.writeDouble(vector.getZ());
+  }
+
+  public static Vector3D readVector(DataInput in) throws IOException {
+    return new Vector3D(in.readDouble(), in.readDouble(), in.readDouble());
+  }
+
+  public static void writeArray(double[] values, DataOutput out) throws IOException {
+    out.writeInt(values.length);
+    for (double value : values) {
+      out.writeDouble(value);
+    }
+  }
+
+  public static double[] readArray(DataInput in) throws IOException {
+    double[] values = new double[in.readInt()];
+    for (int i = 0; i < values.length; i++) {
+      values[i] = in.readDouble();
+    }
+    return values;
+  }
+
+  /**
+   * Checks whether a frame can be encoded.
+   *
+   * @param frame The frame.
+   * @return True if the frame is a predefined frame.
+   */
+  public static boolean isPredefined(Frame frame) {
+    return findPredefined(frame) != null;
+  }
+
+  /**
+   * Writes a frame by name.
+   *
+   * @param frame The frame.
+   * @param out   The output.
+   * @throws IOException              if the output cannot be written.
+   * @throws IllegalArgumentException if the frame is not a predefined frame.
+   */
+  public static void writeFrame(Frame frame, DataOutput out) throws IOException {
+    Predefined predefined = findPredefined(frame);
+    if (predefined == null) {
+      throw new IllegalArgumentException("Not a predefined frame: " + frame.getName());
+    }
+    out.writeUTF(predefined.name());
+  }
+
+  public static Frame readFrame(DataInput in) throws IOException {
+    return FramesFactory.getFrame(Predefined.valueOf(in.readUTF()));
+  }
+
+  /**
+   * Writes the Cartesian coordinates, frame, gravitational parameter and mass of a state.
+   *
+   * @param state The state, in a predefined frame.
+   * @param out   The output.
+   * @throws IOException if the output cannot be written.
+   */
+  public static void writeState(SpacecraftState state, DataOutput out) throws IOException {
+    TimeStampedPVCoordinates pv = state.getPVCoordinates();
+    writeDate(state.getDate(), out);
+    writeFrame(state.getFrame(), out);
+    writeVector(pv.getPosition(), out);
+    writeVector(pv.getVelocity(), out);
+    out.writeDouble(state.getMu());
+    out.writeDouble(state.getMass());
+  }
+
+  public static SpacecraftState readState(DataInput in) throws IOException {
+    AbsoluteDate date = readDate(in);
+    Frame frame = readFrame(in);
+    PVCoordinates pv = new PVCoordinates(readVector(in), readVector(in));
+    double mu = in.readDouble();
+    return new SpacecraftState(
+        new CartesianOrbit(new TimeStampedPVCoordinates(date, pv), frame, mu), in.readDouble());
+  }
+
+  /**
+   * Writes a covariance with its date, frame, orbit type and position angle.
+   *
+   * @param covariance The covariance, in a predefined frame.
+   * @param out        The output.
+   * @throws IOException if the output cannot be written.
+   */
+  public static void writeCovariance(StateCovariance covariance, DataOutput out)
+      throws IOException {
+    writeDate(covariance.getDate(), out);
+    writeFrame(covariance.getFrame(), out);
+    out.writeUTF(covariance.getOrbitType().name());
+    out.writeUTF(covariance.getPositionAngle().name());
+    RealMatrix matrix = covariance.getMatrix();
+    out.writeInt(matrix.getRowDimension());
+    for (int i = 0; i < matrix.getRowDimension(); i++) {
+      for (int j = 0; j < matrix.getColumnDimension(); j++) {
+        out.writeDouble(matrix.getEntry(i, j));
+      }
+    }
+  }
+
+  public static StateCovariance readCovariance(DataInput in) throws IOException {
+    AbsoluteDate date = readDate(in);
+    Frame frame = readFrame(in);
+    OrbitType orbitType = OrbitType.valueOf(in.readUTF());
+    PositionAngle positionAngle = PositionAngle.valueOf(in.readUTF());
+    int dimension = in.readInt();
+    RealMatrix matrix = MatrixUtils.createRealMatrix(dimension, dimension);
+    for (int i = 0; i < dimension; i++) {
+      for (int j = 0; j < dimension; j++) {
+        matrix.setEntry(i, j, in.readDouble());
+      }
+    }
+    return new StateCovariance(matrix, date, frame, orbitType, positionAngle);
+  }
+
+  private static Predefined findPredefined(Frame frame) {
+    for (Predefined predefined : Predefined.values()) {
+      if (predefined.getName().equals(frame.getName())) {
+        return predefined;
+      }
+    }
+    return null;
+  }
+
+  private static TimeScale tai() {
+    return TimeScalesFactory.getTAI();
+  }
+
+}
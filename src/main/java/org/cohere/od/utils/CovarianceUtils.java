@@ -0,0 +1,53 @@
+package org.cohere.od.utils;
+
+import org.cohere.od.models.StateAndCovariance;
+import org.orekit.propagation.MatricesHarvester;
+import org.orekit.propagation.Propagator;
+import org.orekit.propagation.SpacecraftState;
+import org.orekit.propagation.StateCovariance;
+import org.orekit.propagation.StateCovarianceMatrixProvider;
+import org.orekit.time.AbsoluteDate;
+
+/**
+ * Utility class for mapping states and covariances between epochs.
+ */
+public class CovarianceUtils {
+
+  private static final String COVARIANCE_NAME = "covariance";
+  private static final String STM_NAME = "stm";
+
+  private CovarianceUtils() {
+  }
+
+  /**
+   * Maps a state and covariance to another epoch using the state transition matrix of the given
+   * propagator.
+   *
+   * @param propagator         The propagator to use. Its initial state must be the state of
+   *                           {@code stateAndCovariance}.
+   * @param stateAndCovariance The state and covariance to map.
+   * @param epoch              The target epoch.
+   * @return The state and covariance at the target epoch.
+   */
+  public static StateAndCovariance propagate(Propagator propagator,
+      StateAndCovariance stateAndCovariance, AbsoluteDate epoch) {
+
+    if (stateAndCovariance.getState().getDate().isEqualTo(epoch)) {
+      return stateAndCovariance;
+    }
+
+    StateCovariance covariance = stateAndCovariance.getCovariance();
+    MatricesHarvester harvester = propagator.setupMatricesComputation(STM_NAME, null, null);
+    StateCovarianceMatrixProvider provider = new StateCovarianceMatrixProvider(COVARIANCE_NAME,
+        STM_NAME, harvester, covariance.getOrbitType(), covariance.getPositionAngle(),
+        covariance);
+    propagator.addAdditionalStateProvider(provider);
+
+    SpacecraftState propagatedState = propagator.propagate(epoch);
+    StateCovariance propagatedCovariance = provider.getStateCovariance(propagatedState,
+        covariance.getOrbitType(), covariance.getPositionAngle());
+
+    return new StateAndCovariance(propagatedCovariance, propagatedState);
+  }
+
+}
@@ -1,11 +1,24 @@
 package org.cohere.od.utils;
 
+import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
+import org.cohere.od.estimation.FastAngularRaDec;
+import org.cohere.od.estimation.JacobianReuseBatchLSModel;
+import org.cohere.od.estimation.ModelOverridingPropagatorBuilder;
+import org.cohere.od.estimation.StreamingBatchLSEstimator;
+import org.cohere.od.estimation.TallSkinnyQrDecomposer;
+import org.cohere.od.jfr.EstimatorSetupEvent;
+import org.cohere.od.models.OdSettings;
+import org.cohere.od.observer.AnytimeObserver;
+import org.cohere.od.observer.CompositeObserver;
+import org.cohere.od.observer.IterationEventObserver;
 import org.cohere.od.observer.OrbitDeterminationObserver;
+import org.hipparchus.linear.MatrixDecomposer;
 import org.hipparchus.linear.QRDecomposer;
 import org.hipparchus.optim.nonlinear.vector.leastsquares.GaussNewtonOptimizer;
 import org.orekit.estimation.leastsquares.BatchLSEstimator;
+import org.orekit.estimation.leastsquares.BatchLSObserver;
 import org.orekit.estimation.measurements.ObservedMeasurement;
 import org.orekit.orbits.Orbit;
 import org.orekit.propagation.Propagator;
@@ -13,6 +26,8 @@ import org.orekit.propagation.SpacecraftState;
 import org.orekit.propagation.conversion.OrbitDeterminationPropagatorBuilder;
 import org.orekit.time.AbsoluteDate;
 import org.orekit.time.TimeStamped;
+import org.orekit.utils.ParameterDriver;
+import org.orekit.utils.ParameterDriversList;
 
 public class EstimatorFactory {
 
@@ -34,14 +49,68 @@ public class EstimatorFactory {
   public static BatchLSEstimator createBatchLsEstimator(
       OrbitDeterminationPropagatorBuilder propagatorBuilder,
       List<ObservedMeasurement<?>> measurements) {
+    return createBatchLsEstimator(propagatorBuilder, measurements,
+        OdEpochStrategy.LAST_MEASUREMENT);
+  }
 
-    // Shift the propagator builder to the epoch of the last measurement.
-    measurements.sort(Comparator.comparing(TimeStamped::getDate));
-    AbsoluteDate odEpoch = measurements.get(measurements.size() - 1).getDate();
-    shiftToOdEpoch(propagatorBuilder, odEpoch);
+  /**
+   * Creates a batch LS estimator to perform an OD at the epoch selected by the given strategy.
+   * <p>
+   * For {@link OdEpochStrategy#LAST_MEASUREMENT} the initial guess is numerically propagated to the
+   * OD epoch. For the other strategies the initial guess is shifted with a Keplerian model, which
+   * avoids a full propagation before the estimation starts.
+   *
+   * @param propagatorBuilder The propagator builder to use.
+   * @param measurements      The list of measurements to use.
+   * @param epochStrategy     The strategy used to select the OD epoch.
+   * @param observers         Additional observers notified after each evaluation.
+   * @return The configured {@link BatchLSEstimator} object to use.
+   */
+  public static BatchLSEstimator createBatchLsEstimator(
+      OrbitDeterminationPropagatorBuilder propagatorBuilder,
+      List<ObservedMeasurement<?>> measurements, OdEpochStrategy epochStrategy,
+      BatchLSObserver... observers) {
+    return createBatchLsEstimator(propagatorBuilder, measurements,
+        OdSettings.builder().epochStrategy(epochStrategy).build(), observers);
+  }
 
-    GaussNewtonOptimizer optimizer = new GaussNewtonOptimizer(
-        new QRDecomposer(SINGULARITY_THRESHOLD), false);
+  /**
+   * Creates a batch LS estimator to perform an OD with the given settings.
+   * <p>
+   * Unless the settings request {@link JacobianUpdate#FULL}, the estimator uses a
+   * {@link JacobianReuseBatchLSModel}, which skips the variational equations on some iterations.
+   * When the settings provide a solver executor, the Gauss-Newton steps are solved by a
+   * {@link TallSkinnyQrDecomposer} instead of Hipparchus' QR decomposition.
+   *
+   * @param propagatorBuilder The propagator builder to use.
+   * @param measurements      The list of measurements to use.
+   * @param settings          The OD settings.
+   * @param observers         Additional observers notified after each evaluation.
+   * @return The configured {@link BatchLSEstimator} object to use.
+   * @see #createBatchLsEstimator(OrbitDeterminationPropagatorBuilder, List, OdEpochStrategy,
+   * BatchLSObserver...)
+   */
+  public static BatchLSEstimator createBatchLsEstimator(
+      OrbitDeterminationPropagatorBuilder propagatorBuilder,
+      List<ObservedMeasurement<?>> measurements, OdSettings settings,
+      BatchLSObserver... observers) {
+
+    OdEpochStrategy epochStrategy = settings.getEpochStrategy();
+    EstimatorSetupEvent setupEvent = new EstimatorSetupEvent(measurements.size(), epochStrategy,
+        String.valueOf(settings.getJacobianUpdate()));
+    setupEvent.begin();
+
+    moveToOdEpoch(propagatorBuilder, measurements, epochStrategy);
+
+    if (settings.getJacobianUpdate() != JacobianUpdate.FULL) {
+      propagatorBuilder = new ModelOverridingPropagatorBuilder(propagatorBuilder,
+          JacobianReuseBatchLSModel.factory(settings.getJacobianUpdate(), CONVERGENCE_THRESHOLD));
+    }
+
+    MatrixDecomposer decomposer = settings.getSolverExecutor() == null
+        ? new QRDecomposer(SINGULARITY_THRESHOLD)
+        : new TallSkinnyQrDecomposer(SINGULARITY_THRESHOLD, settings.getSolverExecutor());
+    GaussNewtonOptimizer optimizer = new GaussNewtonOptimizer(decomposer, false);
     BatchLSEstimator estimator = new BatchLSEstimator(optimizer, propagatorBuilder);
 
     estimator.setParametersConvergenceThreshold(CONVERGENCE_THRESHOLD);
@@ -49,17 +118,102 @@ public class EstimatorFactory {
     estimator.setMaxEvaluations(MAX_ITERATIONS);
 
     for (ObservedMeasurement<?> measurement : measurements) {
-      estimator.addMeasurement(measurement);
+      estimator.addMeasurement(settings.isFastAngularMeasurements()
+          ? FastAngularRaDec.convert(measurement) : measurement);
     }
 
     // Note: the observer is used for obtaining results for each evaluation of the estimator.
     Orbit initialOrbit = propagatorBuilder.buildPropagator(
         propagatorBuilder.getSelectedNormalizedParameters()).getInitialState().getOrbit();
-    estimator.setObserver(new OrbitDeterminationObserver(initialOrbit, estimator));
+    BatchLSObserver[] allObservers = new BatchLSObserver[observers.length + 2];
+    allObservers[0] = new OrbitDeterminationObserver(initialOrbit, estimator);
+    allObservers[1] = new IterationEventObserver();
+    System.arraycopy(observers, 0, allObservers, 2, observers.length);
+    estimator.setObserver(new CompositeObserver(allObservers));
 
+    setupEvent.commit();
     return estimator;
   }
 
+  /**
+   * Creates an estimator accumulating the normal equations measurement by measurement instead of
+   * keeping the full Jacobian, for large measurement sets. The OD epoch, convergence criteria and
+   * solver match {@link #createBatchLsEstimator(OrbitDeterminationPropagatorBuilder, List,
+   * OdSettings, BatchLSObserver...)}; the Jacobian update setting is ignored.
+   *
+   * @param propagatorBuilder The propagator builder to use.
+   * @param measurements      The list of measurements to use.
+   * @param settings          The OD settings.
+   * @param observers         Additional observers notified after each evaluation.
+   * @return The configured {@link StreamingBatchLSEstimator} object to use.
+   */
+  public static StreamingBatchLSEstimator createStreamingEstimator(
+      OrbitDeterminationPropagatorBuilder propagatorBuilder,
+      List<ObservedMeasurement<?>> measurements, OdSettings settings,
+      BatchLSObserver... observers) {
+
+    OdEpochStrategy epochStrategy = settings.getEpochStrategy();
+    EstimatorSetupEvent setupEvent = new EstimatorSetupEvent(measurements.size(), epochStrategy,
+        "STREAMED");
+    setupEvent.begin();
+
+    moveToOdEpoch(propagatorBuilder, measurements, epochStrategy);
+
+    Orbit initialOrbit = propagatorBuilder.buildPropagator(
+        propagatorBuilder.getSelectedNormalizedParameters()).getInitialState().getOrbit();
+    ParameterDriversList orbitalParameters = new ParameterDriversList();
+    for (ParameterDriver driver : propagatorBuilder.getOrbitalParametersDrivers().getDrivers()) {
+      if (driver.isSelected()) {
+        orbitalParameters.add(driver);
+      }
+    }
+    BatchLSObserver[] allObservers = new BatchLSObserver[observers.length + 2];
+    allObservers[0] = new OrbitDeterminationObserver(initialOrbit, orbitalParameters,
+        new ParameterDriversList(), new ParameterDriversList());
+    allObservers[1] = new IterationEventObserver();
+    System.arraycopy(observers, 0, allObservers, 2, observers.length);
+    List<ObservedMeasurement<?>> estimatedMeasurements = measurements;
+    if (settings.isFastAngularMeasurements()) {
+      estimatedMeasurements = new ArrayList<>(measurements.size());
+      for (ObservedMeasurement<?> measurement : measurements) {
+        estimatedMeasurements.add(FastAngularRaDec.convert(measurement));
+      }
+    }
+    StreamingBatchLSEstimator estimator = new StreamingBatchLSEstimator(propagatorBuilder,
+        estimatedMeasurements, CONVERGENCE_THRESHOLD, MAX_ITERATIONS, SINGULARITY_THRESHOLD,
+        allObservers);
+
+    setupEvent.commit();
+    return estimator;
+  }
+
+  /**
+   * Creates an observer stopping an estimation created by this factory when the budget of the
+   * settings expires or when it diverges. The time budget starts when the observer is created. The
+   * evaluation budget never exceeds the iterations limit of the estimators, so that an estimation
+   * reaching that limit returns its best solution instead of failing.
+   *
+   * @param settings The OD settings.
+   * @return The observer to pass to the estimator.
+   */
+  public static AnytimeObserver createAnytimeObserver(OdSettings settings) {
+    int evaluationBudget = settings.getEvaluationBudget() > 0
+        ? Math.min(settings.getEvaluationBudget(), MAX_ITERATIONS) : MAX_ITERATIONS;
+    return new AnytimeObserver(settings.getTimeBudget(), evaluationBudget,
+        settings.getDivergenceEvaluations(), CONVERGENCE_THRESHOLD);
+  }
+
+  private static void moveToOdEpoch(OrbitDeterminationPropagatorBuilder builder,
+      List<ObservedMeasurement<?>> measurements, OdEpochStrategy epochStrategy) {
+    measurements.sort(Comparator.comparing(TimeStamped::getDate));
+    AbsoluteDate odEpoch = epochStrategy.selectEpoch(builder.getInitialOrbitDate(), measurements);
+    if (epochStrategy == OdEpochStrategy.LAST_MEASUREMENT) {
+      shiftToOdEpoch(builder, odEpoch);
+    } else {
+      shiftToOdEpochAnalytically(builder, odEpoch);
+    }
+  }
+
   private static void shiftToOdEpoch(OrbitDeterminationPropagatorBuilder builder, AbsoluteDate odEpoch) {
     Propagator propagator = builder.buildPropagator(
         builder.getSelectedNormalizedParameters());
@@ -69,4 +223,13 @@ public class EstimatorFactory {
     }
   }
 
+  private static void shiftToOdEpochAnalytically(OrbitDeterminationPropagatorBuilder builder,
+      AbsoluteDate odEpoch) {
+    Orbit orbit = builder.buildPropagator(builder.getSelectedNormalizedParameters())
+        .getInitialState().getOrbit();
+    if (!orbit.getDate().isEqualTo(odEpoch)) {
+      builder.resetOrbit(orbit.shiftedBy(odEpoch.durationFrom(orbit.getDate())));
+    }
+  }
+
 }
@@ -0,0 +1,65 @@
+package org.cohere.od.utils;
+
+import lombok.Value;
+
+/**
+ * The set of force models used to build a numerical propagator.
+ */
+@Value
+public class ForceModelProfile {
+
+  /**
+   * The historical default: 21x21 gravity, Sun and Moon point-mass gravity and SRP.
+   */
+  public static final ForceModelProfile FULL = new ForceModelProfile(21, 21, true, true, true);
+
+  /**
+   * Approximate cost of a third body acceleration (ephemeris lookup and frame transform),
+   * expressed in spherical harmonic terms.
+   */
+  private static final double THIRD_BODY_COST = 30.0;
+  /**
+   * Approximate cost of a solar radiation pressure acceleration (Sun position and eclipse test),
+   * expressed in spherical harmonic terms.
+   */
+  private static final double SRP_COST = 40.0;
+
+  int gravityDegree;
+  int gravityOrder;
+  boolean sunAttraction;
+  boolean moonAttraction;
+  boolean solarRadiationPressure;
+
+  /**
+   * Estimates the cost of one acceleration evaluation with this profile, in units of spherical
+   * harmonic terms. Only meaningful relative to other profiles.
+   *
+   * @return The expected evaluation cost.
+   */
+  public double getExpectedCost() {
+    double cost = 0.0;
+    for (int n = 0; n <= gravityDegree; n++) {
+      cost += Math.min(n, gravityOrder) + 1;
+    }
+    if (sunAttraction) {
+      cost += THIRD_BODY_COST;
+    }
+    if (moonAttraction) {
+      cost += THIRD_BODY_COST;
+    }
+    if (solarRadiationPressure) {
+      cost += SRP_COST;
+    }
+    return cost;
+  }
+
+  /**
+   * Returns the expected cost of this profile relative to {@link #FULL}.
+   *
+   * @return The expected relative evaluation cost.
+   */
+  public double getExpectedRelativeCost() {
+    return getExpectedCost() / FULL.getExpectedCost();
+  }
+
+}
@@ -0,0 +1,23 @@
+package org.cohere.od.utils;
+
+/**
+ * Strategies for computing the measurement Jacobian across least-squares iterations.
+ */
+public enum JacobianUpdate {
+
+  /**
+   * Recompute the full Jacobian with variational equations at every evaluation. This is the
+   * historical default.
+   */
+  FULL,
+
+  /**
+   * Reuse the last fully computed Jacobian until convergence stalls.
+   */
+  FROZEN,
+
+  /**
+   * Apply a Broyden rank-one update to the last Jacobian until convergence stalls.
+   */
+  BROYDEN
+}
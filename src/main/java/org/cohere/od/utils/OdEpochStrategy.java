@@ -0,0 +1,62 @@
+package org.cohere.od.utils;
+
+import java.util.List;
+import org.orekit.estimation.measurements.ObservedMeasurement;
+import org.orekit.time.AbsoluteDate;
+
+/**
+ * Strategies for selecting the epoch at which a batch least-squares OD estimates the state.
+ * <p>
+ * Every least-squares evaluation integrates from the estimation epoch to each measurement, so the
+ * estimation epoch drives the integration span of every iteration. An epoch in the middle of the
+ * measurement span roughly halves that span compared to either end.
+ */
+public enum OdEpochStrategy {
+
+  /**
+   * Estimate at the epoch of the initial state. No shift of the initial guess is needed.
+   */
+  INITIAL_STATE,
+
+  /**
+   * Estimate at the epoch of the earliest measurement.
+   */
+  FIRST_MEASUREMENT,
+
+  /**
+   * Estimate at the midpoint between the earliest and latest measurements.
+   */
+  MID_SPAN,
+
+  /**
+   * Estimate at the epoch of the latest measurement. This is the historical default.
+   */
+  LAST_MEASUREMENT;
+
+  /**
+   * Selects the estimation epoch.
+   *
+   * @param initialEpoch The epoch of the initial state.
+   * @param measurements The measurements, sorted by date.
+   * @return The estimation epoch.
+   */
+  public AbsoluteDate selectEpoch(AbsoluteDate initialEpoch,
+      List<ObservedMeasurement<?>> measurements) {
+
+    AbsoluteDate first = measurements.get(0).getDate();
+    AbsoluteDate last = measurements.get(measurements.size() - 1).getDate();
+
+    switch (this) {
+      case INITIAL_STATE:
+        return initialEpoch;
+      case FIRST_MEASUREMENT:
+        return first;
+      case MID_SPAN:
+        return first.shiftedBy(0.5 * last.durationFrom(first));
+      case LAST_MEASUREMENT:
+      default:
+        return last;
+    }
+  }
+
+}
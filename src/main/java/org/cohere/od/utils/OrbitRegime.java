@@ -0,0 +1,72 @@
+package org.cohere.od.utils;
+
+import org.orekit.orbits.KeplerianOrbit;
+import org.orekit.orbits.Orbit;
+import org.orekit.orbits.OrbitType;
+import org.orekit.utils.Constants;
+
+/**
+ * Orbit regimes, each with the force model profile used for objects in that regime.
+ * <p>
+ * The contribution of a degree n harmonic scales with (Re/r)^n, so far from the Earth a low degree
+ * field is indistinguishable from the full field at OD accuracy, while the Sun and Moon matter more.
+ */
+public enum OrbitRegime {
+
+  LEO(ForceModelProfile.FULL),
+  MEO(new ForceModelProfile(8, 8, true, true, true)),
+  GEO(new ForceModelProfile(4, 4, true, true, true)),
+  HEO(new ForceModelProfile(12, 12, true, true, true));
+
+  /**
+   * Eccentricity above which an orbit is considered highly elliptical.
+   */
+  private static final double HEO_MIN_ECCENTRICITY = 0.25;
+  /**
+   * Perigee altitude below which an orbit is considered LEO, in meters.
+   */
+  private static final double LEO_MAX_PERIGEE_ALTITUDE = 2.0e6;
+  /**
+   * Semi-major axis above which an orbit is considered GEO (GEO radius less 2000 km), in meters.
+   */
+  private static final double GEO_MIN_SEMI_MAJOR_AXIS = 4.0164e7;
+
+  private final ForceModelProfile profile;
+
+  OrbitRegime(ForceModelProfile profile) {
+    this.profile = profile;
+  }
+
+  /**
+   * Classifies an orbit.
+   *
+   * @param orbit The orbit to classify.
+   * @return The regime of the orbit.
+   */
+  public static OrbitRegime classify(Orbit orbit) {
+
+    KeplerianOrbit keplerian = (KeplerianOrbit) OrbitType.KEPLERIAN.convertType(orbit);
+    double a = keplerian.getA();
+    double e = keplerian.getE();
+    double perigeeAltitude = a * (1.0 - e) - Constants.IERS2010_EARTH_EQUATORIAL_RADIUS;
+
+    if (e >= HEO_MIN_ECCENTRICITY) {
+      return HEO;
+    } else if (perigeeAltitude < LEO_MAX_PERIGEE_ALTITUDE) {
+      return LEO;
+    } else if (a >= GEO_MIN_SEMI_MAJOR_AXIS) {
+      return GEO;
+    }
+    return MEO;
+  }
+
+  /**
+   * Gets the force model profile for this regime.
+   *
+   * @return The force model profile.
+   */
+  public ForceModelProfile getProfile() {
+    return profile;
+  }
+
+}
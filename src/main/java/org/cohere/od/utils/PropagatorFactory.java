@@ -1,5 +1,14 @@
 package org.cohere.od.utils;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Supplier;
+import lombok.NonNull;
+import lombok.extern.log4j.Log4j2;
+import org.cohere.od.cache.GeometryCache;
+import org.cohere.od.cache.SharedDataContext;
+import org.cohere.od.models.ForceModelCostReport;
 import org.orekit.attitudes.InertialProvider;
 import org.orekit.bodies.CelestialBody;
 import org.orekit.bodies.CelestialBodyFactory;
@@ -10,17 +19,21 @@ import org.orekit.forces.gravity.potential.GravityFieldFactory;
 import org.orekit.forces.gravity.potential.NormalizedSphericalHarmonicsProvider;
 import org.orekit.forces.radiation.IsotropicRadiationSingleCoefficient;
 import org.orekit.forces.radiation.SolarRadiationPressure;
+import org.orekit.frames.Frame;
+import org.orekit.orbits.OrbitType;
 import org.orekit.orbits.PositionAngle;
+import org.orekit.propagation.Propagator;
 import org.orekit.propagation.SpacecraftState;
 import org.orekit.propagation.conversion.DormandPrince853IntegratorBuilder;
 import org.orekit.propagation.conversion.NumericalPropagatorBuilder;
 import org.orekit.propagation.conversion.ODEIntegratorBuilder;
+import org.orekit.propagation.numerical.NumericalPropagator;
+import org.orekit.time.AbsoluteDate;
 import org.orekit.utils.Constants;
 
+@Log4j2
 public class PropagatorFactory {
 
-  private static final int GRAVITY_FIELD_DEGREE = 21;
-  private static final int GRAVITY_FIELD_ORDER = 21;
   private static final double MAX_INTEGRATOR_STEP = 300.0;
   private static final double MIN_INTEGRATOR_STEP = 0.001;
   private static final double POSITION_ERROR = 10.0;
@@ -46,24 +59,159 @@ public class PropagatorFactory {
    */
   public static NumericalPropagatorBuilder createDefaultPropagatorBuilder(
       SpacecraftState initialState, ODEIntegratorBuilder integratorBuilder) {
+    return createPropagatorBuilder(initialState, ForceModelProfile.FULL, integratorBuilder);
+  }
 
-    NumericalPropagatorBuilder builder = new NumericalPropagatorBuilder(initialState.getOrbit(),
-        integratorBuilder, PositionAngle.MEAN, 1.0);
+  public static NumericalPropagatorBuilder createDefaultPropagatorBuilder(
+      SpacecraftState initialState) {
+    return createDefaultPropagatorBuilder(initialState,
+        createIntegratorBuilder(MIN_INTEGRATOR_STEP, MAX_INTEGRATOR_STEP, POSITION_ERROR));
+  }
 
-    NormalizedSphericalHarmonicsProvider gravityField = GravityFieldFactory.getNormalizedProvider(
-        GRAVITY_FIELD_DEGREE, GRAVITY_FIELD_ORDER);
-    HolmesFeatherstoneAttractionModel gravityModel = new HolmesFeatherstoneAttractionModel(
-        AstroUtils.EARTH.getBodyFrame(), gravityField);
+  /**
+   * Creates a {@link NumericalPropagatorBuilder} with the force models of the
+   * {@link OrbitRegime} of the initial orbit.
+   *
+   * @param initialState The initial spacecraft state.
+   * @return The configured {@link NumericalPropagatorBuilder} to use.
+   */
+  public static NumericalPropagatorBuilder createRegimePropagatorBuilder(
+      SpacecraftState initialState) {
+    return createRegimePropagatorBuilder(initialState, (GeometryCache) null);
+  }
+
+  /**
+   * Creates a {@link NumericalPropagatorBuilder} with the force models of the
+   * {@link OrbitRegime} of the initial orbit.
+   *
+   * @param initialState  The initial spacecraft state.
+   * @param geometryCache The cache of the Sun, Moon and Earth orientation used by the force models,
+   *                      or null to compute them directly.
+   * @return The configured {@link NumericalPropagatorBuilder} to use.
+   */
+  public static NumericalPropagatorBuilder createRegimePropagatorBuilder(
+      SpacecraftState initialState, GeometryCache geometryCache) {
+    OrbitRegime regime = OrbitRegime.classify(initialState.getOrbit());
+    log.debug("Using {} force model profile: {}", regime, regime.getProfile());
+    return createPropagatorBuilder(initialState, regime.getProfile(),
+        createIntegratorBuilder(MIN_INTEGRATOR_STEP, MAX_INTEGRATOR_STEP, POSITION_ERROR),
+        geometryCache);
+  }
+
+  /**
+   * Creates a {@link NumericalPropagatorBuilder} with the default force models, see
+   * {@link #createDefaultPropagatorBuilder(SpacecraftState, ODEIntegratorBuilder)}.
+   *
+   * @param initialState  The initial spacecraft state.
+   * @param geometryCache The cache of the Sun, Moon and Earth orientation used by the force models,
+   *                      or null to compute them directly.
+   * @return The configured {@link NumericalPropagatorBuilder} to use.
+   */
+  public static NumericalPropagatorBuilder createDefaultPropagatorBuilder(
+      SpacecraftState initialState, GeometryCache geometryCache) {
+    return createPropagatorBuilder(initialState, ForceModelProfile.FULL,
+        createIntegratorBuilder(MIN_INTEGRATOR_STEP, MAX_INTEGRATOR_STEP, POSITION_ERROR),
+        geometryCache);
+  }
+
+  /**
+   * Creates a {@link NumericalPropagatorBuilder} with the force models of the
+   * {@link OrbitRegime} of the initial orbit, built from shared data.
+   *
+   * @param initialState The initial spacecraft state.
+   * @param dataContext  The shared data of the force models.
+   * @return The configured {@link NumericalPropagatorBuilder} to use.
+   */
+  public static NumericalPropagatorBuilder createRegimePropagatorBuilder(
+      SpacecraftState initialState, @NonNull SharedDataContext dataContext) {
+    OrbitRegime regime = OrbitRegime.classify(initialState.getOrbit());
+    log.debug("Using {} force model profile: {}", regime, regime.getProfile());
+    return createPropagatorBuilder(initialState, regime.getProfile(),
+        createIntegratorBuilder(MIN_INTEGRATOR_STEP, MAX_INTEGRATOR_STEP, POSITION_ERROR),
+        dataContext);
+  }
+
+  /**
+   * Creates a {@link NumericalPropagatorBuilder} with the default force models built from shared
+   * data, see {@link #createDefaultPropagatorBuilder(SpacecraftState, ODEIntegratorBuilder)}.
+   *
+   * @param initialState The initial spacecraft state.
+   * @param dataContext  The shared data of the force models.
+   * @return The configured {@link NumericalPropagatorBuilder} to use.
+   */
+  public static NumericalPropagatorBuilder createDefaultPropagatorBuilder(
+      SpacecraftState initialState, @NonNull SharedDataContext dataContext) {
+    return createPropagatorBuilder(initialState, ForceModelProfile.FULL,
+        createIntegratorBuilder(MIN_INTEGRATOR_STEP, MAX_INTEGRATOR_STEP, POSITION_ERROR),
+        dataContext);
+  }
+
+  /**
+   * Creates a {@link NumericalPropagatorBuilder} with the force models of the given profile.
+   *
+   * @param initialState      The initial spacecraft state.
+   * @param profile           The force models to use.
+   * @param integratorBuilder The integrator builder to use.
+   * @return The configured {@link NumericalPropagatorBuilder} to use.
+   */
+  public static NumericalPropagatorBuilder createPropagatorBuilder(SpacecraftState initialState,
+      ForceModelProfile profile, ODEIntegratorBuilder integratorBuilder) {
+    return createPropagatorBuilder(initialState, profile, integratorBuilder,
+        (GeometryCache) null);
+  }
+
+  /**
+   * Creates a {@link NumericalPropagatorBuilder} with the force models of the given profile.
+   *
+   * @param initialState      The initial spacecraft state.
+   * @param profile           The force models to use.
+   * @param integratorBuilder The integrator builder to use.
+   * @param geometryCache     The cache of the Sun, Moon and Earth orientation used by the force
+   *                          models, or null to compute them directly.
+   * @return The configured {@link NumericalPropagatorBuilder} to use.
+   */
+  public static NumericalPropagatorBuilder createPropagatorBuilder(SpacecraftState initialState,
+      ForceModelProfile profile, ODEIntegratorBuilder integratorBuilder,
+      GeometryCache geometryCache) {
+
+    return createPropagatorBuilder(initialState, createForceModels(profile, geometryCache),
+        integratorBuilder);
+  }
+
+  /**
+   * Creates a {@link NumericalPropagatorBuilder} with the force models of the given profile, built
+   * from shared data.
+   *
+   * @param initialState      The initial spacecraft state.
+   * @param profile           The force models to use.
+   * @param integratorBuilder The integrator builder to use.
+   * @param dataContext       The shared data of the force models.
+   * @return The configured {@link NumericalPropagatorBuilder} to use.
+   */
+  public static NumericalPropagatorBuilder createPropagatorBuilder(SpacecraftState initialState,
+      ForceModelProfile profile, ODEIntegratorBuilder integratorBuilder,
+      @NonNull SharedDataContext dataContext) {
+
+    return createPropagatorBuilder(initialState, createForceModels(profile, dataContext),
+        integratorBuilder);
+  }
+
+  /**
+   * Creates a {@link NumericalPropagatorBuilder} with the given force models, such as those of
+   * {@link #createForceModels(ForceModelProfile)} wrapped for instrumentation.
+   *
+   * @param initialState      The initial spacecraft state.
+   * @param forceModels       The force models, without central attraction.
+   * @param integratorBuilder The integrator builder to use.
+   * @return The configured {@link NumericalPropagatorBuilder} to use.
+   */
+  public static NumericalPropagatorBuilder createPropagatorBuilder(SpacecraftState initialState,
+      List<ForceModel> forceModels, ODEIntegratorBuilder integratorBuilder) {
 
-    CelestialBody sun = CelestialBodyFactory.getSun();
-    ForceModel srpModel = new SolarRadiationPressure(sun,
-        Constants.IERS2010_EARTH_EQUATORIAL_RADIUS,
-        new IsotropicRadiationSingleCoefficient(SRP_AREA, SRP_COEFFICIENT));
+    NumericalPropagatorBuilder builder = new NumericalPropagatorBuilder(initialState.getOrbit(),
+        integratorBuilder, PositionAngle.MEAN, 1.0);
 
-    builder.addForceModel(new ThirdBodyAttraction(CelestialBodyFactory.getMoon()));
-    builder.addForceModel(new ThirdBodyAttraction(sun));
-    builder.addForceModel(gravityModel);
-    builder.addForceModel(srpModel);
+    forceModels.forEach(builder::addForceModel);
 
     builder.setAttitudeProvider(new InertialProvider(initialState.getFrame()));
     builder.setMass(initialState.getMass());
@@ -72,10 +220,141 @@ public class PropagatorFactory {
     return builder;
   }
 
-  public static NumericalPropagatorBuilder createDefaultPropagatorBuilder(
-      SpacecraftState initialState) {
-    return createDefaultPropagatorBuilder(initialState,
-        createIntegratorBuilder(MIN_INTEGRATOR_STEP, MAX_INTEGRATOR_STEP, POSITION_ERROR));
+  /**
+   * Creates the force models of the given profile, except the central attraction which each
+   * propagator sets up from its own gravitational parameter.
+   * <p>
+   * The force models are only read during propagation, so they can be shared by propagators
+   * running concurrently.
+   *
+   * @param profile The force models to create.
+   * @return The force models.
+   */
+  public static List<ForceModel> createForceModels(ForceModelProfile profile) {
+    return createForceModels(profile, (GeometryCache) null);
+  }
+
+  /**
+   * Creates the force models of the given profile, except the central attraction, see
+   * {@link #createForceModels(ForceModelProfile)}.
+   *
+   * @param profile       The force models to create.
+   * @param geometryCache The cache of the Sun, Moon and Earth orientation used by the force models,
+   *                      or null to compute them directly.
+   * @return The force models.
+   */
+  public static List<ForceModel> createForceModels(ForceModelProfile profile,
+      GeometryCache geometryCache) {
+
+    return createForceModels(profile, GravityFieldFactory.getNormalizedProvider(
+            profile.getGravityDegree(), profile.getGravityOrder()),
+        geometryCache == null ? AstroUtils.EARTH.getBodyFrame()
+            : geometryCache.getEarth().getBodyFrame(),
+        geometryCache == null ? CelestialBodyFactory::getSun : geometryCache::getSun,
+        geometryCache == null ? CelestialBodyFactory::getMoon : geometryCache::getMoon);
+  }
+
+  /**
+   * Creates the force models of the given profile, except the central attraction, see
+   * {@link #createForceModels(ForceModelProfile)}. The gravity field, the Earth orientation and the
+   * Sun and Moon are the shared ones of the data context, so no global factory is involved.
+   *
+   * @param profile     The force models to create.
+   * @param dataContext The shared data of the force models.
+   * @return The force models.
+   */
+  public static List<ForceModel> createForceModels(ForceModelProfile profile,
+      @NonNull SharedDataContext dataContext) {
+
+    return createForceModels(profile,
+        dataContext.getGravityField(profile.getGravityDegree(), profile.getGravityOrder()),
+        dataContext.getEarth().getBodyFrame(), dataContext::getSun, dataContext::getMoon);
+  }
+
+  private static List<ForceModel> createForceModels(ForceModelProfile profile,
+      NormalizedSphericalHarmonicsProvider gravityField, Frame earthFrame,
+      Supplier<CelestialBody> sunSupplier, Supplier<CelestialBody> moonSupplier) {
+
+    List<ForceModel> forceModels = new ArrayList<>();
+    HolmesFeatherstoneAttractionModel gravityModel = new HolmesFeatherstoneAttractionModel(
+        earthFrame, gravityField);
+
+    if (profile.isMoonAttraction()) {
+      forceModels.add(new ThirdBodyAttraction(moonSupplier.get()));
+    }
+    CelestialBody sun = null;
+    if (profile.isSunAttraction() || profile.isSolarRadiationPressure()) {
+      sun = sunSupplier.get();
+    }
+    if (profile.isSunAttraction()) {
+      forceModels.add(new ThirdBodyAttraction(sun));
+    }
+    forceModels.add(gravityModel);
+    if (profile.isSolarRadiationPressure()) {
+      forceModels.add(new SolarRadiationPressure(sun,
+          Constants.IERS2010_EARTH_EQUATORIAL_RADIUS,
+          new IsotropicRadiationSingleCoefficient(SRP_AREA, SRP_COEFFICIENT)));
+    }
+    return forceModels;
+  }
+
+  /**
+   * Creates a Cartesian {@link NumericalPropagator} using force models shared with other
+   * propagators, see {@link #createForceModels(ForceModelProfile)}. The propagator owns its
+   * integrator and central attraction.
+   *
+   * @param initialState      The initial spacecraft state.
+   * @param forceModels       The shared force models, without central attraction.
+   * @param integratorBuilder The integrator builder to use.
+   * @return The propagator.
+   */
+  public static NumericalPropagator createPropagator(SpacecraftState initialState,
+      List<ForceModel> forceModels, ODEIntegratorBuilder integratorBuilder) {
+
+    NumericalPropagator propagator = new NumericalPropagator(
+        integratorBuilder.buildIntegrator(initialState.getOrbit(), OrbitType.CARTESIAN),
+        new InertialProvider(initialState.getFrame()));
+    propagator.setOrbitType(OrbitType.CARTESIAN);
+    propagator.setMu(initialState.getMu());
+    forceModels.forEach(propagator::addForceModel);
+    propagator.setInitialState(initialState);
+    return propagator;
+  }
+
+  /**
+   * Measures the cost of the regime force model profile of an orbit against the full profile, by
+   * timing a propagation of each over the given duration.
+   *
+   * @param initialState The initial spacecraft state.
+   * @param duration     The propagation duration in seconds.
+   * @return The expected and measured relative cost of the regime profile.
+   */
+  public static ForceModelCostReport measureRegimeCost(SpacecraftState initialState,
+      double duration) {
+
+    OrbitRegime regime = OrbitRegime.classify(initialState.getOrbit());
+    ODEIntegratorBuilder integratorBuilder = createIntegratorBuilder(MIN_INTEGRATOR_STEP,
+        MAX_INTEGRATOR_STEP, POSITION_ERROR);
+    long fullNanos = timePropagation(
+        createPropagatorBuilder(initialState, ForceModelProfile.FULL, integratorBuilder),
+        duration);
+    long regimeNanos = timePropagation(
+        createPropagatorBuilder(initialState, regime.getProfile(), integratorBuilder), duration);
+
+    ForceModelCostReport report = new ForceModelCostReport(regime, regime.getProfile(),
+        regime.getProfile().getExpectedRelativeCost(), (double) regimeNanos / fullNanos);
+    log.info("{} force model cost relative to full model: expected {}, measured {}", regime,
+        String.format(Locale.US, "%.3f", report.getExpectedRelativeCost()),
+        String.format(Locale.US, "%.3f", report.getMeasuredRelativeCost()));
+    return report;
+  }
+
+  private static long timePropagation(NumericalPropagatorBuilder builder, double duration) {
+    Propagator propagator = builder.buildPropagator(builder.getSelectedNormalizedParameters());
+    AbsoluteDate target = propagator.getInitialState().getDate().shiftedBy(duration);
+    long start = System.nanoTime();
+    propagator.propagate(target);
+    return System.nanoTime() - start;
   }
 
   public static ODEIntegratorBuilder createIntegratorBuilder(double minStep, double maxStep,
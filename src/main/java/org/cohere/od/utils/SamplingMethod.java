@@ -0,0 +1,18 @@
+package org.cohere.od.utils;
+
+/**
+ * Methods for drawing the samples of a nonlinear uncertainty propagation from a covariance.
+ */
+public enum SamplingMethod {
+
+  /**
+   * The 2n+1 sigma points of the scaled unscented transform. The statistics are the weighted sums of
+   * the unscented transform.
+   */
+  SIGMA_POINTS,
+
+  /**
+   * Random Gaussian samples. The statistics are the sample mean and the unbiased sample covariance.
+   */
+  MONTE_CARLO
+}
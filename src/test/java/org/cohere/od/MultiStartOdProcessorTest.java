@@ -0,0 +1,84 @@
+package org.cohere.od;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.cohere.od.models.MultiStartResult;
+import org.cohere.od.models.MultiStartResult.Status;
+import org.cohere.od.models.MultiStartSettings;
+import org.cohere.od.models.OdSettings;
+import org.cohere.od.models.StateAndCovariance;
+import org.cohere.od.utils.TestFixtures;
+import org.hipparchus.geometry.euclidean.threed.Vector3D;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.orekit.estimation.measurements.ObservedMeasurement;
+import org.orekit.propagation.SpacecraftState;
+
+/**
+ * Unit tests for the {@link MultiStartOdProcessor}.
+ */
+class MultiStartOdProcessorTest {
+
+  private static ExecutorService executor = null;
+
+  @BeforeAll
+  public static void initialize() {
+    TestFixtures.initializeOrekit();
+    executor = Executors.newFixedThreadPool(4);
+  }
+
+  @AfterAll
+  public static void shutdown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  void testCreateHypothesesIsReproducible() {
+
+    MultiStartSettings settings = MultiStartSettings.builder().hypothesisCount(5).seed(42L).build();
+    SpacecraftState initialState = TestFixtures.createInitialStateAf3();
+    List<SpacecraftState> first = new MultiStartOdProcessor(OdSettings.DEFAULT, settings, executor)
+        .createHypotheses(initialState);
+    List<SpacecraftState> second = new MultiStartOdProcessor(OdSettings.DEFAULT, settings, executor)
+        .createHypotheses(initialState);
+
+    Assertions.assertEquals(5, first.size());
+    Assertions.assertSame(initialState, first.get(0));
+    for (int i = 1; i < first.size(); i++) {
+      Vector3D p1 = first.get(i).getPVCoordinates().getPosition();
+      Vector3D p2 = second.get(i).getPVCoordinates().getPosition();
+      Assertions.assertEquals(0.0, Vector3D.distance(p1, p2), 0.0);
+      Assertions.assertTrue(Vector3D.distance(initialState.getPVCoordinates().getPosition(), p1)
+          > 0.0);
+    }
+  }
+
+  @Test
+  void testProcessOifMeasurementsAf3() throws IOException {
+
+    SpacecraftState initialState = TestFixtures.createInitialStateAf3();
+    double sigma = Math.toRadians(0.005);
+    List<ObservedMeasurement<?>> measurements = TestFixtures.readOifMeasurements(
+        TestFixtures.OIF_ROOT.resolve(Path.of("af3")), new double[]{sigma, sigma});
+
+    StateAndCovariance reference = new RaDecOdProcessor().processMeasurements(initialState,
+        measurements);
+    MultiStartResult result = new MultiStartOdProcessor(OdSettings.DEFAULT,
+        MultiStartSettings.DEFAULT, executor).processMultiStart(initialState, measurements);
+
+    Assertions.assertEquals(MultiStartSettings.DEFAULT.getHypothesisCount(),
+        result.getOutcomes().size());
+    Assertions.assertEquals(Status.CONVERGED,
+        result.getOutcomes().get(result.getHypothesisIndex()).getStatus());
+    Vector3D expected = reference.getState().getPVCoordinates().getPosition();
+    Vector3D actual = result.getSolution().getStateAndCovariance().getState().getPVCoordinates()
+        .getPosition();
+    Assertions.assertTrue(Vector3D.distance(expected, actual) < 100.0);
+  }
+
+}
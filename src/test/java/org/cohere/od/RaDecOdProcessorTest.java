@@ -12,11 +12,10 @@ import java.util.List;
 import lombok.extern.log4j.Log4j2;
 import org.cohere.od.generation.MeasurementGenerator;
 import org.cohere.od.models.StateAndCovariance;
-import org.cohere.od.oif.OifHelper;
-import org.cohere.od.oif.OifRaDecData;
-import org.cohere.od.utils.AstroUtils;
 import org.cohere.od.utils.NdmUtils;
+import org.cohere.od.utils.OdEpochStrategy;
 import org.cohere.od.utils.PropagatorFactory;
+import org.cohere.od.utils.TestFixtures;
 import org.cohere.od.utils.TestUtils;
 import org.hipparchus.geometry.euclidean.threed.Vector3D;
 import org.hipparchus.linear.MatrixUtils;
@@ -26,10 +25,7 @@ import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 import org.orekit.bodies.CelestialBodyFactory;
-import org.orekit.bodies.GeodeticPoint;
 import org.orekit.data.DataContext;
-import org.orekit.data.DataProvidersManager;
-import org.orekit.data.DirectoryCrawler;
 import org.orekit.estimation.measurements.GroundStation;
 import org.orekit.estimation.measurements.ObservedMeasurement;
 import org.orekit.files.ccsds.definitions.BodyFacade;
@@ -45,9 +41,6 @@ import org.orekit.files.ccsds.ndm.odm.opm.OpmData;
 import org.orekit.files.ccsds.utils.generation.Generator;
 import org.orekit.files.ccsds.utils.generation.KvnGenerator;
 import org.orekit.frames.FramesFactory;
-import org.orekit.frames.TopocentricFrame;
-import org.orekit.orbits.CartesianOrbit;
-import org.orekit.orbits.Orbit;
 import org.orekit.propagation.Propagator;
 import org.orekit.propagation.SpacecraftState;
 import org.orekit.propagation.conversion.OrbitDeterminationPropagatorBuilder;
@@ -69,18 +62,14 @@ class RaDecOdProcessorTest {
 
   private static final String AF3 = "AF3";
   private static final String CP1 = "CP1";
-  private static final double KM_TO_M = 1000.0;
   private static final String SA2 = "SA2";
-  private static final double SPACECRAFT_MASS = 500.0;
   private static final String TEST_OUTPUT_PATH = "test_output";
   private static final String TEST_RESOURCES_PATH = "src/test/resources";
   private static TimeScale UTC = null;
 
   @BeforeAll
   public static void initializeOrekit() {
-    File orekitData = new File("./orekit-data");
-    DataProvidersManager manager = DataContext.getDefault().getDataProvidersManager();
-    manager.addProvider(new DirectoryCrawler(orekitData));
+    TestFixtures.initializeOrekit();
     UTC = TimeScalesFactory.getUTC();
   }
 
@@ -210,65 +199,27 @@ class RaDecOdProcessorTest {
     testProcessMeasurements(SA2, false, expectedPv, expectedCovariance);
   }
 
-  private GroundStation createDiegoGarcia() {
-    TopocentricFrame gsFrame = new TopocentricFrame(AstroUtils.EARTH,
-        new GeodeticPoint(Math.toRadians(0.465765), Math.toRadians(73.2162), -94.1783),
-        "DiegoGarcia");
-    return new GroundStation(gsFrame);
-  }
-
-  private GroundStation createEglin() {
-    TopocentricFrame gsFrame = new TopocentricFrame(AstroUtils.EARTH,
-        new GeodeticPoint(Math.toRadians(30.476), Math.toRadians(-86.5857), -21.24), "Eglin");
-    return new GroundStation(gsFrame);
-  }
-
-  private SpacecraftState createInitialStateAf3() {
-    AbsoluteDate initialEpoch = new AbsoluteDate("2023-03-18T00:00:00.000", UTC);
-    Vector3D initialPosition = new Vector3D(-4.062348841462340e+04, -1.131092510063584e+04,
-        -1.074224879016023e+02).scalarMultiply(KM_TO_M);
-    Vector3D initialVelocity = new Vector3D(8.243020099302774e-01, -2.957143748313477e+00,
-        -1.692574154589104e-01).scalarMultiply(KM_TO_M);
-    TimeStampedPVCoordinates initialPv = new TimeStampedPVCoordinates(initialEpoch, initialPosition,
-        initialVelocity);
-
-    Orbit orbit = new CartesianOrbit(initialPv, FramesFactory.getGCRF(),
-        Constants.IERS2010_EARTH_MU);
-    return new SpacecraftState(orbit, SPACECRAFT_MASS);
-  }
+  @Test
+  void testProcessOifMeasurementsAf3MidSpan() throws IOException {
 
-  private SpacecraftState createInitialStateCp1() {
-    AbsoluteDate initialEpoch = new AbsoluteDate("2023-03-18T00:14:26.889000", UTC);
-    Vector3D initialPosition = new Vector3D(4.189974449058950e+04, -4.713177927901786e+03,
-        3.562232987686665e+02).scalarMultiply(KM_TO_M);
-    Vector3D initialVelocity = new Vector3D(3.433104066667355e-01, 3.055016180848359e+00,
-        5.550461291772908e-02).scalarMultiply(KM_TO_M);
-    TimeStampedPVCoordinates initialPv = new TimeStampedPVCoordinates(initialEpoch, initialPosition,
-        initialVelocity);
-
-    Orbit orbit = new CartesianOrbit(initialPv, FramesFactory.getGCRF(),
-        Constants.IERS2010_EARTH_MU);
-    return new SpacecraftState(orbit, SPACECRAFT_MASS);
-  }
+    SpacecraftState initialState = TestFixtures.createInitialStateAf3();
+    double sigma = Math.toRadians(0.005);
+    List<ObservedMeasurement<?>> measurements = TestFixtures.readOifMeasurements(
+        Path.of(TEST_RESOURCES_PATH, "oif", "af3"), new double[]{sigma, sigma});
 
-  private SpacecraftState createInitialStateSa2() {
-    AbsoluteDate initialEpoch = new AbsoluteDate("2023-03-18T00:12:14.305", UTC);
-    Vector3D initialPosition = new Vector3D(-1.824071309541569e+04, 3.801466820067245e+04,
-        3.508492406457166e+02).scalarMultiply(KM_TO_M);
-    Vector3D initialVelocity = new Vector3D(-2.771468115015459e+00, -1.330284523529563e+00,
-        5.610314702236215e-02).scalarMultiply(KM_TO_M);
-    TimeStampedPVCoordinates initialPv = new TimeStampedPVCoordinates(initialEpoch, initialPosition,
-        initialVelocity);
-
-    Orbit orbit = new CartesianOrbit(initialPv, FramesFactory.getGCRF(),
-        Constants.IERS2010_EARTH_MU);
-    return new SpacecraftState(orbit, SPACECRAFT_MASS);
-  }
-
-  private GroundStation createMaui() {
-    TopocentricFrame gsFrame = new TopocentricFrame(AstroUtils.EARTH,
-        new GeodeticPoint(Math.toRadians(20.6924), Math.toRadians(-156.309), 2119.62), "Maui");
-    return new GroundStation(gsFrame);
+    StateAndCovariance reference = new RaDecOdProcessor().processMeasurements(initialState,
+        measurements);
+    AbsoluteDate outputEpoch = reference.getState().getDate();
+    StateAndCovariance midSpan = new RaDecOdProcessor(OdEpochStrategy.MID_SPAN)
+        .processMeasurements(initialState, measurements, outputEpoch);
+
+    // The mid-span solution mapped to the final measurement must agree with the reference OD.
+    TimeStampedPVCoordinates expectedPv = reference.getState().getPVCoordinates();
+    TimeStampedPVCoordinates actualPv = midSpan.getState().getPVCoordinates();
+    Assertions.assertTrue(outputEpoch.isCloseTo(midSpan.getState().getDate(), 1e-9));
+    Assertions.assertTrue(outputEpoch.isCloseTo(midSpan.getCovariance().getDate(), 1e-9));
+    TestUtils.assertAreEqual(expectedPv.getPosition(), actualPv.getPosition(), 100.0);
+    TestUtils.assertAreEqual(expectedPv.getVelocity(), actualPv.getVelocity(), 0.01);
   }
 
   private List<ObservedMeasurement<?>> generateTestMeasurements(SpacecraftState initialState,
@@ -318,8 +269,8 @@ class RaDecOdProcessorTest {
 
     if (objectName.equalsIgnoreCase(CP1)) {
 
-      initialState = createInitialStateCp1();
-      groundStation = createMaui();
+      initialState = TestFixtures.createInitialStateCp1();
+      groundStation = TestFixtures.createMaui();
       double sigma = Math.toRadians(0.01);
       raDecSigmas = new double[]{sigma, sigma};
       objectId = "50013";
@@ -327,8 +278,8 @@ class RaDecOdProcessorTest {
 
     } else if (objectName.equalsIgnoreCase(SA2)) {
 
-      initialState = createInitialStateSa2();
-      groundStation = createEglin();
+      initialState = TestFixtures.createInitialStateSa2();
+      groundStation = TestFixtures.createEglin();
       double sigma = Math.toRadians(0.01);
       raDecSigmas = new double[]{sigma, sigma};
       objectId = "50036";
@@ -336,8 +287,8 @@ class RaDecOdProcessorTest {
 
     } else if (objectName.equalsIgnoreCase(AF3)) {
 
-      initialState = createInitialStateAf3();
-      groundStation = createDiegoGarcia();
+      initialState = TestFixtures.createInitialStateAf3();
+      groundStation = TestFixtures.createDiegoGarcia();
       double sigma = Math.toRadians(0.005);
       raDecSigmas = new double[]{sigma, sigma};
       objectId = "50008";
@@ -356,13 +307,7 @@ class RaDecOdProcessorTest {
 
     } else {
 
-      File[] oifFiles = oifRoot.toFile().listFiles((d, name) -> name.endsWith(".oif"));
-      Assertions.assertNotNull(oifFiles);
-      for (File oifFile : oifFiles) {
-        log.debug("Reading OIF file: {}", oifFile.toPath().toRealPath().toString());
-        List<OifRaDecData> raDecData = OifHelper.parseOifRaDecFile(oifFile.toPath());
-        measurements.addAll(OifHelper.convertOifData(raDecData, raDecSigmas));
-      }
+      measurements = TestFixtures.readOifMeasurements(oifRoot, raDecSigmas);
 
     }
 
@@ -0,0 +1,170 @@
+package org.cohere.od;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.cohere.od.models.GatedOdResult;
+import org.cohere.od.models.GatedOdResult.Decision;
+import org.cohere.od.models.ResidualGateMetrics;
+import org.cohere.od.models.ResidualGateSettings;
+import org.cohere.od.models.StateAndCovariance;
+import org.cohere.od.oif.OifHelper;
+import org.cohere.od.utils.TestFixtures;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.orekit.estimation.measurements.AngularRaDec;
+import org.orekit.estimation.measurements.ObservedMeasurement;
+import org.orekit.propagation.SpacecraftState;
+
+/**
+ * Unit tests for the {@link ResidualGatedOdProcessor}.
+ */
+class ResidualGatedOdProcessorTest {
+
+  // Loose enough to cover the unmodeled third-body and radiation pressure effects.
+  private static final double[] SIGMAS = new double[]{Math.toRadians(40.0 / 3600.0),
+      Math.toRadians(40.0 / 3600.0)};
+  private static final ResidualGateSettings SETTINGS = ResidualGateSettings.builder()
+      .forceModelProfile(TestFixtures.GRAVITY_ONLY)
+      .maxPositionSigma(50000.0)
+      .build();
+
+  private static List<ObservedMeasurement<?>> previousMeasurements = null;
+  private static List<ObservedMeasurement<?>> newMeasurements = null;
+  private static StateAndCovariance current = null;
+
+  @BeforeAll
+  public static void initialize() throws IOException {
+    TestFixtures.initializeOrekit();
+
+    // The last file is the new pass, the others the previous ones.
+    List<Path> files;
+    try (Stream<Path> paths = Files.list(TestFixtures.OIF_ROOT.resolve("af3"))) {
+      files = paths.filter(file -> file.getFileName().toString().endsWith(".oif"))
+          .sorted()
+          .collect(Collectors.toList());
+    }
+    previousMeasurements = new ArrayList<>();
+    for (Path file : files.subList(0, files.size() - 1)) {
+      previousMeasurements.addAll(read(file));
+    }
+    newMeasurements = read(files.get(files.size() - 1));
+    current = TestFixtures.estimateGravityOnly(TestFixtures.createInitialStateAf3(),
+        previousMeasurements);
+  }
+
+  @Test
+  void testConsistentPassKeepsCurrentOrbit() {
+
+    AtomicInteger odRuns = new AtomicInteger();
+    ResidualGatedOdProcessor processor = new ResidualGatedOdProcessor(SETTINGS,
+        countingProcessor(odRuns));
+
+    GatedOdResult result = processor.update(current, newMeasurements);
+
+    Assertions.assertEquals(Decision.CONSISTENT, result.getDecision(), result.toString());
+    Assertions.assertFalse(result.isOdRun());
+    Assertions.assertSame(current, result.getSolution());
+    Assertions.assertEquals(0, odRuns.get());
+    Assertions.assertEquals(2 * newMeasurements.size(), result.getDegreesOfFreedom());
+    Assertions.assertTrue(result.getStatistic() > 0.0);
+    Assertions.assertTrue(result.getStatistic() <= result.getThreshold());
+    Assertions.assertTrue(result.getPositionSigma() > 0.0);
+
+    ResidualGateMetrics metrics = processor.getMetrics();
+    Assertions.assertEquals(1, metrics.getUpdates());
+    Assertions.assertEquals(1, metrics.getConsistent());
+    Assertions.assertEquals(newMeasurements.size(), metrics.getRecordedMeasurements());
+    Assertions.assertEquals(1.0, metrics.getSkipRatio());
+  }
+
+  @Test
+  void testInconsistentPassRunsOd() {
+
+    // A maneuver-sized offset, far outside the orbit and measurement uncertainty.
+    double offset = Math.toRadians(0.5);
+    List<ObservedMeasurement<?>> shifted = new ArrayList<>();
+    for (ObservedMeasurement<?> measurement : newMeasurements) {
+      AngularRaDec raDec = (AngularRaDec) measurement;
+      shifted.add(new AngularRaDec(raDec.getStation(), raDec.getReferenceFrame(),
+          raDec.getDate(), new double[]{raDec.getObservedValue()[0] + offset,
+          raDec.getObservedValue()[1]}, raDec.getTheoreticalStandardDeviation(),
+          raDec.getBaseWeight(), raDec.getSatellites().get(0)));
+    }
+    List<ObservedMeasurement<?>> odMeasurements = new ArrayList<>(previousMeasurements);
+    odMeasurements.addAll(shifted);
+
+    AtomicInteger odRuns = new AtomicInteger();
+    List<Integer> odSizes = new ArrayList<>();
+    OdProcessor delegate = (initialState, measurements) -> {
+      odRuns.incrementAndGet();
+      odSizes.add(measurements.size());
+      return current;
+    };
+    ResidualGatedOdProcessor processor = new ResidualGatedOdProcessor(SETTINGS, delegate);
+
+    GatedOdResult result = processor.update(current, shifted, odMeasurements);
+
+    Assertions.assertEquals(Decision.INCONSISTENT, result.getDecision(), result.toString());
+    Assertions.assertTrue(result.isOdRun());
+    Assertions.assertTrue(result.getStatistic() > result.getThreshold());
+    Assertions.assertEquals(1, odRuns.get());
+    Assertions.assertEquals(List.of(odMeasurements.size()), odSizes);
+
+    ResidualGateMetrics metrics = processor.getMetrics();
+    Assertions.assertEquals(1, metrics.getInconsistent());
+    Assertions.assertEquals(0, metrics.getRecordedMeasurements());
+    Assertions.assertEquals(0.0, metrics.getSkipRatio());
+  }
+
+  @Test
+  void testGrownCovarianceRunsOd() {
+
+    AtomicInteger odRuns = new AtomicInteger();
+    ResidualGatedOdProcessor processor = new ResidualGatedOdProcessor(SETTINGS.toBuilder()
+        .maxPositionSigma(1.0e-3)
+        .build(), countingProcessor(odRuns));
+    List<ObservedMeasurement<?>> odMeasurements = new ArrayList<>(previousMeasurements);
+    odMeasurements.addAll(newMeasurements);
+
+    GatedOdResult result = processor.update(current, newMeasurements, odMeasurements);
+
+    Assertions.assertEquals(Decision.COVARIANCE_GROWN, result.getDecision());
+    Assertions.assertEquals(1, odRuns.get());
+    Assertions.assertNotSame(current, result.getSolution());
+    Assertions.assertEquals(1, processor.getMetrics().getCovarianceGrown());
+  }
+
+  @Test
+  void testCovarianceMustBeAtStateDate() {
+
+    SpacecraftState state = current.getState();
+    StateAndCovariance shifted = new StateAndCovariance(current.getCovariance(),
+        state.shiftedBy(60.0));
+    ResidualGatedOdProcessor processor = new ResidualGatedOdProcessor(SETTINGS,
+        countingProcessor(new AtomicInteger()));
+
+    Assertions.assertThrows(IllegalArgumentException.class,
+        () -> processor.update(shifted, newMeasurements));
+    Assertions.assertThrows(IllegalArgumentException.class,
+        () -> processor.update(current, List.of()));
+  }
+
+  private static OdProcessor countingProcessor(AtomicInteger odRuns) {
+    return (initialState, measurements) -> {
+      odRuns.incrementAndGet();
+      return TestFixtures.estimateGravityOnly(initialState, measurements);
+    };
+  }
+
+  private static List<ObservedMeasurement<?>> read(Path file) throws IOException {
+    return OifHelper.convertOifData(OifHelper.parseOifRaDecFile(file), SIGMAS);
+  }
+
+}
@@ -0,0 +1,155 @@
+package org.cohere.od;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.cohere.od.models.StateAndCovariance;
+import org.cohere.od.models.UncertaintyPropagationResult;
+import org.cohere.od.models.UncertaintyPropagationSettings;
+import org.cohere.od.utils.CovarianceUtils;
+import org.cohere.od.utils.PropagatorFactory;
+import org.cohere.od.utils.SamplingMethod;
+import org.cohere.od.utils.TestFixtures;
+import org.hipparchus.geometry.euclidean.threed.Vector3D;
+import org.hipparchus.linear.MatrixUtils;
+import org.hipparchus.linear.RealMatrix;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.orekit.orbits.OrbitType;
+import org.orekit.orbits.PositionAngle;
+import org.orekit.propagation.SpacecraftState;
+import org.orekit.propagation.StateCovariance;
+import org.orekit.propagation.conversion.NumericalPropagatorBuilder;
+import org.orekit.time.AbsoluteDate;
+
+/**
+ * Unit tests for the {@link SampledCovariancePropagator}.
+ */
+class SampledCovariancePropagatorTest {
+
+  private static final double POSITION_SIGMA = 100.0;
+  private static final double VELOCITY_SIGMA = 0.01;
+
+  private static ExecutorService executor = null;
+
+  @BeforeAll
+  public static void initialize() {
+    TestFixtures.initializeOrekit();
+    executor = Executors.newFixedThreadPool(4);
+  }
+
+  @AfterAll
+  public static void shutdown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  void testSigmaPointsMatchLinearPropagationOverShortSpan() {
+
+    StateAndCovariance initial = createInitialStateAndCovariance();
+    AbsoluteDate epoch = initial.getState().getDate().shiftedBy(3600.0);
+    UncertaintyPropagationSettings settings = UncertaintyPropagationSettings.builder()
+        .forceModelProfile(TestFixtures.GRAVITY_ONLY)
+        .positionError(0.01)
+        .build();
+
+    UncertaintyPropagationResult result = new SampledCovariancePropagator(settings, executor)
+        .propagate(initial, List.of(epoch));
+
+    NumericalPropagatorBuilder builder = PropagatorFactory.createPropagatorBuilder(
+        initial.getState(), TestFixtures.GRAVITY_ONLY,
+        PropagatorFactory.createIntegratorBuilder(0.001, 300.0, 0.01));
+    StateAndCovariance linear = CovarianceUtils.propagate(
+        builder.buildPropagator(builder.getSelectedNormalizedParameters()), initial, epoch);
+    RealMatrix linearMatrix = linear.getCovariance()
+        .changeCovarianceType(linear.getState().getOrbit(), OrbitType.CARTESIAN, PositionAngle.MEAN)
+        .getMatrix();
+
+    Assertions.assertEquals(13, result.getSampleCount());
+    StateAndCovariance sampled = result.getStatistics().get(0);
+    Assertions.assertEquals(0.0, sampled.getState().getDate().durationFrom(epoch), 0.0);
+    Assertions.assertTrue(Vector3D.distance(linear.getState().getPVCoordinates().getPosition(),
+        sampled.getState().getPVCoordinates().getPosition()) < 1.0);
+    for (int i = 0; i < 6; i++) {
+      double expected = linearMatrix.getEntry(i, i);
+      Assertions.assertEquals(expected, sampled.getCovariance().getMatrix().getEntry(i, i),
+          0.01 * expected);
+    }
+  }
+
+  @Test
+  void testMonteCarloIsReproducibleAcrossExecutors() {
+
+    StateAndCovariance initial = createInitialStateAndCovariance();
+    List<AbsoluteDate> epochs = List.of(initial.getState().getDate().shiftedBy(7200.0),
+        initial.getState().getDate().shiftedBy(3600.0));
+    UncertaintyPropagationSettings settings = UncertaintyPropagationSettings.builder()
+        .samplingMethod(SamplingMethod.MONTE_CARLO)
+        .sampleCount(50)
+        .seed(42L)
+        .forceModelProfile(TestFixtures.GRAVITY_ONLY)
+        .build();
+
+    ExecutorService singleThread = Executors.newSingleThreadExecutor();
+    UncertaintyPropagationResult sequential;
+    try {
+      sequential = new SampledCovariancePropagator(settings, singleThread).propagate(initial,
+          epochs);
+    } finally {
+      singleThread.shutdownNow();
+    }
+    UncertaintyPropagationResult parallel = new SampledCovariancePropagator(settings, executor)
+        .propagate(initial, epochs);
+    UncertaintyPropagationResult otherSeed = new SampledCovariancePropagator(
+        settings.toBuilder().seed(43L).build(), executor).propagate(initial, epochs);
+
+    Assertions.assertEquals(50, parallel.getSampleCount());
+    for (int e = 0; e < epochs.size(); e++) {
+      StateAndCovariance expected = sequential.getStatistics().get(e);
+      StateAndCovariance actual = parallel.getStatistics().get(e);
+      Assertions.assertEquals(0.0, actual.getState().getDate().durationFrom(epochs.get(e)), 0.0);
+      Assertions.assertEquals(0.0, Vector3D.distance(
+          expected.getState().getPVCoordinates().getPosition(),
+          actual.getState().getPVCoordinates().getPosition()), 0.0);
+      Assertions.assertEquals(0.0, expected.getCovariance().getMatrix()
+          .subtract(actual.getCovariance().getMatrix()).getNorm1(), 0.0);
+      Assertions.assertNotEquals(0.0, expected.getCovariance().getMatrix()
+          .subtract(otherSeed.getStatistics().get(e).getCovariance().getMatrix()).getNorm1());
+    }
+  }
+
+  @Test
+  void testMonteCarloAgreesWithSigmaPoints() {
+
+    StateAndCovariance initial = createInitialStateAndCovariance();
+    List<AbsoluteDate> epochs = List.of(initial.getState().getDate().shiftedBy(6 * 3600.0));
+    UncertaintyPropagationSettings settings = UncertaintyPropagationSettings.builder()
+        .forceModelProfile(TestFixtures.GRAVITY_ONLY)
+        .build();
+
+    StateAndCovariance sigmaPoints = new SampledCovariancePropagator(settings, executor)
+        .propagate(initial, epochs).getStatistics().get(0);
+    StateAndCovariance monteCarlo = new SampledCovariancePropagator(settings.toBuilder()
+        .samplingMethod(SamplingMethod.MONTE_CARLO).sampleCount(400).build(), executor)
+        .propagate(initial, epochs).getStatistics().get(0);
+
+    // With 400 samples the standard error of a variance is about 7%.
+    for (int i = 0; i < 6; i++) {
+      double expected = sigmaPoints.getCovariance().getMatrix().getEntry(i, i);
+      Assertions.assertEquals(expected, monteCarlo.getCovariance().getMatrix().getEntry(i, i),
+          0.25 * expected);
+    }
+  }
+
+  private static StateAndCovariance createInitialStateAndCovariance() {
+    SpacecraftState state = TestFixtures.createInitialStateAf3();
+    double p = POSITION_SIGMA * POSITION_SIGMA;
+    double v = VELOCITY_SIGMA * VELOCITY_SIGMA;
+    RealMatrix matrix = MatrixUtils.createRealDiagonalMatrix(new double[]{p, p, p, v, v, v});
+    return new StateAndCovariance(new StateCovariance(matrix, state.getDate(), state.getFrame(),
+        OrbitType.CARTESIAN, PositionAngle.MEAN), state);
+  }
+
+}
@@ -0,0 +1,177 @@
+package org.cohere.od;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import lombok.extern.log4j.Log4j2;
+import org.cohere.od.generation.MeasurementGenerator;
+import org.cohere.od.models.OdSettings;
+import org.cohere.od.models.StateAndCovariance;
+import org.cohere.od.models.SubsamplingSchedule;
+import org.cohere.od.models.TleSolution;
+import org.cohere.od.utils.JacobianUpdate;
+import org.cohere.od.utils.TestFixtures;
+import org.hipparchus.geometry.euclidean.threed.Vector3D;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.orekit.estimation.measurements.ObservedMeasurement;
+import org.orekit.frames.FramesFactory;
+import org.orekit.orbits.OrbitType;
+import org.orekit.propagation.Propagator;
+import org.orekit.propagation.SpacecraftState;
+import org.orekit.propagation.analytical.KeplerianPropagator;
+import org.orekit.propagation.analytical.tle.TLE;
+import org.orekit.propagation.analytical.tle.TLEPropagator;
+import org.orekit.time.AbsoluteDate;
+
+/**
+ * Unit tests for the {@link TleOdProcessor}.
+ */
+@Log4j2
+class TleOdProcessorTest {
+
+  private static final double SIGMA = Math.toRadians(0.001);
+  private static final List<String> FIXTURES = List.of("af3", "cp1", "sa2");
+  private static final double[] FIXTURE_SIGMAS = {Math.toRadians(0.005), Math.toRadians(0.01),
+      Math.toRadians(0.01)};
+  private static final int BENCHMARK_ROUNDS = 3;
+
+  private static List<SpacecraftState> initialStates = null;
+
+  @BeforeAll
+  public static void initializeOrekit() {
+    TestFixtures.initializeOrekit();
+    initialStates = List.of(TestFixtures.createInitialStateAf3(),
+        TestFixtures.createInitialStateCp1(), TestFixtures.createInitialStateSa2());
+  }
+
+  @Test
+  void testFitRecoversSgp4Truth() {
+
+    // Truth: a TLE fitted to the Keplerian motion of AF3. The fit to its SDP4 measurements then
+    // starts from the AF3 state, which is off by the difference between the two models.
+    SpacecraftState af3 = TestFixtures.createInitialStateAf3();
+    TLE truthTle = new TleOdProcessor().estimate(af3,
+        generateMeasurements(new KeplerianPropagator(af3.getOrbit()), af3.getDate()), 50008)
+        .getTle();
+    TLEPropagator truth = TLEPropagator.selectExtrapolator(truthTle);
+    List<ObservedMeasurement<?>> measurements = generateMeasurements(truth, af3.getDate());
+
+    TleSolution solution = new TleOdProcessor().estimate(af3, measurements, 50008);
+
+    TLE tle = solution.getTle();
+    Assertions.assertTrue(TLE.isFormatOK(tle.getLine1(), tle.getLine2()));
+    Assertions.assertEquals(50008, tle.getSatelliteNumber());
+
+    StateAndCovariance estimated = solution.getSolution().getStateAndCovariance();
+    AbsoluteDate epoch = estimated.getState().getDate();
+    Assertions.assertEquals(0.0, epoch.durationFrom(tle.getDate()), 1e-6);
+    Assertions.assertEquals(FramesFactory.getGCRF(), estimated.getState().getFrame());
+    Vector3D expected = truth.propagate(epoch).getPVCoordinates(FramesFactory.getGCRF())
+        .getPosition();
+    Assertions.assertTrue(Vector3D.distance(expected,
+        estimated.getState().getPVCoordinates().getPosition()) < 10.0);
+
+    Assertions.assertEquals(OrbitType.CARTESIAN, estimated.getCovariance().getOrbitType());
+    Assertions.assertEquals(FramesFactory.getGCRF(), estimated.getCovariance().getFrame());
+    for (int i = 0; i < 6; i++) {
+      Assertions.assertTrue(estimated.getCovariance().getMatrix().getEntry(i, i) > 0.0);
+    }
+  }
+
+  @Test
+  void testAccuracyAgainstNumericalOd() throws IOException {
+
+    for (int i = 0; i < FIXTURES.size(); i++) {
+      List<ObservedMeasurement<?>> measurements = readFixture(i);
+
+      StateAndCovariance numerical = TestFixtures.estimateGravityOnly(initialStates.get(i),
+          measurements);
+      StateAndCovariance tle = new TleOdProcessor().processMeasurements(initialStates.get(i),
+          new ArrayList<>(measurements));
+
+      // Both estimate at the last measurement, where the SGP4/SDP4 fit stays within TLE-grade
+      // accuracy of the numerical solution.
+      Assertions.assertEquals(0.0, tle.getState().getDate().durationFrom(
+          numerical.getState().getDate()), 1e-6);
+      double distance = Vector3D.distance(numerical.getState().getPVCoordinates().getPosition(),
+          tle.getState().getPVCoordinates().getPosition());
+      log.info("{}: TLE fit {} m from the numerical OD.", FIXTURES.get(i), distance);
+      Assertions.assertTrue(distance < 1000.0);
+    }
+  }
+
+  @Test
+  void testUnsupportedSettingsAreReset() throws IOException {
+
+    List<ObservedMeasurement<?>> measurements = readFixture(0);
+    StateAndCovariance expected = new TleOdProcessor().processMeasurements(initialStates.get(0),
+        new ArrayList<>(measurements));
+    OdSettings settings = OdSettings.builder()
+        .regimeAwareForceModels(true)
+        .jacobianUpdate(JacobianUpdate.FROZEN)
+        .streamedNormalEquations(true)
+        .subsamplingSchedule(SubsamplingSchedule.DEFAULT)
+        .timeBudget(Duration.ofNanos(1L))
+        .evaluationBudget(1)
+        .divergenceEvaluations(1)
+        .build();
+    StateAndCovariance actual = new TleOdProcessor(settings, false).processMeasurements(
+        initialStates.get(0), new ArrayList<>(measurements));
+
+    Assertions.assertEquals(0.0, Vector3D.distance(expected.getState().getPVCoordinates()
+        .getPosition(), actual.getState().getPVCoordinates().getPosition()), 0.0);
+  }
+
+  /**
+   * Benchmark of the TLE fit against the numerical OD on the OIF fixtures. Both run once to warm
+   * up, then alternate over several rounds, and the timings are only logged.
+   */
+  @Test
+  void testBenchmarkAgainstNumericalOd() throws IOException {
+
+    List<List<ObservedMeasurement<?>>> measurements = new ArrayList<>();
+    for (int i = 0; i < FIXTURES.size(); i++) {
+      measurements.add(readFixture(i));
+    }
+
+    long numericalNanos = 0;
+    long tleNanos = 0;
+    for (int round = 0; round <= BENCHMARK_ROUNDS; round++) {
+      for (int i = 0; i < FIXTURES.size(); i++) {
+        long start = System.nanoTime();
+        TestFixtures.estimateGravityOnly(initialStates.get(i), measurements.get(i));
+        long numericalRound = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        new TleOdProcessor().processMeasurements(initialStates.get(i),
+            new ArrayList<>(measurements.get(i)));
+        long tleRound = System.nanoTime() - start;
+
+        // The first round is the warm-up.
+        if (round > 0) {
+          numericalNanos += numericalRound;
+          tleNanos += tleRound;
+        }
+      }
+    }
+
+    log.info("Over {} rounds: numerical OD {} ms, TLE fit {} ms, speed-up {}.", BENCHMARK_ROUNDS,
+        numericalNanos / 1e6, tleNanos / 1e6, (double) numericalNanos / tleNanos);
+  }
+
+  private static List<ObservedMeasurement<?>> readFixture(int index) throws IOException {
+    return TestFixtures.readOifMeasurements(TestFixtures.OIF_ROOT.resolve(FIXTURES.get(index)),
+        new double[]{FIXTURE_SIGMAS[index], FIXTURE_SIGMAS[index]});
+  }
+
+  private static List<ObservedMeasurement<?>> generateMeasurements(
+      Propagator propagator, AbsoluteDate start) {
+    return new ArrayList<>(new MeasurementGenerator(propagator).generateRaDecMeasurements(
+        TestFixtures.createDiegoGarcia(), new double[]{SIGMA, SIGMA}, new double[]{1.0, 1.0},
+        start, start.shiftedBy(12.0 * 3600.0), 600.0));
+  }
+
+}
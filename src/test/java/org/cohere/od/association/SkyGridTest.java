@@ -0,0 +1,51 @@
+package org.cohere.od.association;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import org.hipparchus.geometry.euclidean.threed.Vector3D;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for the {@link SkyGrid}.
+ */
+class SkyGridTest {
+
+  @Test
+  void testCellsAreNearlySquare() {
+    SkyGrid grid = new SkyGrid(Math.toRadians(1.0));
+    // The area of the sphere divided by the area of a 1 degree cell.
+    double expected = 4 * Math.PI / Math.pow(Math.toRadians(1.0), 2);
+    Assertions.assertEquals(expected, grid.getCellCount(), 0.02 * expected);
+  }
+
+  @Test
+  void testCapCoversEveryDirectionWithin() {
+
+    SkyGrid grid = new SkyGrid(Math.toRadians(2.0));
+    Random random = new Random(3L);
+    for (int trial = 0; trial < 200; trial++) {
+      double rightAscension = 2 * Math.PI * random.nextDouble() - Math.PI;
+      double declination = Math.asin(2 * random.nextDouble() - 1);
+      double radius = Math.toRadians(10.0 * random.nextDouble());
+      Vector3D center = new Vector3D(rightAscension, declination);
+      Set<Integer> cells = new HashSet<>();
+      grid.forEachCellWithin(rightAscension, declination, radius,
+          cell -> Assertions.assertTrue(cells.add(cell), "Cell visited twice: " + cell));
+
+      for (int sample = 0; sample < 500; sample++) {
+        Vector3D offset = new Vector3D(random.nextGaussian(), random.nextGaussian(),
+            random.nextGaussian()).normalize();
+        Vector3D direction = center.add(radius * random.nextDouble(),
+            offset.subtract(Vector3D.dotProduct(offset, center), center)).normalize();
+        if (Vector3D.angle(center, direction) > radius) {
+          continue;
+        }
+        Assertions.assertTrue(cells.contains(grid.cellOf(direction.getAlpha(),
+            direction.getDelta())));
+      }
+    }
+  }
+
+}
@@ -0,0 +1,138 @@
+package org.cohere.od.association;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.cohere.od.models.StateAndCovariance;
+import org.cohere.od.oif.OifHelper;
+import org.cohere.od.utils.TestFixtures;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.orekit.estimation.measurements.AngularRaDec;
+import org.orekit.estimation.measurements.ObservedMeasurement;
+import org.orekit.frames.FramesFactory;
+import org.orekit.orbits.KeplerianOrbit;
+import org.orekit.orbits.PositionAngle;
+import org.orekit.propagation.SpacecraftState;
+import org.orekit.time.AbsoluteDate;
+import org.orekit.utils.Constants;
+
+/**
+ * Unit tests for the {@link TrackletAssociator}.
+ */
+class TrackletAssociatorTest {
+
+  private static final double[] RA_DEC_SIGMAS = new double[]{Math.toRadians(0.005),
+      Math.toRadians(0.005)};
+  /**
+   * The OIF helper reads the base MJD on the TT scale, so the tracklets are dated about a minute
+   * early and lag the fixture states by a few tenths of a degree.
+   */
+  private static final double PREDICTION_SIGMA = Math.toRadians(0.3);
+  private static final int DECOYS = 300;
+
+  private static ExecutorService executor = null;
+  private static TrackletAssociator associator = null;
+
+  @BeforeAll
+  public static void initialize() {
+    TestFixtures.initializeOrekit();
+    executor = Executors.newFixedThreadPool(4);
+    AbsoluteDate start = TestFixtures.createInitialStateAf3().getDate();
+    AssociationSettings settings = AssociationSettings.builder()
+        .forceModelProfile(TestFixtures.GRAVITY_ONLY)
+        .predictionSigma(PREDICTION_SIGMA)
+        .build();
+    associator = new TrackletAssociator(createCatalog(), start, start.shiftedBy(86400.0),
+        settings, executor);
+  }
+
+  @AfterAll
+  public static void shutdown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  void testAssociatesOifTracklets() throws IOException {
+
+    Assertions.assertEquals(DECOYS + 3, associator.getObjectCount());
+    for (String objectId : List.of("af3", "cp1", "sa2")) {
+      File[] oifFiles = TestFixtures.OIF_ROOT.resolve(objectId).toFile()
+          .listFiles((d, name) -> name.endsWith(".oif"));
+      Assertions.assertNotNull(oifFiles);
+      Arrays.sort(oifFiles);
+      for (File oifFile : oifFiles) {
+        List<AngularRaDec> tracklet = readTracklet(oifFile);
+        if (tracklet.isEmpty()) {
+          // Some passes have no detections.
+          continue;
+        }
+        TrackletAssociation association = associator.associate(tracklet);
+        Assertions.assertEquals(objectId, association.getObjectId(), oifFile.getName());
+        Assertions.assertTrue(association.getCandidates() < DECOYS / 10);
+      }
+    }
+  }
+
+  @Test
+  void testRejectsTrackletOfUnknownObject() throws IOException {
+
+    File oifFile = TestFixtures.OIF_ROOT.resolve("af3").toFile()
+        .listFiles((d, name) -> name.endsWith(".oif"))[0];
+    AbsoluteDate start = TestFixtures.createInitialStateAf3().getDate();
+    Map<String, StateAndCovariance> catalog = createCatalog();
+    catalog.remove("af3");
+    TrackletAssociator withoutTarget = new TrackletAssociator(catalog, start,
+        start.shiftedBy(86400.0), AssociationSettings.builder()
+        .forceModelProfile(TestFixtures.GRAVITY_ONLY)
+        .predictionSigma(PREDICTION_SIGMA)
+        .build(), executor);
+
+    TrackletAssociation association = withoutTarget.associate(readTracklet(oifFile));
+
+    Assertions.assertFalse(association.isAssociated());
+    Assertions.assertTrue(association.getGatedObjectIds().isEmpty());
+  }
+
+  private static List<AngularRaDec> readTracklet(File oifFile) throws IOException {
+    List<AngularRaDec> tracklet = new ArrayList<>();
+    for (ObservedMeasurement<?> measurement : OifHelper.convertOifData(
+        OifHelper.parseOifRaDecFile(oifFile.toPath()), RA_DEC_SIGMAS)) {
+      tracklet.add((AngularRaDec) measurement);
+    }
+    return tracklet;
+  }
+
+  /**
+   * Creates a catalog of the three fixture objects and of GEO decoys spread around the belt.
+   */
+  private static Map<String, StateAndCovariance> createCatalog() {
+
+    Map<String, StateAndCovariance> catalog = new LinkedHashMap<>();
+    catalog.put("af3", new StateAndCovariance(null, TestFixtures.createInitialStateAf3()));
+    catalog.put("cp1", new StateAndCovariance(null, TestFixtures.createInitialStateCp1()));
+    catalog.put("sa2", new StateAndCovariance(null, TestFixtures.createInitialStateSa2()));
+    AbsoluteDate start = TestFixtures.createInitialStateAf3().getDate();
+    Random random = new Random(7L);
+    for (int i = 0; i < DECOYS; i++) {
+      KeplerianOrbit orbit = new KeplerianOrbit(42164.0e3 + 50.0e3 * random.nextGaussian(),
+          1.0e-3 * random.nextDouble(), Math.toRadians(5.0 * random.nextDouble()),
+          2 * Math.PI * random.nextDouble(), 2 * Math.PI * random.nextDouble(),
+          2 * Math.PI * random.nextDouble(), PositionAngle.MEAN, FramesFactory.getGCRF(), start,
+          Constants.IERS2010_EARTH_MU);
+      catalog.put(String.format("decoy-%03d", i), new StateAndCovariance(null,
+          new SpacecraftState(orbit, 1000.0)));
+    }
+    return catalog;
+  }
+
+}
@@ -0,0 +1,226 @@
+package org.cohere.od.cache;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.cohere.od.utils.AstroUtils;
+import org.cohere.od.utils.PropagatorFactory;
+import org.cohere.od.utils.TestFixtures;
+import org.hipparchus.CalculusFieldElement;
+import org.hipparchus.analysis.differentiation.Gradient;
+import org.hipparchus.analysis.differentiation.GradientField;
+import org.hipparchus.geometry.euclidean.threed.Vector3D;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.orekit.bodies.CelestialBody;
+import org.orekit.estimation.measurements.GroundStation;
+import org.orekit.frames.FieldTransform;
+import org.orekit.frames.Frame;
+import org.orekit.frames.FramesFactory;
+import org.orekit.frames.Transform;
+import org.orekit.orbits.KeplerianOrbit;
+import org.orekit.orbits.PositionAngle;
+import org.orekit.propagation.SpacecraftState;
+import org.orekit.propagation.conversion.NumericalPropagatorBuilder;
+import org.orekit.time.AbsoluteDate;
+import org.orekit.time.FieldAbsoluteDate;
+import org.orekit.utils.Constants;
+import org.orekit.utils.TimeStampedFieldPVCoordinates;
+import org.orekit.utils.TimeStampedPVCoordinates;
+
+/**
+ * Unit tests for the {@link GeometryCache}.
+ */
+class GeometryCacheTest {
+
+  private static ExecutorService executor = null;
+  private static AbsoluteDate start = null;
+
+  @BeforeAll
+  public static void initialize() {
+    TestFixtures.initializeOrekit();
+    executor = Executors.newFixedThreadPool(4);
+    start = TestFixtures.createInitialStateAf3().getDate();
+  }
+
+  @AfterAll
+  public static void shutdown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  void testEarthOrientationMatchesDirectComputation() {
+
+    GeometryCache cache = new GeometryCache(GeometryCacheSettings.DEFAULT);
+    Frame gcrf = FramesFactory.getGCRF();
+    Frame cachedItrf = cache.getEarth().getBodyFrame();
+    GroundStation reference = TestFixtures.createDiegoGarcia();
+    GroundStation station = cache.createGroundStation(reference.getBaseFrame().getPoint(),
+        "DiegoGarcia");
+    Random random = new Random(5L);
+    for (int i = 0; i < 200; i++) {
+      AbsoluteDate date = start.shiftedBy(86400.0 * random.nextDouble());
+      Transform expected = gcrf.getTransformTo(AstroUtils.EARTH.getBodyFrame(), date);
+      Transform actual = gcrf.getTransformTo(cachedItrf, date);
+      Transform difference = new Transform(date, expected, actual.getInverse());
+      Assertions.assertEquals(0.0, difference.getRotation().getAngle(), 1.0e-10);
+      Assertions.assertEquals(0.0, difference.getRotationRate().getNorm(), 1.0e-15);
+
+      Vector3D expectedStation = reference.getBaseFrame().getPVCoordinates(date, gcrf)
+          .getPosition();
+      Vector3D actualStation = station.getBaseFrame().getPVCoordinates(date, gcrf).getPosition();
+      Assertions.assertEquals(0.0, Vector3D.distance(expectedStation, actualStation), 1.0e-3);
+    }
+  }
+
+  @Test
+  void testFieldTransformMatchesDoubleTransform() {
+
+    GeometryCache cache = new GeometryCache(GeometryCacheSettings.DEFAULT);
+    GradientField field = GradientField.getField(1);
+    AbsoluteDate date = start.shiftedBy(1234.5);
+    FieldAbsoluteDate<Gradient> fieldDate = new FieldAbsoluteDate<>(field, date)
+        .shiftedBy(Gradient.variable(1, 0, 0.0));
+    Frame cachedItrf = cache.getEarth().getBodyFrame();
+
+    FieldTransform<Gradient> fieldTransform = FramesFactory.getGCRF().getTransformTo(cachedItrf,
+        fieldDate);
+    Transform transform = FramesFactory.getGCRF().getTransformTo(cachedItrf, date);
+
+    Vector3D point = new Vector3D(42164.0e3, 1000.0, -2000.0);
+    Vector3D expected = transform.transformPosition(point);
+    Vector3D actual = fieldTransform.transformPosition(point).toVector3D();
+    Assertions.assertEquals(0.0, Vector3D.distance(expected, actual), 1.0e-6);
+    // The derivative with respect to the date is the velocity of the point in the rotating frame.
+    Vector3D velocity = transform.transformPVCoordinates(
+        new TimeStampedPVCoordinates(date, point, Vector3D.ZERO)).getVelocity();
+    Assertions.assertEquals(velocity.getX(),
+        fieldTransform.transformPosition(point).getX().getGradient()[0], 1.0e-6);
+  }
+
+  @Test
+  void testBodyInterpolationAndMetrics() {
+
+    GeometryCache cache = new GeometryCache(GeometryCacheSettings.builder()
+        .blockSamples(16)
+        .maxBlocks(2)
+        .build());
+    CelestialBody moon = new KeplerianBody(new KeplerianOrbit(384400.0e3, 0.055,
+        Math.toRadians(5.1), 0.3, 0.2, 0.1, PositionAngle.MEAN, FramesFactory.getGCRF(), start,
+        Constants.IERS2010_EARTH_MU));
+    CelestialBody cached = cache.getBody(moon);
+    Assertions.assertSame(cached, cache.getBody(moon));
+
+    Random random = new Random(9L);
+    for (int i = 0; i < 500; i++) {
+      AbsoluteDate date = start.shiftedBy(3600.0 * random.nextDouble());
+      TimeStampedPVCoordinates expected = moon.getPVCoordinates(date, FramesFactory.getGCRF());
+      TimeStampedPVCoordinates actual = cached.getPVCoordinates(date, FramesFactory.getGCRF());
+      Assertions.assertEquals(0.0,
+          Vector3D.distance(expected.getPosition(), actual.getPosition()), 1.0e-3);
+      Assertions.assertEquals(0.0,
+          Vector3D.distance(expected.getVelocity(), actual.getVelocity()), 1.0e-8);
+      Assertions.assertEquals(0.0,
+          Vector3D.distance(expected.getAcceleration(), actual.getAcceleration()), 1.0e-10);
+    }
+    GeometryCacheMetrics metrics = cache.getMetrics();
+    Assertions.assertTrue(metrics.getHitRatio() > 0.99);
+    Assertions.assertEquals(0, metrics.getEvictions());
+
+    // Sweeping 10 days with room for 2 blocks of 80 minutes evicts all but the last 2 blocks.
+    for (int i = 0; i < 10 * 24; i++) {
+      cached.getPVCoordinates(start.shiftedBy(3600.0 * i), FramesFactory.getGCRF());
+    }
+    metrics = cache.getMetrics();
+    Assertions.assertTrue(metrics.getEvictions() > 100);
+    Assertions.assertEquals(2 * 16, metrics.getMemorySamples());
+  }
+
+  @Test
+  void testSharedCacheAcrossConcurrentPropagations() throws Exception {
+
+    GeometryCache cache = new GeometryCache(GeometryCacheSettings.DEFAULT);
+    List<SpacecraftState> states = List.of(TestFixtures.createInitialStateAf3(),
+        TestFixtures.createInitialStateCp1(), TestFixtures.createInitialStateSa2());
+    AbsoluteDate end = start.shiftedBy(86400.0);
+
+    List<Callable<Vector3D>> tasks = new ArrayList<>();
+    for (int repeat = 0; repeat < 2; repeat++) {
+      for (SpacecraftState state : states) {
+        tasks.add(() -> propagate(state, end, cache));
+      }
+    }
+    List<Future<Vector3D>> futures = executor.invokeAll(tasks);
+
+    for (int i = 0; i < tasks.size(); i++) {
+      Vector3D expected = propagate(states.get(i % states.size()), end, null);
+      Assertions.assertEquals(0.0, Vector3D.distance(expected, futures.get(i).get()), 1.0e-3);
+    }
+    GeometryCacheMetrics metrics = cache.getMetrics();
+    Assertions.assertTrue(metrics.getHitRatio() > 0.99);
+    // A day of Earth orientation samples, one block past each end.
+    Assertions.assertTrue(metrics.getMemorySamples() <= 25 * 64);
+  }
+
+  private static Vector3D propagate(SpacecraftState state, AbsoluteDate end,
+      GeometryCache cache) {
+    NumericalPropagatorBuilder builder = PropagatorFactory.createPropagatorBuilder(state,
+        TestFixtures.GRAVITY_ONLY, PropagatorFactory.createIntegratorBuilder(0.001, 300.0, 0.01),
+        cache);
+    return builder.buildPropagator(builder.getSelectedNormalizedParameters()).propagate(end)
+        .getPVCoordinates(FramesFactory.getGCRF()).getPosition();
+  }
+
+  /**
+   * A body on a Keplerian orbit, standing in for the ephemerides that are not available to the
+   * tests.
+   */
+  private static final class KeplerianBody implements CelestialBody {
+
+    private static final long serialVersionUID = 1L;
+
+    private final transient KeplerianOrbit orbit;
+
+    private KeplerianBody(KeplerianOrbit orbit) {
+      this.orbit = orbit;
+    }
+
+    @Override
+    public TimeStampedPVCoordinates getPVCoordinates(AbsoluteDate date, Frame frame) {
+      return orbit.getPVCoordinates(date, frame);
+    }
+
+    @Override
+    public <T extends CalculusFieldElement<T>> TimeStampedFieldPVCoordinates<T> getPVCoordinates(
+        FieldAbsoluteDate<T> date, Frame frame) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Frame getInertiallyOrientedFrame() {
+      return FramesFactory.getGCRF();
+    }
+
+    @Override
+    public Frame getBodyOrientedFrame() {
+      return FramesFactory.getGCRF();
+    }
+
+    @Override
+    public String getName() {
+      return "Keplerian";
+    }
+
+    @Override
+    public double getGM() {
+      return 4.9e12;
+    }
+  }
+
+}
@@ -0,0 +1,222 @@
+package org.cohere.od.cache;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.cohere.od.RaDecOdProcessor;
+import org.cohere.od.models.OdSettings;
+import org.cohere.od.models.StateAndCovariance;
+import org.cohere.od.models.SubsamplingSchedule;
+import org.cohere.od.utils.TestFixtures;
+import org.cohere.od.utils.TestUtils;
+import org.hipparchus.linear.MatrixUtils;
+import org.hipparchus.linear.RealMatrix;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.orekit.estimation.measurements.AngularRaDec;
+import org.orekit.estimation.measurements.GroundStation;
+import org.orekit.estimation.measurements.ObservableSatellite;
+import org.orekit.estimation.measurements.ObservedMeasurement;
+import org.orekit.frames.FramesFactory;
+import org.orekit.orbits.OrbitType;
+import org.orekit.orbits.PositionAngle;
+import org.orekit.propagation.SpacecraftState;
+import org.orekit.propagation.StateCovariance;
+
+/**
+ * Unit tests for the {@link OdResultCache} and {@link OdCacheKey}.
+ */
+class OdResultCacheTest {
+
+  @TempDir
+  Path tempDir;
+
+  @BeforeAll
+  public static void initializeOrekit() {
+    TestFixtures.initializeOrekit();
+  }
+
+  @Test
+  void testKeyIgnoresMeasurementOrder() {
+
+    SpacecraftState initialState = TestFixtures.createInitialStateAf3();
+    List<ObservedMeasurement<?>> measurements = createMeasurements(initialState);
+    List<ObservedMeasurement<?>> reversed = new ArrayList<>(measurements);
+    Collections.reverse(reversed);
+
+    String key = OdCacheKey.compute(initialState, measurements, "config");
+    Assertions.assertEquals(key, OdCacheKey.compute(initialState, reversed, "config"));
+    Assertions.assertNotEquals(key, OdCacheKey.compute(initialState, measurements, "other"));
+    Assertions.assertNotEquals(key, OdCacheKey.compute(TestFixtures.createInitialStateCp1(),
+        measurements, "config"));
+    Assertions.assertNotEquals(key, OdCacheKey.compute(initialState,
+        measurements.subList(1, measurements.size()), "config"));
+  }
+
+  @Test
+  void testKeyIgnoresExecutors() throws Exception {
+
+    SpacecraftState initialState = TestFixtures.createInitialStateAf3();
+    List<ObservedMeasurement<?>> measurements = createMeasurements(initialState);
+    OdSettings settings = OdSettings.builder()
+        .subsamplingSchedule(SubsamplingSchedule.DEFAULT)
+        .evaluationBudget(20)
+        .build();
+    ExecutorService first = Executors.newFixedThreadPool(1);
+    ExecutorService second = Executors.newFixedThreadPool(2);
+    try {
+      String key = OdCacheKey.compute(initialState, measurements, new RaDecOdProcessor(
+          settings.toBuilder().solverExecutor(first).build()).describeConfiguration());
+      // The state of an executor changes as it runs tasks.
+      first.submit(() -> null).get();
+      Assertions.assertEquals(key, OdCacheKey.compute(initialState, measurements,
+          new RaDecOdProcessor(settings.toBuilder().solverExecutor(first).build())
+              .describeConfiguration()));
+      Assertions.assertEquals(key, OdCacheKey.compute(initialState, measurements,
+          new RaDecOdProcessor(settings.toBuilder().solverExecutor(second).build())
+              .describeConfiguration()));
+      Assertions.assertNotEquals(key, OdCacheKey.compute(initialState, measurements,
+          new RaDecOdProcessor(settings.toBuilder().evaluationBudget(10).build())
+              .describeConfiguration()));
+    } finally {
+      first.shutdownNow();
+      second.shutdownNow();
+    }
+  }
+
+  @Test
+  void testMemoryTierEvictsLeastRecentlyUsed() throws IOException {
+
+    OdResultCache cache = new OdResultCache(2, null);
+    AtomicInteger computations = new AtomicInteger();
+    StateAndCovariance result = createResult(TestFixtures.createInitialStateAf3());
+
+    cache.get("a", () -> count(computations, result));
+    cache.get("b", () -> count(computations, result));
+    cache.get("a", () -> count(computations, result));
+    cache.get("c", () -> count(computations, result));
+    cache.get("a", () -> count(computations, result));
+    cache.get("b", () -> count(computations, result));
+
+    OdCacheMetrics metrics = cache.getMetrics();
+    Assertions.assertEquals(4, computations.get());
+    Assertions.assertEquals(4, metrics.getMisses());
+    Assertions.assertEquals(2, metrics.getMemoryHits());
+    Assertions.assertEquals(2, metrics.getEvictions());
+    Assertions.assertEquals(2, metrics.getMemorySize());
+  }
+
+  @Test
+  void testDiskTierRoundTrip() throws IOException {
+
+    StateAndCovariance result = createResult(TestFixtures.createInitialStateSa2());
+    new OdResultCache(1, tempDir).get("key", () -> result);
+
+    OdResultCache reloaded = new OdResultCache(1, tempDir);
+    StateAndCovariance cached = reloaded.get("key", () -> {
+      throw new IllegalStateException("Must be served from disk.");
+    });
+
+    Assertions.assertEquals(1, reloaded.getMetrics().getDiskHits());
+    Assertions.assertTrue(Files.exists(tempDir.resolve("key.odc")));
+    TestUtils.assertAreEqual(result.getState().getPVCoordinates(),
+        cached.getState().getPVCoordinates());
+    Assertions.assertEquals(0.0,
+        result.getState().getDate().durationFrom(cached.getState().getDate()), 0.0);
+    TestUtils.assertAreEqual(result.getCovariance().getMatrix(),
+        cached.getCovariance().getMatrix());
+    Assertions.assertEquals(result.getCovariance().getOrbitType(),
+        cached.getCovariance().getOrbitType());
+  }
+
+  @Test
+  void testConcurrentIdenticalRequestsAreCoalesced() throws Exception {
+
+    OdResultCache cache = new OdResultCache(4, null);
+    StateAndCovariance result = createResult(TestFixtures.createInitialStateCp1());
+    AtomicInteger computations = new AtomicInteger();
+    CountDownLatch isComputing = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      Future<StateAndCovariance> first = executor.submit(() -> cache.get("key", () -> {
+        computations.incrementAndGet();
+        isComputing.countDown();
+        await(release);
+        return result;
+      }));
+      Assertions.assertTrue(isComputing.await(10, TimeUnit.SECONDS));
+      Future<StateAndCovariance> second = executor.submit(() -> cache.get("key", () -> {
+        computations.incrementAndGet();
+        return result;
+      }));
+
+      // Wait until the second request has registered as coalesced before releasing the first.
+      long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+      while (cache.getMetrics().getCoalesced() == 0 && System.nanoTime() < deadline) {
+        Thread.sleep(1);
+      }
+      release.countDown();
+
+      Assertions.assertSame(result, first.get(10, TimeUnit.SECONDS));
+      Assertions.assertSame(result, second.get(10, TimeUnit.SECONDS));
+    } finally {
+      executor.shutdownNow();
+    }
+
+    Assertions.assertEquals(1, computations.get());
+    Assertions.assertEquals(1, cache.getMetrics().getCoalesced());
+    Assertions.assertEquals(1, cache.getMetrics().getMisses());
+  }
+
+  private static StateAndCovariance count(AtomicInteger counter, StateAndCovariance result) {
+    counter.incrementAndGet();
+    return result;
+  }
+
+  private static void await(CountDownLatch latch) {
+    try {
+      latch.await(10, TimeUnit.SECONDS);
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private static StateAndCovariance createResult(SpacecraftState state) {
+    RealMatrix matrix = MatrixUtils.createRealMatrix(6, 6);
+    for (int i = 0; i < 6; i++) {
+      for (int j = 0; j < 6; j++) {
+        matrix.setEntry(i, j, i == j ? 1.0e3 / (i + 1) : 1.0 / (i + j + 1));
+      }
+    }
+    StateCovariance covariance = new StateCovariance(matrix, state.getDate(), state.getFrame(),
+        OrbitType.CARTESIAN, PositionAngle.MEAN);
+    return new StateAndCovariance(covariance, state);
+  }
+
+  private static List<ObservedMeasurement<?>> createMeasurements(SpacecraftState state) {
+    GroundStation station = TestFixtures.createDiegoGarcia();
+    ObservableSatellite satellite = new ObservableSatellite(0);
+    double sigma = Math.toRadians(0.005);
+    List<ObservedMeasurement<?>> measurements = new ArrayList<>();
+    for (int i = 0; i < 5; i++) {
+      measurements.add(new AngularRaDec(station, FramesFactory.getGCRF(),
+          state.getDate().shiftedBy(60.0 * i), new double[]{0.1 * i, -0.05 * i},
+          new double[]{sigma, sigma}, new double[]{1.0, 1.0}, satellite));
+    }
+    return measurements;
+  }
+
+}
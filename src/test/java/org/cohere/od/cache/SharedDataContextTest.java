@@ -0,0 +1,223 @@
+package org.cohere.od.cache;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import lombok.extern.log4j.Log4j2;
+import org.cohere.od.models.OdSettings;
+import org.cohere.od.pipeline.OifParser;
+import org.cohere.od.utils.AstroUtils;
+import org.cohere.od.utils.EstimatorFactory;
+import org.cohere.od.utils.PropagatorFactory;
+import org.cohere.od.utils.TestFixtures;
+import org.hipparchus.geometry.euclidean.threed.Vector3D;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.orekit.estimation.leastsquares.BatchLSEstimator;
+import org.orekit.estimation.measurements.ObservedMeasurement;
+import org.orekit.forces.ForceModel;
+import org.orekit.forces.gravity.potential.NormalizedSphericalHarmonicsProvider;
+import org.orekit.frames.FramesFactory;
+import org.orekit.propagation.SpacecraftState;
+import org.orekit.propagation.conversion.NumericalPropagatorBuilder;
+
+/**
+ * Unit tests for the {@link SharedDataContext}.
+ */
+@Log4j2
+class SharedDataContextTest {
+
+  private static final double[] SIGMAS = new double[]{Math.toRadians(1.0 / 3600.0),
+      Math.toRadians(1.0 / 3600.0)};
+  private static final int CONCURRENT_ODS = 32;
+  private static final int AGREEMENT_ODS = 4;
+  private static final int BENCHMARK_ROUNDS = 2;
+
+  private static SpacecraftState initialState = null;
+  private static SharedDataContext dataContext = null;
+
+  @BeforeAll
+  public static void initialize() {
+    TestFixtures.initializeOrekit();
+    initialState = TestFixtures.createInitialStateAf3();
+    dataContext = new SharedDataContext(SharedDataContextSettings.builder()
+        .start(initialState.getDate().shiftedBy(-2.0 * 86400.0))
+        .duration(3.0 * 86400.0)
+        .build());
+  }
+
+  @AfterAll
+  public static void shutdown() {
+    dataContext = null;
+  }
+
+  @Test
+  void testSharedDataMatchesGlobalFactories() {
+
+    NormalizedSphericalHarmonicsProvider field = dataContext.getGravityField(8, 8);
+    Assertions.assertEquals(8, field.getMaxDegree());
+    Assertions.assertEquals(8, field.getMaxOrder());
+    Assertions.assertSame(dataContext.getGravityField(21, 21), dataContext.getGravityField(21, 21));
+    Assertions.assertThrows(IllegalArgumentException.class,
+        () -> dataContext.getGravityField(22, 22));
+    Assertions.assertThrows(IllegalArgumentException.class,
+        () -> dataContext.getGravityField(4, 6));
+
+    // The truncated field and the cached Earth orientation give the same accelerations.
+    List<ForceModel> expected = PropagatorFactory.createForceModels(TestFixtures.GRAVITY_ONLY);
+    List<ForceModel> actual = PropagatorFactory.createForceModels(TestFixtures.GRAVITY_ONLY,
+        dataContext);
+    Assertions.assertEquals(expected.size(), actual.size());
+    for (int i = 0; i < expected.size(); i++) {
+      Vector3D expectedAcceleration = expected.get(i).acceleration(initialState,
+          expected.get(i).getParameters());
+      Vector3D actualAcceleration = actual.get(i).acceleration(initialState,
+          actual.get(i).getParameters());
+      Assertions.assertEquals(0.0, expectedAcceleration.distance(actualAcceleration),
+          1.0e-9 * expectedAcceleration.getNorm());
+    }
+    Assertions.assertEquals(0.0, AstroUtils.EARTH.getBodyFrame()
+        .getTransformTo(FramesFactory.getGCRF(), initialState.getDate())
+        .transformPosition(Vector3D.PLUS_I.scalarMultiply(6.4e6))
+        .distance(dataContext.getEarth().getBodyFrame()
+            .getTransformTo(dataContext.getGcrf(), initialState.getDate())
+            .transformPosition(Vector3D.PLUS_I.scalarMultiply(6.4e6))), 1.0e-3);
+
+    // The span was sampled up front, so reading within it generates nothing.
+    GeometryCacheMetrics before = dataContext.getGeometryCache().getMetrics();
+    for (double offset = -86400.0; offset < 86400.0; offset += 600.0) {
+      dataContext.getEarth().getBodyFrame().getTransformTo(dataContext.getGcrf(),
+          initialState.getDate().shiftedBy(offset));
+    }
+    GeometryCacheMetrics after = dataContext.getGeometryCache().getMetrics();
+    Assertions.assertEquals(before.getMisses(), after.getMisses());
+    Assertions.assertEquals(0, after.getEvictions());
+    Assertions.assertTrue(after.getHits() > before.getHits());
+  }
+
+  @Test
+  void testConcurrentOdsAgree() throws Exception {
+
+    List<Path> files = listOifFiles();
+    ExecutorService executor = Executors.newFixedThreadPool(AGREEMENT_ODS);
+    try {
+      List<SpacecraftState> global = runConcurrently(executor, AGREEMENT_ODS,
+          () -> estimate(files, null));
+      List<SpacecraftState> shared = runConcurrently(executor, AGREEMENT_ODS,
+          () -> estimate(files, dataContext));
+      assertAgreement(global, shared);
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  /**
+   * Benchmark of concurrent ODs, from parsing the OIF files to the estimate, with the global
+   * factories and with the shared data context. Both modes run once to warm up, then alternate
+   * over several rounds, and the timings are only logged. It takes minutes, so it only runs in
+   * the benchmark profile.
+   */
+  @Test
+  @Tag("benchmark")
+  void testBenchmarkConcurrentOds() throws Exception {
+
+    List<Path> files = listOifFiles();
+    ExecutorService executor = Executors.newFixedThreadPool(CONCURRENT_ODS);
+    try {
+      List<SpacecraftState> global = null;
+      List<SpacecraftState> shared = null;
+      long globalNanos = 0L;
+      long sharedNanos = 0L;
+      for (int round = 0; round <= BENCHMARK_ROUNDS; round++) {
+        long start = System.nanoTime();
+        global = runConcurrently(executor, CONCURRENT_ODS, () -> estimate(files, null));
+        long globalRound = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        shared = runConcurrently(executor, CONCURRENT_ODS, () -> estimate(files, dataContext));
+        long sharedRound = System.nanoTime() - start;
+
+        // The first round is the warm-up.
+        if (round > 0) {
+          globalNanos += globalRound;
+          sharedNanos += sharedRound;
+        }
+      }
+
+      log.info("{} concurrent ODs on {} processors over {} rounds: {} ms with the global "
+              + "factories, {} ms with the shared data context, speed-up {}.", CONCURRENT_ODS,
+          Runtime.getRuntime().availableProcessors(), BENCHMARK_ROUNDS, globalNanos / 1.0e6,
+          sharedNanos / 1.0e6, (double) globalNanos / sharedNanos);
+      assertAgreement(global, shared);
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private static void assertAgreement(List<SpacecraftState> global,
+      List<SpacecraftState> shared) {
+    for (int i = 0; i < global.size(); i++) {
+      Assertions.assertEquals(0.0, global.get(i).getDate().durationFrom(
+          shared.get(i).getDate()), 0.0);
+      Assertions.assertEquals(0.0, global.get(i).getPVCoordinates().getPosition().distance(
+          shared.get(i).getPVCoordinates().getPosition()), 1.0);
+      // Every OD of a mode reaches the same solution.
+      Assertions.assertEquals(0.0, shared.get(0).getPVCoordinates().getPosition().distance(
+          shared.get(i).getPVCoordinates().getPosition()), 0.0);
+    }
+  }
+
+  private static List<Path> listOifFiles() throws IOException {
+    try (Stream<Path> list = Files.list(TestFixtures.OIF_ROOT.resolve("af3"))) {
+      return list.filter(file -> file.toString().endsWith(".oif"))
+          .sorted()
+          .collect(Collectors.toList());
+    }
+  }
+
+  private static List<SpacecraftState> runConcurrently(ExecutorService executor, int count,
+      Callable<SpacecraftState> od) throws Exception {
+    List<Callable<SpacecraftState>> tasks = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      tasks.add(od);
+    }
+    List<SpacecraftState> states = new ArrayList<>();
+    for (Future<SpacecraftState> future : executor.invokeAll(tasks)) {
+      states.add(future.get());
+    }
+    return states;
+  }
+
+  private static SpacecraftState estimate(List<Path> files, SharedDataContext context)
+      throws IOException {
+
+    List<ObservedMeasurement<?>> measurements = new ArrayList<>();
+    for (Path file : files) {
+      for (Map.Entry<String, List<ObservedMeasurement<?>>> entry : OifParser.parse(file, SIGMAS,
+          context).entrySet()) {
+        measurements.addAll(entry.getValue());
+      }
+    }
+    NumericalPropagatorBuilder builder = context == null
+        ? PropagatorFactory.createPropagatorBuilder(initialState, TestFixtures.GRAVITY_ONLY,
+            PropagatorFactory.createIntegratorBuilder(0.001, 300.0, 1.0))
+        : PropagatorFactory.createPropagatorBuilder(initialState, TestFixtures.GRAVITY_ONLY,
+            PropagatorFactory.createIntegratorBuilder(0.001, 300.0, 1.0), context);
+    BatchLSEstimator estimator = EstimatorFactory.createBatchLsEstimator(builder, measurements,
+        OdSettings.DEFAULT);
+    return estimator.estimate()[0].getInitialState();
+  }
+
+}
@@ -0,0 +1,215 @@
+package org.cohere.od.distributed;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.cohere.od.OdProcessor;
+import org.cohere.od.models.StateAndCovariance;
+import org.cohere.od.utils.TestFixtures;
+import org.hipparchus.linear.MatrixUtils;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.orekit.estimation.measurements.AngularRaDec;
+import org.orekit.estimation.measurements.ObservableSatellite;
+import org.orekit.estimation.measurements.ObservedMeasurement;
+import org.orekit.frames.FramesFactory;
+import org.orekit.orbits.OrbitType;
+import org.orekit.orbits.PositionAngle;
+import org.orekit.propagation.SpacecraftState;
+import org.orekit.propagation.StateCovariance;
+
+/**
+ * Unit tests for the {@link OdCoordinator} and its transports. The workers echo the initial state
+ * of each job instead of performing an OD, so the tests only exercise the scheduling.
+ */
+class OdCoordinatorTest {
+
+  @BeforeAll
+  public static void initializeOrekit() {
+    TestFixtures.initializeOrekit();
+  }
+
+  @Test
+  void testTargetsStayOnTheSameWorkerAcrossRuns() {
+
+    List<WorkerConnection> connections = List.of(
+        connect("a", 0), connect("b", 0), connect("c", 0));
+    OdCoordinator coordinator = new OdCoordinator(connections);
+    List<OdJob> jobs = createJobs(60);
+
+    DistributedRunResult first = coordinator.run(jobs);
+    DistributedRunResult second = coordinator.run(jobs);
+
+    Assertions.assertEquals(jobs.size(), first.getResults().size());
+    Map<String, Integer> jobsPerWorker = new HashMap<>();
+    for (int i = 0; i < jobs.size(); i++) {
+      OdJobResult result = first.getResults().get(i);
+      Assertions.assertTrue(result.isSuccessful());
+      Assertions.assertEquals(jobs.get(i).getTargetId(), result.getTargetId());
+      jobsPerWorker.merge(result.getWorkerId(), 1, Integer::sum);
+      if (first.getStolenJobs() == 0 && second.getStolenJobs() == 0) {
+        Assertions.assertEquals(result.getWorkerId(), second.getResults().get(i).getWorkerId());
+      }
+    }
+    Assertions.assertEquals(3, jobsPerWorker.size());
+  }
+
+  @Test
+  void testIdleWorkerStealsFromStraggler() {
+
+    OdCoordinator coordinator = new OdCoordinator(List.of(connect("slow", 50), connect("fast", 0)));
+
+    DistributedRunResult run = coordinator.run(createJobs(40));
+
+    Assertions.assertTrue(run.getStolenJobs() > 0);
+    Assertions.assertTrue(run.getResults().stream().allMatch(OdJobResult::isSuccessful));
+  }
+
+  @Test
+  void testJobsOfLostWorkerAreReassigned() {
+
+    AtomicInteger processed = new AtomicInteger();
+    InProcessWorkerConnection[] doomed = new InProcessWorkerConnection[1];
+    OdProcessor failing = (state, measurements) -> {
+      // The worker is lost while processing its third job.
+      if (processed.incrementAndGet() == 3) {
+        doomed[0].disconnect();
+      }
+      return echo(state);
+    };
+    doomed[0] = new InProcessWorkerConnection(new OdWorker("doomed", failing));
+    OdCoordinator coordinator = new OdCoordinator(
+        List.of(doomed[0], connect("a", 5), connect("b", 5)));
+
+    DistributedRunResult run = coordinator.run(createJobs(60));
+
+    Assertions.assertEquals(List.of("doomed"), run.getLostWorkers());
+    Assertions.assertTrue(run.getReassignedJobs() > 0);
+    Assertions.assertTrue(run.getResults().stream().allMatch(OdJobResult::isSuccessful));
+    // Only the jobs completed before the loss are kept from the lost worker.
+    Assertions.assertEquals(2, run.getResults().stream()
+        .filter(result -> result.getWorkerId().equals("doomed")).count());
+  }
+
+  @Test
+  void testLosingAllWorkersFails() {
+
+    InProcessWorkerConnection connection = connect("a", 0);
+    connection.disconnect();
+    OdCoordinator coordinator = new OdCoordinator(List.of(connection));
+
+    Assertions.assertThrows(IllegalStateException.class, () -> coordinator.run(createJobs(3)));
+  }
+
+  @Test
+  void testFailedOdIsReportedWithoutLosingWorker() {
+
+    OdProcessor failing = (state, measurements) -> {
+      throw new IllegalStateException("Failed to execute OD: test");
+    };
+    OdCoordinator coordinator = new OdCoordinator(
+        List.of(new InProcessWorkerConnection(new OdWorker("a", failing))));
+
+    DistributedRunResult run = coordinator.run(createJobs(2));
+
+    Assertions.assertTrue(run.getLostWorkers().isEmpty());
+    Assertions.assertEquals("Failed to execute OD: test", run.getResults().get(0).getError());
+  }
+
+  @Test
+  void testSocketTransportSurvivesWorkerShutdown() throws IOException {
+
+    List<OdJob> jobs = createJobs(30);
+    try (SocketOdWorkerServer serverA = new SocketOdWorkerServer(
+        new OdWorker("a", slowEcho(10)), 0);
+        SocketOdWorkerServer serverB = new SocketOdWorkerServer(
+            new OdWorker("b", slowEcho(10)), 0)) {
+
+      List<WorkerConnection> connections = new ArrayList<>();
+      for (SocketOdWorkerServer server : List.of(serverA, serverA, serverB, serverB)) {
+        connections.add(new SocketWorkerConnection(
+            new InetSocketAddress("localhost", server.getPort()), Duration.ofSeconds(30)));
+      }
+      OdCoordinator coordinator = new OdCoordinator(connections);
+
+      DistributedRunResult healthy = coordinator.run(jobs);
+      for (int i = 0; i < jobs.size(); i++) {
+        StateAndCovariance result = healthy.getResults().get(i).getResult();
+        Assertions.assertEquals(0.0, result.getState().getDate()
+            .durationFrom(jobs.get(i).getInitialState().getDate()), 0.0);
+        Assertions.assertEquals(jobs.get(i).getInitialState().getPVCoordinates().getPosition(),
+            result.getState().getPVCoordinates().getPosition());
+      }
+
+      serverA.close();
+      DistributedRunResult degraded = coordinator.run(jobs);
+      Assertions.assertEquals(List.of("a"), degraded.getLostWorkers());
+      Assertions.assertTrue(degraded.getResults().stream()
+          .allMatch(result -> result.isSuccessful() && result.getWorkerId().equals("b")));
+    }
+  }
+
+  @Test
+  void testRemovingWorkerOnlyMovesItsTargets() {
+
+    ConsistentHashRing ring = new ConsistentHashRing(OdCoordinator.DEFAULT_VIRTUAL_NODES);
+    List.of("a", "b", "c", "d").forEach(ring::add);
+    Map<String, String> before = new HashMap<>();
+    for (int i = 0; i < 1000; i++) {
+      before.put("T" + i, ring.route("T" + i));
+    }
+
+    ring.remove("c");
+    for (Map.Entry<String, String> entry : before.entrySet()) {
+      if (!entry.getValue().equals("c")) {
+        Assertions.assertEquals(entry.getValue(), ring.route(entry.getKey()));
+      } else {
+        Assertions.assertNotEquals("c", ring.route(entry.getKey()));
+      }
+    }
+    long owned = before.values().stream().filter("c"::equals).count();
+    Assertions.assertTrue(owned > 150 && owned < 350, "Unbalanced ring: " + owned);
+  }
+
+  private static InProcessWorkerConnection connect(String workerId, long delayMillis) {
+    return new InProcessWorkerConnection(new OdWorker(workerId, slowEcho(delayMillis)));
+  }
+
+  private static OdProcessor slowEcho(long delayMillis) {
+    return (state, measurements) -> {
+      try {
+        Thread.sleep(delayMillis);
+      } catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+      }
+      return echo(state);
+    };
+  }
+
+  private static StateAndCovariance echo(SpacecraftState state) {
+    return new StateAndCovariance(new StateCovariance(MatrixUtils.createRealIdentityMatrix(6),
+        state.getDate(), state.getFrame(), OrbitType.CARTESIAN, PositionAngle.MEAN), state);
+  }
+
+  private static List<OdJob> createJobs(int count) {
+    SpacecraftState state = TestFixtures.createInitialStateAf3();
+    List<OdJob> jobs = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      SpacecraftState initialState = state.shiftedBy(60.0 * i);
+      List<ObservedMeasurement<?>> measurements = Collections.singletonList(new AngularRaDec(
+          TestFixtures.createDiegoGarcia(), FramesFactory.getGCRF(), initialState.getDate(),
+          new double[]{0.1 * i, 0.2}, new double[]{1e-5, 1e-5}, new double[]{1.0, 1.0},
+          new ObservableSatellite(0)));
+      jobs.add(new OdJob(String.valueOf(90000 + i), initialState, measurements));
+    }
+    return jobs;
+  }
+
+}
@@ -0,0 +1,155 @@
+package org.cohere.od.distributed;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import org.cohere.od.OdProcessor;
+import org.cohere.od.utils.TestFixtures;
+import org.hipparchus.geometry.euclidean.threed.Vector3D;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.orekit.orbits.CartesianOrbit;
+import org.orekit.propagation.SpacecraftState;
+import org.orekit.propagation.analytical.KeplerianPropagator;
+import org.orekit.utils.Constants;
+import org.orekit.utils.TimeStampedPVCoordinates;
+
+/**
+ * Unit tests for the {@link OdWorkerDaemon}.
+ */
+class OdWorkerDaemonTest {
+
+  private static final long TIMEOUT_MILLIS = 60000L;
+
+  @BeforeAll
+  public static void initialize() {
+    TestFixtures.initializeOrekit();
+  }
+
+  @Test
+  void testWarmUpThenServesSocketAndFileJobs(@TempDir Path directory) throws Exception {
+
+    Path jobs = directory.resolve("jobs");
+    Path results = directory.resolve("results");
+    WorkerDaemonSettings settings = WorkerDaemonSettings.builder()
+        .workerId("warm")
+        .jobDirectory(jobs)
+        .resultDirectory(results)
+        .preloadProfile(TestFixtures.GRAVITY_ONLY)
+        .warmUpRuns(2)
+        .build();
+
+    OdJob job = OdWorkerDaemon.createWarmUpJob();
+    TimeStampedPVCoordinates initial = job.getInitialState().getPVCoordinates();
+    KeplerianPropagator truth = new KeplerianPropagator(new CartesianOrbit(
+        new TimeStampedPVCoordinates(initial.getDate(),
+            initial.getPosition().subtract(new Vector3D(1000.0, 0.0, 0.0)),
+            initial.getVelocity()), job.getInitialState().getFrame(),
+        Constants.IERS2010_EARTH_MU));
+
+    try (OdWorkerDaemon daemon = new OdWorkerDaemon(settings, TestFixtures::estimateGravityOnly)) {
+
+      Assertions.assertEquals(2, daemon.getWarmUpResults().size());
+      for (OdJobResult result : daemon.getWarmUpResults()) {
+        Assertions.assertTrue(result.isSuccessful(), result.getError());
+        // The warm-up measurements are geometric and the dynamics are not Keplerian, so the
+        // estimate is only close to the truth.
+        SpacecraftState estimated = result.getResult().getState();
+        double error = Vector3D.distance(estimated.getPVCoordinates().getPosition(),
+            truth.getPVCoordinates(estimated.getDate(), estimated.getFrame()).getPosition());
+        Assertions.assertTrue(error < 1000.0, "error " + error);
+      }
+      Assertions.assertTrue(daemon.getStartupNanos() > 0);
+
+      try (SocketWorkerConnection connection = new SocketWorkerConnection(
+          new InetSocketAddress("localhost", daemon.getPort()), Duration.ofSeconds(30))) {
+        Assertions.assertEquals("warm", connection.getWorkerId());
+        OdJobResult result = connection.process(job);
+        Assertions.assertTrue(result.isSuccessful(), result.getError());
+        Assertions.assertEquals(0.0, Vector3D.distance(
+            daemon.getWarmUpResults().get(0).getResult().getState().getPVCoordinates()
+                .getPosition(), result.getResult().getState().getPVCoordinates().getPosition()),
+            1.0e-3);
+      }
+
+      // Files are written aside then moved in. Other files are ignored.
+      Path staged = directory.resolve("batch.odjob");
+      OdWorkerDaemon.writeJobFile(staged, List.of(job, new OdJob("other",
+          job.getInitialState(), job.getMeasurements())));
+      Files.writeString(jobs.resolve("notes.txt"), "ignored");
+      Files.move(staged, jobs.resolve("batch.odjob"), StandardCopyOption.ATOMIC_MOVE);
+
+      Path resultFile = results.resolve("batch" + OdWorkerDaemon.RESULT_SUFFIX);
+      long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+      while (!Files.exists(resultFile)) {
+        Assertions.assertTrue(System.currentTimeMillis() < deadline, "Timed out");
+        Thread.sleep(10L);
+      }
+      List<OdJobResult> fileResults = OdWorkerDaemon.readResultFile(resultFile);
+      Assertions.assertEquals(2, fileResults.size());
+      Assertions.assertEquals("warm-up", fileResults.get(0).getTargetId());
+      Assertions.assertEquals("other", fileResults.get(1).getTargetId());
+      for (OdJobResult result : fileResults) {
+        Assertions.assertTrue(result.isSuccessful(), result.getError());
+        Assertions.assertEquals("warm", result.getWorkerId());
+      }
+      Assertions.assertFalse(Files.exists(jobs.resolve("batch.odjob")));
+      Assertions.assertTrue(Files.exists(jobs.resolve("notes.txt")));
+    }
+  }
+
+  @Test
+  void testTruncatedJobFileFails(@TempDir Path directory) throws Exception {
+
+    OdJob job = OdWorkerDaemon.createWarmUpJob();
+    Path file = directory.resolve("batch.odjob");
+    OdWorkerDaemon.writeJobFile(file, List.of(job, job));
+    Assertions.assertEquals(2, OdWorkerDaemon.readJobFile(file).size());
+
+    // A record cut short is not taken for the end of the file.
+    byte[] bytes = Files.readAllBytes(file);
+    Path truncated = directory.resolve("truncated.odjob");
+    Files.write(truncated, Arrays.copyOf(bytes, bytes.length - 8));
+    Assertions.assertThrows(IOException.class, () -> OdWorkerDaemon.readJobFile(truncated));
+
+    // Neither is a file cut on a record boundary, or followed by extra data.
+    Files.write(truncated, Arrays.copyOf(bytes, (bytes.length - 4) / 2 + 4));
+    Assertions.assertThrows(IOException.class, () -> OdWorkerDaemon.readJobFile(truncated));
+    Files.write(truncated, Arrays.copyOf(bytes, bytes.length + 1));
+    Assertions.assertThrows(IOException.class, () -> OdWorkerDaemon.readJobFile(truncated));
+
+    // A corrupt count is rejected before anything is allocated for it.
+    Path corrupt = directory.resolve("corrupt.odjob");
+    for (int count : new int[]{Integer.MAX_VALUE, -1}) {
+      byte[] header = ByteBuffer.allocate(Integer.BYTES).putInt(count).array();
+      System.arraycopy(header, 0, bytes, 0, header.length);
+      Files.write(corrupt, bytes);
+      Assertions.assertThrows(IOException.class, () -> OdWorkerDaemon.readJobFile(corrupt));
+    }
+  }
+
+  @Test
+  void testDisabledInterfaces() throws Exception {
+    OdProcessor failing = (initialState, measurements) -> {
+      throw new IllegalStateException("no OD");
+    };
+    try (OdWorkerDaemon daemon = new OdWorkerDaemon(WorkerDaemonSettings.builder()
+        .port(-1)
+        .preloadProfile(TestFixtures.GRAVITY_ONLY)
+        .warmUpRuns(1)
+        .build(), failing)) {
+      Assertions.assertEquals(-1, daemon.getPort());
+      // A failed warm-up does not prevent the daemon from starting.
+      Assertions.assertFalse(daemon.getWarmUpResults().get(0).isSuccessful());
+    }
+  }
+
+}
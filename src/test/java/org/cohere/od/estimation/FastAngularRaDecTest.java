@@ -0,0 +1,133 @@
+package org.cohere.od.estimation;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import org.cohere.od.models.OdSettings;
+import org.cohere.od.utils.EstimatorFactory;
+import org.cohere.od.utils.TestFixtures;
+import org.hipparchus.geometry.euclidean.threed.Vector3D;
+import org.hipparchus.linear.RealMatrix;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.orekit.estimation.leastsquares.BatchLSEstimator;
+import org.orekit.estimation.measurements.AngularRaDec;
+import org.orekit.estimation.measurements.EstimatedMeasurement;
+import org.orekit.estimation.measurements.GroundStation;
+import org.orekit.estimation.measurements.ObservableSatellite;
+import org.orekit.estimation.measurements.ObservedMeasurement;
+import org.orekit.frames.Frame;
+import org.orekit.frames.FramesFactory;
+import org.orekit.propagation.Propagator;
+import org.orekit.propagation.SpacecraftState;
+import org.orekit.time.AbsoluteDate;
+
+/**
+ * Unit tests for the {@link FastAngularRaDec}.
+ */
+class FastAngularRaDecTest {
+
+  private static final double[] SIGMAS = new double[]{Math.toRadians(0.001),
+      Math.toRadians(0.001)};
+
+  @BeforeAll
+  public static void initializeOrekit() {
+    TestFixtures.initializeOrekit();
+  }
+
+  @Test
+  void testMatchesAngularRaDec() {
+
+    SpacecraftState initialState = TestFixtures.createInitialStateAf3();
+    Propagator propagator = TestFixtures.createGravityOnlyBuilder(initialState).buildPropagator(
+        TestFixtures.createGravityOnlyBuilder(initialState).getSelectedNormalizedParameters());
+    GroundStation station = TestFixtures.createDiegoGarcia();
+    // The estimators set the reference dates of the measurement parameters.
+    station.getPrimeMeridianOffsetDriver().setReferenceDate(initialState.getDate());
+    station.getPolarOffsetXDriver().setReferenceDate(initialState.getDate());
+    station.getPolarOffsetYDriver().setReferenceDate(initialState.getDate());
+    ObservableSatellite satellite = new ObservableSatellite(0);
+
+    for (Frame referenceFrame : List.of(FramesFactory.getGCRF(), FramesFactory.getEME2000())) {
+      for (int i = 0; i < 10; i++) {
+        AbsoluteDate date = initialState.getDate().shiftedBy(3600.0 * i);
+        // The state is not always at the measurement date.
+        SpacecraftState state = propagator.propagate(date.shiftedBy(i % 2 == 0 ? 0.0 : 5.0));
+        AngularRaDec expected = new AngularRaDec(station, referenceFrame, date,
+            new double[]{3.0, 0.1}, SIGMAS, new double[]{1.0, 1.0}, satellite);
+        FastAngularRaDec actual = new FastAngularRaDec(expected);
+
+        EstimatedMeasurement<AngularRaDec> expectedEstimate = expected.estimate(0, 0,
+            new SpacecraftState[]{state});
+        EstimatedMeasurement<FastAngularRaDec> actualEstimate = actual.estimate(0, 0,
+            new SpacecraftState[]{state});
+
+        for (int j = 0; j < 2; j++) {
+          Assertions.assertEquals(expectedEstimate.getEstimatedValue()[j],
+              actualEstimate.getEstimatedValue()[j], 1.0e-12);
+          double[] expectedDerivatives = expectedEstimate.getStateDerivatives(0)[j];
+          double[] actualDerivatives = actualEstimate.getStateDerivatives(0)[j];
+          for (int k = 0; k < 6; k++) {
+            Assertions.assertEquals(expectedDerivatives[k], actualDerivatives[k],
+                1.0e-9 * Math.abs(expectedDerivatives[k]) + 1.0e-20);
+          }
+        }
+        Assertions.assertEquals(0.0, expectedEstimate.getStates()[0].getDate()
+            .durationFrom(actualEstimate.getStates()[0].getDate()), 1.0e-12);
+        Assertions.assertEquals(0.0, Vector3D.distance(
+            expectedEstimate.getParticipants()[1].getPosition(),
+            actualEstimate.getParticipants()[1].getPosition()), 1.0e-6);
+      }
+    }
+  }
+
+  @Test
+  void testConvertsOnlyFixedStationMeasurements() {
+
+    SpacecraftState initialState = TestFixtures.createInitialStateAf3();
+    GroundStation station = TestFixtures.createDiegoGarcia();
+    AngularRaDec measurement = new AngularRaDec(station, FramesFactory.getGCRF(),
+        initialState.getDate(), new double[]{3.0, 0.1}, SIGMAS, new double[]{1.0, 1.0},
+        new ObservableSatellite(0));
+
+    Assertions.assertTrue(FastAngularRaDec.convert(measurement) instanceof FastAngularRaDec);
+    station.getEastOffsetDriver().setSelected(true);
+    Assertions.assertSame(measurement, FastAngularRaDec.convert(measurement));
+  }
+
+  @Test
+  void testOifOdMatchesAngularRaDec() throws IOException {
+
+    SpacecraftState[] initialStates = new SpacecraftState[]{
+        TestFixtures.createInitialStateAf3(), TestFixtures.createInitialStateCp1(),
+        TestFixtures.createInitialStateSa2()};
+    String[] directories = new String[]{"af3", "cp1", "sa2"};
+    for (int i = 0; i < initialStates.length; i++) {
+      List<ObservedMeasurement<?>> measurements = TestFixtures.readOifMeasurements(
+          TestFixtures.OIF_ROOT.resolve(directories[i]), SIGMAS);
+
+      BatchLSEstimator standard = EstimatorFactory.createBatchLsEstimator(
+          TestFixtures.createGravityOnlyBuilder(initialStates[i]), new ArrayList<>(measurements),
+          OdSettings.DEFAULT);
+      SpacecraftState expected = standard.estimate()[0].getInitialState();
+      BatchLSEstimator fast = EstimatorFactory.createBatchLsEstimator(
+          TestFixtures.createGravityOnlyBuilder(initialStates[i]), new ArrayList<>(measurements),
+          OdSettings.builder().fastAngularMeasurements(true).build());
+      SpacecraftState actual = fast.estimate()[0].getInitialState();
+
+      Assertions.assertEquals(standard.getIterationsCount(), fast.getIterationsCount());
+      Assertions.assertEquals(standard.getOptimum().getRMS(), fast.getOptimum().getRMS(),
+          1.0e-6 * standard.getOptimum().getRMS());
+      Assertions.assertTrue(Vector3D.distance(expected.getPVCoordinates().getPosition(),
+          actual.getPVCoordinates().getPosition()) < 0.01);
+      RealMatrix expectedCovariance = standard.getPhysicalCovariances(Double.MIN_VALUE);
+      RealMatrix actualCovariance = fast.getPhysicalCovariances(Double.MIN_VALUE);
+      for (int j = 0; j < 6; j++) {
+        Assertions.assertEquals(expectedCovariance.getEntry(j, j), actualCovariance.getEntry(j, j),
+            1.0e-6 * expectedCovariance.getEntry(j, j));
+      }
+    }
+  }
+
+}
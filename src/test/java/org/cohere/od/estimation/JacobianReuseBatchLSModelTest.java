@@ -0,0 +1,84 @@
+package org.cohere.od.estimation;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.cohere.od.models.OdSettings;
+import org.cohere.od.utils.EstimatorFactory;
+import org.cohere.od.utils.JacobianUpdate;
+import org.cohere.od.utils.OdEpochStrategy;
+import org.cohere.od.utils.TestFixtures;
+import org.hipparchus.geometry.euclidean.threed.Vector3D;
+import org.hipparchus.linear.RealMatrix;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.orekit.estimation.leastsquares.BatchLSEstimator;
+import org.orekit.estimation.measurements.ObservedMeasurement;
+import org.orekit.propagation.SpacecraftState;
+import org.orekit.propagation.conversion.NumericalPropagatorBuilder;
+
+/**
+ * Unit tests for the {@link JacobianReuseBatchLSModel}.
+ */
+class JacobianReuseBatchLSModelTest {
+
+  private static final double SIGMA = Math.toRadians(0.001);
+  private static final double MAX_POSITION_ERROR = 1.0;
+
+  @BeforeAll
+  public static void initializeOrekit() {
+    TestFixtures.initializeOrekit();
+  }
+
+  @Test
+  void testFrozenJacobianMatchesFullJacobian() {
+    assertMatchesFullJacobian(JacobianUpdate.FROZEN, OdEpochStrategy.LAST_MEASUREMENT);
+  }
+
+  @Test
+  void testBroydenJacobianMatchesFullJacobianAtMidSpan() {
+    assertMatchesFullJacobian(JacobianUpdate.BROYDEN, OdEpochStrategy.MID_SPAN);
+  }
+
+  private void assertMatchesFullJacobian(JacobianUpdate update, OdEpochStrategy epochStrategy) {
+
+    SpacecraftState truth = TestFixtures.createInitialStateAf3();
+    List<ObservedMeasurement<?>> measurements = TestFixtures.generateRaDecMeasurements(truth,
+        SIGMA);
+    SpacecraftState initialGuess = TestFixtures.perturb(truth);
+
+    OdSettings fullSettings = OdSettings.builder().epochStrategy(epochStrategy).build();
+    BatchLSEstimator full = EstimatorFactory.createBatchLsEstimator(
+        TestFixtures.createGravityOnlyBuilder(initialGuess), new ArrayList<>(measurements),
+        fullSettings);
+    SpacecraftState expected = full.estimate()[0].getInitialState();
+
+    List<JacobianReuseBatchLSModel> models = new ArrayList<>();
+    BatchLSModelFactory capturingFactory = (builders, observed, parameters, observer) -> {
+      JacobianReuseBatchLSModel model = new JacobianReuseBatchLSModel(builders, observed,
+          parameters, observer, update, 1e-3);
+      models.add(model);
+      return model;
+    };
+    NumericalPropagatorBuilder builder = TestFixtures.createGravityOnlyBuilder(initialGuess);
+    BatchLSEstimator reuse = EstimatorFactory.createBatchLsEstimator(
+        new ModelOverridingPropagatorBuilder(builder, capturingFactory),
+        new ArrayList<>(measurements), fullSettings);
+    SpacecraftState actual = reuse.estimate()[0].getInitialState();
+
+    Assertions.assertEquals(0.0, expected.getDate().durationFrom(actual.getDate()), 0.0);
+    Assertions.assertTrue(Vector3D.distance(expected.getPVCoordinates().getPosition(),
+        actual.getPVCoordinates().getPosition()) < MAX_POSITION_ERROR);
+    Assertions.assertEquals(1, models.size());
+    Assertions.assertTrue(models.get(0).getReuseEvaluations() > 0);
+
+    // The converged evaluation always uses a full Jacobian, so the covariances agree.
+    RealMatrix expectedCovariance = full.getPhysicalCovariances(Double.MIN_VALUE);
+    RealMatrix actualCovariance = reuse.getPhysicalCovariances(Double.MIN_VALUE);
+    for (int i = 0; i < 6; i++) {
+      Assertions.assertEquals(expectedCovariance.getEntry(i, i), actualCovariance.getEntry(i, i),
+          1e-2 * expectedCovariance.getEntry(i, i));
+    }
+  }
+
+}
@@ -0,0 +1,131 @@
+package org.cohere.od.estimation;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import lombok.extern.log4j.Log4j2;
+import org.cohere.od.models.OdSettings;
+import org.cohere.od.models.SubsamplingReport;
+import org.cohere.od.models.SubsamplingSchedule;
+import org.cohere.od.utils.EstimatorFactory;
+import org.cohere.od.utils.TestFixtures;
+import org.hipparchus.geometry.euclidean.threed.Vector3D;
+import org.hipparchus.linear.RealMatrix;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.orekit.estimation.leastsquares.BatchLSEstimator;
+import org.orekit.estimation.measurements.ObservedMeasurement;
+import org.orekit.propagation.SpacecraftState;
+import org.orekit.propagation.conversion.NumericalPropagatorBuilder;
+
+/**
+ * Unit tests for the {@link ProgressiveSubsampler}.
+ */
+@Log4j2
+class ProgressiveSubsamplerTest {
+
+  private static final double[] SIGMAS = new double[]{Math.toRadians(1.0 / 3600.0),
+      Math.toRadians(1.0 / 3600.0)};
+
+  @BeforeAll
+  public static void initialize() {
+    TestFixtures.initializeOrekit();
+  }
+
+  @Test
+  void testSubsetsAreSpreadOverEachArc() throws IOException {
+
+    List<ObservedMeasurement<?>> measurements = TestFixtures.readOifMeasurements(
+        TestFixtures.OIF_ROOT.resolve("af3"), SIGMAS);
+    measurements.sort((a, b) -> a.getDate().compareTo(b.getDate()));
+    SubsamplingSchedule schedule = SubsamplingSchedule.builder()
+        .initialPerArc(2)
+        .maxStageFraction(0.75)
+        .build();
+
+    List<List<ObservedMeasurement<?>>> subsets = ProgressiveSubsampler.selectSubsets(measurements,
+        schedule);
+
+    Assertions.assertTrue(subsets.size() >= 2);
+    // The 3 nights of the fixture, 2 measurements each.
+    Assertions.assertEquals(6, subsets.get(0).size());
+    int previousSize = 0;
+    for (List<ObservedMeasurement<?>> subset : subsets) {
+      Assertions.assertTrue(subset.size() > previousSize);
+      Assertions.assertTrue(subset.size() <= 0.75 * measurements.size());
+      // The OD epoch of every strategy is the one of the full set.
+      Assertions.assertSame(measurements.get(0), subset.get(0));
+      Assertions.assertSame(measurements.get(measurements.size() - 1),
+          subset.get(subset.size() - 1));
+      previousSize = subset.size();
+    }
+
+    Assertions.assertTrue(ProgressiveSubsampler.selectSubsets(measurements.subList(0, 2),
+        schedule).isEmpty());
+    Assertions.assertThrows(IllegalArgumentException.class,
+        () -> ProgressiveSubsampler.selectSubsets(measurements, schedule.toBuilder()
+            .growthFactor(1.0)
+            .build()));
+  }
+
+  @Test
+  void testFinalStateMatchesFullDataOd() throws IOException {
+
+    // The fixtures, and a poorer initial guess that needs one more full-data evaluation.
+    String[] names = new String[]{"af3", "sa2", "sa2"};
+    SpacecraftState[] initialStates = new SpacecraftState[]{
+        TestFixtures.createInitialStateAf3(), TestFixtures.createInitialStateSa2(),
+        TestFixtures.offset(TestFixtures.createInitialStateSa2(),
+            new Vector3D(1.0e5, -1.0e5, 5.0e4), Vector3D.ZERO)};
+    OdSettings settings = OdSettings.builder()
+        .subsamplingSchedule(SubsamplingSchedule.DEFAULT)
+        .build();
+
+    long fullMeasurementEvaluations = 0;
+    long subsampledMeasurementEvaluations = 0;
+    for (int i = 0; i < names.length; i++) {
+      List<ObservedMeasurement<?>> measurements = TestFixtures.readOifMeasurements(
+          TestFixtures.OIF_ROOT.resolve(names[i]), SIGMAS);
+
+      BatchLSEstimator full = EstimatorFactory.createBatchLsEstimator(
+          TestFixtures.createGravityOnlyBuilder(initialStates[i]), new ArrayList<>(measurements),
+          OdSettings.DEFAULT);
+      SpacecraftState expected = full.estimate()[0].getInitialState();
+
+      NumericalPropagatorBuilder builder = TestFixtures.createGravityOnlyBuilder(initialStates[i]);
+      SubsamplingReport report = ProgressiveSubsampler.presolve(builder, measurements, settings);
+      BatchLSEstimator subsampled = EstimatorFactory.createBatchLsEstimator(builder,
+          new ArrayList<>(measurements), settings);
+      SpacecraftState actual = subsampled.estimate()[0].getInitialState();
+      report = report.withFinalEvaluations(subsampled.getEvaluationsCount());
+
+      long fullEvaluations = (long) full.getEvaluationsCount() * measurements.size();
+      log.info("{}: {} subsets, {} measurement evaluations instead of {}, {} m from the full-data "
+              + "OD.", names[i], report.getStages(), report.getMeasurementEvaluations(),
+          fullEvaluations, Vector3D.distance(expected.getPVCoordinates().getPosition(),
+              actual.getPVCoordinates().getPosition()));
+
+      Assertions.assertTrue(report.getStages() >= 1);
+      Assertions.assertEquals(measurements.size(), report.getMeasurementCount());
+      Assertions.assertTrue(report.getMeasurementEvaluations() < fullEvaluations);
+      Assertions.assertTrue(subsampled.getEvaluationsCount() < full.getEvaluationsCount());
+      Assertions.assertEquals(0.0, actual.getDate().durationFrom(expected.getDate()), 1.0e-9);
+      Assertions.assertEquals(0.0, Vector3D.distance(expected.getPVCoordinates().getPosition(),
+          actual.getPVCoordinates().getPosition()), 1.0e-6);
+
+      // The covariance comes from the full set.
+      RealMatrix expectedCovariance = full.getPhysicalCovariances(Double.MIN_VALUE);
+      RealMatrix actualCovariance = subsampled.getPhysicalCovariances(Double.MIN_VALUE);
+      for (int j = 0; j < 6; j++) {
+        Assertions.assertEquals(1.0, actualCovariance.getEntry(j, j)
+            / expectedCovariance.getEntry(j, j), 1.0e-2);
+      }
+
+      fullMeasurementEvaluations += fullEvaluations;
+      subsampledMeasurementEvaluations += report.getMeasurementEvaluations();
+    }
+    Assertions.assertTrue(subsampledMeasurementEvaluations < fullMeasurementEvaluations);
+  }
+
+}
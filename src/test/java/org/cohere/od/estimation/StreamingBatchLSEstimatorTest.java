@@ -0,0 +1,168 @@
+package org.cohere.od.estimation;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import org.cohere.od.models.OdSettings;
+import org.cohere.od.utils.EstimatorFactory;
+import org.cohere.od.utils.OdEpochStrategy;
+import org.cohere.od.utils.TestFixtures;
+import org.hipparchus.geometry.euclidean.threed.Vector3D;
+import org.hipparchus.linear.MatrixUtils;
+import org.hipparchus.linear.RealMatrix;
+import org.hipparchus.linear.RealVector;
+import org.hipparchus.optim.nonlinear.vector.leastsquares.LeastSquaresProblem;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.orekit.estimation.leastsquares.BatchLSEstimator;
+import org.orekit.estimation.measurements.ObservedMeasurement;
+import org.orekit.propagation.SpacecraftState;
+
+/**
+ * Unit tests for the {@link StreamingBatchLSEstimator}.
+ */
+class StreamingBatchLSEstimatorTest {
+
+  private static final double SIGMA = Math.toRadians(0.001);
+
+  @BeforeAll
+  public static void initializeOrekit() {
+    TestFixtures.initializeOrekit();
+  }
+
+  @Test
+  void testMatchesBatchEstimatorAtLastMeasurement() {
+    assertMatchesBatchEstimator(OdEpochStrategy.LAST_MEASUREMENT);
+  }
+
+  @Test
+  void testMatchesBatchEstimatorAtMidSpan() {
+    assertMatchesBatchEstimator(OdEpochStrategy.MID_SPAN);
+  }
+
+  @Test
+  void testNormalEquationsMatchDirectProduct() {
+    double[][] jacobian = new double[3000][];
+    double[] residuals = new double[jacobian.length];
+    NormalEquations equations = new NormalEquations(3);
+    for (int i = 0; i < jacobian.length; i++) {
+      jacobian[i] = new double[]{Math.sin(i), Math.cos(0.5 * i), 1.0 + 1e-3 * i};
+      residuals[i] = Math.sin(0.1 * i);
+      equations.addRow(jacobian[i], residuals[i]);
+    }
+
+    RealMatrix normal = equations.getNormalMatrix();
+    for (int j = 0; j < 3; j++) {
+      for (int k = 0; k < 3; k++) {
+        double expected = 0.0;
+        for (double[] row : jacobian) {
+          expected += row[j] * row[k];
+        }
+        Assertions.assertEquals(expected, normal.getEntry(j, k), 1e-9 * Math.abs(expected));
+      }
+    }
+    Assertions.assertEquals(jacobian.length, equations.getRowCount());
+    double chiSquare = 0.0;
+    for (double residual : residuals) {
+      chiSquare += residual * residual;
+    }
+    Assertions.assertEquals(chiSquare, equations.getChiSquare(), 1e-12 * chiSquare);
+  }
+
+  @Test
+  void testEvaluationMemoryIndependentOfRowCount() {
+    double[] row = new double[6];
+    // Warm-up, so that class loading and compilation are not measured.
+    accumulate(row, 100000);
+    long small = accumulate(row, 1000);
+    long large = accumulate(row, 1000000);
+    // The sums of a 6-parameter problem fit in a few kilobytes, 1e6 residuals would take 8 MB.
+    Assertions.assertTrue(small < 16L * 1024L, "small " + small);
+    Assertions.assertTrue(large < 16L * 1024L, "large " + large);
+  }
+
+  /**
+   * Accumulates rows into normal equations and builds their evaluation, returning the bytes
+   * allocated, which bound the memory retained by the evaluation.
+   */
+  private static long accumulate(double[] row, int rows) {
+    long allocated = getAllocatedBytes();
+    NormalEquations equations = new NormalEquations(row.length);
+    for (int i = 0; i < rows; i++) {
+      row[i % row.length] = Math.sin(i);
+      equations.addRow(row, Math.cos(i));
+    }
+    NormalEquationsEvaluation evaluation = new NormalEquationsEvaluation(
+        MatrixUtils.createRealVector(row.length), equations, consumer -> {
+          throw new IllegalStateException("Not evaluated again.");
+        });
+    allocated = getAllocatedBytes() - allocated;
+    Assertions.assertEquals(rows, equations.getRowCount());
+    Assertions.assertTrue(evaluation.getRMS() > 0.0);
+    return allocated;
+  }
+
+  private static long getAllocatedBytes() {
+    return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean())
+        .getThreadAllocatedBytes(Thread.currentThread().getId());
+  }
+
+  private void assertMatchesBatchEstimator(OdEpochStrategy epochStrategy) {
+
+    SpacecraftState truth = TestFixtures.createInitialStateAf3();
+    List<ObservedMeasurement<?>> measurements = TestFixtures.generateRaDecMeasurements(truth,
+        SIGMA);
+    SpacecraftState initialGuess = TestFixtures.perturb(truth);
+    OdSettings settings = OdSettings.builder().epochStrategy(epochStrategy)
+        .streamedNormalEquations(true).build();
+
+    BatchLSEstimator batch = EstimatorFactory.createBatchLsEstimator(
+        TestFixtures.createGravityOnlyBuilder(initialGuess), new ArrayList<>(measurements),
+        settings);
+    SpacecraftState expected = batch.estimate()[0].getInitialState();
+
+    StreamingBatchLSEstimator streaming = EstimatorFactory.createStreamingEstimator(
+        TestFixtures.createGravityOnlyBuilder(initialGuess), new ArrayList<>(measurements),
+        settings);
+    SpacecraftState actual = streaming.estimate().getInitialState();
+
+    Assertions.assertEquals(0.0, expected.getDate().durationFrom(actual.getDate()), 0.0);
+    Assertions.assertTrue(Vector3D.distance(expected.getPVCoordinates().getPosition(),
+        actual.getPVCoordinates().getPosition()) < 1e-3);
+    Assertions.assertEquals(batch.getIterationsCount(), streaming.getIterationsCount());
+    Assertions.assertEquals(batch.getEvaluationsCount(), streaming.getEvaluationsCount());
+    // Noise-free measurements: both residuals are at round-off level.
+    Assertions.assertEquals(batch.getOptimum().getRMS(), streaming.getOptimum().getRMS(), 1e-9);
+
+    // The residuals and the Jacobian are evaluated again on demand, in the same order.
+    LeastSquaresProblem.Evaluation optimum = streaming.getOptimum();
+    RealVector residuals = optimum.getResiduals();
+    Assertions.assertEquals(batch.getOptimum().getResiduals().getDimension(),
+        residuals.getDimension());
+    Assertions.assertEquals(optimum.getCost(), residuals.getNorm(), 1e-9 * optimum.getCost());
+    RealMatrix jacobian = optimum.getJacobian();
+    RealMatrix batchJacobian = batch.getOptimum().getJacobian();
+    Assertions.assertEquals(residuals.getDimension(), jacobian.getRowDimension());
+    RealMatrix normal = jacobian.transposeMultiply(jacobian);
+    RealMatrix batchNormal = batchJacobian.transposeMultiply(batchJacobian);
+    for (int i = 0; i < 6; i++) {
+      for (int j = 0; j < 6; j++) {
+        double scale = Math.sqrt(batchNormal.getEntry(i, i) * batchNormal.getEntry(j, j));
+        Assertions.assertEquals(batchNormal.getEntry(i, j), normal.getEntry(i, j), 1e-6 * scale);
+      }
+    }
+
+    RealMatrix expectedCovariance = batch.getPhysicalCovariances(Double.MIN_VALUE);
+    RealMatrix actualCovariance = streaming.getPhysicalCovariances(Double.MIN_VALUE);
+    for (int i = 0; i < 6; i++) {
+      for (int j = 0; j < 6; j++) {
+        double scale = Math.sqrt(
+            expectedCovariance.getEntry(i, i) * expectedCovariance.getEntry(j, j));
+        Assertions.assertEquals(expectedCovariance.getEntry(i, j),
+            actualCovariance.getEntry(i, j), 1e-6 * scale);
+      }
+    }
+  }
+
+}
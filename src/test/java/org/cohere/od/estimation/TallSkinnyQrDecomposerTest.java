@@ -0,0 +1,191 @@
+package org.cohere.od.estimation;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import lombok.extern.log4j.Log4j2;
+import org.cohere.od.models.OdSettings;
+import org.cohere.od.utils.EstimatorFactory;
+import org.cohere.od.utils.TestFixtures;
+import org.hipparchus.exception.MathIllegalArgumentException;
+import org.hipparchus.geometry.euclidean.threed.Vector3D;
+import org.hipparchus.linear.Array2DRowRealMatrix;
+import org.hipparchus.linear.ArrayRealVector;
+import org.hipparchus.linear.DecompositionSolver;
+import org.hipparchus.linear.QRDecomposer;
+import org.hipparchus.linear.RealMatrix;
+import org.hipparchus.linear.RealVector;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.orekit.estimation.leastsquares.BatchLSEstimator;
+import org.orekit.estimation.measurements.ObservedMeasurement;
+import org.orekit.propagation.SpacecraftState;
+
+/**
+ * Unit tests for the {@link TallSkinnyQrDecomposer}.
+ */
+@Log4j2
+class TallSkinnyQrDecomposerTest {
+
+  private static final double SINGULARITY_THRESHOLD = 1e-11;
+  private static final int COLUMNS = 7;
+
+  private static ExecutorService executor = null;
+
+  @BeforeAll
+  public static void initialize() {
+    TestFixtures.initializeOrekit();
+    executor = Executors.newFixedThreadPool(4);
+  }
+
+  @AfterAll
+  public static void shutdown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  void testSolutionMatchesQrDecomposition() {
+
+    Random random = new Random(46L);
+    // An odd number of blocks, so that a factor is carried up the tree.
+    TallSkinnyQrDecomposer decomposer = new TallSkinnyQrDecomposer(SINGULARITY_THRESHOLD, 256,
+        executor);
+    for (int run = 0; run < 3; run++) {
+      // The same shape each time, as in the Gauss-Newton iterations, so the arrays are reused.
+      RealMatrix matrix = createJacobian(random, 10000, COLUMNS);
+      RealVector residuals = createResiduals(random, 10000);
+
+      DecompositionSolver solver = decomposer.decompose(matrix);
+      RealVector expected = new QRDecomposer(SINGULARITY_THRESHOLD).decompose(matrix)
+          .solve(residuals);
+
+      Assertions.assertTrue(solver.isNonSingular());
+      Assertions.assertEquals(10000, solver.getRowDimension());
+      Assertions.assertEquals(COLUMNS, solver.getColumnDimension());
+      assertClose(expected, solver.solve(residuals));
+    }
+
+    // A single block, and a different shape.
+    RealMatrix matrix = createJacobian(random, 300, COLUMNS - 1);
+    RealVector residuals = createResiduals(random, 300);
+    assertClose(new QRDecomposer(SINGULARITY_THRESHOLD).decompose(matrix).solve(residuals),
+        decomposer.decompose(matrix).solve(residuals));
+  }
+
+  @Test
+  void testSingularMatrix() {
+
+    Random random = new Random(7L);
+    RealMatrix matrix = createJacobian(random, 2000, COLUMNS);
+    matrix.setColumnVector(3, matrix.getColumnVector(1).mapMultiply(2.0));
+
+    DecompositionSolver solver = new TallSkinnyQrDecomposer(SINGULARITY_THRESHOLD, 256, executor)
+        .decompose(matrix);
+
+    Assertions.assertFalse(solver.isNonSingular());
+    Assertions.assertThrows(MathIllegalArgumentException.class,
+        () -> solver.solve(createResiduals(random, 2000)));
+  }
+
+  @Test
+  void testOdMatchesQrDecomposition() throws IOException {
+
+    double[] sigmas = new double[]{Math.toRadians(1.0 / 3600.0), Math.toRadians(1.0 / 3600.0)};
+    List<ObservedMeasurement<?>> measurements = TestFixtures.readOifMeasurements(
+        TestFixtures.OIF_ROOT.resolve("af3"), sigmas);
+    SpacecraftState initialState = TestFixtures.createInitialStateAf3();
+
+    BatchLSEstimator expected = EstimatorFactory.createBatchLsEstimator(
+        TestFixtures.createGravityOnlyBuilder(initialState),
+        new ArrayList<>(measurements), OdSettings.DEFAULT);
+    SpacecraftState expectedState = expected.estimate()[0].getInitialState();
+
+    BatchLSEstimator actual = EstimatorFactory.createBatchLsEstimator(
+        TestFixtures.createGravityOnlyBuilder(initialState),
+        new ArrayList<>(measurements), OdSettings.builder().solverExecutor(executor).build());
+    SpacecraftState actualState = actual.estimate()[0].getInitialState();
+
+    Assertions.assertEquals(expected.getIterationsCount(), actual.getIterationsCount());
+    Assertions.assertEquals(0.0, Vector3D.distance(expectedState.getPVCoordinates().getPosition(),
+        actualState.getPVCoordinates().getPosition()), 1.0e-3);
+    RealMatrix expectedCovariance = expected.getPhysicalCovariances(Double.MIN_VALUE);
+    RealMatrix actualCovariance = actual.getPhysicalCovariances(Double.MIN_VALUE);
+    for (int i = 0; i < expectedCovariance.getRowDimension(); i++) {
+      for (int j = 0; j < expectedCovariance.getColumnDimension(); j++) {
+        Assertions.assertEquals(expectedCovariance.getEntry(i, j), actualCovariance.getEntry(i, j),
+            1.0e-6 * Math.sqrt(expectedCovariance.getEntry(i, i)
+                * expectedCovariance.getEntry(j, j)));
+      }
+    }
+  }
+
+  /**
+   * Benchmark of a Gauss-Newton step solve against Hipparchus' QR decomposition, from a thousand to
+   * a million measurement components.
+   */
+  @Test
+  void testBenchmarkAgainstQrDecomposition() {
+
+    Random random = new Random(1046L);
+    int runs = 3;
+    for (int rows = 1000; rows <= 1000000; rows *= 10) {
+      RealMatrix matrix = createJacobian(random, rows, COLUMNS);
+      RealVector residuals = createResiduals(random, rows);
+      TallSkinnyQrDecomposer decomposer = new TallSkinnyQrDecomposer(SINGULARITY_THRESHOLD,
+          executor);
+
+      RealVector expected = null;
+      RealVector actual = null;
+      long qrNanos = Long.MAX_VALUE;
+      long tsqrNanos = Long.MAX_VALUE;
+      for (int run = 0; run < runs; run++) {
+        long start = System.nanoTime();
+        expected = new QRDecomposer(SINGULARITY_THRESHOLD).decompose(matrix).solve(residuals);
+        qrNanos = Math.min(qrNanos, System.nanoTime() - start);
+
+        start = System.nanoTime();
+        actual = decomposer.decompose(matrix).solve(residuals);
+        tsqrNanos = Math.min(tsqrNanos, System.nanoTime() - start);
+      }
+
+      log.info("{} rows: QR {} ms, TSQR {} ms, speed-up {}.", rows, qrNanos / 1e6,
+          tsqrNanos / 1e6, (double) qrNanos / tsqrNanos);
+      assertClose(expected, actual);
+    }
+  }
+
+  /**
+   * Creates a Jacobian-like matrix whose columns have very different scales.
+   */
+  private static RealMatrix createJacobian(Random random, int rows, int columns) {
+    double[][] data = new double[rows][columns];
+    for (int i = 0; i < rows; i++) {
+      for (int j = 0; j < columns; j++) {
+        data[i][j] = random.nextGaussian() * Math.pow(10.0, j - 3);
+      }
+    }
+    return new Array2DRowRealMatrix(data, false);
+  }
+
+  private static RealVector createResiduals(Random random, int rows) {
+    double[] data = new double[rows];
+    for (int i = 0; i < rows; i++) {
+      data[i] = random.nextGaussian();
+    }
+    return new ArrayRealVector(data, false);
+  }
+
+  private static void assertClose(RealVector expected, RealVector actual) {
+    Assertions.assertEquals(expected.getDimension(), actual.getDimension());
+    for (int i = 0; i < expected.getDimension(); i++) {
+      Assertions.assertEquals(expected.getEntry(i), actual.getEntry(i),
+          1.0e-9 * Math.abs(expected.getEntry(i)) + 1.0e-15);
+    }
+  }
+
+}
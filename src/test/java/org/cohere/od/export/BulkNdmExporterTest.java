@@ -0,0 +1,130 @@
+package org.cohere.od.export;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.cohere.od.models.StateAndCovariance;
+import org.cohere.od.utils.TestFixtures;
+import org.hipparchus.linear.MatrixUtils;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.orekit.orbits.OrbitType;
+import org.orekit.orbits.PositionAngle;
+import org.orekit.propagation.SpacecraftState;
+import org.orekit.propagation.StateCovariance;
+import org.orekit.utils.TimeStampedPVCoordinates;
+
+/**
+ * Unit tests for the {@link BulkNdmExporter}.
+ */
+class BulkNdmExporterTest {
+
+  private static final int OBJECT_COUNT = 25;
+  private static final int BATCH_SIZE = 10;
+
+  private static StateAndCovariance solution = null;
+
+  @BeforeAll
+  public static void initialize() {
+    TestFixtures.initializeOrekit();
+    SpacecraftState state = TestFixtures.createInitialStateAf3();
+    StateCovariance covariance = new StateCovariance(MatrixUtils.createRealDiagonalMatrix(
+        new double[]{100.0, 100.0, 100.0, 1e-4, 1e-4, 1e-4}), state.getDate(), state.getFrame(),
+        OrbitType.CARTESIAN, PositionAngle.MEAN);
+    solution = new StateAndCovariance(covariance, state);
+  }
+
+  @Test
+  void testKvnOpmBatches(@TempDir Path directory) throws IOException {
+
+    try (BulkNdmExporter exporter = new BulkNdmExporter(createSettings(directory, NdmFormat.KVN))) {
+      for (int i = 0; i < OBJECT_COUNT; i++) {
+        Assertions.assertTrue(exporter.submitOpm("SAT" + i, "2023-001" + i, solution));
+      }
+      exporter.close();
+      Assertions.assertEquals(OBJECT_COUNT, exporter.getMetrics().getWritten());
+      Assertions.assertEquals(3, exporter.getMetrics().getFiles());
+    }
+
+    // Parsing the messages back requires planetary ephemerides for the center, so the content is
+    // checked textually.
+    List<Path> files = listFiles(directory, ".kvn");
+    Assertions.assertEquals(3, files.size());
+    int messageCount = 0;
+    for (Path file : files) {
+      String content = Files.readString(file);
+      messageCount += count(content, "CCSDS_OPM_VERS");
+      Assertions.assertTrue(content.contains("CENTER_NAME"));
+      Assertions.assertTrue(content.contains("CX_X"));
+    }
+    Assertions.assertEquals(OBJECT_COUNT, messageCount);
+    Assertions.assertEquals(BATCH_SIZE, count(Files.readString(files.get(0)), "OBJECT_NAME"));
+    Assertions.assertTrue(Files.readString(files.get(2)).contains("SAT24"));
+  }
+
+  @Test
+  void testXmlOpmAndOemBatches(@TempDir Path directory) throws Exception {
+
+    SpacecraftState state = solution.getState();
+    List<TimeStampedPVCoordinates> ephemeris = new ArrayList<>();
+    for (int i = 0; i < 10; i++) {
+      ephemeris.add(state.shiftedBy(60.0 * i).getPVCoordinates());
+    }
+
+    try (BulkNdmExporter exporter = new BulkNdmExporter(createSettings(directory, NdmFormat.XML))) {
+      for (int i = 0; i < 4; i++) {
+        exporter.submitOpm("SAT" + i, "2023-001" + i, solution);
+        exporter.submitOem("SAT" + i, "2023-001" + i, state.getFrame(), ephemeris);
+      }
+      exporter.flush();
+      Assertions.assertEquals(8, exporter.getMetrics().getWritten());
+      Assertions.assertEquals(0, exporter.getMetrics().getPending());
+    }
+
+    List<Path> opmFiles = listFiles(directory, "_opm_000001.xml", "_opm_000002.xml");
+    Assertions.assertEquals(1, opmFiles.size());
+    String ndm = Files.readString(opmFiles.get(0));
+    Assertions.assertTrue(ndm.contains("<ndm"));
+    Assertions.assertEquals(4, count(ndm, "<opm "));
+
+    List<Path> oemFiles = listFiles(directory, "_oem_000001.xml", "_oem_000002.xml");
+    Assertions.assertEquals(1, oemFiles.size());
+    String oem = Files.readString(oemFiles.get(0));
+    Assertions.assertEquals(1, count(oem, "<oem "));
+    Assertions.assertEquals(4, count(oem, "<segment>"));
+    Assertions.assertEquals(4 * ephemeris.size(), count(oem, "<stateVector>"));
+  }
+
+  private int count(String content, String token) {
+    int count = 0;
+    for (int i = content.indexOf(token); i >= 0; i = content.indexOf(token, i + 1)) {
+      count++;
+    }
+    return count;
+  }
+
+  private NdmExportSettings createSettings(Path directory, NdmFormat format) {
+    return NdmExportSettings.builder()
+        .directory(directory)
+        .format(format)
+        .batchSize(BATCH_SIZE)
+        .maxBatchDelayMillis(60000L)
+        .build();
+  }
+
+  private List<Path> listFiles(Path directory, String... suffixes) throws IOException {
+    try (Stream<Path> files = Files.list(directory)) {
+      return files.filter(file -> Stream.of(suffixes)
+              .anyMatch(suffix -> file.getFileName().toString().endsWith(suffix)))
+          .sorted()
+          .collect(Collectors.toList());
+    }
+  }
+
+}
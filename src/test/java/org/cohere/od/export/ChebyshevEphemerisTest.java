@@ -0,0 +1,261 @@
+package org.cohere.od.export;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+import lombok.extern.log4j.Log4j2;
+import org.cohere.od.utils.PropagatorFactory;
+import org.cohere.od.utils.TestFixtures;
+import org.hipparchus.geometry.euclidean.threed.Vector3D;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.orekit.propagation.BoundedPropagator;
+import org.orekit.propagation.EphemerisGenerator;
+import org.orekit.propagation.Propagator;
+import org.orekit.propagation.SpacecraftState;
+import org.orekit.propagation.conversion.NumericalPropagatorBuilder;
+import org.orekit.time.AbsoluteDate;
+import org.orekit.utils.CartesianDerivativesFilter;
+import org.orekit.utils.PVCoordinates;
+import org.orekit.utils.TimeStampedPVCoordinates;
+
+/**
+ * Unit tests for the {@link ChebyshevEphemeris} and the {@link ChebyshevEphemerisFitter}.
+ */
+@Log4j2
+class ChebyshevEphemerisTest {
+
+  private static final double OEM_STEP = 60.0;
+  private static final int OEM_INTERPOLATION_POINTS = 5;
+
+  private static SpacecraftState state = null;
+  private static AbsoluteDate start = null;
+  private static AbsoluteDate end = null;
+  private static BoundedPropagator truth = null;
+
+  @BeforeAll
+  public static void initialize() {
+    TestFixtures.initializeOrekit();
+    state = TestFixtures.createInitialStateAf3();
+    start = state.getDate().shiftedBy(-86400.0);
+    end = state.getDate().shiftedBy(3.0 * 86400.0);
+    Propagator propagator = createPropagator();
+    EphemerisGenerator generator = propagator.getEphemerisGenerator();
+    propagator.propagate(start, end);
+    truth = generator.getGeneratedEphemeris();
+  }
+
+  @Test
+  void testFitMeetsErrorBounds() {
+
+    ChebyshevEphemeris ephemeris = ChebyshevEphemerisFitter.fit(truth, state.getFrame(), start,
+        end, ChebyshevEphemerisSettings.DEFAULT);
+    assertWithinBounds(ephemeris, 1.0, 1.0e-3);
+
+    // With a low degree, tighter bounds need shorter segments.
+    ChebyshevEphemerisSettings lowDegree = ChebyshevEphemerisSettings.builder()
+        .degree(7)
+        .build();
+    ChebyshevEphemeris coarse = ChebyshevEphemerisFitter.fit(truth, state.getFrame(), start, end,
+        lowDegree);
+    assertWithinBounds(coarse, 1.0, 1.0e-3);
+    ChebyshevEphemeris precise = ChebyshevEphemerisFitter.fit(truth, state.getFrame(), start, end,
+        lowDegree.toBuilder()
+            .positionTolerance(0.01)
+            .velocityTolerance(1.0e-5)
+            .build());
+    assertWithinBounds(precise, 0.01, 1.0e-5);
+    Assertions.assertTrue(precise.getSegmentCount() > coarse.getSegmentCount());
+
+    // Fitting the propagator itself gives the same segments.
+    ChebyshevEphemeris propagated = ChebyshevEphemerisFitter.fit(createPropagator(), start, end,
+        ChebyshevEphemerisSettings.DEFAULT);
+    Assertions.assertEquals(ephemeris.getSegmentCount(), propagated.getSegmentCount());
+    Assertions.assertEquals(state.getFrame().getName(), propagated.getFrameName());
+    Assertions.assertEquals(0.0, propagated.getEnd().durationFrom(end), 1.0e-9);
+
+    Assertions.assertThrows(IllegalStateException.class,
+        () -> ChebyshevEphemerisFitter.fit(truth, state.getFrame(), start, end,
+            ChebyshevEphemerisSettings.builder()
+                .positionTolerance(1.0e-9)
+                .maxSegments(16)
+                .build()));
+    Assertions.assertThrows(IllegalArgumentException.class,
+        () -> ChebyshevEphemerisFitter.fit(truth, state.getFrame(), end, start,
+            ChebyshevEphemerisSettings.DEFAULT));
+  }
+
+  @Test
+  void testBinaryRoundTrip(@TempDir Path directory) throws IOException {
+
+    ChebyshevEphemeris expected = ChebyshevEphemerisFitter.fit(truth, state.getFrame(), start,
+        end, ChebyshevEphemerisSettings.DEFAULT);
+    Path file = directory.resolve("ephemeris.bin");
+    expected.write(file);
+    ChebyshevEphemeris actual = ChebyshevEphemeris.read(file);
+
+    Assertions.assertEquals(expected.getFrameName(), actual.getFrameName());
+    Assertions.assertEquals(0.0, expected.getStart().durationFrom(actual.getStart()), 0.0);
+    Assertions.assertEquals(expected.getSegmentDuration(), actual.getSegmentDuration(), 0.0);
+    Assertions.assertEquals(expected.getSegmentCount(), actual.getSegmentCount());
+    Assertions.assertEquals(expected.getDegree(), actual.getDegree());
+    Assertions.assertEquals(expected.getMaxPositionError(), actual.getMaxPositionError(), 0.0);
+    Assertions.assertEquals(expected.getMaxVelocityError(), actual.getMaxVelocityError(), 0.0);
+    double[] expectedPv = new double[6];
+    double[] actualPv = new double[6];
+    for (double offset = 0.0; offset < expected.getDuration(); offset += 997.0) {
+      expected.evaluate(offset, expectedPv);
+      actual.evaluate(actual.getStart().shiftedBy(offset), actualPv);
+      Assertions.assertArrayEquals(expectedPv, actualPv, 0.0);
+    }
+
+    // The end date is in the last segment, dates beyond it are refused.
+    actual.evaluate(actual.getEnd(), actualPv);
+    Assertions.assertThrows(IllegalArgumentException.class,
+        () -> actual.evaluate(actual.getEnd().shiftedBy(1.0), actualPv));
+    Assertions.assertThrows(IllegalArgumentException.class,
+        () -> actual.evaluate(-1.0, actualPv));
+
+    Path notEphemeris = directory.resolve("other.bin");
+    Files.write(notEphemeris, new byte[]{1, 2, 3, 4, 5, 6, 7, 8});
+    Assertions.assertThrows(IOException.class, () -> ChebyshevEphemeris.read(notEphemeris));
+  }
+
+  /**
+   * Benchmark of the file size and the evaluation cost against an OEM at a 60 s step interpolated
+   * as its metadata prescribes, with 5 points.
+   */
+  @Test
+  void testBenchmarkAgainstOem(@TempDir Path directory) throws Exception {
+
+    ChebyshevEphemeris ephemeris = ChebyshevEphemerisFitter.fit(truth, state.getFrame(), start,
+        end, ChebyshevEphemerisSettings.DEFAULT);
+    Path chebyshevFile = directory.resolve("ephemeris.bin");
+    ephemeris.write(chebyshevFile);
+
+    List<TimeStampedPVCoordinates> samples = new ArrayList<>();
+    for (double offset = 0.0; offset <= ephemeris.getDuration(); offset += OEM_STEP) {
+      samples.add(truth.getPVCoordinates(start.shiftedBy(offset), state.getFrame()));
+    }
+    Path oemDirectory = directory.resolve("oem");
+    try (BulkNdmExporter exporter = new BulkNdmExporter(NdmExportSettings.builder()
+        .directory(oemDirectory)
+        .build())) {
+      exporter.submitOem("AF3", "50008", state.getFrame(), samples);
+      exporter.flush();
+    }
+    long oemSize;
+    try (Stream<Path> files = Files.list(oemDirectory)) {
+      oemSize = files.mapToLong(file -> file.toFile().length()).sum();
+    }
+    long chebyshevSize = Files.size(chebyshevFile);
+
+    Random random = new Random(49L);
+    int evaluations = 200000;
+    double[] offsets = new double[evaluations];
+    for (int i = 0; i < evaluations; i++) {
+      offsets[i] = random.nextDouble() * ephemeris.getDuration();
+    }
+    double[] pv = new double[6];
+    long chebyshevNanos = Long.MAX_VALUE;
+    long oemNanos = Long.MAX_VALUE;
+    double checksum = 0.0;
+    for (int run = 0; run < 3; run++) {
+      long begin = System.nanoTime();
+      for (double offset : offsets) {
+        ephemeris.evaluate(offset, pv);
+        checksum += pv[0];
+      }
+      chebyshevNanos = Math.min(chebyshevNanos, System.nanoTime() - begin);
+
+      begin = System.nanoTime();
+      for (double offset : offsets) {
+        checksum += interpolate(samples, start.shiftedBy(offset)).getPosition().getX();
+      }
+      oemNanos = Math.min(oemNanos, System.nanoTime() - begin);
+    }
+
+    long allocated = getAllocatedBytes();
+    for (double offset : offsets) {
+      ephemeris.evaluate(offset, pv);
+    }
+    allocated = getAllocatedBytes() - allocated;
+
+    log.info("{} segments of degree {}: {} bytes instead of {} for the OEM, {} ns per evaluation "
+            + "instead of {} ns, {} bytes allocated by {} evaluations ({}).",
+        ephemeris.getSegmentCount(), ephemeris.getDegree(), chebyshevSize, oemSize,
+        (double) chebyshevNanos / evaluations, (double) oemNanos / evaluations, allocated,
+        evaluations, checksum);
+    Assertions.assertTrue(10 * chebyshevSize < oemSize);
+    Assertions.assertTrue(chebyshevNanos < oemNanos);
+    Assertions.assertTrue(allocated < 64L * 1024L);
+  }
+
+  private static Propagator createPropagator() {
+    NumericalPropagatorBuilder builder = PropagatorFactory.createPropagatorBuilder(state,
+        TestFixtures.GRAVITY_ONLY, PropagatorFactory.createIntegratorBuilder(0.001, 300.0, 1.0e-3));
+    return builder.buildPropagator(builder.getSelectedNormalizedParameters());
+  }
+
+  private static void assertWithinBounds(ChebyshevEphemeris ephemeris, double positionTolerance,
+      double velocityTolerance) {
+
+    Assertions.assertTrue(ephemeris.getMaxPositionError() <= positionTolerance);
+    Assertions.assertTrue(ephemeris.getMaxVelocityError() <= velocityTolerance);
+    double[] pv = new double[6];
+    // Each segment meets the bounds up to both of its ends, not only up to the next segment.
+    for (int segment = 0; segment < ephemeris.getSegmentCount(); segment++) {
+      for (double x : new double[]{-1.0, 1.0}) {
+        double offset = (segment + 0.5 * (x + 1.0)) * ephemeris.getSegmentDuration();
+        PVCoordinates expected = truth.getPVCoordinates(start.shiftedBy(offset),
+            state.getFrame());
+        ephemeris.evaluate(segment, x, pv);
+        Assertions.assertTrue(expected.getPosition().distance(
+            new Vector3D(pv[0], pv[1], pv[2])) <= positionTolerance);
+        Assertions.assertTrue(expected.getVelocity().distance(
+            new Vector3D(pv[3], pv[4], pv[5])) <= velocityTolerance);
+      }
+    }
+    // Between the check points of the fit, the error stays close to the bounds.
+    Random random = new Random(1049L);
+    for (int i = 0; i < 2000; i++) {
+      double offset = random.nextDouble() * ephemeris.getDuration();
+      PVCoordinates expected = truth.getPVCoordinates(start.shiftedBy(offset), state.getFrame());
+      ephemeris.evaluate(offset, pv);
+      Assertions.assertEquals(0.0, expected.getPosition().distance(
+          new Vector3D(pv[0], pv[1], pv[2])),
+          1.5 * positionTolerance);
+      Assertions.assertEquals(0.0, expected.getVelocity().distance(
+          new Vector3D(pv[3], pv[4], pv[5])),
+          1.5 * velocityTolerance);
+    }
+  }
+
+  /**
+   * Interpolates the OEM samples around a date, as a reader of the file would.
+   */
+  private static TimeStampedPVCoordinates interpolate(List<TimeStampedPVCoordinates> samples,
+      AbsoluteDate date) {
+    int index = Collections.binarySearch(samples, new TimeStampedPVCoordinates(date,
+        PVCoordinates.ZERO), (a, b) -> a.getDate().compareTo(b.getDate()));
+    int insertion = index >= 0 ? index : -index - 1;
+    int first = Math.max(0, Math.min(insertion - OEM_INTERPOLATION_POINTS / 2,
+        samples.size() - OEM_INTERPOLATION_POINTS));
+    return TimeStampedPVCoordinates.interpolate(date, CartesianDerivativesFilter.USE_PV,
+        samples.subList(first, first + OEM_INTERPOLATION_POINTS));
+  }
+
+  private static long getAllocatedBytes() {
+    return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean())
+        .getThreadAllocatedBytes(Thread.currentThread().getId());
+  }
+
+}
@@ -0,0 +1,364 @@
+package org.cohere.od.generation;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import lombok.extern.log4j.Log4j2;
+import org.cohere.od.utils.AstroUtils;
+import org.cohere.od.utils.BinaryCodecUtils;
+import org.cohere.od.utils.OrbitRegime;
+import org.cohere.od.utils.PropagatorFactory;
+import org.hipparchus.geometry.euclidean.threed.Vector3D;
+import org.hipparchus.random.RandomGenerator;
+import org.hipparchus.random.Well19937a;
+import org.orekit.bodies.GeodeticPoint;
+import org.orekit.estimation.measurements.AngularRaDec;
+import org.orekit.estimation.measurements.GroundStation;
+import org.orekit.estimation.measurements.ObservableSatellite;
+import org.orekit.estimation.measurements.ObservedMeasurement;
+import org.orekit.frames.Frame;
+import org.orekit.frames.FramesFactory;
+import org.orekit.frames.TopocentricFrame;
+import org.orekit.orbits.CartesianOrbit;
+import org.orekit.orbits.KeplerianOrbit;
+import org.orekit.orbits.Orbit;
+import org.orekit.orbits.PositionAngle;
+import org.orekit.propagation.Propagator;
+import org.orekit.propagation.SpacecraftState;
+import org.orekit.propagation.conversion.NumericalPropagatorBuilder;
+import org.orekit.time.AbsoluteDate;
+import org.orekit.time.TimeScalesFactory;
+import org.orekit.utils.Constants;
+import org.orekit.utils.PVCoordinates;
+
+/**
+ * Generates a synthetic catalog of objects across orbit regimes together with the RA/Dec
+ * measurements a sensor network would collect on them, to load-test OD throughput and accuracy
+ * without real sensor data.
+ * <p>
+ * Objects are generated in parallel. The catalog can be written as OIF files readable by
+ * {@link org.cohere.od.oif.OifHelper} with the ground truth in a CSV file, or as a single binary
+ * file holding both measurements and truth.
+ */
+@Log4j2
+public class CatalogWorkloadGenerator {
+
+  /**
+   * The name of the ground truth file written next to the OIF files.
+   */
+  public static final String TRUTH_FILE_NAME = "truth.csv";
+
+  private static final int BINARY_MAGIC = 0x4357_4C44;
+  private static final int BINARY_VERSION = 2;
+  private static final double KM_TO_M = 1000.0;
+  private static final double SPACECRAFT_MASS = 500.0;
+  private static final double INTEGRATOR_MIN_STEP = 0.001;
+  private static final double INTEGRATOR_MAX_STEP = 300.0;
+  private static final double INTEGRATOR_POSITION_ERROR = 1.0;
+
+  private final CatalogWorkloadSettings settings;
+
+  /**
+   * Constructor.
+   *
+   * @param settings The catalog settings.
+   */
+  public CatalogWorkloadGenerator(CatalogWorkloadSettings settings) {
+    this.settings = settings;
+  }
+
+  /**
+   * Generates the catalog, one task per object.
+   *
+   * @param executor The executor running the generation tasks.
+   * @return The objects, ordered by target ID.
+   */
+  public List<SyntheticObject> generate(ExecutorService executor) {
+
+    long start = System.nanoTime();
+    List<Future<SyntheticObject>> futures = new ArrayList<>();
+    for (int i = 0; i < settings.getObjectCount(); i++) {
+      int index = i;
+      futures.add(executor.submit(() -> generateObject(index)));
+    }
+
+    List<SyntheticObject> objects = new ArrayList<>();
+    try {
+      for (Future<SyntheticObject> future : futures) {
+        objects.add(future.get());
+      }
+    } catch (InterruptedException ex) {
+      futures.forEach(future -> future.cancel(true));
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Catalog generation interrupted.", ex);
+    } catch (ExecutionException ex) {
+      futures.forEach(future -> future.cancel(true));
+      throw new IllegalStateException("Failed to generate catalog: " + ex.getCause().getMessage(),
+          ex.getCause());
+    }
+
+    log.info("Generated {} objects with {} measurements in {} ms", objects.size(),
+        objects.stream().mapToInt(object -> object.getMeasurements().size()).sum(),
+        (System.nanoTime() - start) / 1_000_000);
+    return objects;
+  }
+
+  /**
+   * Generates a single object of the catalog.
+   *
+   * @param index The index of the object in the catalog.
+   * @return The object with its measurements.
+   */
+  public SyntheticObject generateObject(int index) {
+
+    int targetId = settings.getFirstTargetId() + index;
+    OrbitRegime regime = settings.getRegimes().get(index % settings.getRegimes().size());
+    RandomGenerator random = new Well19937a(new int[]{(int) (settings.getSeed() >>> 32),
+        (int) settings.getSeed(), targetId});
+
+    SpacecraftState truth = new SpacecraftState(createOrbit(regime, random), SPACECRAFT_MASS);
+    NumericalPropagatorBuilder builder = PropagatorFactory.createPropagatorBuilder(truth,
+        settings.getTruthForceModels(), PropagatorFactory.createIntegratorBuilder(
+            INTEGRATOR_MIN_STEP, INTEGRATOR_MAX_STEP, INTEGRATOR_POSITION_ERROR));
+    Propagator propagator = builder.buildPropagator(builder.getSelectedNormalizedParameters());
+
+    double sigma = settings.getRaDecSigma();
+    MeasurementGenerator generator = new MeasurementGenerator(propagator,
+        settings.isNoisy() ? random : null);
+    List<ObservedMeasurement<?>> measurements = generator.generateVisibleRaDecMeasurements(
+        settings.getStations(), new double[]{sigma, sigma}, new double[]{1.0, 1.0},
+        settings.getEpoch(), settings.getEpoch().shiftedBy(settings.getDuration()),
+        settings.getStep(), settings.getMinElevation());
+
+    return new SyntheticObject(targetId, regime, truth, measurements);
+  }
+
+  /**
+   * Writes one OIF file per observed object, named after its target ID, and the ground truth of all
+   * objects in {@link #TRUTH_FILE_NAME}.
+   *
+   * @param directory The output directory, created if needed.
+   * @param objects   The objects to write.
+   * @throws IOException if a file cannot be written.
+   */
+  public static void writeOif(Path directory, List<SyntheticObject> objects) throws IOException {
+
+    Files.createDirectories(directory);
+    Frame gcrf = FramesFactory.getGCRF();
+
+    for (SyntheticObject object : objects) {
+      if (object.getMeasurements().isEmpty()) {
+        continue;
+      }
+
+      AbsoluteDate baseEpoch = object.getMeasurements().get(0).getDate();
+      double mjd = baseEpoch.durationFrom(AbsoluteDate.MODIFIED_JULIAN_EPOCH)
+          / Constants.JULIAN_DAY;
+      int mjdDay = (int) Math.floor(mjd);
+
+      Path file = directory.resolve(String.format("T%d.oif", object.getTargetId()));
+      try (BufferedWriter writer = Files.newBufferedWriter(file)) {
+        writer.write("CLASSIFICATION: UNCLASSIFIED\n");
+        writer.write(String.format(Locale.US, "Observation Debug Output (RA,Dec, in GCRF; SenPos in"
+            + " GCRF) from synthetic sensor network with base MJD = %d %.15f%n", mjdDay,
+            mjd - mjdDay));
+        writer.write("TargetID\t\tTime(Seconds)\tRA(Degrees)\tDec(Degrees)\tSensorPosX\tSensorPosY"
+            + "\tSensorPosZ\tSensorVelX\tSensorVelY\tSensorVelZ\tVizMag\tEstRange\n");
+
+        for (ObservedMeasurement<?> measurement : object.getMeasurements()) {
+          AngularRaDec raDec = (AngularRaDec) measurement;
+          PVCoordinates sensor = raDec.getStation().getBaseFrame()
+              .getPVCoordinates(raDec.getDate(), gcrf);
+          Vector3D position = sensor.getPosition().scalarMultiply(1.0 / KM_TO_M);
+          Vector3D velocity = sensor.getVelocity().scalarMultiply(1.0 / KM_TO_M);
+          double[] observed = raDec.getObservedValue();
+          // No photometry or range is simulated.
+          writer.write(String.format(Locale.US,
+              " %d\t\t%.6f\t%.10f\t%.10f\t%.6f\t%.6f\t%.6f\t%.9f\t%.9f\t%.9f\tNaN\tNaN%n",
+              object.getTargetId(), raDec.getDate().durationFrom(baseEpoch),
+              Math.toDegrees(observed[0]), Math.toDegrees(observed[1]), position.getX(),
+              position.getY(), position.getZ(), velocity.getX(), velocity.getY(),
+              velocity.getZ()));
+        }
+      }
+    }
+
+    try (BufferedWriter writer = Files.newBufferedWriter(directory.resolve(TRUTH_FILE_NAME))) {
+      writer.write("TargetID,Regime,Epoch(TAI),X(m),Y(m),Z(m),VX(m/s),VY(m/s),VZ(m/s)\n");
+      for (SyntheticObject object : objects) {
+        PVCoordinates pv = object.getTruth().getPVCoordinates(gcrf);
+        writer.write(String.format(Locale.US, "%d,%s,%s,%.6f,%.6f,%.6f,%.9f,%.9f,%.9f%n",
+            object.getTargetId(), object.getRegime(),
+            object.getTruth().getDate().toString(TimeScalesFactory.getTAI()),
+            pv.getPosition().getX(), pv.getPosition().getY(), pv.getPosition().getZ(),
+            pv.getVelocity().getX(), pv.getVelocity().getY(), pv.getVelocity().getZ()));
+      }
+    }
+  }
+
+  /**
+   * Writes the objects, their truth and their measurements to a single binary file. Dates and
+   * values are stored at full precision.
+   *
+   * @param file    The output file.
+   * @param objects The objects to write.
+   * @throws IOException if the file cannot be written.
+   */
+  public static void writeBinary(Path file, List<SyntheticObject> objects) throws IOException {
+
+    // Stations are written once and referenced by index from the measurements.
+    List<GroundStation> stations = new ArrayList<>();
+    for (SyntheticObject object : objects) {
+      for (ObservedMeasurement<?> measurement : object.getMeasurements()) {
+        GroundStation station = ((AngularRaDec) measurement).getStation();
+        if (!stations.contains(station)) {
+          stations.add(station);
+        }
+      }
+    }
+
+    try (DataOutputStream output = new DataOutputStream(
+        new BufferedOutputStream(Files.newOutputStream(file)))) {
+      output.writeInt(BINARY_MAGIC);
+      output.writeInt(BINARY_VERSION);
+
+      output.writeInt(stations.size());
+      for (GroundStation station : stations) {
+        GeodeticPoint point = station.getBaseFrame().getPoint();
+        output.writeUTF(station.getBaseFrame().getName());
+        output.writeDouble(point.getLatitude());
+        output.writeDouble(point.getLongitude());
+        output.writeDouble(point.getAltitude());
+      }
+
+      output.writeInt(objects.size());
+      for (SyntheticObject object : objects) {
+        output.writeInt(object.getTargetId());
+        output.writeUTF(object.getRegime().name());
+        SpacecraftState truth = object.getTruth();
+        PVCoordinates pv = truth.getPVCoordinates(FramesFactory.getGCRF());
+        BinaryCodecUtils.writeDate(truth.getDate(), output);
+        BinaryCodecUtils.writeVector(pv.getPosition(), output);
+        BinaryCodecUtils.writeVector(pv.getVelocity(), output);
+        output.writeDouble(truth.getMu());
+        output.writeDouble(truth.getMass());
+
+        output.writeInt(object.getMeasurements().size());
+        for (ObservedMeasurement<?> measurement : object.getMeasurements()) {
+          AngularRaDec raDec = (AngularRaDec) measurement;
+          output.writeInt(stations.indexOf(raDec.getStation()));
+          BinaryCodecUtils.writeDate(raDec.getDate(), output);
+          BinaryCodecUtils.writeArray(raDec.getObservedValue(), output);
+          BinaryCodecUtils.writeArray(raDec.getTheoreticalStandardDeviation(), output);
+          BinaryCodecUtils.writeArray(raDec.getBaseWeight(), output);
+        }
+      }
+    }
+  }
+
+  /**
+   * Reads objects written by {@link #writeBinary(Path, List)}. The RA/Dec reference frame is GCRF.
+   *
+   * @param file The input file.
+   * @return The objects.
+   * @throws IOException if the file cannot be read or is not a catalog file.
+   */
+  public static List<SyntheticObject> readBinary(Path file) throws IOException {
+
+    try (DataInputStream input = new DataInputStream(
+        new BufferedInputStream(Files.newInputStream(file)))) {
+      if (input.readInt() != BINARY_MAGIC || input.readInt() != BINARY_VERSION) {
+        throw new IOException("Not a version " + BINARY_VERSION + " catalog file: " + file);
+      }
+
+      List<GroundStation> stations = new ArrayList<>();
+      int stationCount = input.readInt();
+      for (int i = 0; i < stationCount; i++) {
+        String name = input.readUTF();
+        GeodeticPoint point = new GeodeticPoint(input.readDouble(), input.readDouble(),
+            input.readDouble());
+        stations.add(new GroundStation(new TopocentricFrame(AstroUtils.EARTH, point, name)));
+      }
+
+      Frame gcrf = FramesFactory.getGCRF();
+      List<SyntheticObject> objects = new ArrayList<>();
+      int objectCount = input.readInt();
+      for (int i = 0; i < objectCount; i++) {
+        int targetId = input.readInt();
+        OrbitRegime regime = OrbitRegime.valueOf(input.readUTF());
+        AbsoluteDate epoch = BinaryCodecUtils.readDate(input);
+        PVCoordinates pv = new PVCoordinates(BinaryCodecUtils.readVector(input),
+            BinaryCodecUtils.readVector(input));
+        Orbit orbit = new CartesianOrbit(pv, gcrf, epoch, input.readDouble());
+        SpacecraftState truth = new SpacecraftState(orbit, input.readDouble());
+
+        ObservableSatellite satellite = new ObservableSatellite(0);
+        List<ObservedMeasurement<?>> measurements = new ArrayList<>();
+        int measurementCount = input.readInt();
+        for (int j = 0; j < measurementCount; j++) {
+          GroundStation station = stations.get(input.readInt());
+          AbsoluteDate date = BinaryCodecUtils.readDate(input);
+          measurements.add(new AngularRaDec(station, gcrf, date,
+              BinaryCodecUtils.readArray(input), BinaryCodecUtils.readArray(input),
+              BinaryCodecUtils.readArray(input), satellite));
+        }
+        objects.add(new SyntheticObject(targetId, regime, truth, measurements));
+      }
+      return objects;
+    }
+  }
+
+  private Orbit createOrbit(OrbitRegime regime, RandomGenerator random) {
+
+    double earthRadius = Constants.IERS2010_EARTH_EQUATORIAL_RADIUS;
+    double a;
+    double e;
+    double i;
+    switch (regime) {
+      case LEO:
+        a = earthRadius + uniform(random, 5.0e5, 1.5e6);
+        e = uniform(random, 0.0, 0.01);
+        i = uniform(random, 0.0, 100.0);
+        break;
+      case MEO:
+        a = uniform(random, 2.55e7, 2.95e7);
+        e = uniform(random, 0.0, 0.02);
+        i = uniform(random, 50.0, 65.0);
+        break;
+      case GEO:
+        a = uniform(random, 4.2154e7, 4.2174e7);
+        e = uniform(random, 0.0, 0.001);
+        i = uniform(random, 0.0, 5.0);
+        break;
+      case HEO:
+        a = uniform(random, 2.55e7, 2.75e7);
+        e = uniform(random, 0.65, 0.75);
+        i = uniform(random, 60.0, 65.0);
+        break;
+      default:
+        throw new IllegalArgumentException("Unsupported orbit regime: " + regime);
+    }
+
+    // Cartesian parameters avoid the singularities of near-circular and equatorial orbits.
+    return new CartesianOrbit(new KeplerianOrbit(a, e, Math.toRadians(i),
+        uniform(random, 0.0, 2.0 * Math.PI), uniform(random, 0.0, 2.0 * Math.PI),
+        uniform(random, 0.0, 2.0 * Math.PI), PositionAngle.MEAN, FramesFactory.getGCRF(),
+        settings.getEpoch(), Constants.IERS2010_EARTH_MU));
+  }
+
+  private static double uniform(RandomGenerator random, double min, double max) {
+    return min + (max - min) * random.nextDouble();
+  }
+
+}
@@ -0,0 +1,122 @@
+package org.cohere.od.generation;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.cohere.od.oif.OifHelper;
+import org.cohere.od.oif.OifRaDecData;
+import org.cohere.od.utils.OrbitRegime;
+import org.cohere.od.utils.TestFixtures;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.orekit.estimation.measurements.AngularRaDec;
+import org.orekit.estimation.measurements.ObservedMeasurement;
+import org.orekit.time.AbsoluteDate;
+import org.orekit.time.TimeScalesFactory;
+
+/**
+ * Unit tests for the {@link CatalogWorkloadGenerator}.
+ */
+class CatalogWorkloadGeneratorTest {
+
+  private static ExecutorService executor = null;
+  private static CatalogWorkloadSettings settings = null;
+
+  @BeforeAll
+  public static void initialize() {
+    TestFixtures.initializeOrekit();
+    executor = Executors.newFixedThreadPool(4);
+    settings = CatalogWorkloadSettings.builder()
+        .objectCount(8)
+        .epoch(new AbsoluteDate("2023-03-18T00:00:00.000", TimeScalesFactory.getUTC()))
+        .duration(6.0 * 3600.0)
+        .step(600.0)
+        .stations(List.of(TestFixtures.createMaui(), TestFixtures.createEglin(),
+            TestFixtures.createDiegoGarcia()))
+        .seed(7L)
+        .build();
+  }
+
+  @AfterAll
+  public static void shutdown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  void testGenerateIsReproducible() {
+
+    List<SyntheticObject> parallel = new CatalogWorkloadGenerator(settings).generate(executor);
+    SyntheticObject sequential = new CatalogWorkloadGenerator(settings).generateObject(3);
+
+    Assertions.assertEquals(8, parallel.size());
+    Assertions.assertEquals(OrbitRegime.GEO, parallel.get(2).getRegime());
+    Assertions.assertEquals(OrbitRegime.GEO, OrbitRegime.classify(parallel.get(2).getTruth()
+        .getOrbit()));
+    SyntheticObject expected = parallel.get(3);
+    Assertions.assertEquals(expected.getTargetId(), sequential.getTargetId());
+    Assertions.assertEquals(expected.getMeasurements().size(), sequential.getMeasurements().size());
+    for (int i = 0; i < expected.getMeasurements().size(); i++) {
+      Assertions.assertArrayEquals(expected.getMeasurements().get(i).getObservedValue(),
+          sequential.getMeasurements().get(i).getObservedValue(), 0.0);
+    }
+    Assertions.assertFalse(parallel.get(2).getMeasurements().isEmpty());
+  }
+
+  @Test
+  void testBinaryRoundTrip(@TempDir Path directory) throws IOException {
+
+    List<SyntheticObject> objects = new CatalogWorkloadGenerator(settings).generate(executor);
+    Path file = directory.resolve("catalog.bin");
+    CatalogWorkloadGenerator.writeBinary(file, objects);
+    List<SyntheticObject> read = CatalogWorkloadGenerator.readBinary(file);
+
+    Assertions.assertEquals(objects.size(), read.size());
+    for (int i = 0; i < objects.size(); i++) {
+      SyntheticObject expected = objects.get(i);
+      SyntheticObject actual = read.get(i);
+      Assertions.assertEquals(expected.getRegime(), actual.getRegime());
+      Assertions.assertEquals(0.0,
+          expected.getTruth().getDate().durationFrom(actual.getTruth().getDate()), 0.0);
+      Assertions.assertEquals(0.0, expected.getTruth().getPVCoordinates().getPosition()
+          .distance(actual.getTruth().getPVCoordinates().getPosition()), 0.0);
+      Assertions.assertEquals(expected.getMeasurements().size(), actual.getMeasurements().size());
+      for (int j = 0; j < expected.getMeasurements().size(); j++) {
+        AngularRaDec expectedRaDec = (AngularRaDec) expected.getMeasurements().get(j);
+        AngularRaDec actualRaDec = (AngularRaDec) actual.getMeasurements().get(j);
+        Assertions.assertEquals(0.0, expectedRaDec.getDate().durationFrom(actualRaDec.getDate()),
+            0.0);
+        Assertions.assertArrayEquals(expectedRaDec.getObservedValue(),
+            actualRaDec.getObservedValue(), 0.0);
+        Assertions.assertEquals(expectedRaDec.getStation().getBaseFrame().getName(),
+            actualRaDec.getStation().getBaseFrame().getName());
+      }
+    }
+  }
+
+  @Test
+  void testOifIsReadableByOifHelper(@TempDir Path directory) throws IOException {
+
+    SyntheticObject object = new CatalogWorkloadGenerator(settings).generateObject(2);
+    CatalogWorkloadGenerator.writeOif(directory, List.of(object));
+
+    List<OifRaDecData> data = OifHelper.parseOifRaDecFile(
+        directory.resolve("T" + object.getTargetId() + ".oif"));
+    Assertions.assertTrue(Files.exists(directory.resolve(CatalogWorkloadGenerator.TRUTH_FILE_NAME)));
+    Assertions.assertEquals(object.getMeasurements().size(), data.size());
+    for (int i = 0; i < data.size(); i++) {
+      ObservedMeasurement<?> expected = object.getMeasurements().get(i);
+      OifRaDecData actual = data.get(i);
+      Assertions.assertEquals(object.getTargetId(), actual.getTargetId());
+      Assertions.assertEquals(0.0, expected.getDate().durationFrom(actual.getEpoch()), 1e-5);
+      Assertions.assertEquals(expected.getObservedValue()[0], actual.getRightAscension(), 1e-11);
+      Assertions.assertEquals(expected.getObservedValue()[1], actual.getDeclination(), 1e-11);
+    }
+  }
+
+}
@@ -0,0 +1,95 @@
+package org.cohere.od.generation;
+
+import java.util.List;
+import lombok.Builder;
+import lombok.NonNull;
+import lombok.Value;
+import org.cohere.od.utils.ForceModelProfile;
+import org.cohere.od.utils.OrbitRegime;
+import org.cohere.od.utils.TestFixtures;
+import org.orekit.estimation.measurements.GroundStation;
+import org.orekit.time.AbsoluteDate;
+
+/**
+ * Configuration of a {@link CatalogWorkloadGenerator}. The epoch and the sensor network have no
+ * defaults since building them requires Orekit data.
+ */
+@Value
+@Builder(toBuilder = true)
+public class CatalogWorkloadSettings {
+
+  /**
+   * The number of objects in the catalog.
+   */
+  @Builder.Default
+  int objectCount = 1000;
+
+  /**
+   * The regimes of the objects, assigned in turn by target ID.
+   */
+  @Builder.Default
+  List<OrbitRegime> regimes = List.of(OrbitRegime.values());
+
+  /**
+   * The target ID of the first object; the following objects have consecutive IDs.
+   */
+  @Builder.Default
+  int firstTargetId = 90000;
+
+  /**
+   * The seed of the orbit and noise generation. Each object derives its own generator from this
+   * seed and its target ID, so the catalog does not depend on the thread scheduling.
+   */
+  @Builder.Default
+  long seed = 0L;
+
+  /**
+   * The epoch of the truth states and start of the observation window.
+   */
+  @NonNull
+  AbsoluteDate epoch;
+
+  /**
+   * The duration of the observation window in seconds.
+   */
+  @Builder.Default
+  double duration = 86400.0;
+
+  /**
+   * The time step between measurements of a station in seconds.
+   */
+  @Builder.Default
+  double step = 300.0;
+
+  /**
+   * The sensor network.
+   */
+  @NonNull
+  List<GroundStation> stations;
+
+  /**
+   * The elevation mask of the stations in radians.
+   */
+  @Builder.Default
+  double minElevation = Math.toRadians(10.0);
+
+  /**
+   * The standard deviation of right ascension and declination in radians.
+   */
+  @Builder.Default
+  double raDecSigma = Math.toRadians(1.0 / 3600.0);
+
+  /**
+   * Whether Gaussian noise is added to the measurements.
+   */
+  @Builder.Default
+  boolean noisy = true;
+
+  /**
+   * The force models used to propagate the truth. Gravity-only by default, which keeps the
+   * generation fast and independent of planetary ephemerides.
+   */
+  @Builder.Default
+  ForceModelProfile truthForceModels = TestFixtures.GRAVITY_ONLY;
+
+}
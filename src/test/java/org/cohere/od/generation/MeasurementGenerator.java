@@ -13,10 +13,13 @@ import org.orekit.estimation.measurements.ObservableSatellite;
 import org.orekit.estimation.measurements.ObservedMeasurement;
 import org.orekit.estimation.measurements.generation.AngularRaDecBuilder;
 import org.orekit.estimation.measurements.generation.ContinuousScheduler;
+import org.orekit.estimation.measurements.generation.EventBasedScheduler;
 import org.orekit.estimation.measurements.generation.Generator;
 import org.orekit.estimation.measurements.generation.MeasurementBuilder;
+import org.orekit.estimation.measurements.generation.SignSemantic;
 import org.orekit.frames.FramesFactory;
 import org.orekit.propagation.Propagator;
+import org.orekit.propagation.events.ElevationDetector;
 import org.orekit.time.AbsoluteDate;
 import org.orekit.time.DatesSelector;
 import org.orekit.time.FixedStepSelector;
@@ -76,6 +79,40 @@ public class MeasurementGenerator {
     return new ArrayList<>(generator.generate(startTime, stopTime));
   }
 
+  /**
+   * Generate a list of RA/Dec measurements from several ground stations, keeping only those taken
+   * while the spacecraft is above the elevation mask of the station. All stations are processed in
+   * a single propagation.
+   *
+   * @param groundStations The ground stations observing the spacecraft.
+   * @param sigmas         The standard deviations of right ascension and declination,
+   *                       respectively.
+   * @param weights        The weights of right ascension and declination, respectively.
+   * @param startTime      The start time of the measurement set.
+   * @param stopTime       The stop time of the measurement set.
+   * @param step           The time step between measurements.
+   * @param minElevation   The elevation mask of the stations in radians.
+   * @return A list of RA/Dec {@link ObservedMeasurement}s sorted by date.
+   */
+  public List<ObservedMeasurement<?>> generateVisibleRaDecMeasurements(
+      List<GroundStation> groundStations, double[] sigmas, double[] weights,
+      AbsoluteDate startTime, AbsoluteDate stopTime, double step, double minElevation) {
+
+    Generator generator = new Generator();
+    ObservableSatellite satellite = generator.addPropagator(propagator);
+
+    for (GroundStation groundStation : groundStations) {
+      MeasurementBuilder<?> measurementBuilder = getRaDecBuilder(groundStation, satellite, sigmas,
+          weights);
+      DatesSelector selector = new FixedStepSelector(step, TimeScalesFactory.getUTC());
+      ElevationDetector visibility = new ElevationDetector(groundStation.getBaseFrame())
+          .withConstantElevation(minElevation);
+      generator.addScheduler(new EventBasedScheduler<>(measurementBuilder, selector, propagator,
+          visibility, SignSemantic.FEASIBLE_MEASUREMENT_WHEN_POSITIVE));
+    }
+    return new ArrayList<>(generator.generate(startTime, stopTime));
+  }
+
   private MeasurementBuilder<AngularRaDec> getRaDecBuilder(GroundStation groundStation,
       ObservableSatellite satellite, double[] sigmas, double[] weights) {
 
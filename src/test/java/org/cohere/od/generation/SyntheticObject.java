@@ -0,0 +1,20 @@
+package org.cohere.od.generation;
+
+import java.util.List;
+import lombok.Value;
+import org.cohere.od.utils.OrbitRegime;
+import org.orekit.estimation.measurements.ObservedMeasurement;
+import org.orekit.propagation.SpacecraftState;
+
+/**
+ * A synthetic catalog object: its ground truth state and the measurements simulated from it.
+ */
+@Value
+public class SyntheticObject {
+
+  int targetId;
+  OrbitRegime regime;
+  SpacecraftState truth;
+  List<ObservedMeasurement<?>> measurements;
+
+}
@@ -0,0 +1,100 @@
+package org.cohere.od.jfr;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.cohere.od.generation.MeasurementGenerator;
+import org.cohere.od.models.OdSettings;
+import org.cohere.od.observer.IterationEventObserver;
+import org.cohere.od.utils.EstimatorFactory;
+import org.cohere.od.utils.TestFixtures;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.orekit.estimation.leastsquares.BatchLSEstimator;
+import org.orekit.estimation.measurements.ObservedMeasurement;
+import org.orekit.propagation.Propagator;
+import org.orekit.propagation.SpacecraftState;
+import org.orekit.propagation.conversion.NumericalPropagatorBuilder;
+
+/**
+ * Unit tests for the JFR events emitted during an OD.
+ */
+class OdEventsTest {
+
+  @BeforeAll
+  public static void initializeOrekit() {
+    TestFixtures.initializeOrekit();
+  }
+
+  @Test
+  void testEstimatorEmitsSetupAndIterationEvents(@TempDir Path directory) throws IOException {
+
+    SpacecraftState initialState = TestFixtures.createInitialStateAf3();
+    NumericalPropagatorBuilder truthBuilder = TestFixtures.createGravityOnlyBuilder(initialState);
+    Propagator truth = truthBuilder.buildPropagator(
+        truthBuilder.getSelectedNormalizedParameters());
+    double sigma = Math.toRadians(0.001);
+    List<ObservedMeasurement<?>> measurements = new MeasurementGenerator(truth)
+        .generateRaDecMeasurements(TestFixtures.createDiegoGarcia(), new double[]{sigma, sigma},
+            new double[]{1.0, 1.0}, initialState.getDate(),
+            initialState.getDate().shiftedBy(3600.0), 300.0);
+
+    Path file = directory.resolve("od.jfr");
+    BatchLSEstimator estimator;
+    try (Recording recording = new Recording()) {
+      recording.enable(EstimatorSetupEvent.class);
+      recording.enable(LsIterationEvent.class);
+      recording.start();
+      estimator = EstimatorFactory.createBatchLsEstimator(
+          TestFixtures.createGravityOnlyBuilder(initialState), measurements, OdSettings.DEFAULT);
+      estimator.estimate();
+      recording.stop();
+      recording.dump(file);
+    }
+
+    List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+    Assertions.assertEquals(1, count(events, "org.cohere.od.EstimatorSetup"));
+    List<RecordedEvent> iterations = events.stream()
+        .filter(event -> event.getEventType().getName().equals("org.cohere.od.LsIteration"))
+        .collect(Collectors.toList());
+    Assertions.assertEquals(estimator.getEvaluationsCount(), iterations.size());
+    RecordedEvent last = iterations.get(iterations.size() - 1);
+    Assertions.assertEquals(estimator.getEvaluationsCount(), last.getInt("evaluation"));
+    Assertions.assertEquals(measurements.size(), last.getInt("measurementCount"));
+    Assertions.assertEquals(estimator.getOptimum().getRMS(), last.getDouble("rms"), 0.0);
+  }
+
+  @Test
+  void testDisabledIterationEventsDoNotAllocate() {
+
+    // Without a recording, the observer neither allocates nor reads the evaluation. The first
+    // round warms up, then the second allocates far less than one event per evaluation.
+    IterationEventObserver observer = new IterationEventObserver();
+    long allocated = 0L;
+    for (int round = 0; round < 2; round++) {
+      long before = getAllocatedBytes();
+      for (int i = 0; i < 10000; i++) {
+        observer.evaluationPerformed(i, i, null, null, null, null, null, null);
+      }
+      allocated = getAllocatedBytes() - before;
+    }
+    Assertions.assertTrue(allocated < 4096);
+  }
+
+  private static long getAllocatedBytes() {
+    return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean())
+        .getThreadAllocatedBytes(Thread.currentThread().getId());
+  }
+
+  private long count(List<RecordedEvent> events, String name) {
+    return events.stream().filter(event -> event.getEventType().getName().equals(name)).count();
+  }
+
+}
@@ -0,0 +1,132 @@
+package org.cohere.od.observer;
+
+import java.time.Duration;
+import org.cohere.od.models.OdSettings;
+import org.cohere.od.models.OdStatus;
+import org.cohere.od.utils.EstimatorFactory;
+import org.cohere.od.utils.TestFixtures;
+import org.hipparchus.geometry.euclidean.threed.Vector3D;
+import org.hipparchus.linear.MatrixUtils;
+import org.hipparchus.linear.RealMatrix;
+import org.hipparchus.linear.RealVector;
+import org.hipparchus.optim.nonlinear.vector.leastsquares.LeastSquaresFactory;
+import org.hipparchus.optim.nonlinear.vector.leastsquares.LeastSquaresProblem;
+import org.hipparchus.util.Pair;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.orekit.estimation.leastsquares.BatchLSEstimator;
+import org.orekit.propagation.SpacecraftState;
+import org.orekit.propagation.conversion.NumericalPropagatorBuilder;
+import org.orekit.time.AbsoluteDate;
+import org.orekit.utils.ParameterDriver;
+import org.orekit.utils.ParameterDriversList;
+
+/**
+ * Unit tests for the {@link AnytimeObserver}.
+ */
+class AnytimeObserverTest {
+
+  private static final double SIGMA = Math.toRadians(0.001);
+
+  @BeforeAll
+  public static void initializeOrekit() {
+    TestFixtures.initializeOrekit();
+  }
+
+  @Test
+  void testEvaluationBudgetReturnsBestEvaluation() {
+
+    SpacecraftState truth = TestFixtures.createInitialStateAf3();
+    NumericalPropagatorBuilder builder = TestFixtures.createGravityOnlyBuilder(
+        TestFixtures.perturb(truth));
+    OdSettings settings = OdSettings.builder().evaluationBudget(2).build();
+    AnytimeObserver observer = EstimatorFactory.createAnytimeObserver(settings);
+    BatchLSEstimator estimator = EstimatorFactory.createBatchLsEstimator(builder,
+        TestFixtures.generateRaDecMeasurements(truth, SIGMA), settings, observer);
+
+    EstimationStoppedException ex = Assertions.assertThrows(EstimationStoppedException.class,
+        estimator::estimate);
+    Assertions.assertEquals(OdStatus.BUDGET_EXHAUSTED, ex.getStatus());
+    Assertions.assertEquals(2, observer.getEvaluations());
+    Assertions.assertTrue(Double.isFinite(observer.getBestRms()));
+
+    // The best evaluation is closer to the truth than the initial guess.
+    SpacecraftState best = builder.buildPropagator(observer.getBestPropagationParameters())
+        .getInitialState();
+    Vector3D truePosition = propagate(truth, best.getDate());
+    Vector3D guessPosition = propagate(TestFixtures.perturb(truth), best.getDate());
+    Assertions.assertTrue(Vector3D.distance(truePosition, best.getPVCoordinates().getPosition())
+        < Vector3D.distance(truePosition, guessPosition));
+
+    RealMatrix covariance = observer.getBestCovariance();
+    Assertions.assertEquals(6, covariance.getRowDimension());
+    for (int i = 0; i < 6; i++) {
+      Assertions.assertTrue(covariance.getEntry(i, i) > 0.0);
+    }
+  }
+
+  @Test
+  void testConvergingEstimationIsNotStopped() {
+
+    SpacecraftState truth = TestFixtures.createInitialStateAf3();
+    OdSettings settings = OdSettings.builder().timeBudget(Duration.ofMinutes(10))
+        .divergenceEvaluations(2).build();
+    AnytimeObserver observer = EstimatorFactory.createAnytimeObserver(settings);
+    BatchLSEstimator estimator = EstimatorFactory.createBatchLsEstimator(
+        TestFixtures.createGravityOnlyBuilder(TestFixtures.perturb(truth)),
+        TestFixtures.generateRaDecMeasurements(truth, SIGMA), settings, observer);
+
+    estimator.estimate();
+    Assertions.assertEquals(estimator.getEvaluationsCount(), observer.getEvaluations());
+    Assertions.assertEquals(estimator.getOptimum().getRMS(), observer.getBestRms(), 1e-12);
+  }
+
+  @Test
+  void testExpiredTimeBudgetStopsAfterFirstEvaluation() {
+
+    AnytimeObserver observer = new AnytimeObserver(Duration.ZERO, 25, 0, 1e-3);
+    EstimationStoppedException ex = Assertions.assertThrows(EstimationStoppedException.class,
+        () -> notify(observer, 1, 4.0));
+    Assertions.assertEquals(OdStatus.BUDGET_EXHAUSTED, ex.getStatus());
+    Assertions.assertNotNull(observer.getBestPropagationParameters());
+  }
+
+  @Test
+  void testGrowingRmsIsAbortedAsDiverging() {
+
+    AnytimeObserver observer = new AnytimeObserver(null, 25, 2, 1e-3);
+    notify(observer, 1, 3.0);
+    notify(observer, 2, 1.0);
+    notify(observer, 3, 2.0);
+    EstimationStoppedException ex = Assertions.assertThrows(EstimationStoppedException.class,
+        () -> notify(observer, 4, 5.0));
+    Assertions.assertEquals(OdStatus.DIVERGED, ex.getStatus());
+    Assertions.assertEquals(2, observer.getBestEvaluation());
+    Assertions.assertEquals(1.0, observer.getBestPropagationParameters()[0], 0.0);
+  }
+
+  /**
+   * Notifies an evaluation of the identity model at the given point, so that the residual of its
+   * single row is the point.
+   */
+  private static void notify(AnytimeObserver observer, int evaluation, double point) {
+    LeastSquaresProblem problem = LeastSquaresFactory.create(
+        (RealVector x) -> new Pair<>(x.copy(), MatrixUtils.createRealIdentityMatrix(1)),
+        MatrixUtils.createRealVector(new double[]{0.0}),
+        MatrixUtils.createRealVector(new double[]{point}), MatrixUtils.createRealIdentityMatrix(1),
+        null, 100, 100);
+    ParameterDriversList drivers = new ParameterDriversList();
+    drivers.add(new ParameterDriver("x", 0.0, 1.0, -10.0, 10.0));
+    observer.evaluationPerformed(evaluation, evaluation, null, drivers,
+        new ParameterDriversList(), new ParameterDriversList(), null,
+        problem.evaluate(MatrixUtils.createRealVector(new double[]{point})));
+  }
+
+  private Vector3D propagate(SpacecraftState state, AbsoluteDate date) {
+    NumericalPropagatorBuilder builder = TestFixtures.createGravityOnlyBuilder(state);
+    return builder.buildPropagator(builder.getSelectedNormalizedParameters()).propagate(date)
+        .getPVCoordinates().getPosition();
+  }
+
+}
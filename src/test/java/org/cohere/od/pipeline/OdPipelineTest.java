@@ -0,0 +1,238 @@
+package org.cohere.od.pipeline;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.cohere.od.OdProcessor;
+import org.cohere.od.export.BulkNdmExporter;
+import org.cohere.od.export.NdmExportSettings;
+import org.cohere.od.models.StateAndCovariance;
+import org.cohere.od.utils.TestFixtures;
+import org.hipparchus.geometry.euclidean.threed.Vector3D;
+import org.hipparchus.linear.MatrixUtils;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.orekit.estimation.measurements.ObservedMeasurement;
+import org.orekit.orbits.OrbitType;
+import org.orekit.orbits.PositionAngle;
+import org.orekit.propagation.SpacecraftState;
+import org.orekit.propagation.StateCovariance;
+
+/**
+ * Unit tests for the {@link OdPipeline}.
+ */
+class OdPipelineTest {
+
+  private static final double[] SIGMAS = new double[]{Math.toRadians(1.0 / 3600.0),
+      Math.toRadians(1.0 / 3600.0)};
+  private static final long TIMEOUT_MILLIS = 60000L;
+
+  private static ExecutorService executor = null;
+
+  @BeforeAll
+  public static void initialize() {
+    TestFixtures.initializeOrekit();
+    executor = Executors.newFixedThreadPool(2);
+  }
+
+  @AfterAll
+  public static void shutdown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  void testDroppedFilesAreEstimatedAndExported(@TempDir Path directory) throws Exception {
+
+    Path drop = directory.resolve("drop");
+    Path output = directory.resolve("output");
+    Map<String, SpacecraftState> initialStates = Map.of(
+        "50008", TestFixtures.createInitialStateAf3(),
+        "50036", TestFixtures.createInitialStateSa2());
+    Map<Integer, StateAndCovariance> solutionsBySize = new ConcurrentHashMap<>();
+    OdProcessor processor = (initialState, measurements) -> {
+      StateAndCovariance solution = TestFixtures.estimateGravityOnly(initialState, measurements);
+      solutionsBySize.put(measurements.size(), solution);
+      return solution;
+    };
+
+    List<Path> files = new ArrayList<>(listOifFiles(TestFixtures.OIF_ROOT.resolve("af3")));
+    files.addAll(listOifFiles(TestFixtures.OIF_ROOT.resolve("sa2")));
+    PipelineSettings settings = PipelineSettings.builder()
+        .directories(List.of(drop))
+        .raDecSigmas(SIGMAS)
+        .odParallelism(2)
+        .build();
+
+    PipelineMetrics metrics;
+    try (BulkNdmExporter exporter = new BulkNdmExporter(NdmExportSettings.builder()
+        .directory(output)
+        .maxBatchDelayMillis(10L)
+        .build())) {
+      try (OdPipeline pipeline = new OdPipeline(settings, processor, initialStates::get, exporter,
+          executor)) {
+        for (Path file : files) {
+          drop(file, directory, drop);
+        }
+        awaitUntil(() -> pipeline.getMetrics().getFilesDetected() == files.size());
+        pipeline.close();
+        metrics = pipeline.getMetrics();
+      }
+      exporter.close();
+      Assertions.assertEquals(metrics.getExported(), exporter.getMetrics().getWritten());
+    }
+
+    Assertions.assertEquals(files.size(), metrics.getFilesParsed());
+    Assertions.assertEquals(0, metrics.getFilesFailed());
+    Assertions.assertEquals(0, metrics.getUnknownTargetMeasurements());
+    Assertions.assertTrue(metrics.getOdRuns() >= 2);
+    Assertions.assertEquals(0, metrics.getOdFailures());
+    Assertions.assertEquals(metrics.getOdRuns(), metrics.getExported());
+    Assertions.assertTrue(metrics.getMeanLatencyMillis() > 0.0);
+    Assertions.assertTrue(metrics.getMaxLatencyMillis() >= metrics.getMeanLatencyMillis());
+
+    // The last OD of each target uses all its measurements, and matches a direct OD of them.
+    String[] directories = new String[]{"af3", "sa2"};
+    int totalMeasurements = 0;
+    for (String name : directories) {
+      List<ObservedMeasurement<?>> measurements = TestFixtures.readOifMeasurements(
+          TestFixtures.OIF_ROOT.resolve(name), SIGMAS);
+      totalMeasurements += measurements.size();
+      SpacecraftState initialState = name.equals("af3") ? initialStates.get("50008")
+          : initialStates.get("50036");
+      SpacecraftState expected = TestFixtures.estimateGravityOnly(initialState, measurements)
+          .getState();
+      StateAndCovariance actual = solutionsBySize.get(measurements.size());
+      Assertions.assertNotNull(actual);
+      Assertions.assertEquals(0.0, actual.getState().getDate().durationFrom(expected.getDate()),
+          1.0e-6);
+      Assertions.assertTrue(Vector3D.distance(expected.getPVCoordinates().getPosition(),
+          actual.getState().getPVCoordinates().getPosition()) < 10.0);
+    }
+    Assertions.assertEquals(totalMeasurements, metrics.getMeasurements());
+
+    String content;
+    try (Stream<Path> outputs = Files.list(output)) {
+      content = outputs.map(OdPipelineTest::readString).collect(Collectors.joining());
+    }
+    Assertions.assertTrue(content.contains("50008"));
+    Assertions.assertTrue(content.contains("50036"));
+  }
+
+  @Test
+  void testSlowStagesThrottleIngestion(@TempDir Path directory) throws Exception {
+
+    // Twenty distinct targets, so that no OD absorbs another one's files.
+    Path drop = directory.resolve("drop");
+    Files.createDirectories(drop);
+    Path source = listOifFiles(TestFixtures.OIF_ROOT.resolve("af3")).get(0);
+    String content = Files.readString(source);
+    int fileCount = 20;
+    for (int i = 0; i < fileCount; i++) {
+      Files.writeString(drop.resolve(String.format("target_%02d.oif", i)),
+          content.replace("50008", String.valueOf(60000 + i)));
+    }
+    Files.writeString(drop.resolve("ignored.txt"), content);
+
+    CountDownLatch release = new CountDownLatch(1);
+    SpacecraftState initialState = TestFixtures.createInitialStateAf3();
+    StateAndCovariance solution = new StateAndCovariance(new StateCovariance(
+        MatrixUtils.createRealIdentityMatrix(6), initialState.getDate(), initialState.getFrame(),
+        OrbitType.CARTESIAN, PositionAngle.MEAN), initialState);
+    OdProcessor processor = (state, measurements) -> {
+      try {
+        release.await();
+      } catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+      }
+      return solution;
+    };
+
+    // Each target has a single tracklet, which the stub processor accepts.
+    PipelineSettings settings = PipelineSettings.builder()
+        .directories(List.of(drop))
+        .minArcDuration(0.0)
+        .fileBufferSize(1)
+        .targetBufferSize(1)
+        .resultBufferSize(1)
+        .odParallelism(1)
+        .build();
+
+    try (BulkNdmExporter exporter = new BulkNdmExporter(NdmExportSettings.builder()
+        .directory(directory.resolve("output"))
+        .maxBatchDelayMillis(10L)
+        .build());
+        OdPipeline pipeline = new OdPipeline(settings, processor, id -> initialState, exporter,
+            executor)) {
+
+      // With the OD blocked, one target is in the OD, one is queued, one is held by the parser
+      // and one file is queued, so ingestion stops early.
+      awaitUntil(() -> pipeline.getMetrics().getFilesParsed() >= 3);
+      Thread.sleep(200L);
+      PipelineMetrics blocked = pipeline.getMetrics();
+      Assertions.assertTrue(blocked.getFilesParsed() <= 4, blocked.toString());
+      Assertions.assertTrue(blocked.getFilesDetected() <= blocked.getFilesParsed() + 2,
+          blocked.toString());
+      Assertions.assertTrue(blocked.getQueuedFiles() <= 2, blocked.toString());
+      Assertions.assertTrue(blocked.getQueuedTargets() <= 2, blocked.toString());
+      Assertions.assertEquals(0, blocked.getExported());
+
+      release.countDown();
+      awaitUntil(() -> pipeline.getMetrics().getExported() == fileCount);
+      pipeline.close();
+      PipelineMetrics metrics = pipeline.getMetrics();
+      Assertions.assertEquals(fileCount, metrics.getFilesDetected());
+      Assertions.assertEquals(fileCount, metrics.getOdRuns());
+      Assertions.assertEquals(0, metrics.getQueuedFiles());
+      Assertions.assertEquals(0, metrics.getQueuedTargets());
+      Assertions.assertEquals(0, metrics.getQueuedResults());
+    }
+  }
+
+  /**
+   * Copies a file next to the drop directory, then moves it in, as producers are expected to.
+   */
+  private static void drop(Path file, Path staging, Path drop) throws IOException {
+    Path staged = Files.copy(file, staging.resolve(file.getFileName()),
+        StandardCopyOption.REPLACE_EXISTING);
+    Files.move(staged, drop.resolve(file.getFileName()), StandardCopyOption.ATOMIC_MOVE);
+  }
+
+  private static List<Path> listOifFiles(Path directory) throws IOException {
+    try (Stream<Path> files = Files.list(directory)) {
+      return files.filter(file -> file.getFileName().toString().endsWith(".oif"))
+          .sorted()
+          .collect(Collectors.toList());
+    }
+  }
+
+  private static String readString(Path file) {
+    try {
+      return Files.readString(file);
+    } catch (IOException ex) {
+      throw new IllegalStateException(ex);
+    }
+  }
+
+  private static void awaitUntil(BooleanSupplier condition) throws InterruptedException {
+    long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+    while (!condition.getAsBoolean()) {
+      Assertions.assertTrue(System.currentTimeMillis() < deadline, "Timed out");
+      Thread.sleep(10L);
+    }
+  }
+
+}
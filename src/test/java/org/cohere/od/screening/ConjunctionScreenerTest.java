@@ -0,0 +1,196 @@
+package org.cohere.od.screening;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.cohere.od.models.StateAndCovariance;
+import org.cohere.od.utils.ForceModelProfile;
+import org.cohere.od.utils.PropagatorFactory;
+import org.cohere.od.utils.TestFixtures;
+import org.hipparchus.geometry.euclidean.threed.Rotation;
+import org.hipparchus.geometry.euclidean.threed.RotationConvention;
+import org.hipparchus.geometry.euclidean.threed.Vector3D;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.orekit.frames.FramesFactory;
+import org.orekit.orbits.CartesianOrbit;
+import org.orekit.orbits.KeplerianOrbit;
+import org.orekit.orbits.PositionAngle;
+import org.orekit.propagation.Propagator;
+import org.orekit.propagation.SpacecraftState;
+import org.orekit.time.AbsoluteDate;
+import org.orekit.time.TimeScalesFactory;
+import org.orekit.utils.Constants;
+import org.orekit.utils.PVCoordinates;
+import org.orekit.utils.TimeStampedPVCoordinates;
+
+/**
+ * Unit tests for the {@link ConjunctionScreener}.
+ */
+class ConjunctionScreenerTest {
+
+  private static final ForceModelProfile J2_ONLY = new ForceModelProfile(2, 0, false, false,
+      false);
+  private static final double GEO_RADIUS = 42164.0e3;
+  private static final double MISS_DISTANCE = 500.0;
+  private static final double MASS = 500.0;
+
+  private static ExecutorService executor = null;
+  private static AbsoluteDate start = null;
+  private static AbsoluteDate tca = null;
+
+  @BeforeAll
+  public static void initialize() {
+    TestFixtures.initializeOrekit();
+    executor = Executors.newFixedThreadPool(4);
+    start = new AbsoluteDate("2023-03-18T00:00:00.000", TimeScalesFactory.getUTC());
+    tca = start.shiftedBy(6 * 3600.0 + 17.0);
+  }
+
+  @AfterAll
+  public static void shutdown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  void testFindsPlantedConjunction() {
+
+    Map<String, StateAndCovariance> catalog = createCatalog(tca);
+    ScreeningSettings settings = ScreeningSettings.builder()
+        .forceModelProfile(J2_ONLY)
+        .chunkSteps(100)
+        .build();
+
+    ScreeningResult result = new ConjunctionScreener(settings, executor).screen(catalog, start,
+        start.shiftedBy(86400.0));
+
+    Assertions.assertEquals(catalog.size(), result.getObjects());
+    Assertions.assertEquals(catalog.size() - 1, result.getScreenedObjects());
+    // The inclined orbits cross again at the opposite node, half a day later.
+    Assertions.assertEquals(2, result.getConjunctions().size());
+    for (Conjunction conjunction : result.getConjunctions()) {
+      Assertions.assertEquals("planted-a", conjunction.getPrimaryId());
+      Assertions.assertEquals("planted-b", conjunction.getSecondaryId());
+    }
+    Conjunction conjunction = result.getConjunctions().get(0);
+    Assertions.assertTrue(result.getRefinedPairs() < result.getCandidatePairs());
+
+    // Reference closest approach from a dense scan of the same dynamics.
+    Propagator primary = PropagatorFactory.createPropagator(catalog.get("planted-a").getState(),
+        PropagatorFactory.createForceModels(J2_ONLY),
+        PropagatorFactory.createIntegratorBuilder(0.001, 300.0, 1.0));
+    Propagator secondary = PropagatorFactory.createPropagator(catalog.get("planted-b").getState(),
+        PropagatorFactory.createForceModels(J2_ONLY),
+        PropagatorFactory.createIntegratorBuilder(0.001, 300.0, 1.0));
+    double minDistance = Double.POSITIVE_INFINITY;
+    AbsoluteDate minDate = null;
+    for (double dt = -300.0; dt <= 300.0; dt += 0.5) {
+      AbsoluteDate date = tca.shiftedBy(dt);
+      double distance = Vector3D.distance(
+          primary.getPVCoordinates(date, FramesFactory.getGCRF()).getPosition(),
+          secondary.getPVCoordinates(date, FramesFactory.getGCRF()).getPosition());
+      if (distance < minDistance) {
+        minDistance = distance;
+        minDate = date;
+      }
+    }
+    Assertions.assertEquals(minDistance, conjunction.getMissDistance(), 1.0);
+    Assertions.assertEquals(0.0,
+        conjunction.getTimeOfClosestApproach().durationFrom(minDate), 1.0);
+    Assertions.assertEquals(MISS_DISTANCE, conjunction.getMissDistance(), 50.0);
+    Assertions.assertTrue(conjunction.getRelativeSpeed() > 50.0);
+  }
+
+  @Test
+  void testChunkingAndThreadsDoNotChangeResult() {
+
+    Map<String, StateAndCovariance> catalog = createCatalog(tca);
+    ScreeningSettings settings = ScreeningSettings.builder()
+        .forceModelProfile(J2_ONLY)
+        .screeningDistance(50000.0)
+        .build();
+    AbsoluteDate end = start.shiftedBy(12 * 3600.0);
+
+    ScreeningResult single = new ConjunctionScreener(settings, executor).screen(catalog, start,
+        end);
+    ExecutorService singleThread = Executors.newSingleThreadExecutor();
+    ScreeningResult chunked;
+    try {
+      chunked = new ConjunctionScreener(settings.toBuilder().chunkSteps(7).build(), singleThread)
+          .screen(catalog, start, end);
+    } finally {
+      singleThread.shutdownNow();
+    }
+
+    Assertions.assertFalse(single.getConjunctions().isEmpty());
+    Assertions.assertEquals(single.getConjunctions().size(), chunked.getConjunctions().size());
+    for (int i = 0; i < single.getConjunctions().size(); i++) {
+      Conjunction expected = single.getConjunctions().get(i);
+      Conjunction actual = chunked.getConjunctions().get(i);
+      Assertions.assertEquals(expected.getPrimaryId(), actual.getPrimaryId());
+      Assertions.assertEquals(expected.getSecondaryId(), actual.getSecondaryId());
+      Assertions.assertEquals(expected.getMissDistance(), actual.getMissDistance(), 1.0);
+      Assertions.assertEquals(0.0, expected.getTimeOfClosestApproach()
+          .durationFrom(actual.getTimeOfClosestApproach()), 0.1);
+    }
+  }
+
+  @Test
+  void testConjunctionOnHalfStepBoundaryIsReportedOnce() {
+
+    // The closest approach is midway between two grid points, on the boundary of both searches.
+    ScreeningSettings settings = ScreeningSettings.builder()
+        .forceModelProfile(J2_ONLY)
+        .build();
+    AbsoluteDate boundary = start.shiftedBy(6 * 3600.0 + 0.5 * settings.getGridStep());
+    Map<String, StateAndCovariance> catalog = createCatalog(boundary);
+
+    ScreeningResult result = new ConjunctionScreener(settings, executor).screen(catalog, start,
+        start.shiftedBy(12 * 3600.0));
+
+    Assertions.assertEquals(1, result.getConjunctions().size());
+    Conjunction conjunction = result.getConjunctions().get(0);
+    Assertions.assertEquals(0.0, conjunction.getTimeOfClosestApproach().durationFrom(boundary),
+        0.01);
+    Assertions.assertEquals(MISS_DISTANCE, conjunction.getMissDistance(), 50.0);
+  }
+
+  /**
+   * Creates a catalog of GEO objects 15 degrees apart, a LEO object and two GEO objects crossing
+   * each other at a planted time of closest approach.
+   */
+  private static Map<String, StateAndCovariance> createCatalog(AbsoluteDate tca) {
+
+    Map<String, StateAndCovariance> catalog = new LinkedHashMap<>();
+    for (int i = 0; i < 20; i++) {
+      KeplerianOrbit orbit = new KeplerianOrbit(GEO_RADIUS, 1.0e-4, Math.toRadians(0.1), 0.0, 0.0,
+          Math.toRadians(15.0 * i), PositionAngle.MEAN, FramesFactory.getGCRF(), start,
+          Constants.IERS2010_EARTH_MU);
+      catalog.put(String.format("geo-%02d", i), new StateAndCovariance(null,
+          new SpacecraftState(orbit, MASS)));
+    }
+    KeplerianOrbit leo = new KeplerianOrbit(7000.0e3, 1.0e-3, Math.toRadians(98.0), 0.0, 0.0, 0.0,
+        PositionAngle.MEAN, FramesFactory.getGCRF(), start, Constants.IERS2010_EARTH_MU);
+    catalog.put("leo", new StateAndCovariance(null, new SpacecraftState(leo, MASS)));
+
+    // At the time of closest approach, the secondary is 500 m above the primary on an orbit
+    // inclined by 2 degrees relative to it.
+    KeplerianOrbit planted = new KeplerianOrbit(GEO_RADIUS, 0.0, 0.0, 0.0, 0.0,
+        Math.toRadians(307.5), PositionAngle.MEAN, FramesFactory.getGCRF(), tca,
+        Constants.IERS2010_EARTH_MU);
+    PVCoordinates pv = planted.getPVCoordinates();
+    Vector3D radial = pv.getPosition().normalize();
+    Vector3D velocity = new Rotation(radial, Math.toRadians(2.0),
+        RotationConvention.VECTOR_OPERATOR).applyTo(pv.getVelocity());
+    CartesianOrbit crossing = new CartesianOrbit(new TimeStampedPVCoordinates(tca,
+        pv.getPosition().add(radial.scalarMultiply(MISS_DISTANCE)), velocity),
+        FramesFactory.getGCRF(), Constants.IERS2010_EARTH_MU);
+    catalog.put("planted-b", new StateAndCovariance(null, new SpacecraftState(crossing, MASS)));
+    catalog.put("planted-a", new StateAndCovariance(null, new SpacecraftState(planted, MASS)));
+    return catalog;
+  }
+
+}
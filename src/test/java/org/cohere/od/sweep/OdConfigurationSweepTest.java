@@ -0,0 +1,120 @@
+package org.cohere.od.sweep;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.cohere.od.generation.CatalogWorkloadGenerator;
+import org.cohere.od.generation.CatalogWorkloadSettings;
+import org.cohere.od.generation.SyntheticObject;
+import org.cohere.od.utils.ForceModelProfile;
+import org.cohere.od.utils.OrbitRegime;
+import org.cohere.od.utils.TestFixtures;
+import org.hipparchus.geometry.euclidean.threed.Vector3D;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.orekit.time.AbsoluteDate;
+import org.orekit.time.TimeScalesFactory;
+
+/**
+ * Unit tests for the {@link OdConfigurationSweep}.
+ */
+class OdConfigurationSweepTest {
+
+  private static final double[] SIGMAS = new double[]{Math.toRadians(1.0 / 3600.0),
+      Math.toRadians(1.0 / 3600.0)};
+
+  private static ExecutorService executor = null;
+
+  @BeforeAll
+  public static void initialize() {
+    TestFixtures.initializeOrekit();
+    executor = Executors.newFixedThreadPool(4);
+  }
+
+  @AfterAll
+  public static void shutdown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  void testSweepFindsCheapestConfigurationWithinBudget() throws IOException {
+
+    List<SweepCase> cases = new ArrayList<>();
+    cases.add(new SweepCase("af3", TestFixtures.createInitialStateAf3(),
+        TestFixtures.readOifMeasurements(TestFixtures.OIF_ROOT.resolve("af3"), SIGMAS)));
+    List<SyntheticObject> objects = new CatalogWorkloadGenerator(CatalogWorkloadSettings.builder()
+        .objectCount(2)
+        .regimes(List.of(OrbitRegime.GEO))
+        .epoch(new AbsoluteDate("2023-03-18T00:00:00.000", TimeScalesFactory.getUTC()))
+        .duration(6.0 * 3600.0)
+        .step(600.0)
+        .stations(List.of(TestFixtures.createMaui(), TestFixtures.createEglin(),
+            TestFixtures.createDiegoGarcia()))
+        .seed(7L)
+        .build()).generate(executor);
+    for (SyntheticObject object : objects) {
+      cases.add(new SweepCase("T" + object.getTargetId(),
+          TestFixtures.offset(object.getTruth(), new Vector3D(1000.0, -1000.0, 500.0),
+              Vector3D.ZERO),
+          object.getMeasurements()));
+    }
+
+    SweepSettings settings = SweepSettings.builder()
+        .forceModelProfiles(List.of(new ForceModelProfile(2, 2, false, false, false),
+            TestFixtures.GRAVITY_ONLY))
+        .maxSteps(List.of(300.0))
+        .positionErrors(List.of(1.0, 100.0))
+        .convergenceThresholds(List.of(1.0e-3, 1.0e-1))
+        .maxIterations(List.of(25))
+        .reference(SweepConfiguration.builder()
+            .forceModelProfile(new ForceModelProfile(12, 12, false, false, false))
+            .maxStep(60.0)
+            .positionError(0.01)
+            .convergenceThreshold(1.0e-5)
+            .maxIterations(50)
+            .build())
+        .build();
+
+    SweepReport report = new OdConfigurationSweep(settings, executor).run(cases);
+
+    Assertions.assertEquals(8, report.getResults().size());
+    double previousCost = 0.0;
+    for (SweepResult result : report.getResults()) {
+      Assertions.assertEquals(cases.size(), result.getCases());
+      Assertions.assertTrue(result.getForceModelEvaluations() > 0);
+      Assertions.assertTrue(result.getCost() >= previousCost);
+      previousCost = result.getCost();
+      Assertions.assertTrue(report.format().contains(result.getConfiguration().getLabel()));
+    }
+
+    // Along the frontier the cost grows and the deviation shrinks.
+    List<SweepResult> frontier = report.getFrontier();
+    Assertions.assertFalse(frontier.isEmpty());
+    for (int i = 1; i < frontier.size(); i++) {
+      Assertions.assertTrue(frontier.get(i).getCost() >= frontier.get(i - 1).getCost());
+      Assertions.assertTrue(frontier.get(i).getMaxPositionDeviation()
+          < frontier.get(i - 1).getMaxPositionDeviation());
+    }
+    SweepResult cheapestSuccessful = report.getResults().stream()
+        .filter(SweepResult::isSuccessful)
+        .findFirst()
+        .orElseThrow();
+    Assertions.assertSame(cheapestSuccessful, frontier.get(0));
+
+    // The most accurate configuration stays close to the 12x12 reference.
+    SweepResult closest = frontier.get(frontier.size() - 1);
+    Assertions.assertTrue(closest.getMaxPositionDeviation() < 100.0);
+
+    SweepResult cheapest = report.getCheapest(closest.getMaxPositionDeviation(),
+        Double.POSITIVE_INFINITY);
+    Assertions.assertNotNull(cheapest);
+    Assertions.assertTrue(cheapest.isParetoOptimal());
+    Assertions.assertTrue(cheapest.getCost() <= closest.getCost());
+    Assertions.assertNull(report.getCheapest(-1.0, Double.POSITIVE_INFINITY));
+  }
+
+}
@@ -0,0 +1,101 @@
+package org.cohere.od.utils;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import org.cohere.od.models.ForceModelCostReport;
+import org.cohere.od.models.OdSettings;
+import org.hipparchus.geometry.euclidean.threed.Vector3D;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.orekit.estimation.leastsquares.BatchLSEstimator;
+import org.orekit.estimation.measurements.ObservedMeasurement;
+import org.orekit.frames.FramesFactory;
+import org.orekit.orbits.KeplerianOrbit;
+import org.orekit.orbits.Orbit;
+import org.orekit.orbits.PositionAngle;
+import org.orekit.propagation.SpacecraftState;
+import org.orekit.propagation.conversion.NumericalPropagatorBuilder;
+import org.orekit.time.AbsoluteDate;
+import org.orekit.utils.Constants;
+
+/**
+ * Unit tests for the {@link PropagatorFactory} force model selection.
+ */
+class PropagatorFactoryTest {
+
+  private static final double ONE_DAY = Constants.JULIAN_DAY;
+  private static final double MAX_POSITION_DIFFERENCE = 1.0;
+  private static final double[] SIGMAS = new double[]{Math.toRadians(1.0 / 3600.0),
+      Math.toRadians(1.0 / 3600.0)};
+
+  @BeforeAll
+  public static void initializeOrekit() {
+    TestFixtures.initializeOrekit();
+  }
+
+  @Test
+  void testClassifyOrbitRegime() {
+
+    AbsoluteDate epoch = AbsoluteDate.J2000_EPOCH;
+    Assertions.assertEquals(OrbitRegime.LEO, OrbitRegime.classify(createOrbit(7.0e6, 0.001, epoch)));
+    Assertions.assertEquals(OrbitRegime.MEO, OrbitRegime.classify(createOrbit(2.656e7, 0.01, epoch)));
+    Assertions.assertEquals(OrbitRegime.GEO, OrbitRegime.classify(createOrbit(4.2164e7, 0.0, epoch)));
+    Assertions.assertEquals(OrbitRegime.HEO, OrbitRegime.classify(createOrbit(2.6554e7, 0.74, epoch)));
+
+    for (SpacecraftState state : createFixtureStates()) {
+      Assertions.assertEquals(OrbitRegime.GEO, OrbitRegime.classify(state.getOrbit()));
+    }
+  }
+
+  @Test
+  void testExpectedCostDecreasesAwayFromLeo() {
+    Assertions.assertEquals(1.0, OrbitRegime.LEO.getProfile().getExpectedRelativeCost(), 0.0);
+    Assertions.assertTrue(OrbitRegime.HEO.getProfile().getExpectedRelativeCost() < 1.0);
+    Assertions.assertTrue(OrbitRegime.MEO.getProfile().getExpectedRelativeCost()
+        < OrbitRegime.HEO.getProfile().getExpectedRelativeCost());
+    Assertions.assertTrue(OrbitRegime.GEO.getProfile().getExpectedRelativeCost()
+        < OrbitRegime.MEO.getProfile().getExpectedRelativeCost());
+  }
+
+  @Test
+  void testRegimeProfileOdAgainstFullModel() throws IOException {
+
+    List<SpacecraftState> initialStates = createFixtureStates();
+    String[] directories = new String[]{"af3", "cp1", "sa2"};
+    for (int i = 0; i < initialStates.size(); i++) {
+      SpacecraftState initialState = initialStates.get(i);
+      List<ObservedMeasurement<?>> measurements = TestFixtures.readOifMeasurements(
+          TestFixtures.OIF_ROOT.resolve(directories[i]), SIGMAS);
+
+      Vector3D expected = estimatePosition(
+          PropagatorFactory.createDefaultPropagatorBuilder(initialState), measurements);
+      Vector3D actual = estimatePosition(
+          PropagatorFactory.createRegimePropagatorBuilder(initialState), measurements);
+      Assertions.assertEquals(0.0, Vector3D.distance(expected, actual), MAX_POSITION_DIFFERENCE);
+
+      ForceModelCostReport report = PropagatorFactory.measureRegimeCost(initialState, ONE_DAY);
+      Assertions.assertEquals(OrbitRegime.GEO, report.getRegime());
+      Assertions.assertTrue(report.getMeasuredRelativeCost() < 1.0);
+    }
+  }
+
+  private Vector3D estimatePosition(NumericalPropagatorBuilder builder,
+      List<ObservedMeasurement<?>> measurements) {
+    BatchLSEstimator estimator = EstimatorFactory.createBatchLsEstimator(builder,
+        new ArrayList<>(measurements), OdSettings.DEFAULT);
+    return estimator.estimate()[0].getInitialState().getPVCoordinates().getPosition();
+  }
+
+  private Orbit createOrbit(double a, double e, AbsoluteDate epoch) {
+    return new KeplerianOrbit(a, e, Math.toRadians(10.0), 0.0, 0.0, 0.0, PositionAngle.MEAN,
+        FramesFactory.getGCRF(), epoch, Constants.IERS2010_EARTH_MU);
+  }
+
+  private List<SpacecraftState> createFixtureStates() {
+    return List.of(TestFixtures.createInitialStateAf3(), TestFixtures.createInitialStateCp1(),
+        TestFixtures.createInitialStateSa2());
+  }
+
+}
@@ -0,0 +1,234 @@
+package org.cohere.od.utils;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import lombok.extern.log4j.Log4j2;
+import org.cohere.od.generation.MeasurementGenerator;
+import org.cohere.od.models.OdSettings;
+import org.cohere.od.models.StateAndCovariance;
+import org.cohere.od.oif.OifHelper;
+import org.cohere.od.oif.OifRaDecData;
+import org.hipparchus.geometry.euclidean.threed.Vector3D;
+import org.junit.jupiter.api.Assertions;
+import org.orekit.bodies.GeodeticPoint;
+import org.orekit.data.DataContext;
+import org.orekit.data.DataProvidersManager;
+import org.orekit.data.DirectoryCrawler;
+import org.orekit.estimation.leastsquares.BatchLSEstimator;
+import org.orekit.estimation.measurements.GroundStation;
+import org.orekit.estimation.measurements.ObservedMeasurement;
+import org.orekit.frames.FramesFactory;
+import org.orekit.frames.TopocentricFrame;
+import org.orekit.orbits.CartesianOrbit;
+import org.orekit.orbits.Orbit;
+import org.orekit.orbits.OrbitType;
+import org.orekit.orbits.PositionAngle;
+import org.orekit.propagation.Propagator;
+import org.orekit.propagation.SpacecraftState;
+import org.orekit.propagation.StateCovariance;
+import org.orekit.propagation.conversion.NumericalPropagatorBuilder;
+import org.orekit.time.AbsoluteDate;
+import org.orekit.time.TimeScalesFactory;
+import org.orekit.utils.Constants;
+import org.orekit.utils.PVCoordinates;
+import org.orekit.utils.TimeStampedPVCoordinates;
+
+/**
+ * Shared test fixtures: initial states and ground stations for the AF3, CP1 and SA2 test cases, and
+ * the gravity-only ODs of the tests that need no planetary ephemerides.
+ */
+@Log4j2
+public class TestFixtures {
+
+  public static final Path OIF_ROOT = Path.of("src/test/resources", "oif");
+
+  /**
+   * An 8x8 gravity field alone, which needs no planetary ephemerides.
+   */
+  public static final ForceModelProfile GRAVITY_ONLY = new ForceModelProfile(8, 8, false, false,
+      false);
+
+  private static final double KM_TO_M = 1000.0;
+  private static final double SPACECRAFT_MASS = 500.0;
+  private static boolean isOrekitInitialized = false;
+
+  private TestFixtures() {
+  }
+
+  /**
+   * Registers the bundled orekit-data directory with the default data context. Safe to call from
+   * several test classes.
+   */
+  public static synchronized void initializeOrekit() {
+    if (!isOrekitInitialized) {
+      File orekitData = new File("./orekit-data");
+      DataProvidersManager manager = DataContext.getDefault().getDataProvidersManager();
+      manager.addProvider(new DirectoryCrawler(orekitData));
+      isOrekitInitialized = true;
+    }
+  }
+
+  public static GroundStation createDiegoGarcia() {
+    TopocentricFrame gsFrame = new TopocentricFrame(AstroUtils.EARTH,
+        new GeodeticPoint(Math.toRadians(0.465765), Math.toRadians(73.2162), -94.1783),
+        "DiegoGarcia");
+    return new GroundStation(gsFrame);
+  }
+
+  public static GroundStation createEglin() {
+    TopocentricFrame gsFrame = new TopocentricFrame(AstroUtils.EARTH,
+        new GeodeticPoint(Math.toRadians(30.476), Math.toRadians(-86.5857), -21.24), "Eglin");
+    return new GroundStation(gsFrame);
+  }
+
+  public static SpacecraftState createInitialStateAf3() {
+    AbsoluteDate initialEpoch = new AbsoluteDate("2023-03-18T00:00:00.000",
+        TimeScalesFactory.getUTC());
+    Vector3D initialPosition = new Vector3D(-4.062348841462340e+04, -1.131092510063584e+04,
+        -1.074224879016023e+02).scalarMultiply(KM_TO_M);
+    Vector3D initialVelocity = new Vector3D(8.243020099302774e-01, -2.957143748313477e+00,
+        -1.692574154589104e-01).scalarMultiply(KM_TO_M);
+    TimeStampedPVCoordinates initialPv = new TimeStampedPVCoordinates(initialEpoch, initialPosition,
+        initialVelocity);
+
+    Orbit orbit = new CartesianOrbit(initialPv, FramesFactory.getGCRF(),
+        Constants.IERS2010_EARTH_MU);
+    return new SpacecraftState(orbit, SPACECRAFT_MASS);
+  }
+
+  public static SpacecraftState createInitialStateCp1() {
+    AbsoluteDate initialEpoch = new AbsoluteDate("2023-03-18T00:14:26.889000",
+        TimeScalesFactory.getUTC());
+    Vector3D initialPosition = new Vector3D(4.189974449058950e+04, -4.713177927901786e+03,
+        3.562232987686665e+02).scalarMultiply(KM_TO_M);
+    Vector3D initialVelocity = new Vector3D(3.433104066667355e-01, 3.055016180848359e+00,
+        5.550461291772908e-02).scalarMultiply(KM_TO_M);
+    TimeStampedPVCoordinates initialPv = new TimeStampedPVCoordinates(initialEpoch, initialPosition,
+        initialVelocity);
+
+    Orbit orbit = new CartesianOrbit(initialPv, FramesFactory.getGCRF(),
+        Constants.IERS2010_EARTH_MU);
+    return new SpacecraftState(orbit, SPACECRAFT_MASS);
+  }
+
+  public static SpacecraftState createInitialStateSa2() {
+    AbsoluteDate initialEpoch = new AbsoluteDate("2023-03-18T00:12:14.305",
+        TimeScalesFactory.getUTC());
+    Vector3D initialPosition = new Vector3D(-1.824071309541569e+04, 3.801466820067245e+04,
+        3.508492406457166e+02).scalarMultiply(KM_TO_M);
+    Vector3D initialVelocity = new Vector3D(-2.771468115015459e+00, -1.330284523529563e+00,
+        5.610314702236215e-02).scalarMultiply(KM_TO_M);
+    TimeStampedPVCoordinates initialPv = new TimeStampedPVCoordinates(initialEpoch, initialPosition,
+        initialVelocity);
+
+    Orbit orbit = new CartesianOrbit(initialPv, FramesFactory.getGCRF(),
+        Constants.IERS2010_EARTH_MU);
+    return new SpacecraftState(orbit, SPACECRAFT_MASS);
+  }
+
+  public static GroundStation createMaui() {
+    TopocentricFrame gsFrame = new TopocentricFrame(AstroUtils.EARTH,
+        new GeodeticPoint(Math.toRadians(20.6924), Math.toRadians(-156.309), 2119.62), "Maui");
+    return new GroundStation(gsFrame);
+  }
+
+  /**
+   * Reads and converts all OIF files in a directory.
+   *
+   * @param oifRoot     The directory containing the OIF files.
+   * @param raDecSigmas The standard deviations for right ascension and declination.
+   * @return The measurements from all files in the directory.
+   * @throws IOException if a file cannot be read.
+   */
+  public static List<ObservedMeasurement<?>> readOifMeasurements(Path oifRoot,
+      double[] raDecSigmas) throws IOException {
+
+    List<ObservedMeasurement<?>> measurements = new ArrayList<>();
+    File[] oifFiles = oifRoot.toFile().listFiles((d, name) -> name.endsWith(".oif"));
+    Assertions.assertNotNull(oifFiles);
+    for (File oifFile : oifFiles) {
+      log.debug("Reading OIF file: {}", oifFile.toPath().toRealPath().toString());
+      List<OifRaDecData> raDecData = OifHelper.parseOifRaDecFile(oifFile.toPath());
+      measurements.addAll(OifHelper.convertOifData(raDecData, raDecSigmas));
+    }
+    return measurements;
+  }
+
+  /**
+   * Creates a propagator builder with the {@link #GRAVITY_ONLY} force models.
+   *
+   * @param initialState The initial state.
+   * @return The propagator builder.
+   */
+  public static NumericalPropagatorBuilder createGravityOnlyBuilder(SpacecraftState initialState) {
+    return PropagatorFactory.createPropagatorBuilder(initialState, GRAVITY_ONLY,
+        PropagatorFactory.createIntegratorBuilder(0.001, 300.0, 1.0));
+  }
+
+  /**
+   * Generates noiseless RA/Dec measurements from Diego Garcia every 5 minutes over the 6 hours
+   * following the truth state, propagated with the {@link #GRAVITY_ONLY} force models.
+   *
+   * @param truth The true state.
+   * @param sigma The standard deviation of both angles.
+   * @return The measurements, in a mutable list.
+   */
+  public static List<ObservedMeasurement<?>> generateRaDecMeasurements(SpacecraftState truth,
+      double sigma) {
+    NumericalPropagatorBuilder builder = createGravityOnlyBuilder(truth);
+    Propagator propagator = builder.buildPropagator(builder.getSelectedNormalizedParameters());
+    AbsoluteDate start = truth.getDate();
+    return new ArrayList<>(new MeasurementGenerator(propagator).generateRaDecMeasurements(
+        createDiegoGarcia(), new double[]{sigma, sigma}, new double[]{1.0, 1.0}, start,
+        start.shiftedBy(6.0 * 3600.0), 300.0));
+  }
+
+  /**
+   * Offsets the position and velocity of a state.
+   *
+   * @param state          The state.
+   * @param positionOffset The position offset.
+   * @param velocityOffset The velocity offset.
+   * @return The offset state.
+   */
+  public static SpacecraftState offset(SpacecraftState state, Vector3D positionOffset,
+      Vector3D velocityOffset) {
+    PVCoordinates pv = state.getPVCoordinates();
+    return new SpacecraftState(new CartesianOrbit(new PVCoordinates(
+        pv.getPosition().add(positionOffset), pv.getVelocity().add(velocityOffset)),
+        state.getFrame(), state.getDate(), state.getMu()), state.getMass());
+  }
+
+  /**
+   * Perturbs a state by about 25 km and 2.3 m/s, for an initial guess that takes several iterations
+   * to converge.
+   *
+   * @param state The state.
+   * @return The perturbed state.
+   */
+  public static SpacecraftState perturb(SpacecraftState state) {
+    return offset(state, new Vector3D(20000.0, -15000.0, 5000.0), new Vector3D(-1.0, 2.0, 0.5));
+  }
+
+  /**
+   * Runs a batch least squares OD with the {@link #GRAVITY_ONLY} force models and the default
+   * settings.
+   *
+   * @param initialState The initial guess.
+   * @param measurements The measurements.
+   * @return The estimated state and its covariance.
+   */
+  public static StateAndCovariance estimateGravityOnly(SpacecraftState initialState,
+      List<ObservedMeasurement<?>> measurements) {
+    BatchLSEstimator estimator = EstimatorFactory.createBatchLsEstimator(
+        createGravityOnlyBuilder(initialState), new ArrayList<>(measurements), OdSettings.DEFAULT);
+    SpacecraftState state = estimator.estimate()[0].getInitialState();
+    return new StateAndCovariance(new StateCovariance(
+        estimator.getPhysicalCovariances(Double.MIN_VALUE), state.getDate(), state.getFrame(),
+        OrbitType.CARTESIAN, PositionAngle.MEAN), state);
+  }
+
+}